@@ -0,0 +1,28 @@
+-- checkout.sql
+-- Statements the application sends to persist order aggregates at checkout, as recorded by
+-- pg_stat_statements. Nothing here is written by hand: reset the counters, place orders through
+-- the API, then read what PostgreSQL actually received.
+--   psql "$DATABASE_URL" -c "SELECT pg_stat_statements_reset()"
+--   (place a few orders with a known number of items)
+--   psql "$DATABASE_URL" -f docs/benchmarks/checkout.sql
+-- Requires shared_preload_libraries = 'pg_stat_statements' and CREATE EXTENSION pg_stat_statements.
+--
+-- OrderCheckoutStatementCountTest measures the same from the application side: it wraps the
+-- DataSource, runs OrderCheckoutService.checkout for carts of 1 and 20 items and logs every
+-- statement executed, one line per JDBC round trip.
+--
+-- Divide calls by the number of orders placed to get round trips per order; rows / calls above 1
+-- for order_items shows the item rows going out as one rewritten multi-row INSERT
+-- (hibernate.jdbc.batch_size, order_inserts and the driver's reWriteBatchedInserts).
+
+SELECT calls,
+       rows,
+       round(rows::numeric / NULLIF(calls, 0), 2) AS rows_per_call,
+       round(mean_exec_time::numeric, 3) AS mean_ms,
+       round(total_exec_time::numeric, 3) AS total_ms,
+       left(query, 80) AS query
+FROM pg_stat_statements
+WHERE query ILIKE 'insert into order%'
+   OR query ILIKE 'insert into payment_transactions%'
+   OR query ILIKE 'update orders%'
+ORDER BY query;
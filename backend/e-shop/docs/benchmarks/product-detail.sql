@@ -0,0 +1,82 @@
+-- product-detail.sql
+-- Row counts and timings for loading one product's detail aggregate:
+-- the previous single entity-graph join vs the per-collection queries issued by
+-- ProductRepositoryImpl.findWithDetailsBySlug.
+--   psql "$DATABASE_URL" -v slug=some-product-slug -f docs/benchmarks/product-detail.sql
+-- Pick a product with many variants and images (the query at the bottom lists candidates).
+
+\timing on
+
+-- 1) Previous entity graph: category, tags, variants, variants.color, variants.attributeValues,
+--    attributeValues.attribute, images, images.color in one statement.
+--    Rows returned = tags x variants x attribute values x images.
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT *
+FROM products p
+JOIN categories c ON c.id = p.category_id
+LEFT JOIN product_tag_assignments pta ON pta.product_id = p.id
+LEFT JOIN product_tags t ON t.id = pta.tag_id
+LEFT JOIN product_variants v ON v.product_id = p.id
+LEFT JOIN colors vc ON vc.id = v.color_id
+LEFT JOIN variant_attribute_values vav ON vav.variant_id = v.id
+LEFT JOIN product_attribute_values av ON av.id = vav.attribute_value_id
+LEFT JOIN product_attributes a ON a.id = av.attribute_id
+LEFT JOIN product_images i ON i.product_id = p.id
+LEFT JOIN colors ic ON ic.id = i.color_id
+WHERE p.slug = :'slug';
+
+-- 2) Split loader: root + one query per collection.
+--    Rows returned = 1 + tags + variants + variant attribute values + images.
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM products p JOIN categories c ON c.id = p.category_id WHERE p.slug = :'slug';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM products p
+LEFT JOIN product_tag_assignments pta ON pta.product_id = p.id
+LEFT JOIN product_tags t ON t.id = pta.tag_id
+WHERE p.slug = :'slug';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM products p
+LEFT JOIN product_variants v ON v.product_id = p.id
+LEFT JOIN colors vc ON vc.id = v.color_id
+WHERE p.slug = :'slug';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM product_variants v
+LEFT JOIN variant_attribute_values vav ON vav.variant_id = v.id
+LEFT JOIN product_attribute_values av ON av.id = vav.attribute_value_id
+LEFT JOIN product_attributes a ON a.id = av.attribute_id
+WHERE v.product_id = (SELECT id FROM products WHERE slug = :'slug');
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM products p
+LEFT JOIN product_images i ON i.product_id = p.id
+LEFT JOIN colors ic ON ic.id = i.color_id
+WHERE p.slug = :'slug';
+
+-- Side-by-side row counts.
+SELECT
+  (SELECT COUNT(*)
+   FROM products p
+   LEFT JOIN product_tag_assignments pta ON pta.product_id = p.id
+   LEFT JOIN product_variants v ON v.product_id = p.id
+   LEFT JOIN variant_attribute_values vav ON vav.variant_id = v.id
+   LEFT JOIN product_images i ON i.product_id = p.id
+   WHERE p.slug = :'slug') AS entity_graph_rows,
+  1
+  + (SELECT GREATEST(COUNT(*), 1) FROM product_tag_assignments WHERE product_id = p.id)
+  + (SELECT GREATEST(COUNT(*), 1) FROM product_variants WHERE product_id = p.id)
+  + (SELECT COUNT(*) FROM product_variants v LEFT JOIN variant_attribute_values vav ON vav.variant_id = v.id
+     WHERE v.product_id = p.id)
+  + (SELECT GREATEST(COUNT(*), 1) FROM product_images WHERE product_id = p.id) AS split_loader_rows
+FROM products p
+WHERE p.slug = :'slug';
+
+-- Candidate products with the largest aggregates.
+SELECT p.slug,
+       (SELECT COUNT(*) FROM product_variants v WHERE v.product_id = p.id) AS variants,
+       (SELECT COUNT(*) FROM product_images i WHERE i.product_id = p.id) AS images
+FROM products p
+ORDER BY variants * GREATEST(images, 1) DESC
+LIMIT 10;
@@ -0,0 +1,60 @@
+-- product-search.sql
+-- Compares the previous LIKE-based product search with the full-text search added in V19.
+-- Run against a database with realistic catalog volume, e.g.:
+--   psql "$DATABASE_URL" -f docs/benchmarks/product-search.sql
+-- Optionally seed synthetic rows first with the block at the bottom (inside a transaction
+-- that is rolled back, so the catalog is left untouched).
+
+\timing on
+
+-- 1) Previous specification: lower(column) LIKE '%term%' on three columns.
+--    Expect a sequential scan over products on every request.
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.id
+FROM products p
+WHERE p.status = 'active'
+  AND (lower(p.name) LIKE '%jack%'
+    OR lower(p.slug) LIKE '%jack%'
+    OR lower(p.description) LIKE '%jack%')
+ORDER BY p.created_at DESC
+LIMIT 20;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(*)
+FROM products p
+WHERE p.status = 'active'
+  AND (lower(p.name) LIKE '%jack%'
+    OR lower(p.slug) LIKE '%jack%'
+    OR lower(p.description) LIKE '%jack%');
+
+-- 2) Full-text search as issued by ProductRepositoryImpl.search (type-ahead prefix + ranking).
+--    Expect a bitmap index scan on idx_products_search_vector.
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.id
+FROM products p
+WHERE p.search_vector @@ to_tsquery('simple', immutable_unaccent('jack:*'))
+  AND p.status = 'active'
+ORDER BY ts_rank_cd(p.search_vector, to_tsquery('simple', immutable_unaccent('jack:*'))) DESC,
+         p.created_at DESC,
+         p.id ASC
+LIMIT 20;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(*)
+FROM products p
+WHERE p.search_vector @@ to_tsquery('simple', immutable_unaccent('jack:*'))
+  AND p.status = 'active';
+
+-- Synthetic volume (uncomment to use). Adjust the row count as needed.
+-- BEGIN;
+-- INSERT INTO products (name, slug, description, category_id, base_price, status)
+-- SELECT 'Áo khoác ' || g || CASE WHEN g % 50 = 0 THEN ' jacket' ELSE '' END,
+--        'bench-product-' || g,
+--        md5(g::text) || ' ' || md5((g * 7)::text),
+--        (SELECT id FROM categories ORDER BY id LIMIT 1),
+--        (g % 200) + 9.99,
+--        'active'
+-- FROM generate_series(1, 200000) AS g;
+-- ANALYZE products;
+-- ... run the statements above ...
+-- ROLLBACK;
@@ -0,0 +1,40 @@
+package com.eshop.api.analytics.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.analytics.partitions")
+@Getter
+@Setter
+public class AnalyticsPartitionProperties {
+
+    /**
+     * Whether the partition manager runs at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of future monthly partitions kept ready beyond the current month.
+     */
+    private int monthsAhead = 3;
+
+    /**
+     * Number of months kept in the live tables, including the current one. Older partitions are
+     * detached and moved to the archive schema. {@code 0} keeps everything online.
+     */
+    private int retentionMonths = 24;
+
+    /**
+     * Schema receiving detached partitions.
+     */
+    private String archiveSchema = "analytics_archive";
+
+    /**
+     * Number of further months an archived partition is kept after leaving the live tables
+     * before it is dropped. {@code 0} never drops archived partitions.
+     */
+    private int archiveRetentionMonths = 0;
+}
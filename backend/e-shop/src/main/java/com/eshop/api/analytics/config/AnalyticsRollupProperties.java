@@ -0,0 +1,40 @@
+package com.eshop.api.analytics.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.ZoneId;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.analytics.rollups")
+@Getter
+@Setter
+public class AnalyticsRollupProperties {
+
+    /**
+     * Whether the rollup job runs and the admin dashboard reads from the rollup tables. When
+     * disabled every metric is aggregated from the raw tables.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time zone of the daily rollups and of the daily/weekly revenue buckets.
+     */
+    private ZoneId zone = ZoneId.systemDefault();
+
+    /**
+     * How far behind the current instant the watermark is kept. Rows whose change timestamp is
+     * younger than this are left for the next run, so transactions that commit late or views
+     * still sitting in the ingestion queue are not skipped.
+     */
+    private Duration settleLag = Duration.ofMinutes(5);
+
+    /**
+     * Largest slice of change history processed in one transaction. Bounds the work of the
+     * initial backfill and of catching up after downtime.
+     */
+    private Duration batchWindow = Duration.ofDays(7);
+}
@@ -0,0 +1,53 @@
+package com.eshop.api.analytics.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.analytics.interaction-events")
+@Getter
+@Setter
+public class InteractionEventBufferProperties {
+
+    /**
+     * Maximum number of events held in memory. Events beyond this go to the spill file.
+     */
+    private int capacity = 10_000;
+
+    /**
+     * Maximum number of events that did not fit in memory and wait for the writer to append them
+     * to the spill file. Events beyond this are dropped and counted as lost.
+     */
+    private int spillQueueCapacity = 10_000;
+
+    /**
+     * Maximum number of events written in one JDBC batch.
+     */
+    private int batchSize = 200;
+
+    /**
+     * How often the writer wakes up to flush buffered events.
+     */
+    private Duration flushInterval = Duration.ofMillis(500);
+
+    /**
+     * Pause after a failed write before the writer retries the database.
+     */
+    private Duration retryBackoff = Duration.ofSeconds(5);
+
+    /**
+     * How long shutdown waits for buffered events to be written before spilling the rest.
+     */
+    private Duration drainTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Local file receiving events that cannot be written to the database in time. It is
+     * replayed automatically once the database accepts writes again.
+     */
+    private Path spillFile = Path.of(System.getProperty("java.io.tmpdir"), "eshop", "interaction-events.spill");
+}
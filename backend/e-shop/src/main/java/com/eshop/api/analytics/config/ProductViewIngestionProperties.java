@@ -0,0 +1,57 @@
+package com.eshop.api.analytics.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.analytics.product-views")
+@Getter
+@Setter
+public class ProductViewIngestionProperties {
+
+    /**
+     * Maximum number of views waiting to be written. Views beyond this are dropped.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Maximum number of views written by one INSERT statement.
+     */
+    private int flushSize = 500;
+
+    /**
+     * Maximum time a view waits in the queue before a partial batch is written.
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * How long a request thread waits for queue space before the view is dropped.
+     */
+    private Duration offerTimeout = Duration.ofMillis(10);
+
+    /**
+     * How long shutdown waits for queued views to be written.
+     */
+    private Duration drainTimeout = Duration.ofSeconds(10);
+
+    /**
+     * How often the cached set of known product and variant ids is reloaded.
+     */
+    private Duration catalogRefreshInterval = Duration.ofMinutes(5);
+
+    /**
+     * How long a product or variant id found not to exist is answered from memory before it is
+     * looked up again. Zero disables remembering missing ids.
+     */
+    private Duration missingIdTtl = Duration.ofSeconds(30);
+
+    /**
+     * Maximum number of missing product ids, and separately variant ids, remembered at once.
+     * Beyond this, further missing ids are looked up on every request until entries expire.
+     */
+    private int maxMissingIds = 10_000;
+}
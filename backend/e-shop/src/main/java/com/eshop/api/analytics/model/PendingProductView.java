@@ -0,0 +1,20 @@
+package com.eshop.api.analytics.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A validated product view waiting in the ingestion queue. The user is carried by id when the
+ * request's token named it; otherwise by email, resolved to an id by the batch insert itself.
+ */
+public record PendingProductView(
+    UUID id,
+    UUID userId,
+    String userEmail,
+    UUID sessionId,
+    UUID productId,
+    UUID variantId,
+    String metadataJson,
+    Instant viewedAt
+) {
+}
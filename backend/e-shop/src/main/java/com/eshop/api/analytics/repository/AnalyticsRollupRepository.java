@@ -0,0 +1,247 @@
+package com.eshop.api.analytics.repository;
+
+import com.eshop.api.analytics.service.AnalyticsTotals;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Reads and maintains the dashboard rollup tables created in V21. Bucket boundaries are always
+ * passed in as instants; the caller decides which parts of a range are served from hourly rows,
+ * daily rows or the raw tables.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsRollupRepository {
+
+    private static final List<String> METRIC_COLUMNS = List.of(
+        "captured_revenue",
+        "order_count",
+        "captured_order_count",
+        "captured_order_revenue",
+        "captured_payments",
+        "new_customers",
+        "product_views"
+    );
+
+    private static final String SUM_COLUMNS = METRIC_COLUMNS.stream()
+        .map(column -> "COALESCE(SUM(" + column + "), 0) AS " + column)
+        .collect(Collectors.joining(", "));
+
+    private static final String REFRESH_DAY_SQL = """
+        INSERT INTO analytics_daily_rollups (zone_id, bucket_start, %1$s, refreshed_at)
+        SELECT ?, ?, %2$s, NOW()
+        FROM analytics_hourly_rollups
+        WHERE bucket_start >= ? AND bucket_start < ?
+        ON CONFLICT (zone_id, bucket_start) DO UPDATE SET %3$s, refreshed_at = EXCLUDED.refreshed_at
+        """.formatted(
+        String.join(", ", METRIC_COLUMNS),
+        SUM_COLUMNS,
+        METRIC_COLUMNS.stream().map(column -> column + " = EXCLUDED." + column).collect(Collectors.joining(", "))
+    );
+
+    private static final RowMapper<AnalyticsTotals> TOTALS_MAPPER = (rs, rowNum) -> mapTotals(rs);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<Instant> findWatermark(AnalyticsRollupSource source) {
+        return jdbcTemplate.query(
+            "SELECT watermark FROM analytics_rollup_watermarks WHERE source = ?",
+            (rs, rowNum) -> rs.getTimestamp(1).toInstant(),
+            source.key()
+        ).stream().findFirst();
+    }
+
+    public void saveWatermark(AnalyticsRollupSource source, Instant watermark) {
+        jdbcTemplate.update("""
+            INSERT INTO analytics_rollup_watermarks (source, watermark, updated_at)
+            VALUES (?, ?, NOW())
+            ON CONFLICT (source) DO UPDATE SET watermark = EXCLUDED.watermark, updated_at = EXCLUDED.updated_at
+            """, source.key(), Timestamp.from(watermark));
+    }
+
+    /**
+     * @return the end of the fully rolled-up history, i.e. the lowest watermark across all
+     * sources truncated to the hour, or empty while any source has not been processed yet
+     */
+    public Optional<Instant> findCoveredUntil() {
+        List<String> keys = new ArrayList<>();
+        for (AnalyticsRollupSource source : AnalyticsRollupSource.values()) {
+            keys.add(source.key());
+        }
+
+        String placeholders = String.join(", ", keys.stream().map(key -> "?").toList());
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*), date_trunc('hour', MIN(watermark), 'UTC') FROM analytics_rollup_watermarks"
+                + " WHERE source IN (" + placeholders + ")",
+            (rs, rowNum) -> rs.getInt(1) == keys.size() ? rs.getTimestamp(2).toInstant() : null,
+            keys.toArray()
+        ));
+    }
+
+    public Optional<Instant> findEarliestChange(AnalyticsRollupSource source) {
+        Timestamp earliest = jdbcTemplate.queryForObject(source.earliestChangeSql(), Timestamp.class);
+        return Optional.ofNullable(earliest).map(Timestamp::toInstant);
+    }
+
+    /**
+     * Recomputes the hourly rows of {@code source} touched by changes in {@code (from, to]}.
+     *
+     * @return the start of every hour that was rewritten
+     */
+    public List<Instant> refreshHours(AnalyticsRollupSource source, Instant from, Instant to) {
+        return jdbcTemplate.query(
+            source.refreshHoursSql(),
+            (rs, rowNum) -> rs.getTimestamp(1).toInstant(),
+            Timestamp.from(from),
+            Timestamp.from(to)
+        );
+    }
+
+    /**
+     * Re-sums the daily rows of {@code zone} for the given calendar days from the hourly rows.
+     */
+    public void refreshDays(ZoneId zone, Collection<LocalDate> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(REFRESH_DAY_SQL, days, days.size(), (ps, day) -> {
+            Timestamp dayStart = Timestamp.from(day.atStartOfDay(zone).toInstant());
+            ps.setString(1, zone.getId());
+            ps.setTimestamp(2, dayStart);
+            ps.setTimestamp(3, dayStart);
+            ps.setTimestamp(4, Timestamp.from(day.plusDays(1).atStartOfDay(zone).toInstant()));
+        });
+    }
+
+    public boolean hasDailyRollups(ZoneId zone) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM analytics_daily_rollups WHERE zone_id = ?)",
+            Boolean.class,
+            zone.getId()
+        ));
+    }
+
+    public List<Instant> findHourlyBucketStarts() {
+        return jdbcTemplate.query(
+            "SELECT bucket_start FROM analytics_hourly_rollups ORDER BY bucket_start",
+            (rs, rowNum) -> rs.getTimestamp(1).toInstant()
+        );
+    }
+
+    public AnalyticsTotals sumHourly(Instant from, Instant to) {
+        return jdbcTemplate.queryForObject(
+            "SELECT " + SUM_COLUMNS + " FROM analytics_hourly_rollups WHERE bucket_start >= ? AND bucket_start < ?",
+            TOTALS_MAPPER,
+            Timestamp.from(from),
+            Timestamp.from(to)
+        );
+    }
+
+    public AnalyticsTotals sumDaily(ZoneId zone, Instant from, Instant to) {
+        return jdbcTemplate.queryForObject(
+            "SELECT " + SUM_COLUMNS + " FROM analytics_daily_rollups"
+                + " WHERE zone_id = ? AND bucket_start >= ? AND bucket_start < ?",
+            TOTALS_MAPPER,
+            zone.getId(),
+            Timestamp.from(from),
+            Timestamp.from(to)
+        );
+    }
+
+    /**
+     * Aggregates every metric straight from the raw tables over {@code [from, to)}.
+     */
+    public AnalyticsTotals sumRaw(Instant from, Instant to) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM ");
+        List<Object> args = new ArrayList<>();
+        AnalyticsRollupSource[] sources = AnalyticsRollupSource.values();
+        for (int i = 0; i < sources.length; i++) {
+            if (i > 0) {
+                sql.append(" CROSS JOIN ");
+            }
+            sql.append('(').append(sources[i].rawTotalsSql()).append(") s").append(i);
+            args.add(Timestamp.from(from));
+            args.add(Timestamp.from(to));
+        }
+        return jdbcTemplate.queryForObject(sql.toString(), TOTALS_MAPPER, args.toArray());
+    }
+
+    public Map<Instant, AnalyticsTotals> findHourly(Instant from, Instant to) {
+        return queryBuckets(
+            "SELECT bucket_start, " + String.join(", ", METRIC_COLUMNS) + " FROM analytics_hourly_rollups"
+                + " WHERE bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start",
+            Timestamp.from(from),
+            Timestamp.from(to)
+        );
+    }
+
+    public Map<Instant, AnalyticsTotals> findDaily(ZoneId zone, Instant from, Instant to) {
+        return queryBuckets(
+            "SELECT bucket_start, " + String.join(", ", METRIC_COLUMNS) + " FROM analytics_daily_rollups"
+                + " WHERE zone_id = ? AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start",
+            zone.getId(),
+            Timestamp.from(from),
+            Timestamp.from(to)
+        );
+    }
+
+    /**
+     * Aggregates the columns of {@code source} from its raw table per UTC hour over
+     * {@code [from, to)}; the metrics of other sources are zero.
+     */
+    public Map<Instant, AnalyticsTotals> findRawHourly(AnalyticsRollupSource source, Instant from, Instant to) {
+        return queryBuckets(source.rawHourlySql(), Timestamp.from(from), Timestamp.from(to));
+    }
+
+    private Map<Instant, AnalyticsTotals> queryBuckets(String sql, Object... args) {
+        Map<Instant, AnalyticsTotals> buckets = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            buckets.put(rs.getTimestamp("bucket_start").toInstant(), mapTotals(rs));
+        }, args);
+        return buckets;
+    }
+
+    private static AnalyticsTotals mapTotals(ResultSet rs) throws SQLException {
+        Map<String, Integer> present = new LinkedHashMap<>();
+        for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+            present.put(rs.getMetaData().getColumnLabel(i), i);
+        }
+
+        return new AnalyticsTotals(
+            money(rs, present.get("captured_revenue")),
+            count(rs, present.get("order_count")),
+            count(rs, present.get("captured_order_count")),
+            money(rs, present.get("captured_order_revenue")),
+            money(rs, present.get("captured_payments")),
+            count(rs, present.get("new_customers")),
+            count(rs, present.get("product_views"))
+        );
+    }
+
+    private static BigDecimal money(ResultSet rs, Integer index) throws SQLException {
+        BigDecimal value = index != null ? rs.getBigDecimal(index) : null;
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static long count(ResultSet rs, Integer index) throws SQLException {
+        return index != null ? rs.getLong(index) : 0L;
+    }
+}
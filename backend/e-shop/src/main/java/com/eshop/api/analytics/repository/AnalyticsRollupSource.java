@@ -0,0 +1,121 @@
+package com.eshop.api.analytics.repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Raw table feeding a group of rollup columns. Each source is tracked by its own watermark over
+ * {@code changeColumn}; a row changed after the watermark marks the hour of its
+ * {@code bucketColumn} for recomputation.
+ * <p>
+ * The aggregate expressions are shared by the rollup refresh and by the raw reads for the
+ * not-yet-rolled-up part of a range, so both always agree on what a metric means.
+ */
+public enum AnalyticsRollupSource {
+
+    ORDERS("orders", "o", "placed_at", "updated_at", orderedMap(
+        "captured_revenue", "COALESCE(SUM(o.total_amount) FILTER (WHERE o.payment_status = 'CAPTURED'), 0)",
+        "order_count", "COUNT(o.id) FILTER (WHERE o.status <> 'CANCELLED')",
+        "captured_order_count", "COUNT(o.id) FILTER (WHERE o.status <> 'CANCELLED' AND o.payment_status = 'CAPTURED')",
+        "captured_order_revenue",
+        "COALESCE(SUM(o.total_amount) FILTER (WHERE o.status <> 'CANCELLED' AND o.payment_status = 'CAPTURED'), 0)"
+    )),
+    PAYMENTS("payment_transactions", "pt", "created_at", "updated_at", orderedMap(
+        "captured_payments", "COALESCE(SUM(COALESCE(pt.captured_amount, pt.amount)) FILTER (WHERE pt.status = 'CAPTURED'), 0)"
+    )),
+    CUSTOMERS("users", "u", "created_at", "created_at", orderedMap(
+        "new_customers", "COUNT(u.id)"
+    )),
+    PRODUCT_VIEWS("product_views", "pv", "viewed_at", "viewed_at", orderedMap(
+        "product_views", "COUNT(pv.id)"
+    ));
+
+    private final String table;
+    private final String alias;
+    private final String bucketColumn;
+    private final String changeColumn;
+    private final Map<String, String> aggregates;
+
+    AnalyticsRollupSource(String table,
+                          String alias,
+                          String bucketColumn,
+                          String changeColumn,
+                          Map<String, String> aggregates) {
+        this.table = table;
+        this.alias = alias;
+        this.bucketColumn = bucketColumn;
+        this.changeColumn = changeColumn;
+        this.aggregates = aggregates;
+    }
+
+    /**
+     * Key of this source in {@code analytics_rollup_watermarks}.
+     */
+    public String key() {
+        return name().toLowerCase();
+    }
+
+    String earliestChangeSql() {
+        return "SELECT MIN(" + changeColumn + ") FROM " + table;
+    }
+
+    /**
+     * Recomputes this source's columns for every hour touched by a row changed in
+     * {@code (?, ?]}, including hours that no longer contain any row, and returns those hours.
+     */
+    String refreshHoursSql() {
+        String columns = String.join(", ", aggregates.keySet());
+        String updates = aggregates.keySet().stream()
+            .map(column -> column + " = EXCLUDED." + column)
+            .collect(Collectors.joining(", "));
+
+        return """
+            WITH touched AS (
+              SELECT DISTINCT date_trunc('hour', %1$s, 'UTC') AS bucket_start
+              FROM %2$s
+              WHERE %3$s > ? AND %3$s <= ?
+            )
+            INSERT INTO analytics_hourly_rollups (bucket_start, %4$s, refreshed_at)
+            SELECT t.bucket_start, %5$s, NOW()
+            FROM touched t
+            LEFT JOIN %2$s %6$s
+              ON %6$s.%1$s >= t.bucket_start AND %6$s.%1$s < t.bucket_start + INTERVAL '1 hour'
+            GROUP BY t.bucket_start
+            ON CONFLICT (bucket_start) DO UPDATE SET %7$s, refreshed_at = EXCLUDED.refreshed_at
+            RETURNING bucket_start
+            """.formatted(bucketColumn, table, changeColumn, columns, selectList(), alias, updates);
+    }
+
+    /**
+     * Aggregates this source's columns straight from the raw table over {@code [?, ?)}.
+     */
+    String rawTotalsSql() {
+        return "SELECT " + selectList() + " FROM " + table + " " + alias
+            + " WHERE " + alias + "." + bucketColumn + " >= ? AND " + alias + "." + bucketColumn + " < ?";
+    }
+
+    /**
+     * Like {@link #rawTotalsSql()} but grouped per UTC hour.
+     */
+    String rawHourlySql() {
+        String bucket = "date_trunc('hour', " + alias + "." + bucketColumn + ", 'UTC')";
+        return "SELECT " + bucket + " AS bucket_start, " + selectList() + " FROM " + table + " " + alias
+            + " WHERE " + alias + "." + bucketColumn + " >= ? AND " + alias + "." + bucketColumn + " < ?"
+            + " GROUP BY 1 ORDER BY 1";
+    }
+
+    private String selectList() {
+        return aggregates.entrySet().stream()
+            .map(entry -> entry.getValue() + " AS " + entry.getKey())
+            .collect(Collectors.joining(", "));
+    }
+
+    private static Map<String, String> orderedMap(String... columnsAndExpressions) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < columnsAndExpressions.length; i += 2) {
+            map.put(columnsAndExpressions[i], columnsAndExpressions[i + 1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,62 @@
+package com.eshop.api.analytics.repository;
+
+import com.eshop.api.analytics.service.PendingInteractionEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Inserts buffered interaction events as a single JDBC batch. Each row is guarded by a join on
+ * its product, and optional user/variant references are re-resolved, so an entity deleted while
+ * the event was buffered skips or nulls that row instead of failing the batch. Event ids are
+ * assigned up front, which makes replaying a spilled batch idempotent.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InteractionEventBatchWriter {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO product_interaction_events
+          (id, user_id, product_id, variant_id, interaction_type, metadata, occurred_at)
+        SELECT ?,
+               (SELECT u.id FROM users u WHERE u.id = ?),
+               p.id,
+               (SELECT v.id FROM product_variants v WHERE v.id = ?),
+               CAST(? AS interaction_type_enum),
+               CAST(? AS jsonb),
+               ?
+        FROM products p
+        WHERE p.id = ?
+        ON CONFLICT (id, occurred_at) DO NOTHING
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the number of rows inserted
+     */
+    public int insertAll(List<PendingInteractionEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setObject(1, event.id());
+            ps.setObject(2, event.userId());
+            ps.setObject(3, event.variantId());
+            ps.setString(4, event.interactionType().name());
+            ps.setString(5, event.metadataJson());
+            ps.setTimestamp(6, Timestamp.from(event.occurredAt()));
+            ps.setObject(7, event.productId());
+        });
+
+        return Arrays.stream(counts)
+            .flatMapToInt(Arrays::stream)
+            .map(count -> Math.max(count, 0))
+            .sum();
+    }
+}
@@ -0,0 +1,65 @@
+package com.eshop.api.analytics.repository;
+
+import com.eshop.api.analytics.model.PendingProductView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes queued product views with one multi-row INSERT per batch. Rows are joined against
+ * products, users and variants so that entities deleted while a view was queued drop the row
+ * (or null the optional reference) instead of failing the whole batch on a foreign key.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductViewBatchWriter {
+
+    /**
+     * Bind parameters per view, one for each placeholder of {@link #ROW}.
+     */
+    public static final int PARAMETERS_PER_ROW = 8;
+
+    private static final String ROW = "(CAST(? AS uuid), CAST(? AS uuid), CAST(? AS varchar), CAST(? AS uuid), "
+        + "CAST(? AS uuid), CAST(? AS uuid), CAST(? AS jsonb), CAST(? AS timestamptz))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the number of rows inserted
+     */
+    public int insertAll(List<PendingProductView> views) {
+        if (views.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder(256 + views.size() * ROW.length())
+            .append("INSERT INTO product_views (id, user_id, session_id, product_id, variant_id, metadata, viewed_at) ")
+            .append("SELECT v.id, COALESCE(u.id, ue.id), v.session_id, v.product_id, pv.id, v.metadata, v.viewed_at FROM (VALUES ");
+        for (int i = 0; i < views.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(ROW);
+        }
+        sql.append(") AS v(id, user_id, user_email, session_id, product_id, variant_id, metadata, viewed_at) ")
+            .append("JOIN products p ON p.id = v.product_id ")
+            .append("LEFT JOIN users u ON u.id = v.user_id ")
+            .append("LEFT JOIN users ue ON v.user_id IS NULL AND LOWER(ue.email) = LOWER(v.user_email) ")
+            .append("LEFT JOIN product_variants pv ON pv.id = v.variant_id AND pv.product_id = v.product_id");
+
+        List<Object> args = new ArrayList<>(views.size() * PARAMETERS_PER_ROW);
+        for (PendingProductView view : views) {
+            args.add(view.id());
+            args.add(view.userId());
+            args.add(view.userEmail());
+            args.add(view.sessionId());
+            args.add(view.productId());
+            args.add(view.variantId());
+            args.add(view.metadataJson());
+            args.add(Timestamp.from(view.viewedAt()));
+        }
+
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+}
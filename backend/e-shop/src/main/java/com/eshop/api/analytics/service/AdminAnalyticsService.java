@@ -1,17 +1,13 @@
 package com.eshop.api.analytics.service;
 
+import com.eshop.api.analytics.config.AnalyticsRollupProperties;
 import com.eshop.api.analytics.dto.AdminAnalyticsSummaryResponse;
 import com.eshop.api.analytics.dto.AdminRevenueTimeseriesPoint;
-import com.eshop.api.analytics.repository.ProductViewRepository;
+import com.eshop.api.analytics.repository.AnalyticsRollupRepository;
+import com.eshop.api.analytics.repository.AnalyticsRollupSource;
 import com.eshop.api.exception.InvalidAnalyticsDateRangeException;
 import com.eshop.api.exception.InvalidAnalyticsIntervalException;
 import com.eshop.api.exception.InvalidAnalyticsPeriodException;
-import com.eshop.api.order.enums.OrderStatus;
-import com.eshop.api.order.enums.PaymentStatus;
-import com.eshop.api.order.repository.OrderRepository;
-import com.eshop.api.order.repository.PaymentTransactionRepository;
-import com.eshop.api.order.repository.projection.OrderRevenueBucketProjection;
-import com.eshop.api.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,7 +21,6 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.TemporalAdjusters;
-import java.util.Optional;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -33,6 +28,11 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Dashboard metrics. Ranges are answered from the rollup tables maintained by
+ * {@link AnalyticsRollupJob} wherever the rollups are complete; only a partial leading hour and
+ * the part after the rollup watermark are aggregated from the raw tables.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -42,33 +42,22 @@ public class AdminAnalyticsService {
     private static final Duration DEFAULT_PERIOD = Duration.ofDays(30);
     private static final Duration MAX_PERIOD = Duration.ofDays(365);
     private static final Pattern PERIOD_PATTERN = Pattern.compile("^(\\d+)([dDhH])$");
-    private static final ZoneId ANALYTICS_ZONE = ZoneId.systemDefault();
 
-    private final OrderRepository orderRepository;
-    private final PaymentTransactionRepository paymentTransactionRepository;
-    private final UserRepository userRepository;
-    private final ProductViewRepository productViewRepository;
+    private final AnalyticsRollupRepository rollupRepository;
+    private final AnalyticsRollupProperties rollupProperties;
 
     public AdminAnalyticsSummaryResponse getSummary(String rawPeriod) {
         Duration duration = parsePeriodOrDefault(rawPeriod);
         Instant end = Instant.now();
         Instant start = end.minus(duration);
 
-        BigDecimal revenue = normalizeMoney(
-            Optional.ofNullable(orderRepository.sumTotalAmountByPaymentStatusSince(PaymentStatus.CAPTURED, start))
-                .orElse(BigDecimal.ZERO)
-        );
-
-        long orders = Optional.ofNullable(orderRepository.countOrdersPlacedSinceExcludingStatus(start, OrderStatus.CANCELLED))
-            .orElse(0L);
-
-        BigDecimal capturedPayments = normalizeMoney(
-            Optional.ofNullable(paymentTransactionRepository.sumCapturedAmountByStatusSince(PaymentStatus.CAPTURED, start))
-                .orElse(BigDecimal.ZERO)
-        );
+        AnalyticsTotals totals = aggregate(start, end);
 
-        long newCustomers = userRepository.countByCreatedAtGreaterThanEqual(start);
-        long productViews = productViewRepository.countByViewedAtGreaterThanEqual(start);
+        BigDecimal revenue = normalizeMoney(totals.capturedRevenue());
+        long orders = totals.orderCount();
+        BigDecimal capturedPayments = normalizeMoney(totals.capturedPayments());
+        long newCustomers = totals.newCustomers();
+        long productViews = totals.productViews();
 
         BigDecimal averageOrderValue = orders > 0
             ? revenue.divide(BigDecimal.valueOf(orders), 2, RoundingMode.HALF_UP)
@@ -95,27 +84,32 @@ public class AdminAnalyticsService {
 
         TimeInterval interval = parseIntervalOrDefault(rawInterval);
 
-        List<OrderRevenueBucketProjection> orderAggregates = orderRepository.aggregateCapturedRevenueByInterval(
-            interval.pgTruncKey,
-            start,
-            end
-        );
-
-        Map<Instant, OrderRevenueBucketProjection> orderBuckets = new HashMap<>();
-        for (OrderRevenueBucketProjection projection : orderAggregates) {
-            orderBuckets.put(projection.getBucketStart(), projection);
+        ZoneId zone = rollupProperties.getZone();
+        Map<Instant, AnalyticsTotals> buckets = new HashMap<>();
+        for (AnalyticsRollupPlan.Segment segment : plan(start, end).segments()) {
+            Map<Instant, AnalyticsTotals> rows = switch (segment.source()) {
+                case RAW -> rollupRepository.findRawHourly(AnalyticsRollupSource.ORDERS, segment.from(), segment.to());
+                case HOURLY -> rollupRepository.findHourly(segment.from(), segment.to());
+                case DAILY -> rollupRepository.findDaily(zone, segment.from(), segment.to());
+            };
+            // A raw hour may start before the segment when the range starts mid-hour.
+            rows.forEach((rowStart, totals) -> buckets.merge(
+                alignToInterval(rowStart.isBefore(segment.from()) ? segment.from() : rowStart, interval, zone),
+                totals,
+                AnalyticsTotals::plus
+            ));
         }
 
         List<AdminRevenueTimeseriesPoint> points = new ArrayList<>();
-        Instant bucketStart = alignToInterval(start, interval);
+        Instant bucketStart = alignToInterval(start, interval, zone);
         BigDecimal zeroMoney = normalizeMoney(BigDecimal.ZERO);
 
         while (bucketStart.isBefore(end)) {
-            Instant bucketEnd = advance(bucketStart, interval);
-            OrderRevenueBucketProjection orders = orderBuckets.get(bucketStart);
+            Instant bucketEnd = advance(bucketStart, interval, zone);
+            AnalyticsTotals totals = buckets.get(bucketStart);
 
-            long orderCount = orders != null && orders.getOrderCount() != null ? orders.getOrderCount() : 0L;
-            BigDecimal gross = orders != null ? normalizeMoney(orders.getGrossTotal()) : zeroMoney;
+            long orderCount = totals != null ? totals.capturedOrderCount() : 0L;
+            BigDecimal gross = totals != null ? normalizeMoney(totals.capturedOrderRevenue()) : zeroMoney;
 
             points.add(new AdminRevenueTimeseriesPoint(
                 bucketStart,
@@ -132,6 +126,27 @@ public class AdminAnalyticsService {
         return points;
     }
 
+    private AnalyticsTotals aggregate(Instant start, Instant end) {
+        ZoneId zone = rollupProperties.getZone();
+        AnalyticsTotals totals = AnalyticsTotals.ZERO;
+        for (AnalyticsRollupPlan.Segment segment : plan(start, end).segments()) {
+            AnalyticsTotals part = switch (segment.source()) {
+                case RAW -> rollupRepository.sumRaw(segment.from(), segment.to());
+                case HOURLY -> rollupRepository.sumHourly(segment.from(), segment.to());
+                case DAILY -> rollupRepository.sumDaily(zone, segment.from(), segment.to());
+            };
+            totals = totals.plus(part);
+        }
+        return totals;
+    }
+
+    private AnalyticsRollupPlan plan(Instant start, Instant end) {
+        Instant coveredUntil = rollupProperties.isEnabled()
+            ? rollupRepository.findCoveredUntil().orElse(null)
+            : null;
+        return AnalyticsRollupPlan.of(start, end, coveredUntil, rollupProperties.getZone());
+    }
+
     private Duration parsePeriodOrDefault(String rawPeriod) {
         if (rawPeriod == null || rawPeriod.isBlank()) {
             return DEFAULT_PERIOD;
@@ -172,19 +187,20 @@ public class AdminAnalyticsService {
         };
     }
 
-    private Instant alignToInterval(Instant instant, TimeInterval interval) {
-        ZonedDateTime zoned = instant.atZone(ANALYTICS_ZONE);
+    private Instant alignToInterval(Instant instant, TimeInterval interval, ZoneId zone) {
+        ZonedDateTime zoned = instant.atZone(zone);
         return switch (interval) {
-            case DAILY -> zoned.toLocalDate().atStartOfDay(ANALYTICS_ZONE).toInstant();
+            case DAILY -> zoned.toLocalDate().atStartOfDay(zone).toInstant();
             case WEEKLY -> zoned.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
                 .toLocalDate()
-                .atStartOfDay(ANALYTICS_ZONE)
+                .atStartOfDay(zone)
                 .toInstant();
         };
     }
 
-    private Instant advance(Instant instant, TimeInterval interval) {
-        return instant.plus(interval.step);
+    private Instant advance(Instant instant, TimeInterval interval, ZoneId zone) {
+        // Calendar arithmetic keeps bucket starts on local midnight across DST changes.
+        return instant.atZone(zone).plusDays(interval.days).toInstant();
     }
 
     private BigDecimal normalizeMoney(BigDecimal value) {
@@ -205,15 +221,13 @@ public class AdminAnalyticsService {
     }
 
     private enum TimeInterval {
-        DAILY("day", Duration.ofDays(1)),
-        WEEKLY("week", Duration.ofDays(7));
+        DAILY(1),
+        WEEKLY(7);
 
-        private final String pgTruncKey;
-        private final Duration step;
+        private final int days;
 
-        TimeInterval(String pgTruncKey, Duration step) {
-            this.pgTruncKey = pgTruncKey;
-            this.step = step;
+        TimeInterval(int days) {
+            this.days = days;
         }
     }
 }
@@ -0,0 +1,205 @@
+package com.eshop.api.analytics.service;
+
+import com.eshop.api.analytics.config.AnalyticsPartitionProperties;
+import com.eshop.api.scheduling.service.ClusterJobCoordinator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly range partitions of the analytics tables created in V20: keeps
+ * {@code monthsAhead} future partitions ready, moves rows that fell into the DEFAULT partition
+ * into their month, detaches partitions older than the retention window into the archive schema,
+ * and drops archived partitions once they expire.
+ * <p>
+ * Partitions cover UTC calendar months and are named {@code <table>_pYYYY_MM}. Maintenance runs
+ * only on the instance leading the {@value #JOB_NAME} job.
+ */
+@Slf4j
+@Component
+public class AnalyticsPartitionManager {
+
+    static final String JOB_NAME = "analytics-partitions";
+
+    static final List<String> PARTITIONED_TABLES = List.of("product_interaction_events", "product_views");
+
+    private static final Map<String, String> PARTITION_COLUMNS = Map.of(
+        "product_interaction_events", "occurred_at",
+        "product_views", "viewed_at"
+    );
+
+    private static final Pattern PARTITION_MONTH = Pattern.compile("_p(\\d{4})_(\\d{2})$");
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AnalyticsPartitionProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterJobCoordinator jobCoordinator;
+
+    public AnalyticsPartitionManager(JdbcTemplate jdbcTemplate,
+                                     AnalyticsPartitionProperties properties,
+                                     PlatformTransactionManager transactionManager,
+                                     ClusterJobCoordinator jobCoordinator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobCoordinator = jobCoordinator;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${app.analytics.partitions.cron:0 15 3 * * *}", zone = "UTC")
+    public void maintainPartitions() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        jobCoordinator.runAsLeader(JOB_NAME, this::maintain);
+    }
+
+    private void maintain() {
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                createFuturePartitions(table, currentMonth);
+                drainDefaultPartition(table);
+                detachExpiredPartitions(table, currentMonth);
+                dropExpiredArchives(table, currentMonth);
+            } catch (DataAccessException ex) {
+                log.error("Partition maintenance failed for {}", table, ex);
+            }
+        }
+    }
+
+    private void createFuturePartitions(String table, YearMonth currentMonth) {
+        for (int offset = 0; offset <= properties.getMonthsAhead(); offset++) {
+            YearMonth month = currentMonth.plusMonths(offset);
+            String partition = jdbcTemplate.queryForObject(
+                "SELECT analytics_ensure_month_partition(?, ?)",
+                String.class,
+                table,
+                Date.valueOf(month.atDay(1))
+            );
+            log.debug("Ensured partition {} for {}", partition, month);
+        }
+    }
+
+    /**
+     * Creates the partitions of months whose rows landed in the DEFAULT partition (V29) while
+     * maintenance was not running; creating a month moves its rows there.
+     */
+    private void drainDefaultPartition(String table) {
+        List<Date> months = jdbcTemplate.queryForList(
+            "SELECT DISTINCT date_trunc('month', " + PARTITION_COLUMNS.get(table) + " AT TIME ZONE 'UTC')::date"
+                + " FROM " + table + "_default",
+            Date.class
+        );
+        for (Date month : months) {
+            String partition = jdbcTemplate.queryForObject(
+                "SELECT analytics_ensure_month_partition(?, ?)",
+                String.class,
+                table,
+                month
+            );
+            log.warn("Moved rows of {} out of the default partition of {} into {}", month, table, partition);
+        }
+    }
+
+    private void detachExpiredPartitions(String table, YearMonth currentMonth) {
+        if (properties.getRetentionMonths() <= 0) {
+            return;
+        }
+
+        String archiveSchema = requireIdentifier(properties.getArchiveSchema());
+        YearMonth oldestRetained = currentMonth.minusMonths(properties.getRetentionMonths() - 1L);
+
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ? AND p.relnamespace = current_schema()::regnamespace
+                """,
+            String.class,
+            table
+        );
+
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + archiveSchema);
+        for (String partition : partitions) {
+            Optional<YearMonth> month = partitionMonth(table, partition);
+            if (month.isEmpty() || !month.get().isBefore(oldestRetained)) {
+                continue;
+            }
+
+            String name = requireIdentifier(partition);
+            // DETACH ... CONCURRENTLY is not allowed while the table has a DEFAULT partition (V29).
+            // A plain detach locks the parent only for this short transaction, which also moves
+            // the partition so it is never left detached outside the archive.
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + name);
+                jdbcTemplate.execute("ALTER TABLE " + name + " SET SCHEMA " + archiveSchema);
+            });
+            log.info("Archived partition {} of {} into schema {}", name, table, archiveSchema);
+        }
+    }
+
+    private void dropExpiredArchives(String table, YearMonth currentMonth) {
+        if (properties.getRetentionMonths() <= 0 || properties.getArchiveRetentionMonths() <= 0) {
+            return;
+        }
+
+        String archiveSchema = requireIdentifier(properties.getArchiveSchema());
+        YearMonth oldestArchived = currentMonth.minusMonths(
+            properties.getRetentionMonths() + (long) properties.getArchiveRetentionMonths() - 1L);
+
+        List<String> archived = jdbcTemplate.queryForList(
+            "SELECT tablename FROM pg_tables WHERE schemaname = ? AND tablename LIKE ?",
+            String.class,
+            archiveSchema,
+            table + "\\_p%"
+        );
+
+        for (String name : archived) {
+            Optional<YearMonth> month = partitionMonth(table, name);
+            if (month.isPresent() && month.get().isBefore(oldestArchived)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + archiveSchema + "." + requireIdentifier(name));
+                log.info("Dropped archived partition {}.{}", archiveSchema, name);
+            }
+        }
+    }
+
+    static Optional<YearMonth> partitionMonth(String table, String partitionName) {
+        if (partitionName == null || !partitionName.startsWith(table + "_p")) {
+            return Optional.empty();
+        }
+        Matcher matcher = PARTITION_MONTH.matcher(partitionName);
+        if (!matcher.find() || matcher.start() != table.length()) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+    }
+
+    private static String requireIdentifier(String value) {
+        if (value == null || !IDENTIFIER.matcher(value).matches()) {
+            throw new IllegalStateException("Unsafe SQL identifier for partition maintenance: " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,138 @@
+package com.eshop.api.analytics.service;
+
+import com.eshop.api.analytics.config.AnalyticsRollupProperties;
+import com.eshop.api.analytics.repository.AnalyticsRollupRepository;
+import com.eshop.api.analytics.repository.AnalyticsRollupSource;
+import com.eshop.api.scheduling.service.ClusterJobCoordinator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Keeps the dashboard rollup tables current. Every run advances each source's watermark to
+ * {@code now - settleLag}: hours touched by rows changed since the previous watermark are
+ * recomputed from the raw table, and the daily rows containing those hours are re-summed, all
+ * in the same transaction as the watermark update. Recomputing whole hours makes the job
+ * idempotent, so an overlapping run on another instance only repeats work; normally only the
+ * instance leading the {@value #JOB_NAME} job runs it.
+ */
+@Slf4j
+@Component
+public class AnalyticsRollupJob {
+
+    static final String JOB_NAME = "analytics-rollups";
+
+    private final AnalyticsRollupRepository rollupRepository;
+    private final AnalyticsRollupProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterJobCoordinator jobCoordinator;
+
+    public AnalyticsRollupJob(AnalyticsRollupRepository rollupRepository,
+                              AnalyticsRollupProperties properties,
+                              PlatformTransactionManager transactionManager,
+                              ClusterJobCoordinator jobCoordinator) {
+        this.rollupRepository = rollupRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobCoordinator = jobCoordinator;
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.analytics.rollups.initial-delay:PT30S}",
+        fixedDelayString = "${app.analytics.rollups.refresh-interval:PT1M}"
+    )
+    public void refresh() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        jobCoordinator.runAsLeader(JOB_NAME, this::refreshRollups);
+    }
+
+    private void refreshRollups() {
+        ZoneId zone = properties.getZone();
+        Instant target = Instant.now().minus(properties.getSettleLag()).truncatedTo(ChronoUnit.MICROS);
+
+        try {
+            ensureDailyRollups(zone);
+        } catch (DataAccessException ex) {
+            log.error("Rebuilding daily analytics rollups for zone {} failed", zone, ex);
+            return;
+        }
+
+        for (AnalyticsRollupSource source : AnalyticsRollupSource.values()) {
+            try {
+                catchUp(source, zone, target);
+            } catch (DataAccessException ex) {
+                log.error("Analytics rollup refresh failed for {}", source.key(), ex);
+            }
+        }
+    }
+
+    private void catchUp(AnalyticsRollupSource source, ZoneId zone, Instant target) {
+        Instant watermark = rollupRepository.findWatermark(source).orElse(null);
+        if (watermark == null) {
+            Optional<Instant> earliest = rollupRepository.findEarliestChange(source);
+            if (earliest.isEmpty()) {
+                rollupRepository.saveWatermark(source, target);
+                return;
+            }
+            // Start just before the first row so the exclusive lower bound still includes it.
+            watermark = earliest.get().minus(1, ChronoUnit.MICROS);
+            log.info("Backfilling analytics rollups for {} from {}", source.key(), watermark);
+        }
+
+        while (watermark.isBefore(target)) {
+            Instant from = watermark;
+            Instant candidate = from.plus(properties.getBatchWindow());
+            Instant to = candidate.isBefore(target) ? candidate : target;
+
+            int hours = transactionTemplate.execute(status -> {
+                List<Instant> touched = rollupRepository.refreshHours(source, from, to);
+                rollupRepository.refreshDays(zone, daysOf(touched, zone));
+                rollupRepository.saveWatermark(source, to);
+                return touched.size();
+            });
+            log.debug("Rolled up {} hour(s) of {} changed in ({}, {}]", hours, source.key(), from, to);
+
+            watermark = to;
+        }
+    }
+
+    /**
+     * Daily rows are kept for one zone at a time; after the configured zone changes they are
+     * rebuilt from the hourly rows before any source is processed.
+     */
+    private void ensureDailyRollups(ZoneId zone) {
+        if (rollupRepository.hasDailyRollups(zone)) {
+            return;
+        }
+
+        List<Instant> hours = rollupRepository.findHourlyBucketStarts();
+        if (hours.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> rollupRepository.refreshDays(zone, daysOf(hours, zone)));
+        log.info("Rebuilt daily analytics rollups for zone {}", zone);
+    }
+
+    private static Collection<LocalDate> daysOf(List<Instant> hours, ZoneId zone) {
+        TreeSet<LocalDate> days = new TreeSet<>();
+        for (Instant hour : hours) {
+            days.add(hour.atZone(zone).toLocalDate());
+        }
+        return days;
+    }
+}
@@ -0,0 +1,86 @@
+package com.eshop.api.analytics.service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a half-open time range into the pieces that can be answered from daily rollups, hourly
+ * rollups and the raw tables. Everything before {@code coveredUntil} is rolled up: whole days
+ * inside that part come from the daily rows, the hours around them from the hourly rows, and
+ * only a partial leading hour and the still-open tail are aggregated from raw data.
+ */
+record AnalyticsRollupPlan(List<Segment> segments) {
+
+    enum Source {
+        RAW,
+        HOURLY,
+        DAILY
+    }
+
+    record Segment(Source source, Instant from, Instant to) {
+    }
+
+    /**
+     * @param coveredUntil hour-aligned end of the rolled-up history, or {@code null} when no
+     *                     rollups can be used
+     */
+    static AnalyticsRollupPlan of(Instant from, Instant to, Instant coveredUntil, ZoneId zone) {
+        List<Segment> segments = new ArrayList<>();
+        Instant cursor = from;
+        Instant rolledUpEnd = coveredUntil != null && coveredUntil.isBefore(to) ? coveredUntil : to;
+        Instant hourlyEnd = coveredUntil != null ? floorHour(rolledUpEnd) : from;
+
+        if (cursor.isBefore(hourlyEnd)) {
+            Instant firstHour = ceilHour(cursor);
+            add(segments, Source.RAW, cursor, firstHour);
+            cursor = firstHour;
+
+            Instant firstDay = ceilDay(cursor, zone);
+            Instant lastDay = floorDay(hourlyEnd, zone);
+            if (firstDay.isBefore(lastDay) && isHourAligned(firstDay) && isHourAligned(lastDay)) {
+                add(segments, Source.HOURLY, cursor, firstDay);
+                add(segments, Source.DAILY, firstDay, lastDay);
+                cursor = lastDay;
+            }
+
+            add(segments, Source.HOURLY, cursor, hourlyEnd);
+            cursor = hourlyEnd;
+        }
+
+        add(segments, Source.RAW, cursor, to);
+        return new AnalyticsRollupPlan(List.copyOf(segments));
+    }
+
+    private static void add(List<Segment> segments, Source source, Instant from, Instant to) {
+        if (from.isBefore(to)) {
+            segments.add(new Segment(source, from, to));
+        }
+    }
+
+    private static Instant floorHour(Instant instant) {
+        return instant.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static Instant ceilHour(Instant instant) {
+        Instant floor = floorHour(instant);
+        return floor.equals(instant) ? floor : floor.plus(1, ChronoUnit.HOURS);
+    }
+
+    private static Instant floorDay(Instant instant, ZoneId zone) {
+        return instant.atZone(zone).toLocalDate().atStartOfDay(zone).toInstant();
+    }
+
+    private static Instant ceilDay(Instant instant, ZoneId zone) {
+        Instant floor = floorDay(instant, zone);
+        return floor.equals(instant) ? floor : instant.atZone(zone).toLocalDate().plusDays(1).atStartOfDay(zone).toInstant();
+    }
+
+    // Days of zones with a fractional UTC offset do not start on an hour boundary, so their daily
+    // rows cannot be combined with hourly ones.
+    private static boolean isHourAligned(Instant instant) {
+        return floorHour(instant).equals(instant);
+    }
+}
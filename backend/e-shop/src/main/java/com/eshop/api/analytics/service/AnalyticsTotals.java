@@ -0,0 +1,41 @@
+package com.eshop.api.analytics.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Additive dashboard metrics for some time range, whether read from the rollup tables or
+ * aggregated from the raw tables.
+ *
+ * @param capturedRevenue      order totals with a captured payment
+ * @param orderCount           orders not cancelled
+ * @param capturedOrderCount   orders not cancelled and with a captured payment
+ * @param capturedOrderRevenue totals of the orders counted in {@code capturedOrderCount}
+ * @param capturedPayments     captured payment transaction amounts
+ * @param newCustomers         users created
+ * @param productViews         product views recorded
+ */
+public record AnalyticsTotals(
+    BigDecimal capturedRevenue,
+    long orderCount,
+    long capturedOrderCount,
+    BigDecimal capturedOrderRevenue,
+    BigDecimal capturedPayments,
+    long newCustomers,
+    long productViews
+) {
+
+    public static final AnalyticsTotals ZERO =
+        new AnalyticsTotals(BigDecimal.ZERO, 0, 0, BigDecimal.ZERO, BigDecimal.ZERO, 0, 0);
+
+    public AnalyticsTotals plus(AnalyticsTotals other) {
+        return new AnalyticsTotals(
+            capturedRevenue.add(other.capturedRevenue),
+            orderCount + other.orderCount,
+            capturedOrderCount + other.capturedOrderCount,
+            capturedOrderRevenue.add(other.capturedOrderRevenue),
+            capturedPayments.add(other.capturedPayments),
+            newCustomers + other.newCustomers,
+            productViews + other.productViews
+        );
+    }
+}
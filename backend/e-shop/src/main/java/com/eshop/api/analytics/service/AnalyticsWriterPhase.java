@@ -0,0 +1,17 @@
+package com.eshop.api.analytics.service;
+
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Lifecycle phase of the background writers that buffer analytics rows. Lower phases start
+ * earlier and stop later; Spring Boot stops the web server in phases up to
+ * {@code DEFAULT_PHASE - 2048}, so writers in this phase keep accepting rows until every request
+ * has finished, then flush what is left.
+ */
+final class AnalyticsWriterPhase {
+
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private AnalyticsWriterPhase() {
+    }
+}
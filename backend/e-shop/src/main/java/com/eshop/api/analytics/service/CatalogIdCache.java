@@ -0,0 +1,172 @@
+package com.eshop.api.analytics.service;
+
+import com.eshop.api.analytics.config.ProductViewIngestionProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Known product ids and the product each variant belongs to, so view tracking can validate
+ * requests without touching the database. Ids missing from the snapshot (for example products
+ * created since the last reload) are looked up once and remembered. Ids that do not exist are
+ * remembered too, for {@code missing-id-ttl} and up to {@code max-missing-ids}, so repeated
+ * requests naming a deleted or made-up id do not each cost a query.
+ */
+@Slf4j
+@Component
+public class CatalogIdCache {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MissingIds missingProductIds;
+    private final MissingIds missingVariantIds;
+
+    private volatile Snapshot snapshot;
+
+    public CatalogIdCache(JdbcTemplate jdbcTemplate, ProductViewIngestionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.missingProductIds = new MissingIds(properties.getMissingIdTtl().toNanos(), properties.getMaxMissingIds());
+        this.missingVariantIds = new MissingIds(properties.getMissingIdTtl().toNanos(), properties.getMaxMissingIds());
+    }
+
+    public boolean productExists(UUID productId) {
+        Snapshot current = current();
+        if (current.productIds().contains(productId)) {
+            return true;
+        }
+        if (missingProductIds.contains(productId)) {
+            return false;
+        }
+
+        Boolean exists = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM products WHERE id = ?)", Boolean.class, productId);
+        if (Boolean.TRUE.equals(exists)) {
+            current.productIds().add(productId);
+            return true;
+        }
+        missingProductIds.add(productId);
+        return false;
+    }
+
+    public Optional<UUID> findProductIdOfVariant(UUID variantId) {
+        Snapshot current = current();
+        UUID productId = current.variantProductIds().get(variantId);
+        if (productId != null) {
+            return Optional.of(productId);
+        }
+        if (missingVariantIds.contains(variantId)) {
+            return Optional.empty();
+        }
+
+        Optional<UUID> loaded = jdbcTemplate.query(
+            "SELECT product_id FROM product_variants WHERE id = ?",
+            (rs, rowNum) -> rs.getObject(1, UUID.class),
+            variantId
+        ).stream().findFirst();
+        if (loaded.isPresent()) {
+            current.variantProductIds().put(variantId, loaded.get());
+        } else {
+            missingVariantIds.add(variantId);
+        }
+        return loaded;
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.analytics.product-views.catalog-refresh-interval:PT5M}",
+        fixedDelayString = "${app.analytics.product-views.catalog-refresh-interval:PT5M}"
+    )
+    public void reload() {
+        snapshot = load();
+        missingProductIds.clear();
+        missingVariantIds.clear();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        Set<UUID> productIds = ConcurrentHashMap.newKeySet();
+        jdbcTemplate.query("SELECT id FROM products", rs -> {
+            productIds.add(rs.getObject(1, UUID.class));
+        });
+
+        Map<UUID, UUID> variantProductIds = new ConcurrentHashMap<>();
+        jdbcTemplate.query("SELECT id, product_id FROM product_variants", rs -> {
+            variantProductIds.put(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class));
+        });
+
+        log.debug("Loaded {} product ids and {} variant ids for view tracking", productIds.size(), variantProductIds.size());
+        return new Snapshot(productIds, variantProductIds);
+    }
+
+    private record Snapshot(Set<UUID> productIds, Map<UUID, UUID> variantProductIds) {
+    }
+
+    /**
+     * Ids known not to exist, each until its entry expires. When full, expired entries are swept
+     * at most once per TTL; until then new misses are simply not remembered.
+     */
+    private static final class MissingIds {
+
+        private final ConcurrentHashMap<UUID, Long> expiresAt = new ConcurrentHashMap<>();
+        private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+        private final long ttlNanos;
+        private final int maxSize;
+
+        private MissingIds(long ttlNanos, int maxSize) {
+            this.ttlNanos = ttlNanos;
+            this.maxSize = maxSize;
+        }
+
+        boolean contains(UUID id) {
+            Long expiry = expiresAt.get(id);
+            if (expiry == null) {
+                return false;
+            }
+            if (expiry - System.nanoTime() > 0) {
+                return true;
+            }
+            expiresAt.remove(id, expiry);
+            return false;
+        }
+
+        void add(UUID id) {
+            if (ttlNanos <= 0 || maxSize <= 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (expiresAt.size() >= maxSize) {
+                long due = nextSweepNanos.get();
+                if (now - due >= 0 && nextSweepNanos.compareAndSet(due, now + ttlNanos)) {
+                    expiresAt.values().removeIf(expiry -> expiry - now <= 0);
+                }
+                if (expiresAt.size() >= maxSize) {
+                    return;
+                }
+            }
+            expiresAt.put(id, now + ttlNanos);
+        }
+
+        void clear() {
+            expiresAt.clear();
+        }
+    }
+}
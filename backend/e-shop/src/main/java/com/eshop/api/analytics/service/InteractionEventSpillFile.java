@@ -0,0 +1,128 @@
+package com.eshop.api.analytics.service;
+
+import com.eshop.api.analytics.config.InteractionEventBufferProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only JSON-lines file holding interaction events that could not be written to the
+ * database in time. Replay moves the file aside first, so events spilled during a replay start
+ * a fresh file instead of being lost or read twice.
+ */
+@Slf4j
+@Component
+public class InteractionEventSpillFile {
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final Path replayFile;
+
+    public InteractionEventSpillFile(ObjectMapper objectMapper, InteractionEventBufferProperties properties) {
+        this.objectMapper = objectMapper;
+        this.file = properties.getSpillFile().toAbsolutePath();
+        this.replayFile = file.resolveSibling(file.getFileName() + ".replaying");
+    }
+
+    /**
+     * @return {@code false} if the events could not be persisted locally either
+     */
+    public synchronized boolean append(Collection<PendingInteractionEvent> events) {
+        if (events.isEmpty()) {
+            return true;
+        }
+
+        try {
+            Files.createDirectories(file.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (PendingInteractionEvent event : events) {
+                    writer.write(objectMapper.writeValueAsString(event));
+                    writer.newLine();
+                }
+            }
+            return true;
+        } catch (IOException ex) {
+            log.error("Failed to spill {} interaction events to {}", events.size(), file, ex);
+            return false;
+        }
+    }
+
+    public synchronized boolean hasPending() {
+        return Files.exists(replayFile) || Files.exists(file);
+    }
+
+    /**
+     * Streams spilled events to {@code batchConsumer} in batches of {@code batchSize}. The file is
+     * removed only after every batch was accepted; if the consumer throws, the remaining events
+     * stay on disk for the next replay (already written events are skipped on conflict).
+     */
+    public void replay(int batchSize, Consumer<List<PendingInteractionEvent>> batchConsumer) {
+        synchronized (this) {
+            try {
+                if (!Files.exists(replayFile)) {
+                    if (!Files.exists(file)) {
+                        return;
+                    }
+                    Files.move(file, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        int replayed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            List<PendingInteractionEvent> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                PendingInteractionEvent event = parse(line);
+                if (event == null) {
+                    continue;
+                }
+                batch.add(event);
+                if (batch.size() >= batchSize) {
+                    batchConsumer.accept(batch);
+                    replayed += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                batchConsumer.accept(batch);
+                replayed += batch.size();
+            }
+            Files.delete(replayFile);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        log.info("Replayed {} spilled interaction events from {}", replayed, replayFile);
+    }
+
+    private PendingInteractionEvent parse(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(line, PendingInteractionEvent.class);
+        } catch (JsonProcessingException ex) {
+            // A torn last line from a crash mid-append; everything before it is intact.
+            log.warn("Skipping unreadable spilled interaction event: {}", ex.getOriginalMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.eshop.api.analytics.service;
+
+import com.eshop.api.analytics.config.InteractionEventBufferProperties;
+import com.eshop.api.analytics.repository.InteractionEventBatchWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind buffer for product interaction events. Producers append to a lock-free queue
+ * (after their transaction commits) and a dedicated writer thread drains it in JDBC batches.
+ * <p>
+ * Events that do not fit in memory, batches the database rejects, and whatever is still
+ * buffered at shutdown are appended to {@link InteractionEventSpillFile}; the writer replays
+ * that file once the database accepts writes again. Producers never touch the file themselves:
+ * events that do not fit in memory go to a bounded spill queue that the writer appends to the
+ * file, and events that do not fit there either are counted as lost.
+ */
+@Slf4j
+@Component
+public class InteractionEventWriteBehindBuffer implements SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "analytics.interaction.events";
+
+    private final InteractionEventBatchWriter batchWriter;
+    private final InteractionEventSpillFile spillFile;
+    private final InteractionEventBufferProperties properties;
+
+    private final ConcurrentLinkedQueue<PendingInteractionEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ConcurrentLinkedQueue<PendingInteractionEvent> spillQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger spillQueueSize = new AtomicInteger();
+    private final int capacity;
+    private final int spillQueueCapacity;
+    private final int batchSize;
+
+    private final Counter buffered;
+    private final Counter written;
+    private final Counter skipped;
+    private final Counter spilled;
+    private final Counter lost;
+
+    private volatile boolean running;
+    private volatile Thread writerThread;
+
+    public InteractionEventWriteBehindBuffer(InteractionEventBatchWriter batchWriter,
+                                             InteractionEventSpillFile spillFile,
+                                             InteractionEventBufferProperties properties,
+                                             MeterRegistry meterRegistry) {
+        this.batchWriter = batchWriter;
+        this.spillFile = spillFile;
+        this.properties = properties;
+        this.capacity = Math.max(1, properties.getCapacity());
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.spillQueueCapacity = Math.max(0, properties.getSpillQueueCapacity());
+
+        this.buffered = counter(meterRegistry, "buffered", "Interaction events accepted into the memory buffer");
+        this.written = counter(meterRegistry, "written", "Interaction events inserted");
+        this.skipped = counter(meterRegistry, "skipped", "Interaction events skipped because their product no longer exists");
+        this.spilled = counter(meterRegistry, "spilled", "Interaction events written to the local spill file");
+        this.lost = counter(meterRegistry, "lost", "Interaction events that could be neither written nor spilled");
+        Gauge.builder(METRIC_PREFIX + ".buffer.size", size, AtomicInteger::get)
+            .description("Interaction events waiting in memory")
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".spill.queue.size", spillQueueSize, AtomicInteger::get)
+            .description("Interaction events waiting to be written to the spill file")
+            .register(meterRegistry);
+    }
+
+    public void add(PendingInteractionEvent event) {
+        if (!running) {
+            // No writer before start or after stop; this only happens around startup and shutdown.
+            spill(List.of(event));
+            return;
+        }
+
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            queueForSpill(event);
+            return;
+        }
+
+        queue.offer(event);
+        buffered.increment();
+        if (size.get() >= batchSize) {
+            wakeWriter();
+        }
+    }
+
+    private void queueForSpill(PendingInteractionEvent event) {
+        if (spillQueueSize.incrementAndGet() > spillQueueCapacity) {
+            spillQueueSize.decrementAndGet();
+            lost.increment();
+            return;
+        }
+        spillQueue.offer(event);
+        wakeWriter();
+    }
+
+    private void wakeWriter() {
+        Thread writer = writerThread;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runWriter, "interaction-event-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        Thread thread = writerThread;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(properties.getDrainTimeout().toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            thread.interrupt();
+        }
+
+        // Whatever the writer could not flush in time survives the restart on disk.
+        spillQueued();
+        List<PendingInteractionEvent> remaining = drain(Integer.MAX_VALUE);
+        if (!remaining.isEmpty()) {
+            log.warn("Spilling {} unwritten interaction events on shutdown", remaining.size());
+            spill(remaining);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return AnalyticsWriterPhase.PHASE;
+    }
+
+    private void runWriter() {
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        long backoffNanos = properties.getRetryBackoff().toNanos();
+
+        while (running || size.get() > 0) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            spillQueued();
+
+            List<PendingInteractionEvent> batch = drain(batchSize);
+            if (!batch.isEmpty()) {
+                if (!write(batch)) {
+                    spill(batch);
+                    if (running) {
+                        LockSupport.parkNanos(backoffNanos);
+                    }
+                }
+                continue;
+            }
+
+            if (running && spillFile.hasPending() && !replaySpillFile()) {
+                LockSupport.parkNanos(backoffNanos);
+                continue;
+            }
+
+            if (running) {
+                LockSupport.parkNanos(intervalNanos);
+            }
+        }
+    }
+
+    private void spillQueued() {
+        List<PendingInteractionEvent> events = new ArrayList<>();
+        PendingInteractionEvent event;
+        while ((event = spillQueue.poll()) != null) {
+            spillQueueSize.decrementAndGet();
+            events.add(event);
+        }
+        if (!events.isEmpty()) {
+            spill(events);
+        }
+    }
+
+    private List<PendingInteractionEvent> drain(int max) {
+        List<PendingInteractionEvent> batch = new ArrayList<>(Math.min(max, batchSize));
+        PendingInteractionEvent event;
+        while (batch.size() < max && (event = queue.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    private boolean write(List<PendingInteractionEvent> batch) {
+        try {
+            int inserted = batchWriter.insertAll(batch);
+            written.increment(inserted);
+            skipped.increment(batch.size() - inserted);
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Failed to write {} interaction events, spilling to disk: {}", batch.size(), ex.getMessage());
+            return false;
+        }
+    }
+
+    private boolean replaySpillFile() {
+        try {
+            spillFile.replay(batchSize, batch -> {
+                int inserted = batchWriter.insertAll(batch);
+                written.increment(inserted);
+            });
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Failed to replay spilled interaction events: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    private void spill(List<PendingInteractionEvent> events) {
+        if (spillFile.append(events)) {
+            spilled.increment(events.size());
+        } else {
+            lost.increment(events.size());
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String description) {
+        return Counter.builder(METRIC_PREFIX + "." + name)
+            .description(description)
+            .register(meterRegistry);
+    }
+}
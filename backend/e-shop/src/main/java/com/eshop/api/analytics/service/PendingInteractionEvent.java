@@ -0,0 +1,21 @@
+package com.eshop.api.analytics.service;
+
+import com.eshop.api.analytics.enums.InteractionType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An interaction captured from a committed transaction, waiting to be written. Only ids are
+ * kept so the event can outlive the persistence context and be serialized to the spill file.
+ */
+public record PendingInteractionEvent(
+    UUID id,
+    UUID userId,
+    UUID productId,
+    UUID variantId,
+    InteractionType interactionType,
+    String metadataJson,
+    Instant occurredAt
+) {
+}
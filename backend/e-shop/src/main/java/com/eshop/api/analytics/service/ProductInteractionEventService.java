@@ -1,8 +1,6 @@
 package com.eshop.api.analytics.service;
 
 import com.eshop.api.analytics.enums.InteractionType;
-import com.eshop.api.analytics.model.ProductInteractionEvent;
-import com.eshop.api.analytics.repository.ProductInteractionEventRepository;
 import com.eshop.api.catalog.model.Product;
 import com.eshop.api.catalog.model.ProductVariant;
 import com.eshop.api.user.User;
@@ -11,8 +9,11 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+import java.util.UUID;
 import java.util.function.Consumer;
 
 @Slf4j
@@ -20,9 +21,8 @@ import java.util.function.Consumer;
 @RequiredArgsConstructor
 public class ProductInteractionEventService {
 
-    private final ProductInteractionEventRepository repository;
+    private final InteractionEventWriteBehindBuffer writeBehindBuffer;
 
-    @Transactional
     public void recordInteraction(User user,
                                   Product product,
                                   ProductVariant variant,
@@ -31,7 +31,6 @@ public class ProductInteractionEventService {
         record(user, product, variant, type, metadataCustomizer);
     }
 
-    @Transactional
     public void recordInteraction(User user,
                                   Product product,
                                   ProductVariant variant,
@@ -39,7 +38,6 @@ public class ProductInteractionEventService {
         record(user, product, variant, type, null);
     }
 
-    @Transactional
     public void recordInteraction(User user,
                                   Product product,
                                   InteractionType type,
@@ -47,7 +45,6 @@ public class ProductInteractionEventService {
         record(user, product, null, type, metadataCustomizer);
     }
 
-    @Transactional
     public void recordInteraction(User user,
                                   Product product,
                                   InteractionType type) {
@@ -69,14 +66,28 @@ public class ProductInteractionEventService {
             metadataCustomizer.accept(metadata);
         }
 
-        ProductInteractionEvent event = ProductInteractionEvent.builder()
-            .user(user)
-            .product(product)
-            .variant(variant)
-            .interactionType(type)
-            .metadata(metadata)
-            .build();
+        PendingInteractionEvent event = new PendingInteractionEvent(
+            UUID.randomUUID(),
+            user != null ? user.getId() : null,
+            product.getId(),
+            variant != null ? variant.getId() : null,
+            type,
+            metadata.toString(),
+            Instant.now()
+        );
 
-        repository.save(event);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writeBehindBuffer.add(event);
+            return;
+        }
+
+        // Only interactions whose business operation committed are recorded, and the insert
+        // happens off the caller's transaction and thread.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writeBehindBuffer.add(event);
+            }
+        });
     }
 }
@@ -1,7 +1,7 @@
 package com.eshop.api.analytics.service;
 
+import com.eshop.api.security.AuthenticatedUserResolver;
 import com.eshop.api.user.User;
-import com.eshop.api.user.UserRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
@@ -17,7 +17,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ProductInteractionLinkService {
 
-    private final UserRepository userRepository;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -31,7 +31,7 @@ public class ProductInteractionLinkService {
             throw new UsernameNotFoundException("Authenticated user email is required to link session");
         }
 
-        User user = userRepository.findByEmailIgnoreCase(email)
+        User user = authenticatedUserResolver.findUser(email)
             .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
 
         int updatedViews = entityManager.createNativeQuery(
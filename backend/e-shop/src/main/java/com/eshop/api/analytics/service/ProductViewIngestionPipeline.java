@@ -0,0 +1,201 @@
+package com.eshop.api.analytics.service;
+
+import com.eshop.api.analytics.config.ProductViewIngestionProperties;
+import com.eshop.api.analytics.model.PendingProductView;
+import com.eshop.api.analytics.repository.ProductViewBatchWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decouples product view tracking from the request thread. Views are offered to a bounded queue
+ * and a single background writer inserts them in multi-row batches, flushing when a batch is
+ * full or when the oldest queued view has waited {@code flushInterval}.
+ * <p>
+ * When the queue stays full for {@code offerTimeout} the view is dropped and counted rather than
+ * slowing page loads further. On shutdown the writer keeps flushing until the queue is empty or
+ * {@code drainTimeout} elapses; it stops after the web server so in-flight requests still land.
+ */
+@Slf4j
+@Component
+public class ProductViewIngestionPipeline implements SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "analytics.product.views";
+    // PostgreSQL accepts at most 32767 bind parameters per statement.
+    private static final int MAX_FLUSH_SIZE = 32_767 / ProductViewBatchWriter.PARAMETERS_PER_ROW;
+
+    private final ProductViewBatchWriter batchWriter;
+    private final ProductViewIngestionProperties properties;
+    private final BlockingQueue<PendingProductView> queue;
+    private final int flushSize;
+
+    private final Counter enqueued;
+    private final Counter droppedQueueFull;
+    private final Counter droppedStopped;
+    private final Counter written;
+    private final Counter discarded;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public ProductViewIngestionPipeline(ProductViewBatchWriter batchWriter,
+                                        ProductViewIngestionProperties properties,
+                                        MeterRegistry meterRegistry) {
+        this.batchWriter = batchWriter;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        this.flushSize = Math.max(1, Math.min(properties.getFlushSize(), MAX_FLUSH_SIZE));
+
+        this.enqueued = Counter.builder(METRIC_PREFIX + ".enqueued")
+            .description("Product views accepted into the ingestion queue")
+            .register(meterRegistry);
+        this.droppedQueueFull = droppedCounter(meterRegistry, "queue_full");
+        this.droppedStopped = droppedCounter(meterRegistry, "stopped");
+        this.written = Counter.builder(METRIC_PREFIX + ".written")
+            .description("Product views inserted")
+            .register(meterRegistry);
+        this.discarded = Counter.builder(METRIC_PREFIX + ".discarded")
+            .description("Queued product views skipped because their product no longer exists")
+            .register(meterRegistry);
+        this.failed = Counter.builder(METRIC_PREFIX + ".failed")
+            .description("Product views lost to failed batch inserts")
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue.size", queue, BlockingQueue::size)
+            .description("Product views waiting to be written")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return {@code true} if the view was queued, {@code false} if it was dropped
+     */
+    public boolean submit(PendingProductView view) {
+        if (!running) {
+            droppedStopped.increment();
+            return false;
+        }
+
+        try {
+            if (queue.offer(view, properties.getOfferTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                enqueued.increment();
+                return true;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        droppedQueueFull.increment();
+        log.debug("Dropped product view for product {}: ingestion queue is full", view.productId());
+        return false;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "product-view-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        try {
+            writerThread.join(properties.getDrainTimeout().toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (writerThread.isAlive()) {
+            writerThread.interrupt();
+            log.warn("Product view writer did not drain within {}; {} views left unwritten",
+                properties.getDrainTimeout(), queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return AnalyticsWriterPhase.PHASE;
+    }
+
+    private void runWriter() {
+        List<PendingProductView> batch = new ArrayList<>(flushSize);
+        long intervalNanos = properties.getFlushInterval().toNanos();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingProductView first = queue.poll(intervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + intervalNanos;
+                while (batch.size() < flushSize) {
+                    queue.drainTo(batch, flushSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    PendingProductView next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch, flushSize - batch.size());
+                flush(batch);
+                return;
+            }
+
+            flush(batch);
+        }
+    }
+
+    private void flush(List<PendingProductView> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            int inserted = batchWriter.insertAll(batch);
+            written.increment(inserted);
+            discarded.increment(batch.size() - inserted);
+        } catch (RuntimeException ex) {
+            failed.increment(batch.size());
+            log.error("Failed to write batch of {} product views", batch.size(), ex);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private static Counter droppedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder(METRIC_PREFIX + ".dropped")
+            .description("Product views rejected before reaching the ingestion queue")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+}
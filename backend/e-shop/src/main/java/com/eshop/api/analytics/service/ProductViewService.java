@@ -1,24 +1,16 @@
 package com.eshop.api.analytics.service;
 
 import com.eshop.api.analytics.dto.ProductViewRequest;
-import com.eshop.api.analytics.model.ProductView;
-import com.eshop.api.analytics.repository.ProductViewRepository;
-import com.eshop.api.catalog.model.Product;
-import com.eshop.api.catalog.model.ProductVariant;
-import com.eshop.api.catalog.repository.ProductRepository;
-import com.eshop.api.catalog.repository.ProductVariantRepository;
+import com.eshop.api.analytics.model.PendingProductView;
 import com.eshop.api.exception.InvalidProductViewRequestException;
 import com.eshop.api.exception.ProductNotFoundException;
 import com.eshop.api.exception.ProductVariantNotFoundException;
-import com.eshop.api.user.User;
-import com.eshop.api.user.UserRepository;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.eshop.api.security.AuthenticatedUserResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Slf4j
@@ -26,56 +18,53 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ProductViewService {
 
-    private final ProductRepository productRepository;
-    private final ProductVariantRepository productVariantRepository;
-    private final ProductViewRepository productViewRepository;
-    private final UserRepository userRepository;
+    private final CatalogIdCache catalogIdCache;
+    private final ProductViewIngestionPipeline ingestionPipeline;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
 
-    @Transactional
+    /**
+     * Validates the view against the cached catalog ids and queues it for the background writer.
+     * The returned id is assigned up front; the row is written asynchronously and may be dropped
+     * under sustained overload.
+     */
     public UUID recordProductView(UUID productId, ProductViewRequest request, String authenticatedEmail) {
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new ProductNotFoundException(productId.toString()));
+        if (!catalogIdCache.productExists(productId)) {
+            throw new ProductNotFoundException(productId.toString());
+        }
 
-        ProductVariant variant = resolveVariant(product, request.variantId());
-        User user = resolveUser(authenticatedEmail);
+        validateVariant(productId, request.variantId());
 
-        if (user == null && request.sessionId() == null) {
+        String userEmail = authenticatedEmail == null || authenticatedEmail.isBlank() ? null : authenticatedEmail;
+        if (userEmail == null && request.sessionId() == null) {
             throw new InvalidProductViewRequestException();
         }
 
-        JsonNode metadata = request.metadataOrEmpty();
-
-        ProductView view = ProductView.builder()
-            .product(product)
-            .variant(variant)
-            .user(user)
-            .sessionId(request.sessionId())
-            .metadata(metadata)
-            .build();
+        UUID userId = userEmail != null ? authenticatedUserResolver.currentUserId(userEmail) : null;
+        PendingProductView view = new PendingProductView(
+            UUID.randomUUID(),
+            userId,
+            userId == null ? userEmail : null,
+            request.sessionId(),
+            productId,
+            request.variantId(),
+            request.metadataOrEmpty().toString(),
+            Instant.now()
+        );
 
-        ProductView persisted = productViewRepository.save(view);
-        log.debug("Recorded product view {} for product {}", persisted.getId(), productId);
-        return persisted.getId();
+        ingestionPipeline.submit(view);
+        log.debug("Queued product view {} for product {}", view.id(), productId);
+        return view.id();
     }
 
-    private ProductVariant resolveVariant(Product product, UUID variantId) {
+    private void validateVariant(UUID productId, UUID variantId) {
         if (variantId == null) {
-            return null;
+            return;
         }
-        ProductVariant variant = productVariantRepository.findById(variantId)
+        UUID variantProductId = catalogIdCache.findProductIdOfVariant(variantId)
             .orElseThrow(() -> new ProductVariantNotFoundException(variantId));
 
-        if (variant.getProduct() != null && !variant.getProduct().getId().equals(product.getId())) {
+        if (!variantProductId.equals(productId)) {
             throw new ProductVariantNotFoundException(variantId);
         }
-        return variant;
-    }
-
-    private User resolveUser(String authenticatedEmail) {
-        if (authenticatedEmail == null || authenticatedEmail.isBlank()) {
-            return null;
-        }
-        return userRepository.findByEmailIgnoreCase(authenticatedEmail)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + authenticatedEmail));
     }
 }
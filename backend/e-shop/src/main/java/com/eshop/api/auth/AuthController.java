@@ -8,6 +8,8 @@ import com.eshop.api.auth.dto.RefreshTokenRequest;
 import com.eshop.api.auth.dto.RegisterRequest;
 import com.eshop.api.auth.dto.ResendActivationRequest;
 import com.eshop.api.exception.InvalidJwtException;
+import com.eshop.api.security.ClientAddresses;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -34,11 +36,12 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request,
+                                              HttpServletRequest httpServletRequest,
                                               @RequestHeader(value = "User-Agent", required = false) String userAgent,
                                               @RequestHeader(value = "sec-ch-ua", required = false) String secChUa,
                                               @RequestHeader(value = "sec-ch-ua-platform", required = false) String secChUaPlatform,
                                               @RequestHeader(value = "sec-ch-ua-mobile", required = false) String secChUaMobile) {
-        AuthResponse response = authenticationService.login(request);
+        AuthResponse response = authenticationService.login(request, ClientAddresses.resolve(httpServletRequest));
         return ResponseEntity.ok(response);
     }
 
@@ -48,6 +51,12 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authenticationService.logout(request.refreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/me")
     public ResponseEntity<AuthResponse> getCurrentUser(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
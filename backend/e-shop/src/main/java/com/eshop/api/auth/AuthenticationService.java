@@ -3,11 +3,13 @@ package com.eshop.api.auth;
 import com.eshop.api.auth.dto.AuthResponse;
 import com.eshop.api.auth.dto.LoginRequest;
 import com.eshop.api.auth.dto.RegisterRequest;
+import com.eshop.api.cart.service.CartService;
 import com.eshop.api.exception.AccountNotActivatedException;
 import com.eshop.api.exception.InvalidJwtException;
 import com.eshop.api.exception.RoleNotFoundException;
 import com.eshop.api.exception.UserAlreadyExistsException;
 import com.eshop.api.security.JwtService;
+import com.eshop.api.security.PasswordHasher;
 import com.eshop.api.user.Role;
 import com.eshop.api.user.RoleRepository;
 import com.eshop.api.user.User;
@@ -20,12 +22,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Slf4j
 @Service
@@ -34,9 +36,12 @@ public class AuthenticationService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
     private final AccountActivationService accountActivationService;
+    private final CartService cartService;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginRateLimiter loginRateLimiter;
 
     public AuthResponse register(RegisterRequest request) {
         log.info("Registering new user with email: {}", request.getEmail());
@@ -52,7 +57,7 @@ public class AuthenticationService {
 
         User user = User.builder()
                 .email(request.getEmail())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                .passwordHash(passwordHasher.encode(request.getPassword()))
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
                 .roles(Collections.singleton(customerRoleOpt.get()))
@@ -73,13 +78,15 @@ public class AuthenticationService {
                 getRoleNames(user));
     }
 
-    public AuthResponse login(LoginRequest request) {
+    public AuthResponse login(LoginRequest request, String clientIp) {
         log.info("Authenticating user: {}", request.getEmail());
 
+        loginRateLimiter.admit(clientIp, request.getEmail());
+
         User user = userRepository.findByEmailIgnoreCase(request.getEmail())
                 .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        if (!passwordHasher.matches(request.getPassword(), user.getPasswordHash())) {
             throw new BadCredentialsException("Invalid credentials");
         }
 
@@ -99,12 +106,23 @@ public class AuthenticationService {
 
         List<String> roles = getRoleNames(user);
 
-        String accessToken = jwtService.generateAccessToken(user.getEmail(), roles);
-        String refreshToken = jwtService.generateRefreshToken(user.getEmail(), roles);
+        RefreshTokenService.TokenPair tokens = refreshTokenService.issue(user, roles);
 
         log.info("Successfully authenticated user: {}", user.getEmail());
 
-        return buildAuthResponse(user, accessToken, refreshToken, roles);
+        if (request.getSessionId() != null) {
+            mergeGuestCart(user, request.getSessionId());
+        }
+
+        return buildAuthResponse(user, tokens.accessToken(), tokens.refreshToken(), roles);
+    }
+
+    private void mergeGuestCart(User user, UUID sessionId) {
+        try {
+            cartService.mergeGuestCart(user.getEmail(), sessionId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to merge guest cart of session {} for user {}; it stays available for a later merge", sessionId, user.getEmail(), e);
+        }
     }
 
     public AuthResponse refresh(String refreshToken) {
@@ -116,21 +134,55 @@ public class AuthenticationService {
                 throw new InvalidJwtException("Provided token is not a refresh token");
             }
 
-            String email = jwtService.getUsername(claims);
-            User user = userRepository.findByEmailIgnoreCase(email)
+            UUID userId = jwtService.getUserId(claims);
+            User user = (userId != null
+                    ? userRepository.findById(userId)
+                    : userRepository.findByEmailIgnoreCase(jwtService.getUsername(claims)))
                     .orElseThrow(() -> new UsernameNotFoundException("User not found for refresh token"));
 
+            Integer securityVersion = jwtService.getSecurityVersion(claims);
+            if (securityVersion != null && !securityVersion.equals(user.getSecurityVersion())) {
+                throw new InvalidJwtException("Refresh token has been revoked");
+            }
+            if (!Boolean.TRUE.equals(user.getEnabled())) {
+                throw new InvalidJwtException("Refresh token belongs to a disabled account");
+            }
+
+            UUID familyId = jwtService.getFamilyId(claims);
+            UUID tokenId = jwtService.getTokenId(claims);
+            if (familyId == null || tokenId == null) {
+                // Issued before rotation existed: nothing records whether it was redeemed, so it
+                // could be replayed until it expires. The client has to log in again.
+                throw new InvalidJwtException("Refresh token is no longer supported, please log in again");
+            }
+
             List<String> roles = getRoleNames(user);
-            String newAccessToken = jwtService.generateAccessToken(email, roles);
-            String newRefreshToken = jwtService.generateRefreshToken(email, roles);
+            RefreshTokenService.TokenPair tokens = refreshTokenService.rotate(user, roles, familyId, tokenId);
 
-            return buildAuthResponse(user, newAccessToken, newRefreshToken, roles);
+            return buildAuthResponse(user, tokens.accessToken(), tokens.refreshToken(), roles);
         } catch (InvalidJwtException e) {
             log.error("Failed to refresh token: {}", e.getMessage());
             throw e;
         }
     }
 
+    /**
+     * Revokes the family of {@code refreshToken}: it and every token issued from it, access
+     * tokens included, stop working on all instances. Unknown or invalid tokens are ignored.
+     */
+    public void logout(String refreshToken) {
+        var claims = jwtService.extractClaims(refreshToken);
+        if (claims == null || !jwtService.isRefreshToken(claims)) {
+            return;
+        }
+
+        UUID familyId = jwtService.getFamilyId(claims);
+        if (familyId != null) {
+            refreshTokenService.revoke(familyId, RefreshTokenService.REASON_LOGOUT);
+            log.info("Revoked token family {} on logout", familyId);
+        }
+    }
+
     public AuthResponse getCurrentUser(String email) {
         log.info("Fetching current authenticated user profile for email: {}", email);
 
@@ -0,0 +1,62 @@
+package com.eshop.api.auth;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.auth.login-limits")
+@Getter
+@Setter
+public class LoginRateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Attempts allowed from one client address.
+     */
+    private Bucket perIp = new Bucket(20, Duration.ofSeconds(3));
+
+    /**
+     * Attempts allowed against one account, from any address. Slows down guessing a single
+     * password from many addresses.
+     */
+    private Bucket perAccount = new Bucket(5, Duration.ofSeconds(30));
+
+    /**
+     * Independently swept partitions of each limiter.
+     */
+    private int stripes = 64;
+
+    /**
+     * Addresses, and separately accounts, tracked at once. Those whose bucket has refilled are
+     * forgotten; beyond the limit, new ones share one bucket until room frees up.
+     */
+    private int maxTrackedKeys = 100_000;
+
+    @Getter
+    @Setter
+    public static class Bucket {
+
+        /**
+         * Attempts that can be made in a burst.
+         */
+        private int capacity;
+
+        /**
+         * Time to regain one attempt after the burst is used up.
+         */
+        private Duration refillInterval;
+
+        public Bucket() {
+        }
+
+        public Bucket(int capacity, Duration refillInterval) {
+            this.capacity = capacity;
+            this.refillInterval = refillInterval;
+        }
+    }
+}
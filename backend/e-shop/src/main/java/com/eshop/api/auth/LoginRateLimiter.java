@@ -0,0 +1,93 @@
+package com.eshop.api.auth;
+
+import com.eshop.api.exception.TooManyRequestsException;
+import com.eshop.api.security.StripedTokenBuckets;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Admits login attempts before any password is checked: each attempt takes a token from the
+ * bucket of its client address and from the bucket of the account it names. Rejected attempts
+ * cost no database lookup and no BCrypt round. Buckets are held per instance, so the effective
+ * limit grows with the number of instances.
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+    private static final String METRIC_NAME = "auth.login.rejected";
+    private static final String MESSAGE = "Too many login attempts, please retry later";
+
+    private final boolean enabled;
+    private final StripedTokenBuckets ipBuckets;
+    private final StripedTokenBuckets accountBuckets;
+    private final Counter ipRejections;
+    private final Counter accountRejections;
+
+    public LoginRateLimiter(LoginRateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.ipBuckets = buckets(properties, properties.getPerIp());
+        this.accountBuckets = buckets(properties, properties.getPerAccount());
+        this.ipRejections = rejectionCounter(meterRegistry, "ip");
+        this.accountRejections = rejectionCounter(meterRegistry, "account");
+    }
+
+    /**
+     * @throws TooManyRequestsException if either the address or the account is out of attempts
+     */
+    public void admit(String clientIp, String email) {
+        if (!enabled) {
+            return;
+        }
+
+        if (clientIp != null && !clientIp.isBlank()) {
+            Duration wait = ipBuckets.tryConsume(clientIp);
+            if (!wait.isZero()) {
+                ipRejections.increment();
+                log.debug("Rejected login attempt from {}: address limit reached", clientIp);
+                throw new TooManyRequestsException(MESSAGE, wait);
+            }
+        }
+
+        if (email != null && !email.isBlank()) {
+            Duration wait = accountBuckets.tryConsume(email.trim().toLowerCase(Locale.ROOT));
+            if (!wait.isZero()) {
+                accountRejections.increment();
+                log.debug("Rejected login attempt for {}: account limit reached", email);
+                throw new TooManyRequestsException(MESSAGE, wait);
+            }
+        }
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.rate-limits.eviction-interval:PT1M}",
+        fixedDelayString = "${app.rate-limits.eviction-interval:PT1M}"
+    )
+    public void evictIdleBuckets() {
+        ipBuckets.evictIdle();
+        accountBuckets.evictIdle();
+    }
+
+    private static StripedTokenBuckets buckets(LoginRateLimitProperties properties,
+                                               LoginRateLimitProperties.Bucket bucket) {
+        return new StripedTokenBuckets(
+            properties.getStripes(),
+            properties.getMaxTrackedKeys(),
+            bucket.getCapacity(),
+            bucket.getRefillInterval()
+        );
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String limit) {
+        return Counter.builder(METRIC_NAME)
+            .description("Login attempts rejected by rate limiting")
+            .tag("limit", limit)
+            .register(meterRegistry);
+    }
+}
@@ -5,12 +5,13 @@ import com.eshop.api.auth.dto.PasswordResetRequest;
 import com.eshop.api.email.EmailService;
 import com.eshop.api.exception.InvalidPasswordChangeException;
 import com.eshop.api.exception.InvalidPasswordResetTokenException;
+import com.eshop.api.security.PasswordHasher;
+import com.eshop.api.security.UserReferenceCache;
 import com.eshop.api.user.User;
 import com.eshop.api.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,7 +29,8 @@ public class PasswordResetService {
     private final UserRepository userRepository;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final EmailService emailService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final UserReferenceCache userReferenceCache;
 
     private final SecureRandom secureRandom = new SecureRandom();
 
@@ -82,12 +84,14 @@ public class PasswordResetService {
             throw new InvalidPasswordResetTokenException("Password reset token has expired.");
         }
 
-        if (passwordEncoder.matches(request.newPassword(), user.getPasswordHash())) {
+        if (passwordHasher.matches(request.newPassword(), user.getPasswordHash())) {
             throw new InvalidPasswordChangeException("New password must be different from the current password");
         }
 
-        user.setPasswordHash(passwordEncoder.encode(request.newPassword()));
+        user.setPasswordHash(passwordHasher.encode(request.newPassword()));
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
         userRepository.save(user);
+        userReferenceCache.evictAfterCommit(user.getId());
 
         token.setConsumedAt(now);
         passwordResetTokenRepository.save(token);
@@ -0,0 +1,139 @@
+package com.eshop.api.auth;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Refresh-token families of {@code refresh_token_families}. Rotation is a single conditional
+ * update, so two refreshes racing with the same token cannot both succeed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RefreshTokenFamilyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Family(UUID previousTokenId, Instant rotatedAt, Instant expiresAt, Instant revokedAt) {
+    }
+
+    public record RevokedFamily(UUID id, Instant revokedAt, Instant expiresAt) {
+    }
+
+    public void create(UUID familyId, UUID userId, UUID tokenId, Instant expiresAt) {
+        jdbcTemplate.update(
+            """
+            INSERT INTO refresh_token_families (id, user_id, current_token_id, expires_at)
+            VALUES (?, ?, ?, ?)
+            """,
+            familyId,
+            userId,
+            tokenId,
+            Timestamp.from(expiresAt)
+        );
+    }
+
+    /**
+     * Replaces the family's current token {@code tokenId} with {@code nextTokenId}.
+     *
+     * @return whether {@code tokenId} was the current token of a live family of {@code userId}
+     */
+    public boolean rotate(UUID familyId, UUID userId, UUID tokenId, UUID nextTokenId, Instant expiresAt) {
+        return jdbcTemplate.update(
+            """
+            UPDATE refresh_token_families
+            SET previous_token_id = current_token_id,
+                current_token_id = ?,
+                rotated_at = NOW(),
+                expires_at = ?
+            WHERE id = ? AND user_id = ? AND current_token_id = ?
+              AND revoked_at IS NULL AND expires_at > NOW()
+            """,
+            nextTokenId,
+            Timestamp.from(expiresAt),
+            familyId,
+            userId,
+            tokenId
+        ) > 0;
+    }
+
+    public Optional<Family> find(UUID familyId) {
+        return jdbcTemplate.query(
+            """
+            SELECT previous_token_id, rotated_at, expires_at, revoked_at
+            FROM refresh_token_families
+            WHERE id = ?
+            """,
+            (rs, rowNum) -> new Family(
+                rs.getObject("previous_token_id", UUID.class),
+                rs.getTimestamp("rotated_at").toInstant(),
+                rs.getTimestamp("expires_at").toInstant(),
+                rs.getTimestamp("revoked_at") != null ? rs.getTimestamp("revoked_at").toInstant() : null
+            ),
+            familyId
+        ).stream().findFirst();
+    }
+
+    /**
+     * @return the family's expiry if this call revoked it, empty if it was unknown or already revoked
+     */
+    public Optional<Instant> revoke(UUID familyId, String reason) {
+        return jdbcTemplate.query(
+            """
+            UPDATE refresh_token_families
+            SET revoked_at = NOW(), revoke_reason = ?
+            WHERE id = ? AND revoked_at IS NULL
+            RETURNING expires_at
+            """,
+            (rs, rowNum) -> rs.getTimestamp("expires_at").toInstant(),
+            reason,
+            familyId
+        ).stream().findFirst();
+    }
+
+    /**
+     * @return unexpired families revoked after {@code since}
+     */
+    public List<RevokedFamily> findRevokedSince(Instant since) {
+        return jdbcTemplate.query(
+            """
+            SELECT id, revoked_at, expires_at
+            FROM refresh_token_families
+            WHERE revoked_at > ? AND expires_at > NOW()
+            """,
+            (rs, rowNum) -> new RevokedFamily(
+                rs.getObject("id", UUID.class),
+                rs.getTimestamp("revoked_at").toInstant(),
+                rs.getTimestamp("expires_at").toInstant()
+            ),
+            Timestamp.from(since)
+        );
+    }
+
+    /**
+     * @return the number of families deleted
+     */
+    public int deleteExpired(Instant now, int limit) {
+        return jdbcTemplate.update(
+            """
+            DELETE FROM refresh_token_families f
+            USING (
+              SELECT id
+              FROM refresh_token_families
+              WHERE expires_at <= ?
+              LIMIT ?
+              FOR UPDATE SKIP LOCKED
+            ) due
+            WHERE f.id = due.id
+            """,
+            Timestamp.from(now),
+            limit
+        );
+    }
+}
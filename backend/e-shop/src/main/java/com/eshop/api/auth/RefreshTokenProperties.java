@@ -0,0 +1,27 @@
+package com.eshop.api.auth;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.auth.refresh-tokens")
+@Getter
+@Setter
+public class RefreshTokenProperties {
+
+    /**
+     * How long after a rotation the token it replaced is answered with a plain 401 instead of
+     * revoking the family. Covers a client sending the same refresh twice, for example from two
+     * tabs, without treating it as a stolen token.
+     */
+    private Duration reuseGrace = Duration.ofSeconds(10);
+
+    /**
+     * Expired families deleted per statement when purging.
+     */
+    private int purgeBatchSize = 1000;
+}
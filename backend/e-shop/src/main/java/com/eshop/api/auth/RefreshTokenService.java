@@ -0,0 +1,112 @@
+package com.eshop.api.auth;
+
+import com.eshop.api.auth.RefreshTokenFamilyRepository.Family;
+import com.eshop.api.exception.InvalidJwtException;
+import com.eshop.api.scheduling.service.BatchedDeletes;
+import com.eshop.api.scheduling.service.ClusterJobCoordinator;
+import com.eshop.api.security.JwtService;
+import com.eshop.api.security.TokenRevocationList;
+import com.eshop.api.user.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Issues token pairs and rotates refresh tokens within their family. Each refresh token can be
+ * redeemed once: redeeming it replaces it with a new one, and presenting a replaced token again
+ * revokes the whole family, signing out both the legitimate client and whoever copied the token.
+ * Revocations reach {@link TokenRevocationList} at once on this instance.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    static final String PURGE_JOB_NAME = "refresh-token-family-purge";
+
+    static final String REASON_LOGOUT = "LOGOUT";
+    static final String REASON_REUSE = "REUSE_DETECTED";
+
+    private final RefreshTokenFamilyRepository familyRepository;
+    private final RefreshTokenProperties properties;
+    private final JwtService jwtService;
+    private final TokenRevocationList tokenRevocationList;
+    private final ClusterJobCoordinator jobCoordinator;
+
+    public record TokenPair(String accessToken, String refreshToken) {
+    }
+
+    /**
+     * Starts a new family, as on login.
+     */
+    public TokenPair issue(User user, List<String> roles) {
+        UUID familyId = UUID.randomUUID();
+        UUID tokenId = UUID.randomUUID();
+        familyRepository.create(familyId, user.getId(), tokenId, nextExpiry());
+        return tokens(user, roles, familyId, tokenId);
+    }
+
+    /**
+     * Redeems refresh token {@code tokenId} of family {@code familyId} for a new pair.
+     *
+     * @throws InvalidJwtException if the token is not the family's current one
+     */
+    public TokenPair rotate(User user, List<String> roles, UUID familyId, UUID tokenId) {
+        UUID nextTokenId = UUID.randomUUID();
+        if (familyRepository.rotate(familyId, user.getId(), tokenId, nextTokenId, nextExpiry())) {
+            return tokens(user, roles, familyId, nextTokenId);
+        }
+
+        Instant now = Instant.now();
+        Family family = familyRepository.find(familyId)
+            .orElseThrow(() -> new InvalidJwtException("Refresh token is no longer valid"));
+        if (family.revokedAt() != null || !family.expiresAt().isAfter(now)) {
+            throw new InvalidJwtException("Refresh token has been revoked");
+        }
+        if (tokenId.equals(family.previousTokenId()) && family.rotatedAt().plus(properties.getReuseGrace()).isAfter(now)) {
+            throw new InvalidJwtException("Refresh token was already used");
+        }
+
+        revoke(familyId, REASON_REUSE);
+        log.warn("Refresh token reuse detected for user {}; revoked token family {}", user.getId(), familyId);
+        throw new InvalidJwtException("Refresh token has been revoked");
+    }
+
+    public void revoke(UUID familyId, String reason) {
+        familyRepository.revoke(familyId, reason)
+            .ifPresent(expiresAt -> tokenRevocationList.revoke(familyId, expiresAt));
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.auth.refresh-tokens.purge-interval:PT1H}",
+        fixedDelayString = "${app.auth.refresh-tokens.purge-interval:PT1H}"
+    )
+    public void purgeExpiredFamilies() {
+        jobCoordinator.runAsLeader(PURGE_JOB_NAME, this::purge);
+    }
+
+    private void purge() {
+        Instant now = Instant.now();
+        int total = BatchedDeletes.untilExhausted("Purging expired refresh token families", properties.getPurgeBatchSize(),
+            batchSize -> familyRepository.deleteExpired(now, batchSize));
+        if (total > 0) {
+            log.info("Purged {} expired refresh token famil(ies)", total);
+        }
+    }
+
+    private TokenPair tokens(User user, List<String> roles, UUID familyId, UUID tokenId) {
+        return new TokenPair(
+            jwtService.generateAccessToken(user, roles, familyId),
+            jwtService.generateRefreshToken(user, roles, familyId, tokenId)
+        );
+    }
+
+    private Instant nextExpiry() {
+        return Instant.now().plus(jwtService.getTokenFamilyLifetime());
+    }
+}
@@ -4,10 +4,18 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.UUID;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class LoginRequest {
     private String email;
     private String password;
+
+    /**
+     * Client session id of the shopper before logging in; its guest cart is merged into the
+     * user's cart.
+     */
+    private UUID sessionId;
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.eshop.api.cart;
 
 import com.eshop.api.cart.dto.AddCartItemRequest;
+import com.eshop.api.cart.dto.CartBatchRequest;
+import com.eshop.api.cart.dto.CartDeltaResponse;
 import com.eshop.api.cart.dto.CartResponse;
+import com.eshop.api.cart.dto.MergeGuestCartRequest;
 import com.eshop.api.cart.dto.UpdateCartItemRequest;
 import com.eshop.api.cart.service.CartService;
 import com.eshop.api.exception.InvalidJwtException;
@@ -45,6 +48,36 @@ public class CartController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping(value = "/items", params = "view=delta")
+    public ResponseEntity<CartDeltaResponse> addItemDelta(
+        Authentication authentication,
+        @Valid @RequestBody AddCartItemRequest request
+    ) {
+        String email = resolveEmail(authentication);
+        CartDeltaResponse response = cartService.addItemDelta(email, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping("/items/batch")
+    public ResponseEntity<CartResponse> applyOperations(
+        Authentication authentication,
+        @Valid @RequestBody CartBatchRequest request
+    ) {
+        String email = resolveEmail(authentication);
+        CartResponse response = cartService.applyOperations(email, request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/merge")
+    public ResponseEntity<CartResponse> mergeGuestCart(
+        Authentication authentication,
+        @Valid @RequestBody MergeGuestCartRequest request
+    ) {
+        String email = resolveEmail(authentication);
+        CartResponse response = cartService.mergeGuestCart(email, request.sessionId());
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/items/{itemId}")
     public ResponseEntity<CartResponse> updateItem(
         Authentication authentication,
@@ -56,6 +89,17 @@ public class CartController {
         return ResponseEntity.ok(response);
     }
 
+    @PutMapping(value = "/items/{itemId}", params = "view=delta")
+    public ResponseEntity<CartDeltaResponse> updateItemDelta(
+        Authentication authentication,
+        @PathVariable("itemId") UUID itemId,
+        @Valid @RequestBody UpdateCartItemRequest request
+    ) {
+        String email = resolveEmail(authentication);
+        CartDeltaResponse response = cartService.updateItemDelta(email, itemId, request);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/items/{itemId}")
     public ResponseEntity<CartResponse> removeItem(
         Authentication authentication,
@@ -66,6 +110,16 @@ public class CartController {
         return ResponseEntity.ok(response);
     }
 
+    @DeleteMapping(value = "/items/{itemId}", params = "view=delta")
+    public ResponseEntity<CartDeltaResponse> removeItemDelta(
+        Authentication authentication,
+        @PathVariable("itemId") UUID itemId
+    ) {
+        String email = resolveEmail(authentication);
+        CartDeltaResponse response = cartService.removeItemDelta(email, itemId);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping
     public ResponseEntity<CartResponse> clearCart(Authentication authentication) {
         String email = resolveEmail(authentication);
@@ -73,6 +127,13 @@ public class CartController {
         return ResponseEntity.ok(response);
     }
 
+    @DeleteMapping(params = "view=delta")
+    public ResponseEntity<CartDeltaResponse> clearCartDelta(Authentication authentication) {
+        String email = resolveEmail(authentication);
+        CartDeltaResponse response = cartService.clearCartDelta(email);
+        return ResponseEntity.ok(response);
+    }
+
     private String resolveEmail(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new InvalidJwtException("Authentication is required to access the cart");
@@ -0,0 +1,64 @@
+package com.eshop.api.cart;
+
+import com.eshop.api.cart.dto.AddCartItemRequest;
+import com.eshop.api.cart.dto.CartResponse;
+import com.eshop.api.cart.dto.UpdateCartItemRequest;
+import com.eshop.api.cart.service.GuestCartService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/guest-cart/{sessionId}")
+@RequiredArgsConstructor
+public class GuestCartController {
+
+    private final GuestCartService guestCartService;
+
+    @GetMapping
+    public ResponseEntity<CartResponse> getCart(@PathVariable("sessionId") UUID sessionId) {
+        return ResponseEntity.ok(guestCartService.getCart(sessionId));
+    }
+
+    @PostMapping("/items")
+    public ResponseEntity<CartResponse> addItem(
+        @PathVariable("sessionId") UUID sessionId,
+        @Valid @RequestBody AddCartItemRequest request
+    ) {
+        CartResponse response = guestCartService.addItem(sessionId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PutMapping("/items/{variantId}")
+    public ResponseEntity<CartResponse> updateItem(
+        @PathVariable("sessionId") UUID sessionId,
+        @PathVariable("variantId") UUID variantId,
+        @Valid @RequestBody UpdateCartItemRequest request
+    ) {
+        return ResponseEntity.ok(guestCartService.updateItem(sessionId, variantId, request));
+    }
+
+    @DeleteMapping("/items/{variantId}")
+    public ResponseEntity<CartResponse> removeItem(
+        @PathVariable("sessionId") UUID sessionId,
+        @PathVariable("variantId") UUID variantId
+    ) {
+        return ResponseEntity.ok(guestCartService.removeItem(sessionId, variantId));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<CartResponse> clearCart(@PathVariable("sessionId") UUID sessionId) {
+        return ResponseEntity.ok(guestCartService.clearCart(sessionId));
+    }
+}
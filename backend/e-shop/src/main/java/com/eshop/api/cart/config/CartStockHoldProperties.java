@@ -0,0 +1,49 @@
+package com.eshop.api.cart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.cart.stock-holds")
+@Getter
+@Setter
+public class CartStockHoldProperties {
+
+    /**
+     * Whether adding or updating a cart line takes its quantity out of stock until checkout or
+     * expiry. When disabled stock is only taken at checkout; existing holds still expire.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long a cart line keeps its stock after it was last added or updated.
+     */
+    private Duration ttl = Duration.ofMinutes(15);
+
+    /**
+     * Resolution of the in-memory expiry wheel and interval of the sweeper; a hold is returned at
+     * most one tick after it expires.
+     */
+    private Duration tick = Duration.ofSeconds(1);
+
+    /**
+     * Number of slots of the expiry wheel. Holds further out than {@code tick * wheelSize} wait
+     * for more than one turn.
+     */
+    private int wheelSize = 512;
+
+    /**
+     * Maximum number of holds tracked in memory. Holds beyond it, and holds created on other
+     * instances, are found by the periodic table sweep instead.
+     */
+    private int capacity = 100_000;
+
+    /**
+     * Largest number of expired holds released by one table sweep transaction.
+     */
+    private int sweepBatchSize = 500;
+}
@@ -0,0 +1,30 @@
+package com.eshop.api.cart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.cart.guest")
+@Getter
+@Setter
+public class GuestCartProperties {
+
+    /**
+     * How long a guest cart is kept after it was last changed before it is evicted.
+     */
+    private Duration ttl = Duration.ofDays(7);
+
+    /**
+     * Maximum number of distinct lines in one guest cart.
+     */
+    private int maxItems = 50;
+
+    /**
+     * Largest number of expired guest cart lines deleted by one sweep transaction.
+     */
+    private int sweepBatchSize = 1_000;
+}
@@ -0,0 +1,17 @@
+package com.eshop.api.cart.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CartBatchRequest {
+
+    @NotEmpty(message = "operations are required")
+    @Size(max = 100, message = "at most 100 operations are allowed per request")
+    private List<@Valid @NotNull CartOperationRequest> operations;
+}
@@ -0,0 +1,26 @@
+package com.eshop.api.cart.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of a cart mutation requested with {@code view=delta}: the changed line, the ids of lines
+ * that are gone, and the recomputed cart totals.
+ */
+@Value
+@Builder
+public class CartDeltaResponse {
+    UUID id;
+    UUID userId;
+    Integer totalItems;
+    Integer totalQuantity;
+    BigDecimal subtotal;
+    Instant updatedAt;
+    CartItemResponse item;
+    List<UUID> removedItemIds;
+}
@@ -0,0 +1,26 @@
+package com.eshop.api.cart.dto;
+
+import com.eshop.api.cart.enums.CartOperationType;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * One step of a batch cart request. {@code ADD} needs a {@code variantId}; {@code UPDATE} and
+ * {@code REMOVE} address the line by {@code itemId} or {@code variantId}.
+ */
+@Data
+public class CartOperationRequest {
+
+    @NotNull(message = "type is required")
+    private CartOperationType type;
+
+    private UUID variantId;
+
+    private UUID itemId;
+
+    @Positive(message = "quantity must be greater than zero")
+    private Integer quantity;
+}
@@ -0,0 +1,10 @@
+package com.eshop.api.cart.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record MergeGuestCartRequest(
+    @NotNull(message = "sessionId is required") UUID sessionId
+) {
+}
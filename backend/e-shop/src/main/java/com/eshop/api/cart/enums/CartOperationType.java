@@ -0,0 +1,7 @@
+package com.eshop.api.cart.enums;
+
+public enum CartOperationType {
+    ADD,
+    UPDATE,
+    REMOVE
+}
@@ -3,7 +3,11 @@ package com.eshop.api.cart.repository;
 import com.eshop.api.cart.model.CartItem;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,5 +22,11 @@ public interface CartItemRepository extends JpaRepository<CartItem, UUID> {
     Optional<CartItem> findByIdAndCart_User_Id(UUID id, UUID userId);
 
     Optional<CartItem> findByCart_IdAndVariant_Id(UUID cartId, UUID variantId);
+
+    List<CartItem> findByCart_Id(UUID cartId);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.id = :cartId")
+    int deleteAllByCartId(@Param("cartId") UUID cartId);
 }
 
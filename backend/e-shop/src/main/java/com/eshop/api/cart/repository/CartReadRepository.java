@@ -0,0 +1,227 @@
+package com.eshop.api.cart.repository;
+
+import com.eshop.api.catalog.enums.ProductStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read model of carts: flat rows selected with plain SQL instead of loading the cart entity graph,
+ * so the cost of a read depends on the lines returned, not on product image galleries. Each line
+ * carries a single image picked in the database: the first image in the variant's color, else the
+ * primary image, else the first image of the product.
+ * <p>
+ * These queries see only what has been flushed; callers that changed cart entities in the same
+ * transaction must flush first.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CartReadRepository {
+
+    private static final String SUMMARY_SQL = """
+        SELECT c.id, c.user_id, c.created_at, c.updated_at,
+               t.total_items, t.total_quantity, t.subtotal
+        FROM carts c
+        CROSS JOIN LATERAL (
+          SELECT COUNT(ci.id) AS total_items,
+                 COALESCE(SUM(ci.quantity), 0) AS total_quantity,
+                 COALESCE(SUM(ci.quantity * COALESCE(v.price, p.base_price, 0)), 0) AS subtotal
+          FROM cart_items ci
+          JOIN product_variants v ON v.id = ci.variant_id
+          JOIN products p ON p.id = v.product_id
+          WHERE ci.cart_id = c.id
+        ) t
+        WHERE %s
+        """;
+
+    private static final String LINE_COLUMNS_SQL = """
+               v.variant_sku,
+               v.size,
+               v.fit,
+               v.is_active,
+               COALESCE(v.price, p.base_price, 0) AS unit_price,
+               CASE WHEN v.stock_shards > 0
+                    THEN COALESCE((SELECT SUM(s.quantity) FROM product_variant_stock_shards s WHERE s.variant_id = v.id), 0)
+                    ELSE v.quantity_in_stock
+               END + %s AS available_quantity,
+               p.id AS product_id,
+               p.name AS product_name,
+               p.slug AS product_slug,
+               p.status AS product_status,
+               col.id AS color_id,
+               col.code AS color_code,
+               col.name AS color_name,
+               col.hex AS color_hex,
+               img.image_url,
+               img.alt_text
+        """;
+
+    private static final String LINE_JOINS_SQL = """
+        JOIN products p ON p.id = v.product_id
+        LEFT JOIN colors col ON col.id = v.color_id
+        LEFT JOIN LATERAL (
+          SELECT i.image_url, i.alt_text
+          FROM product_images i
+          LEFT JOIN colors ic ON ic.id = i.color_id
+          WHERE i.product_id = p.id
+          ORDER BY (col.code IS NOT NULL AND lower(ic.code) = lower(col.code)) DESC,
+                   i.is_primary DESC,
+                   i.display_order,
+                   i.created_at
+          LIMIT 1
+        ) img ON TRUE
+        """;
+
+    private static final String LINES_SQL = """
+        SELECT ci.id AS item_id,
+               ci.variant_id,
+               ci.quantity,
+               ci.created_at,
+        """ + LINE_COLUMNS_SQL.formatted("COALESCE(h.quantity, 0)") + """
+        FROM cart_items ci
+        JOIN product_variants v ON v.id = ci.variant_id
+        LEFT JOIN cart_stock_holds h ON h.cart_id = ci.cart_id AND h.variant_id = ci.variant_id
+        """ + LINE_JOINS_SQL + """
+        WHERE ci.cart_id = ? %s
+        ORDER BY ci.created_at, ci.id
+        """;
+
+    /**
+     * Guest lines have no id of their own and hold no stock; the variant id stands in for the
+     * line id.
+     */
+    private static final String GUEST_LINES_SQL = """
+        SELECT g.variant_id AS item_id,
+               g.variant_id,
+               g.quantity,
+               g.created_at,
+        """ + LINE_COLUMNS_SQL.formatted("0") + """
+        FROM guest_cart_items g
+        JOIN product_variants v ON v.id = g.variant_id
+        """ + LINE_JOINS_SQL + """
+        WHERE g.session_id = ? AND g.expires_at > NOW()
+        ORDER BY g.created_at, g.variant_id
+        """;
+
+    private static final RowMapper<CartSummary> SUMMARY_ROW_MAPPER = (rs, rowNum) -> new CartSummary(
+        rs.getObject("id", UUID.class),
+        rs.getObject("user_id", UUID.class),
+        toInstant(rs.getTimestamp("created_at")),
+        toInstant(rs.getTimestamp("updated_at")),
+        rs.getInt("total_items"),
+        rs.getInt("total_quantity"),
+        rs.getBigDecimal("subtotal")
+    );
+
+    private static final RowMapper<CartLine> LINE_ROW_MAPPER = CartReadRepository::mapLine;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record CartSummary(
+        UUID id,
+        UUID userId,
+        Instant createdAt,
+        Instant updatedAt,
+        int totalItems,
+        int totalQuantity,
+        BigDecimal subtotal
+    ) {
+    }
+
+    /**
+     * @param availableQuantity live stock of the variant plus what this cart holds of it
+     */
+    public record CartLine(
+        UUID itemId,
+        UUID variantId,
+        UUID productId,
+        String productName,
+        String productSlug,
+        ProductStatus productStatus,
+        String variantSku,
+        String size,
+        String fit,
+        boolean variantActive,
+        Integer colorId,
+        String colorCode,
+        String colorName,
+        String colorHex,
+        int quantity,
+        BigDecimal unitPrice,
+        int availableQuantity,
+        String imageUrl,
+        String altText,
+        Instant createdAt
+    ) {
+    }
+
+    public Optional<CartSummary> findSummary(UUID cartId) {
+        return jdbcTemplate.query(SUMMARY_SQL.formatted("c.id = ?"), SUMMARY_ROW_MAPPER, cartId).stream().findFirst();
+    }
+
+    public Optional<CartSummary> findSummaryByUserId(UUID userId) {
+        return jdbcTemplate.query(SUMMARY_SQL.formatted("c.user_id = ?"), SUMMARY_ROW_MAPPER, userId).stream().findFirst();
+    }
+
+    public List<CartLine> findLines(UUID cartId) {
+        return jdbcTemplate.query(LINES_SQL.formatted(""), LINE_ROW_MAPPER, cartId);
+    }
+
+    public Optional<CartLine> findLineByVariant(UUID cartId, UUID variantId) {
+        return jdbcTemplate.query(LINES_SQL.formatted("AND ci.variant_id = ?"), LINE_ROW_MAPPER, cartId, variantId)
+            .stream()
+            .findFirst();
+    }
+
+    public List<CartLine> findGuestLines(UUID sessionId) {
+        return jdbcTemplate.query(GUEST_LINES_SQL, LINE_ROW_MAPPER, sessionId);
+    }
+
+    public List<UUID> findItemIds(UUID cartId) {
+        return jdbcTemplate.query(
+            "SELECT id FROM cart_items WHERE cart_id = ?",
+            (rs, rowNum) -> rs.getObject("id", UUID.class),
+            cartId
+        );
+    }
+
+    private static CartLine mapLine(ResultSet rs, int rowNum) throws SQLException {
+        String status = rs.getString("product_status");
+        return new CartLine(
+            rs.getObject("item_id", UUID.class),
+            rs.getObject("variant_id", UUID.class),
+            rs.getObject("product_id", UUID.class),
+            rs.getString("product_name"),
+            rs.getString("product_slug"),
+            status != null ? ProductStatus.fromValue(status) : null,
+            rs.getString("variant_sku"),
+            rs.getString("size"),
+            rs.getString("fit"),
+            rs.getBoolean("is_active"),
+            rs.getObject("color_id", Integer.class),
+            rs.getString("color_code"),
+            rs.getString("color_name"),
+            rs.getString("color_hex"),
+            rs.getInt("quantity"),
+            rs.getBigDecimal("unit_price"),
+            rs.getInt("available_quantity"),
+            rs.getString("image_url"),
+            rs.getString("alt_text"),
+            toInstant(rs.getTimestamp("created_at"))
+        );
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
@@ -3,6 +3,8 @@ package com.eshop.api.cart.repository;
 import com.eshop.api.cart.model.Cart;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -19,5 +21,8 @@ public interface CartRepository extends JpaRepository<Cart, UUID> {
     })
     Optional<Cart> findByUser_Id(UUID userId);
 
+    @Query("SELECT c FROM Cart c WHERE c.user.id = :userId")
+    Optional<Cart> findWithoutItemsByUserId(@Param("userId") UUID userId);
+
     boolean existsByUser_Id(UUID userId);
 }
@@ -0,0 +1,226 @@
+package com.eshop.api.cart.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.UUID;
+
+/**
+ * Ledger of the stock held for cart lines. Every row's quantity has already been taken out of
+ * the variant's stock; deleting a row is what hands it over, either to checkout or back to stock.
+ * Expired rows are deleted with {@code FOR UPDATE SKIP LOCKED} so that a sweep never waits on,
+ * or steals from, a cart that is being changed at the same moment.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CartStockHoldRepository {
+
+    private static final String DELETE_EXPIRED_SQL = """
+        DELETE FROM cart_stock_holds h
+        USING (
+          SELECT cart_id, variant_id
+          FROM cart_stock_holds
+          WHERE expires_at <= ? %s
+          FOR UPDATE SKIP LOCKED
+        ) due
+        WHERE h.cart_id = due.cart_id AND h.variant_id = due.variant_id
+        RETURNING h.cart_id, h.variant_id, h.quantity, h.expires_at
+        """;
+
+    private static final RowMapper<Hold> HOLD_ROW_MAPPER = (rs, rowNum) -> new Hold(
+        rs.getObject("cart_id", UUID.class),
+        rs.getObject("variant_id", UUID.class),
+        rs.getInt("quantity"),
+        rs.getTimestamp("expires_at").toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Key(UUID cartId, UUID variantId) {
+    }
+
+    public record Hold(UUID cartId, UUID variantId, int quantity, Instant expiresAt) {
+
+        public Key key() {
+            return new Key(cartId, variantId);
+        }
+    }
+
+    /**
+     * Locks the holds of the given cart lines in variant id order, creating empty ones first where
+     * there are none, so concurrent changes to the same lines are serialized without deadlocks.
+     *
+     * @return the quantity currently held per variant
+     */
+    public Map<UUID, Integer> lockQuantities(UUID cartId, SortedSet<UUID> variantIds, Instant expiresAt) {
+        Map<UUID, Integer> quantities = new HashMap<>();
+        if (variantIds.isEmpty()) {
+            return quantities;
+        }
+
+        List<UUID> ids = new ArrayList<>(variantIds);
+        jdbcTemplate.batchUpdate(
+            """
+            INSERT INTO cart_stock_holds (cart_id, variant_id, quantity, expires_at)
+            VALUES (?, ?, 0, ?)
+            ON CONFLICT (cart_id, variant_id) DO NOTHING
+            """,
+            ids,
+            ids.size(),
+            (ps, variantId) -> {
+                ps.setObject(1, cartId);
+                ps.setObject(2, variantId);
+                ps.setTimestamp(3, Timestamp.from(expiresAt));
+            }
+        );
+
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> args = new ArrayList<>(ids.size() + 1);
+        args.add(cartId);
+        args.addAll(ids);
+        jdbcTemplate.query(
+            """
+            SELECT variant_id, quantity
+            FROM cart_stock_holds
+            WHERE cart_id = ? AND variant_id IN (%s)
+            ORDER BY variant_id
+            FOR UPDATE
+            """.formatted(placeholders),
+            rs -> {
+                quantities.put(rs.getObject("variant_id", UUID.class), rs.getInt("quantity"));
+            },
+            args.toArray()
+        );
+        return quantities;
+    }
+
+    public void updateAll(UUID cartId, Map<UUID, Integer> quantities, Instant expiresAt) {
+        List<Map.Entry<UUID, Integer>> rows = new ArrayList<>(quantities.entrySet());
+        jdbcTemplate.batchUpdate(
+            "UPDATE cart_stock_holds SET quantity = ?, expires_at = ?, updated_at = NOW() WHERE cart_id = ? AND variant_id = ?",
+            rows,
+            rows.size(),
+            (ps, row) -> {
+                ps.setInt(1, row.getValue());
+                ps.setTimestamp(2, Timestamp.from(expiresAt));
+                ps.setObject(3, cartId);
+                ps.setObject(4, row.getKey());
+            }
+        );
+    }
+
+    public void deleteAll(UUID cartId, Collection<UUID> variantIds) {
+        List<UUID> ids = new ArrayList<>(variantIds);
+        jdbcTemplate.batchUpdate(
+            "DELETE FROM cart_stock_holds WHERE cart_id = ? AND variant_id = ?",
+            ids,
+            ids.size(),
+            (ps, variantId) -> {
+                ps.setObject(1, cartId);
+                ps.setObject(2, variantId);
+            }
+        );
+    }
+
+    public int findQuantity(UUID cartId, UUID variantId) {
+        List<Integer> quantities = jdbcTemplate.query(
+            "SELECT quantity FROM cart_stock_holds WHERE cart_id = ? AND variant_id = ?",
+            (rs, rowNum) -> rs.getInt(1),
+            cartId,
+            variantId
+        );
+        return quantities.isEmpty() ? 0 : quantities.get(0);
+    }
+
+    /**
+     * @return the quantity held per variant; lines without stock held are absent
+     */
+    public Map<UUID, Integer> findQuantities(UUID cartId) {
+        Map<UUID, Integer> quantities = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT variant_id, quantity FROM cart_stock_holds WHERE cart_id = ? AND quantity > 0",
+            rs -> {
+                quantities.put(rs.getObject("variant_id", UUID.class), rs.getInt("quantity"));
+            },
+            cartId
+        );
+        return quantities;
+    }
+
+    /**
+     * Reads holds in expiry order, for warming up the in-memory expiry index.
+     */
+    public List<Hold> findOldest(int limit) {
+        return jdbcTemplate.query(
+            "SELECT cart_id, variant_id, quantity, expires_at FROM cart_stock_holds ORDER BY expires_at LIMIT ?",
+            HOLD_ROW_MAPPER,
+            limit
+        );
+    }
+
+    /**
+     * @return the deleted hold, or empty if the line held nothing
+     */
+    public List<Hold> delete(UUID cartId, UUID variantId) {
+        return jdbcTemplate.query(
+            "DELETE FROM cart_stock_holds WHERE cart_id = ? AND variant_id = ? RETURNING cart_id, variant_id, quantity, expires_at",
+            HOLD_ROW_MAPPER,
+            cartId,
+            variantId
+        );
+    }
+
+    public List<Hold> deleteByCart(UUID cartId) {
+        return jdbcTemplate.query(
+            "DELETE FROM cart_stock_holds WHERE cart_id = ? RETURNING cart_id, variant_id, quantity, expires_at",
+            HOLD_ROW_MAPPER,
+            cartId
+        );
+    }
+
+    /**
+     * Deletes those of the given holds that have expired by {@code now}, skipping rows locked by
+     * another transaction.
+     */
+    public List<Hold> deleteExpired(Collection<Key> keys, Instant now) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(keys.size(), "(?, ?)"));
+        List<Object> args = new ArrayList<>(keys.size() * 2 + 1);
+        args.add(Timestamp.from(now));
+        for (Key key : keys) {
+            args.add(key.cartId());
+            args.add(key.variantId());
+        }
+        return jdbcTemplate.query(
+            DELETE_EXPIRED_SQL.formatted("AND (cart_id, variant_id) IN (" + placeholders + ")"),
+            HOLD_ROW_MAPPER,
+            args.toArray()
+        );
+    }
+
+    /**
+     * Deletes up to {@code limit} holds that have expired by {@code now}, oldest first, skipping
+     * rows locked by another transaction.
+     */
+    public List<Hold> deleteExpired(Instant now, int limit) {
+        return jdbcTemplate.query(
+            DELETE_EXPIRED_SQL.formatted("ORDER BY expires_at LIMIT ?"),
+            HOLD_ROW_MAPPER,
+            Timestamp.from(now),
+            limit
+        );
+    }
+}
@@ -0,0 +1,159 @@
+package com.eshop.api.cart.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Lines of guest carts, one {@code (session_id, variant_id, quantity)} row each. Lines whose
+ * {@code expires_at} has passed are treated as gone even before the sweep deletes them.
+ */
+@Repository
+@RequiredArgsConstructor
+public class GuestCartRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public int countLines(UUID sessionId) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM guest_cart_items WHERE session_id = ? AND expires_at > NOW()",
+            Integer.class,
+            sessionId
+        );
+        return count != null ? count : 0;
+    }
+
+    public boolean exists(UUID sessionId, UUID variantId) {
+        List<Integer> rows = jdbcTemplate.query(
+            "SELECT 1 FROM guest_cart_items WHERE session_id = ? AND variant_id = ? AND expires_at > NOW()",
+            (rs, rowNum) -> rs.getInt(1),
+            sessionId,
+            variantId
+        );
+        return !rows.isEmpty();
+    }
+
+    /**
+     * Adds {@code quantity} to the line, creating it if needed.
+     *
+     * @return the resulting quantity of the line
+     */
+    public int add(UUID sessionId, UUID variantId, int quantity, Instant expiresAt) {
+        Integer result = jdbcTemplate.queryForObject(
+            """
+            INSERT INTO guest_cart_items (session_id, variant_id, quantity, expires_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (session_id, variant_id) DO UPDATE
+              SET quantity = CASE WHEN guest_cart_items.expires_at > NOW()
+                                  THEN guest_cart_items.quantity + EXCLUDED.quantity
+                                  ELSE EXCLUDED.quantity
+                             END,
+                  expires_at = EXCLUDED.expires_at
+            RETURNING quantity
+            """,
+            Integer.class,
+            sessionId,
+            variantId,
+            quantity,
+            Timestamp.from(expiresAt)
+        );
+        return result != null ? result : quantity;
+    }
+
+    /**
+     * @return whether the line existed
+     */
+    public boolean update(UUID sessionId, UUID variantId, int quantity) {
+        return jdbcTemplate.update(
+            "UPDATE guest_cart_items SET quantity = ? WHERE session_id = ? AND variant_id = ? AND expires_at > NOW()",
+            quantity,
+            sessionId,
+            variantId
+        ) > 0;
+    }
+
+    /**
+     * @return whether the line existed
+     */
+    public boolean delete(UUID sessionId, UUID variantId) {
+        return jdbcTemplate.update(
+            "DELETE FROM guest_cart_items WHERE session_id = ? AND variant_id = ? AND expires_at > NOW()",
+            sessionId,
+            variantId
+        ) > 0;
+    }
+
+    public int deleteBySession(UUID sessionId) {
+        return jdbcTemplate.update("DELETE FROM guest_cart_items WHERE session_id = ?", sessionId);
+    }
+
+    /**
+     * Restarts the expiry of every line of the cart.
+     */
+    public void touch(UUID sessionId, Instant expiresAt) {
+        jdbcTemplate.update(
+            "UPDATE guest_cart_items SET expires_at = ? WHERE session_id = ?",
+            Timestamp.from(expiresAt),
+            sessionId
+        );
+    }
+
+    /**
+     * Deletes the cart and returns its live lines. Because the rows are deleted, a cart is handed
+     * out at most once even when the same session logs in twice concurrently.
+     *
+     * @return the quantity per variant id, oldest line first
+     */
+    public Map<UUID, Integer> claim(UUID sessionId) {
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        jdbcTemplate.query(
+            """
+            WITH claimed AS (
+              DELETE FROM guest_cart_items
+              WHERE session_id = ?
+              RETURNING variant_id, quantity, created_at, expires_at
+            )
+            SELECT variant_id, quantity
+            FROM claimed
+            WHERE expires_at > NOW()
+            ORDER BY created_at, variant_id
+            """,
+            rs -> {
+                quantities.put(rs.getObject("variant_id", UUID.class), rs.getInt("quantity"));
+            },
+            sessionId
+        );
+        return quantities;
+    }
+
+    /**
+     * Deletes up to {@code limit} lines that have expired by {@code now}, skipping rows locked by
+     * another transaction.
+     *
+     * @return the number of lines deleted
+     */
+    public int deleteExpired(Instant now, int limit) {
+        return jdbcTemplate.update(
+            """
+            DELETE FROM guest_cart_items g
+            USING (
+              SELECT session_id, variant_id
+              FROM guest_cart_items
+              WHERE expires_at <= ?
+              LIMIT ?
+              FOR UPDATE SKIP LOCKED
+            ) due
+            WHERE g.session_id = due.session_id AND g.variant_id = due.variant_id
+            """,
+            Timestamp.from(now),
+            limit
+        );
+    }
+}
@@ -0,0 +1,98 @@
+package com.eshop.api.cart.service;
+
+import com.eshop.api.cart.config.CartStockHoldProperties;
+import com.eshop.api.cart.repository.CartStockHoldRepository.Key;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel over hold expiries: each hold sits in the slot of its deadline's tick, so
+ * the sweeper only looks at the slots that passed since its previous run instead of scanning or
+ * querying every hold. Rescheduling just records the new deadline; stale slot entries are dropped
+ * when their slot comes round. The wheel is an index, not the source of truth: a due hold is only
+ * released if its row in {@code cart_stock_holds} has expired too.
+ */
+@Component
+public class CartHoldExpiryWheel {
+
+    private final long tickMillis;
+    private final int capacity;
+    private final List<Set<Key>> slots;
+    private final Map<Key, Instant> deadlines = new HashMap<>();
+    private long lastTick = -1;
+
+    public CartHoldExpiryWheel(CartStockHoldProperties properties) {
+        this.tickMillis = Math.max(1, properties.getTick().toMillis());
+        this.capacity = properties.getCapacity();
+        int wheelSize = Math.max(1, properties.getWheelSize());
+        this.slots = new ArrayList<>(wheelSize);
+        for (int slot = 0; slot < wheelSize; slot++) {
+            slots.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Tracks the hold until {@code expiresAt}, replacing an earlier deadline.
+     *
+     * @return {@code false} if the wheel is full and the hold is left to the table sweep
+     */
+    public synchronized boolean schedule(Key key, Instant expiresAt) {
+        if (!deadlines.containsKey(key) && deadlines.size() >= capacity) {
+            return false;
+        }
+        deadlines.put(key, expiresAt);
+        slots.get(slotOf(expiresAt)).add(key);
+        return true;
+    }
+
+    public synchronized void cancel(Key key) {
+        deadlines.remove(key);
+    }
+
+    /**
+     * Sweeps every slot whose tick has fully passed since the previous call, at most one turn, so a
+     * hold is reported within one tick after its deadline.
+     *
+     * @return the holds whose deadline is not after {@code now}; they are no longer tracked
+     */
+    public synchronized List<Key> advance(Instant now) {
+        long passedTick = Math.floorDiv(now.toEpochMilli(), tickMillis) - 1;
+        long firstTick = Math.max(lastTick + 1, passedTick - slots.size() + 1);
+
+        List<Key> due = new ArrayList<>();
+        for (long tick = firstTick; tick <= passedTick; tick++) {
+            int slot = (int) Math.floorMod(tick, (long) slots.size());
+            Iterator<Key> keys = slots.get(slot).iterator();
+            while (keys.hasNext()) {
+                Key key = keys.next();
+                Instant deadline = deadlines.get(key);
+                if (deadline == null || slotOf(deadline) != slot) {
+                    // Cancelled, or rescheduled into another slot.
+                    keys.remove();
+                } else if (!deadline.isAfter(now)) {
+                    keys.remove();
+                    deadlines.remove(key);
+                    due.add(key);
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, passedTick);
+        return due;
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    private int slotOf(Instant deadline) {
+        return (int) Math.floorMod(Math.floorDiv(deadline.toEpochMilli(), tickMillis), (long) slots.size());
+    }
+}
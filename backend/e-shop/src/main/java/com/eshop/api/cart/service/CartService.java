@@ -3,28 +3,34 @@ package com.eshop.api.cart.service;
 import com.eshop.api.analytics.enums.InteractionType;
 import com.eshop.api.analytics.service.ProductInteractionEventService;
 import com.eshop.api.cart.dto.AddCartItemRequest;
+import com.eshop.api.cart.dto.CartBatchRequest;
+import com.eshop.api.cart.dto.CartDeltaResponse;
 import com.eshop.api.cart.dto.CartItemResponse;
+import com.eshop.api.cart.dto.CartOperationRequest;
 import com.eshop.api.cart.dto.CartResponse;
 import com.eshop.api.cart.dto.UpdateCartItemRequest;
 import com.eshop.api.cart.model.Cart;
 import com.eshop.api.cart.model.CartItem;
 import com.eshop.api.cart.repository.CartItemRepository;
+import com.eshop.api.cart.repository.CartReadRepository;
+import com.eshop.api.cart.repository.CartReadRepository.CartLine;
+import com.eshop.api.cart.repository.CartReadRepository.CartSummary;
 import com.eshop.api.cart.repository.CartRepository;
+import com.eshop.api.cart.repository.GuestCartRepository;
 import com.eshop.api.catalog.dto.ColorResponse;
 import com.eshop.api.catalog.enums.ProductStatus;
-import com.eshop.api.catalog.model.Color;
 import com.eshop.api.catalog.model.Product;
 import com.eshop.api.catalog.model.ProductVariant;
-import com.eshop.api.catalog.model.ProductImage;
 import com.eshop.api.catalog.repository.ProductVariantRepository;
 import com.eshop.api.exception.CartItemNotFoundException;
 import com.eshop.api.exception.CartNotFoundException;
 import com.eshop.api.exception.InsufficientInventoryException;
 import com.eshop.api.exception.InvalidCartItemQuantityException;
+import com.eshop.api.exception.InvalidCartOperationException;
 import com.eshop.api.exception.ProductVariantNotFoundException;
 import com.eshop.api.exception.ProductVariantUnavailableException;
+import com.eshop.api.security.AuthenticatedUserResolver;
 import com.eshop.api.user.User;
-import com.eshop.api.user.UserRepository;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,17 +38,21 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-
-record CartItemImagePayload(String imageUrl, String altText) {
-    static final CartItemImagePayload EMPTY = new CartItemImagePayload(null, null);
-}
-
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cart mutations work on single rows and never load the cart with its items; responses are built
+ * from {@link CartReadRepository}. Every mutation comes in two forms: one returning the whole cart
+ * and a {@code ...Delta} one returning only the changed line and the new totals.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -50,12 +60,242 @@ public class CartService {
 
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
+    private final CartReadRepository cartReadRepository;
     private final ProductVariantRepository productVariantRepository;
-    private final UserRepository userRepository;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
     private final ProductInteractionEventService interactionEventService;
+    private final CartStockHoldService cartStockHoldService;
+    private final GuestCartRepository guestCartRepository;
 
     @Transactional
     public CartResponse addItem(String email, AddCartItemRequest request) {
+        return loadCart(applyAddItem(email, request).cartId());
+    }
+
+    @Transactional
+    public CartDeltaResponse addItemDelta(String email, AddCartItemRequest request) {
+        return loadDelta(applyAddItem(email, request));
+    }
+
+    @Transactional
+    public CartResponse updateItem(String email, UUID itemId, UpdateCartItemRequest request) {
+        return loadCart(applyUpdateItem(email, itemId, request).cartId());
+    }
+
+    @Transactional
+    public CartDeltaResponse updateItemDelta(String email, UUID itemId, UpdateCartItemRequest request) {
+        return loadDelta(applyUpdateItem(email, itemId, request));
+    }
+
+    @Transactional
+    public CartResponse removeItem(String email, UUID itemId) {
+        return loadCart(applyRemoveItem(email, itemId).cartId());
+    }
+
+    @Transactional
+    public CartDeltaResponse removeItemDelta(String email, UUID itemId) {
+        return loadDelta(applyRemoveItem(email, itemId));
+    }
+
+    @Transactional
+    public CartResponse clearCart(String email) {
+        return loadCart(applyClearCart(email).cartId());
+    }
+
+    @Transactional
+    public CartDeltaResponse clearCartDelta(String email) {
+        return loadDelta(applyClearCart(email));
+    }
+
+    /**
+     * Applies a list of add/update/remove operations in one transaction. The operations are first
+     * replayed on the line quantities; the touched variants are then loaded with one query,
+     * validated together, and the resulting lines and stock holds written in batches.
+     */
+    @Transactional
+    public CartResponse applyOperations(String email, CartBatchRequest request) {
+        User user = findUser(email);
+        Cart cart = getOrCreateCart(user);
+
+        Map<UUID, CartItem> itemsByVariant = new HashMap<>();
+        Map<UUID, UUID> variantIdsByItemId = new HashMap<>();
+        for (CartItem item : cartItemRepository.findByCart_Id(cart.getId())) {
+            UUID variantId = item.getVariant().getId();
+            itemsByVariant.put(variantId, item);
+            variantIdsByItemId.put(item.getId(), variantId);
+        }
+
+        Map<UUID, Integer> previousQuantities = new HashMap<>();
+        itemsByVariant.forEach((variantId, item) -> previousQuantities.put(variantId, item.getQuantity()));
+        Map<UUID, Integer> quantities = new HashMap<>(previousQuantities);
+        Set<UUID> touched = new LinkedHashSet<>();
+        for (CartOperationRequest operation : request.getOperations()) {
+            switch (operation.getType()) {
+                case ADD -> {
+                    if (operation.getVariantId() == null) {
+                        throw new InvalidCartOperationException("variantId is required to add a cart item");
+                    }
+                    int quantity = Optional.ofNullable(operation.getQuantity()).orElse(1);
+                    quantities.merge(operation.getVariantId(), quantity, Integer::sum);
+                    touched.add(operation.getVariantId());
+                }
+                case UPDATE -> {
+                    UUID variantId = resolveLine(operation, quantities, variantIdsByItemId);
+                    if (operation.getQuantity() == null || operation.getQuantity() <= 0) {
+                        throw new InvalidCartItemQuantityException();
+                    }
+                    quantities.put(variantId, operation.getQuantity());
+                    touched.add(variantId);
+                }
+                case REMOVE -> {
+                    UUID variantId = resolveLine(operation, quantities, variantIdsByItemId);
+                    quantities.remove(variantId);
+                    touched.add(variantId);
+                }
+            }
+        }
+
+        Map<UUID, ProductVariant> variants = productVariantRepository.findByIdIn(touched).stream()
+            .collect(Collectors.toMap(ProductVariant::getId, Function.identity()));
+        Map<UUID, Integer> held = cartStockHoldService.findHeldQuantities(cart.getId());
+        for (UUID variantId : touched) {
+            ProductVariant variant = variants.get(variantId);
+            if (variant == null) {
+                throw new ProductVariantNotFoundException(variantId);
+            }
+            Integer quantity = quantities.get(variantId);
+            if (quantity != null) {
+                int heldQuantity = held.getOrDefault(variantId, 0);
+                ensureVariantAvailable(variant, heldQuantity);
+                validateStock(variant, quantity, heldQuantity);
+            }
+        }
+
+        Map<UUID, Integer> holds = new HashMap<>();
+        for (UUID variantId : touched) {
+            CartItem item = itemsByVariant.get(variantId);
+            int quantity = quantities.getOrDefault(variantId, 0);
+            if (quantity == 0) {
+                if (item != null) {
+                    cartItemRepository.delete(item);
+                }
+            } else if (item == null) {
+                cartItemRepository.save(CartItem.builder()
+                    .cart(cart)
+                    .variant(variants.get(variantId))
+                    .quantity(quantity)
+                    .build());
+            } else {
+                item.setQuantity(quantity);
+            }
+            holds.put(variantId, quantity);
+        }
+        cartItemRepository.flush();
+        cartStockHoldService.holdAll(cart.getId(), holds);
+
+        for (UUID variantId : touched) {
+            ProductVariant variant = variants.get(variantId);
+            int previousQuantity = previousQuantities.getOrDefault(variantId, 0);
+            int quantity = holds.get(variantId);
+            if (quantity > previousQuantity) {
+                interactionEventService.recordInteraction(user, variant.getProduct(), variant, InteractionType.ADD_TO_CART, metadata -> {
+                    metadata.put("quantity", quantity);
+                    metadata.put("requestedQuantity", quantity - previousQuantity);
+                });
+            } else if (quantity == 0 && previousQuantity > 0) {
+                interactionEventService.recordInteraction(user, variant.getProduct(), variant, InteractionType.REMOVE_FROM_CART, metadata -> {
+                    metadata.put("quantity", previousQuantity);
+                });
+            }
+        }
+        return loadCart(cart.getId());
+    }
+
+    /**
+     * Moves the guest cart of {@code sessionId} into the user's cart. Quantities of lines present
+     * in both are added up; lines that are no longer available are dropped and quantities are
+     * capped at the available stock, so a merge never fails on stock. The guest cart is deleted
+     * in the same transaction, which makes merging it a second time a no-op.
+     */
+    @Transactional
+    public CartResponse mergeGuestCart(String email, UUID sessionId) {
+        User user = findUser(email);
+        Cart cart = getOrCreateCart(user);
+        Map<UUID, Integer> guestQuantities = guestCartRepository.claim(sessionId);
+        if (guestQuantities.isEmpty()) {
+            cartRepository.flush();
+            return loadCart(cart.getId());
+        }
+
+        Map<UUID, CartItem> itemsByVariant = new HashMap<>();
+        for (CartItem item : cartItemRepository.findByCart_Id(cart.getId())) {
+            itemsByVariant.put(item.getVariant().getId(), item);
+        }
+        Map<UUID, ProductVariant> variants = productVariantRepository.findByIdIn(guestQuantities.keySet()).stream()
+            .collect(Collectors.toMap(ProductVariant::getId, Function.identity()));
+        Map<UUID, Integer> held = cartStockHoldService.findHeldQuantities(cart.getId());
+
+        Map<UUID, Integer> holds = new HashMap<>();
+        Map<UUID, Integer> previousQuantities = new HashMap<>();
+        guestQuantities.forEach((variantId, guestQuantity) -> {
+            ProductVariant variant = variants.get(variantId);
+            int heldQuantity = held.getOrDefault(variantId, 0);
+            try {
+                ensureVariantAvailable(variant, heldQuantity);
+            } catch (ProductVariantUnavailableException ex) {
+                log.debug("Dropping guest cart line for variant {} of session {}: {}", variantId, sessionId, ex.getMessage());
+                return;
+            }
+
+            CartItem item = itemsByVariant.get(variantId);
+            int previousQuantity = item != null ? Optional.ofNullable(item.getQuantity()).orElse(0) : 0;
+            int available = Optional.ofNullable(variant.getQuantityInStock()).orElse(0) + heldQuantity;
+            int quantity = Math.min(previousQuantity + guestQuantity, available);
+            if (quantity <= previousQuantity) {
+                return;
+            }
+            if (item == null) {
+                cartItemRepository.save(CartItem.builder()
+                    .cart(cart)
+                    .variant(variant)
+                    .quantity(quantity)
+                    .build());
+            } else {
+                item.setQuantity(quantity);
+            }
+            holds.put(variantId, quantity);
+            previousQuantities.put(variantId, previousQuantity);
+        });
+        cartItemRepository.flush();
+        cartStockHoldService.holdAll(cart.getId(), holds);
+
+        holds.forEach((variantId, quantity) -> {
+            ProductVariant variant = variants.get(variantId);
+            int previousQuantity = previousQuantities.get(variantId);
+            interactionEventService.recordInteraction(user, variant.getProduct(), variant, InteractionType.ADD_TO_CART, metadata -> {
+                metadata.put("quantity", quantity);
+                metadata.put("requestedQuantity", quantity - previousQuantity);
+                metadata.put("guestSessionId", sessionId.toString());
+            });
+        });
+        log.debug("Merged {} of {} guest cart line(s) of session {} into cart {}", holds.size(), guestQuantities.size(), sessionId, cart.getId());
+        return loadCart(cart.getId());
+    }
+
+    @Transactional
+    public CartResponse getCart(String email) {
+        User user = findUser(email);
+        CartSummary summary = cartReadRepository.findSummaryByUserId(user.getId())
+            .orElseGet(() -> {
+                Cart cart = cartRepository.saveAndFlush(Cart.builder()
+                    .user(user)
+                    .build());
+                return findSummary(cart.getId());
+            });
+        return toResponse(summary, cartReadRepository.findLines(summary.id()));
+    }
+
+    private CartChange applyAddItem(String email, AddCartItemRequest request) {
         User user = findUser(email);
         Cart cart = getOrCreateCart(user);
 
@@ -63,45 +303,42 @@ public class CartService {
         ProductVariant variant = productVariantRepository.findById(variantId)
             .orElseThrow(() -> new ProductVariantNotFoundException(variantId));
 
-        ensureVariantAvailable(variant);
+        int held = cartStockHoldService.findHeldQuantity(cart.getId(), variantId);
+        ensureVariantAvailable(variant, held);
 
         int requestedQuantity = Optional.ofNullable(request.getQuantity()).orElse(1);
         if (requestedQuantity <= 0) {
             throw new InvalidCartItemQuantityException();
         }
 
-        CartItem existingItem = findItemByVariant(cart, variant.getId());
+        CartItem existingItem = cartItemRepository.findByCart_IdAndVariant_Id(cart.getId(), variant.getId()).orElse(null);
         int resultingQuantity;
         if (existingItem == null) {
-            validateStock(variant, requestedQuantity);
-            CartItem newItem = CartItem.builder()
+            validateStock(variant, requestedQuantity, held);
+            cartItemRepository.save(CartItem.builder()
                 .cart(cart)
                 .variant(variant)
                 .quantity(requestedQuantity)
-                .build();
-            cart.addItem(newItem);
+                .build());
             resultingQuantity = requestedQuantity;
         } else {
             int currentQuantity = Optional.ofNullable(existingItem.getQuantity()).orElse(0);
             int newQuantity = currentQuantity + requestedQuantity;
-            validateStock(variant, newQuantity);
+            validateStock(variant, newQuantity, held);
             existingItem.setQuantity(newQuantity);
             resultingQuantity = newQuantity;
         }
 
-        cartRepository.save(cart);
+        cartItemRepository.flush();
+        cartStockHoldService.hold(cart.getId(), variant.getId(), resultingQuantity);
         interactionEventService.recordInteraction(user, variant.getProduct(), variant, InteractionType.ADD_TO_CART, metadata -> {
             metadata.put("quantity", resultingQuantity);
             metadata.put("requestedQuantity", requestedQuantity);
         });
-        Cart refreshed = cartRepository.findByUser_Id(user.getId())
-            .orElseThrow(() -> new CartNotFoundException(user.getId()));
-
-        return mapToResponse(refreshed);
+        return new CartChange(cart.getId(), variant.getId(), List.of());
     }
 
-    @Transactional
-    public CartResponse updateItem(String email, UUID itemId, UpdateCartItemRequest request) {
+    private CartChange applyUpdateItem(String email, UUID itemId, UpdateCartItemRequest request) {
         User user = findUser(email);
         CartItem cartItem = cartItemRepository.findByIdAndCart_User_Id(itemId, user.getId())
             .orElseThrow(() -> new CartItemNotFoundException(itemId));
@@ -112,94 +349,91 @@ public class CartService {
         }
 
         ProductVariant variant = cartItem.getVariant();
-        ensureVariantAvailable(variant);
-        validateStock(variant, quantity);
+        UUID cartId = cartItem.getCart().getId();
+        int held = variant != null ? cartStockHoldService.findHeldQuantity(cartId, variant.getId()) : 0;
+        ensureVariantAvailable(variant, held);
+        validateStock(variant, quantity, held);
 
         cartItem.setQuantity(quantity);
 
-        cartItemRepository.save(cartItem);
-        Cart refreshed = cartRepository.findByUser_Id(user.getId())
-            .orElseThrow(() -> new CartNotFoundException(user.getId()));
-        return mapToResponse(refreshed);
+        cartItemRepository.saveAndFlush(cartItem);
+        cartStockHoldService.hold(cartId, variant.getId(), quantity);
+        return new CartChange(cartId, variant.getId(), List.of());
     }
 
-    @Transactional
-    public CartResponse removeItem(String email, UUID itemId) {
+    private CartChange applyRemoveItem(String email, UUID itemId) {
         User user = findUser(email);
         CartItem cartItem = cartItemRepository.findByIdAndCart_User_Id(itemId, user.getId())
             .orElseThrow(() -> new CartItemNotFoundException(itemId));
 
-        Cart cart = cartItem.getCart();
-        cart.removeItem(cartItem);
+        UUID cartId = cartItem.getCart().getId();
         int removedQuantity = Optional.ofNullable(cartItem.getQuantity()).orElse(0);
         ProductVariant variant = cartItem.getVariant();
         cartItemRepository.delete(cartItem);
+        cartItemRepository.flush();
 
-        cartRepository.save(cart);
         if (variant != null) {
+            cartStockHoldService.release(cartId, variant.getId());
             interactionEventService.recordInteraction(user, variant.getProduct(), variant, InteractionType.REMOVE_FROM_CART, metadata -> {
                 metadata.put("quantity", removedQuantity);
             });
         }
-        Cart refreshed = cartRepository.findByUser_Id(user.getId())
-            .orElseThrow(() -> new CartNotFoundException(user.getId()));
-        return mapToResponse(refreshed);
+        return new CartChange(cartId, null, List.of(itemId));
     }
 
-    @Transactional
-    public CartResponse clearCart(String email) {
+    private CartChange applyClearCart(String email) {
         User user = findUser(email);
-        Cart cart = cartRepository.findByUser_Id(user.getId())
+        Cart cart = cartRepository.findWithoutItemsByUserId(user.getId())
             .orElseThrow(() -> new CartNotFoundException(user.getId()));
 
-        if (!cart.getItems().isEmpty()) {
-            // Copy to avoid ConcurrentModification exceptions
-            List<CartItem> itemsCopy = new ArrayList<>(cart.getItems());
-            itemsCopy.forEach(cart::removeItem);
+        List<UUID> removedItemIds = cartReadRepository.findItemIds(cart.getId());
+        if (!removedItemIds.isEmpty()) {
+            cartItemRepository.deleteAllByCartId(cart.getId());
         }
-
-        cartRepository.save(cart);
-        Cart refreshed = cartRepository.findByUser_Id(user.getId())
-            .orElse(cart);
-        return mapToResponse(refreshed);
+        cartStockHoldService.releaseAll(cart.getId());
+        return new CartChange(cart.getId(), null, removedItemIds);
     }
 
-    @Transactional
-    public CartResponse getCart(String email) {
-        User user = findUser(email);
-        Cart cart = cartRepository.findByUser_Id(user.getId())
-            .orElseGet(() -> cartRepository.save(Cart.builder()
-                .user(user)
-                .build()));
-        return mapToResponse(cart);
+    /**
+     * @return the variant of the line an update or remove refers to, as of the operations so far
+     */
+    private UUID resolveLine(CartOperationRequest operation, Map<UUID, Integer> quantities, Map<UUID, UUID> variantIdsByItemId) {
+        if (operation.getItemId() != null) {
+            UUID variantId = variantIdsByItemId.get(operation.getItemId());
+            if (variantId == null || !quantities.containsKey(variantId)) {
+                throw new CartItemNotFoundException(operation.getItemId());
+            }
+            return variantId;
+        }
+        if (operation.getVariantId() == null) {
+            throw new InvalidCartOperationException("itemId or variantId is required to " + operation.getType().name().toLowerCase() + " a cart item");
+        }
+        if (!quantities.containsKey(operation.getVariantId())) {
+            throw new InvalidCartOperationException("Cart has no item for variant: " + operation.getVariantId());
+        }
+        return operation.getVariantId();
     }
 
     private User findUser(String email) {
         if (email == null || email.isBlank()) {
             throw new UsernameNotFoundException("User email is required for cart operations");
         }
-        return userRepository.findByEmailIgnoreCase(email)
+        return authenticatedUserResolver.findUser(email)
             .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
 
     private Cart getOrCreateCart(User user) {
-        return cartRepository.findByUser_Id(user.getId())
+        return cartRepository.findWithoutItemsByUserId(user.getId())
             .orElseGet(() -> cartRepository.save(Cart.builder()
                 .user(user)
                 .build()));
     }
 
-    private CartItem findItemByVariant(Cart cart, UUID variantId) {
-        if (cart.getItems() == null || cart.getItems().isEmpty()) {
-            return null;
-        }
-        return cart.getItems().stream()
-            .filter(item -> item.getVariant() != null && variantId.equals(item.getVariant().getId()))
-            .findFirst()
-            .orElse(null);
-    }
-
-    private void ensureVariantAvailable(ProductVariant variant) {
+    /**
+     * {@code held} is the stock this cart already holds for the variant, which no longer shows
+     * in the variant's quantity but is still available to this cart.
+     */
+    static void ensureVariantAvailable(ProductVariant variant, int held) {
         if (variant == null) {
             throw new ProductVariantUnavailableException(null, "Variant reference is missing");
         }
@@ -210,172 +444,105 @@ public class CartService {
         if (product == null || product.getStatus() != ProductStatus.ACTIVE) {
             throw new ProductVariantUnavailableException(variant.getId(), "Product is not active");
         }
-        if (variant.getQuantityInStock() == null || variant.getQuantityInStock() <= 0) {
+        if (Optional.ofNullable(variant.getQuantityInStock()).orElse(0) + held <= 0) {
             throw new ProductVariantUnavailableException(variant.getId(), "Variant is out of stock");
         }
     }
 
-    private void validateStock(ProductVariant variant, int requestedQuantity) {
-        int available = Optional.ofNullable(variant.getQuantityInStock()).orElse(0);
+    static void validateStock(ProductVariant variant, int requestedQuantity, int held) {
+        int available = Optional.ofNullable(variant.getQuantityInStock()).orElse(0) + held;
         if (requestedQuantity > available) {
             throw new InsufficientInventoryException(variant.getId(), requestedQuantity, available);
         }
     }
 
-    private BigDecimal resolvePrice(ProductVariant variant) {
-        if (variant != null && variant.getPrice() != null) {
-            return variant.getPrice();
-        }
-        Product product = variant != null ? variant.getProduct() : null;
-        if (product != null && product.getBasePrice() != null) {
-            return product.getBasePrice();
-        }
-        return BigDecimal.ZERO;
+    private CartSummary findSummary(UUID cartId) {
+        return cartReadRepository.findSummary(cartId)
+            .orElseThrow(() -> new CartNotFoundException(cartId));
     }
 
-    private CartResponse mapToResponse(Cart cart) {
-        if (cart == null) {
-            return CartResponse.builder()
-                .id(null)
-                .userId(null)
-                .totalItems(0)
-                .totalQuantity(0)
-                .subtotal(BigDecimal.ZERO)
-                .createdAt(null)
-                .updatedAt(null)
-                .items(List.of())
-                .build();
-        }
-
-        List<CartItem> cartItems = cart.getItems() == null ? List.of() : cart.getItems().stream()
-            .sorted(Comparator.comparing(CartItem::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())))
-            .toList();
-
-        List<CartItemResponse> itemResponses = cartItems.stream()
-            .map(this::mapCartItem)
-            .toList();
-
-        int totalItems = itemResponses.size();
-        int totalQuantity = cartItems.stream()
-            .map(CartItem::getQuantity)
-            .filter(q -> q != null && q > 0)
-            .mapToInt(Integer::intValue)
-            .sum();
+    private CartResponse loadCart(UUID cartId) {
+        return toResponse(findSummary(cartId), cartReadRepository.findLines(cartId));
+    }
 
-        BigDecimal subtotal = cartItems.stream()
-            .map(item -> resolvePrice(item.getVariant())
-                .multiply(BigDecimal.valueOf(item.getQuantity() != null ? item.getQuantity() : 0)))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private CartDeltaResponse loadDelta(CartChange change) {
+        CartSummary summary = findSummary(change.cartId());
+        CartItemResponse item = change.changedVariantId() != null
+            ? cartReadRepository.findLineByVariant(change.cartId(), change.changedVariantId()).map(CartService::toItemResponse).orElse(null)
+            : null;
+
+        return CartDeltaResponse.builder()
+            .id(summary.id())
+            .userId(summary.userId())
+            .totalItems(summary.totalItems())
+            .totalQuantity(summary.totalQuantity())
+            .subtotal(summary.subtotal())
+            .updatedAt(summary.updatedAt())
+            .item(item)
+            .removedItemIds(change.removedItemIds())
+            .build();
+    }
 
+    static CartResponse toResponse(CartSummary summary, List<CartLine> lines) {
         return CartResponse.builder()
-            .id(cart.getId())
-            .userId(cart.getUser() != null ? cart.getUser().getId() : null)
-            .totalItems(totalItems)
-            .totalQuantity(totalQuantity)
-            .subtotal(subtotal)
-            .createdAt(cart.getCreatedAt())
-            .updatedAt(cart.getUpdatedAt())
-            .items(itemResponses)
+            .id(summary.id())
+            .userId(summary.userId())
+            .totalItems(summary.totalItems())
+            .totalQuantity(summary.totalQuantity())
+            .subtotal(summary.subtotal())
+            .createdAt(summary.createdAt())
+            .updatedAt(summary.updatedAt())
+            .items(lines.stream().map(CartService::toItemResponse).toList())
             .build();
     }
 
-    private CartItemResponse mapCartItem(CartItem item) {
-        ProductVariant variant = item.getVariant();
-        Product product = variant != null ? variant.getProduct() : null;
-
-        BigDecimal unitPrice = resolvePrice(variant);
-        BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity() != null ? item.getQuantity() : 0));
-
-        CartItemImagePayload imagePayload = resolveImage(variant, product);
+    static CartItemResponse toItemResponse(CartLine line) {
+        BigDecimal unitPrice = line.unitPrice() != null ? line.unitPrice() : BigDecimal.ZERO;
+        BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(line.quantity()));
 
         return CartItemResponse.builder()
-            .id(item.getId())
-            .variantId(variant != null ? variant.getId() : null)
-            .productId(product != null ? product.getId() : null)
-            .productName(product != null ? product.getName() : null)
-            .productSlug(product != null ? product.getSlug() : null)
-            .variantSku(variant != null ? variant.getVariantSku() : null)
-            .size(variant != null ? variant.getSize() : null)
-            .fit(variant != null ? variant.getFit() : null)
-            .color(mapColor(variant != null ? variant.getColor() : null))
-            .quantity(item.getQuantity())
+            .id(line.itemId())
+            .variantId(line.variantId())
+            .productId(line.productId())
+            .productName(line.productName())
+            .productSlug(line.productSlug())
+            .variantSku(line.variantSku())
+            .size(line.size())
+            .fit(line.fit())
+            .color(mapColor(line))
+            .quantity(line.quantity())
             .unitPrice(unitPrice)
             .lineTotal(lineTotal)
-            .inStock(isVariantAvailableForQuantity(variant, item.getQuantity()))
-            .availableQuantity(variant != null ? variant.getQuantityInStock() : null)
-            .imageUrl(imagePayload.imageUrl())
-            .altText(imagePayload.altText())
+            .inStock(isLineAvailable(line))
+            .availableQuantity(line.availableQuantity())
+            .imageUrl(line.imageUrl())
+            .altText(line.altText())
             .build();
     }
 
-    private CartItemImagePayload resolveImage(ProductVariant variant, Product product) {
-        // Prefer variant color-specific primary image
-        if (product != null && variant != null && variant.getColor() != null) {
-            String colorCode = variant.getColor().getCode();
-            if (colorCode != null && product.getImages() != null) {
-                Optional<ProductImage> colorImage = product.getImages().stream()
-                    .filter(image -> image.getColor() != null
-                        && colorCode.equalsIgnoreCase(image.getColor().getCode())
-//                        && Boolean.TRUE.equals(image.getPrimary())
-                           )
-                    .findFirst();
-                if (colorImage.isPresent()) {
-                    return toImagePayload(colorImage.get());
-                }
-            }
-        }
-
-        // Fallback to product primary image
-        if (product != null && product.getImages() != null) {
-            Optional<ProductImage> primary = product.getImages().stream()
-                .filter(image -> Boolean.TRUE.equals(image.getPrimary()))
-                .findFirst();
-            if (primary.isPresent()) {
-                return toImagePayload(primary.get());
-            }
-
-            // fallback to first image
-            Optional<ProductImage> first = product.getImages().stream().findFirst();
-            if (first.isPresent()) {
-                return toImagePayload(first.get());
-            }
-        }
-
-        return CartItemImagePayload.EMPTY;
-    }
-
-    private CartItemImagePayload toImagePayload(ProductImage image) {
-        if (image == null) {
-            return CartItemImagePayload.EMPTY;
-        }
-        return new CartItemImagePayload(image.getImageUrl(), image.getAltText());
-    }
-
-    private boolean isVariantAvailableForQuantity(ProductVariant variant, Integer quantity) {
-        if (variant == null) {
-            return false;
-        }
-        if (!Boolean.TRUE.equals(variant.getActive())) {
-            return false;
-        }
-        Product product = variant.getProduct();
-        if (product == null || product.getStatus() != ProductStatus.ACTIVE) {
+    private static boolean isLineAvailable(CartLine line) {
+        if (!line.variantActive() || line.productStatus() != ProductStatus.ACTIVE) {
             return false;
         }
-        int required = quantity == null ? 0 : quantity;
-        int available = Optional.ofNullable(variant.getQuantityInStock()).orElse(0);
-        return available >= required && available > 0;
+        return line.availableQuantity() >= line.quantity() && line.availableQuantity() > 0;
     }
 
-    private ColorResponse mapColor(Color color) {
-        if (color == null) {
+    private static ColorResponse mapColor(CartLine line) {
+        if (line.colorId() == null) {
             return null;
         }
         return ColorResponse.builder()
-            .id(color.getId())
-            .code(color.getCode())
-            .name(color.getName())
-            .hex(color.getHex())
+            .id(line.colorId())
+            .code(line.colorCode())
+            .name(line.colorName())
+            .hex(line.colorHex())
             .build();
     }
+
+    /**
+     * What a mutation touched: the line to report for a delta response, by variant since a new
+     * line's id is only known after flushing, and the ids of deleted lines.
+     */
+    private record CartChange(UUID cartId, UUID changedVariantId, List<UUID> removedItemIds) {
+    }
 }
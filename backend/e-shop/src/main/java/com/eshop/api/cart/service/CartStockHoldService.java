@@ -0,0 +1,188 @@
+package com.eshop.api.cart.service;
+
+import com.eshop.api.cart.config.CartStockHoldProperties;
+import com.eshop.api.cart.repository.CartStockHoldRepository;
+import com.eshop.api.cart.repository.CartStockHoldRepository.Hold;
+import com.eshop.api.cart.repository.CartStockHoldRepository.Key;
+import com.eshop.api.order.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Holds stock for cart lines for {@code app.cart.stock-holds.ttl} after they were last changed,
+ * so what a shopper has in the cart is still there at checkout. Checkout consumes the holds of
+ * the cart; holds that expire first are returned to stock by {@link CartStockHoldSweeper}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartStockHoldService {
+
+    private final CartStockHoldRepository holdRepository;
+    private final InventoryService inventoryService;
+    private final CartHoldExpiryWheel expiryWheel;
+    private final CartStockHoldProperties properties;
+
+    /**
+     * Sets the stock held for a cart line to {@code quantity} and restarts its expiry; only the
+     * difference to the current hold is taken from or returned to stock.
+     *
+     * @throws com.eshop.api.exception.InsufficientInventoryException if stock cannot cover an increase
+     */
+    @Transactional
+    public void hold(UUID cartId, UUID variantId, int quantity) {
+        holdAll(cartId, Map.of(variantId, quantity));
+    }
+
+    /**
+     * Sets the stock held for several lines of a cart at once, with one batched stock update for
+     * all increases and one for all decreases. A quantity of {@code 0} drops the line's hold.
+     *
+     * @param quantities quantity to hold per variant id
+     * @throws com.eshop.api.exception.InsufficientInventoryException if stock cannot cover an increase
+     */
+    @Transactional
+    public void holdAll(UUID cartId, Map<UUID, Integer> quantities) {
+        if (!properties.isEnabled() || quantities.isEmpty()) {
+            return;
+        }
+
+        Instant expiresAt = Instant.now().plus(properties.getTtl());
+        Map<UUID, Integer> held = holdRepository.lockQuantities(cartId, new TreeSet<>(quantities.keySet()), expiresAt);
+
+        SortedMap<UUID, Integer> missing = new TreeMap<>();
+        SortedMap<UUID, Integer> surplus = new TreeMap<>();
+        Map<UUID, Integer> kept = new HashMap<>();
+        List<UUID> dropped = new ArrayList<>();
+        quantities.forEach((variantId, quantity) -> {
+            int difference = quantity - held.getOrDefault(variantId, 0);
+            if (difference > 0) {
+                missing.put(variantId, difference);
+            } else if (difference < 0) {
+                surplus.put(variantId, -difference);
+            }
+            if (quantity > 0) {
+                kept.put(variantId, quantity);
+            } else {
+                dropped.add(variantId);
+            }
+        });
+        inventoryService.reserve(missing);
+        inventoryService.release(surplus);
+
+        holdRepository.updateAll(cartId, kept, expiresAt);
+        holdRepository.deleteAll(cartId, dropped);
+        afterCommit(() -> {
+            kept.keySet().forEach(variantId -> expiryWheel.schedule(new Key(cartId, variantId), expiresAt));
+            dropped.forEach(variantId -> expiryWheel.cancel(new Key(cartId, variantId)));
+        });
+    }
+
+    /**
+     * Returns the stock held for a cart line.
+     */
+    @Transactional
+    public void release(UUID cartId, UUID variantId) {
+        releaseToStock(holdRepository.delete(cartId, variantId));
+        Key key = new Key(cartId, variantId);
+        afterCommit(() -> expiryWheel.cancel(key));
+    }
+
+    /**
+     * Returns the stock held for every line of the cart.
+     */
+    @Transactional
+    public void releaseAll(UUID cartId) {
+        List<Hold> holds = holdRepository.deleteByCart(cartId);
+        releaseToStock(holds);
+        afterCommit(() -> holds.forEach(hold -> expiryWheel.cancel(hold.key())));
+    }
+
+    /**
+     * Removes the holds of the cart without returning their stock, which now belongs to the order
+     * being placed. Holds that expired but were not swept yet still count.
+     *
+     * @return the quantity held per variant
+     */
+    @Transactional
+    public Map<UUID, Integer> consume(UUID cartId) {
+        List<Hold> holds = holdRepository.deleteByCart(cartId);
+        Map<UUID, Integer> quantities = new HashMap<>();
+        for (Hold hold : holds) {
+            quantities.merge(hold.variantId(), hold.quantity(), Integer::sum);
+        }
+        afterCommit(() -> holds.forEach(hold -> expiryWheel.cancel(hold.key())));
+        return quantities;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<UUID, Integer> findHeldQuantities(UUID cartId) {
+        return cartId != null ? holdRepository.findQuantities(cartId) : Map.of();
+    }
+
+    @Transactional(readOnly = true)
+    public int findHeldQuantity(UUID cartId, UUID variantId) {
+        return cartId != null ? holdRepository.findQuantity(cartId, variantId) : 0;
+    }
+
+    /**
+     * Returns the stock of those of the given holds that have expired by {@code now}.
+     *
+     * @return the number of holds released
+     */
+    @Transactional
+    public int releaseExpired(Collection<Key> keys, Instant now) {
+        return releaseToStock(holdRepository.deleteExpired(keys, now));
+    }
+
+    /**
+     * Returns the stock of up to {@code limit} holds that have expired by {@code now}.
+     *
+     * @return the number of holds released
+     */
+    @Transactional
+    public int releaseExpired(Instant now, int limit) {
+        List<Hold> holds = holdRepository.deleteExpired(now, limit);
+        afterCommit(() -> holds.forEach(hold -> expiryWheel.cancel(hold.key())));
+        return releaseToStock(holds);
+    }
+
+    private int releaseToStock(List<Hold> holds) {
+        SortedMap<UUID, Integer> quantities = new TreeMap<>();
+        for (Hold hold : holds) {
+            if (hold.quantity() > 0) {
+                quantities.merge(hold.variantId(), hold.quantity(), Integer::sum);
+            }
+        }
+        inventoryService.release(quantities);
+        return holds.size();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
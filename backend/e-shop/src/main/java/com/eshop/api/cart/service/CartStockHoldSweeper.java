@@ -0,0 +1,84 @@
+package com.eshop.api.cart.service;
+
+import com.eshop.api.cart.config.CartStockHoldProperties;
+import com.eshop.api.cart.repository.CartStockHoldRepository;
+import com.eshop.api.cart.repository.CartStockHoldRepository.Hold;
+import com.eshop.api.cart.repository.CartStockHoldRepository.Key;
+import com.eshop.api.scheduling.service.BatchedDeletes;
+import com.eshop.api.scheduling.service.ClusterJobCoordinator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The one place expired cart holds are returned to stock. Every tick it releases the holds the
+ * {@link CartHoldExpiryWheel} reports as due, in one transaction per batch. A slower table sweep
+ * picks up whatever the wheel does not know about: holds created on other instances, holds that
+ * did not fit in the wheel and holds whose release failed.
+ * <p>
+ * The wheel only knows this instance's holds, so every instance ticks it; the table sweep covers
+ * all holds and runs only on the instance leading the {@value #SWEEP_JOB_NAME} job.
+ * <p>
+ * On startup the wheel is refilled from {@code cart_stock_holds}, so holds survive restarts.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CartStockHoldSweeper {
+
+    static final String SWEEP_JOB_NAME = "cart-stock-hold-sweep";
+
+    private static final int RELEASE_BATCH_SIZE = 500;
+
+    private final CartStockHoldRepository holdRepository;
+    private final CartStockHoldService holdService;
+    private final CartHoldExpiryWheel expiryWheel;
+    private final CartStockHoldProperties properties;
+    private final ClusterJobCoordinator jobCoordinator;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHolds() {
+        List<Hold> holds = holdRepository.findOldest(properties.getCapacity());
+        holds.forEach(hold -> expiryWheel.schedule(hold.key(), hold.expiresAt()));
+        log.info("Tracking {} cart stock hold(s) for expiry", holds.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.stock-holds.tick:PT1S}")
+    public void releaseDueHolds() {
+        Instant now = Instant.now();
+        List<Key> due = expiryWheel.advance(now);
+        for (int from = 0; from < due.size(); from += RELEASE_BATCH_SIZE) {
+            List<Key> batch = due.subList(from, Math.min(from + RELEASE_BATCH_SIZE, due.size()));
+            try {
+                int released = holdService.releaseExpired(batch, now);
+                log.debug("Released {} of {} due cart stock hold(s)", released, batch.size());
+            } catch (DataAccessException ex) {
+                log.warn("Releasing {} due cart stock hold(s) failed; leaving them to the table sweep", batch.size(), ex);
+            }
+        }
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.cart.stock-holds.sweep-interval:PT1M}",
+        fixedDelayString = "${app.cart.stock-holds.sweep-interval:PT1M}"
+    )
+    public void sweepExpiredHolds() {
+        jobCoordinator.runAsLeader(SWEEP_JOB_NAME, this::sweep);
+    }
+
+    private void sweep() {
+        Instant now = Instant.now();
+        int total = BatchedDeletes.untilExhausted("Sweeping expired cart stock holds", properties.getSweepBatchSize(),
+            batchSize -> holdService.releaseExpired(now, batchSize));
+        if (total > 0) {
+            log.info("Released {} expired cart stock hold(s) missed by the expiry wheel", total);
+        }
+    }
+}
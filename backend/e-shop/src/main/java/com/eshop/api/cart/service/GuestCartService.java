@@ -0,0 +1,131 @@
+package com.eshop.api.cart.service;
+
+import com.eshop.api.cart.config.GuestCartProperties;
+import com.eshop.api.cart.dto.AddCartItemRequest;
+import com.eshop.api.cart.dto.CartResponse;
+import com.eshop.api.cart.dto.UpdateCartItemRequest;
+import com.eshop.api.cart.repository.CartReadRepository;
+import com.eshop.api.cart.repository.CartReadRepository.CartLine;
+import com.eshop.api.cart.repository.CartReadRepository.CartSummary;
+import com.eshop.api.cart.repository.GuestCartRepository;
+import com.eshop.api.catalog.model.ProductVariant;
+import com.eshop.api.catalog.repository.ProductVariantRepository;
+import com.eshop.api.exception.CartItemNotFoundException;
+import com.eshop.api.exception.InvalidCartItemQuantityException;
+import com.eshop.api.exception.InvalidCartOperationException;
+import com.eshop.api.exception.ProductVariantNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Carts of shoppers who are not logged in, keyed by the client session id also sent with product
+ * views. Guest lines are validated against stock but do not hold it; every change restarts the
+ * cart's expiry. At login the cart is merged into the user's own cart by
+ * {@link CartService#mergeGuestCart}.
+ */
+@Service
+@RequiredArgsConstructor
+public class GuestCartService {
+
+    private final GuestCartRepository guestCartRepository;
+    private final CartReadRepository cartReadRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final GuestCartProperties properties;
+
+    @Transactional(readOnly = true)
+    public CartResponse getCart(UUID sessionId) {
+        return loadCart(sessionId);
+    }
+
+    @Transactional
+    public CartResponse addItem(UUID sessionId, AddCartItemRequest request) {
+        UUID variantId = request.getVariantId();
+        ProductVariant variant = productVariantRepository.findById(variantId)
+            .orElseThrow(() -> new ProductVariantNotFoundException(variantId));
+        CartService.ensureVariantAvailable(variant, 0);
+
+        int requestedQuantity = Optional.ofNullable(request.getQuantity()).orElse(1);
+        if (requestedQuantity <= 0) {
+            throw new InvalidCartItemQuantityException();
+        }
+        if (!guestCartRepository.exists(sessionId, variantId)
+            && guestCartRepository.countLines(sessionId) >= properties.getMaxItems()) {
+            throw new InvalidCartOperationException("A guest cart holds at most " + properties.getMaxItems() + " items");
+        }
+
+        Instant expiresAt = Instant.now().plus(properties.getTtl());
+        int quantity = guestCartRepository.add(sessionId, variantId, requestedQuantity, expiresAt);
+        CartService.validateStock(variant, quantity, 0);
+        guestCartRepository.touch(sessionId, expiresAt);
+        return loadCart(sessionId);
+    }
+
+    @Transactional
+    public CartResponse updateItem(UUID sessionId, UUID variantId, UpdateCartItemRequest request) {
+        int quantity = Optional.ofNullable(request.getQuantity()).orElse(0);
+        if (quantity <= 0) {
+            throw new InvalidCartItemQuantityException();
+        }
+        ProductVariant variant = productVariantRepository.findById(variantId)
+            .orElseThrow(() -> new CartItemNotFoundException(variantId));
+        CartService.ensureVariantAvailable(variant, 0);
+        CartService.validateStock(variant, quantity, 0);
+
+        if (!guestCartRepository.update(sessionId, variantId, quantity)) {
+            throw new CartItemNotFoundException(variantId);
+        }
+        guestCartRepository.touch(sessionId, Instant.now().plus(properties.getTtl()));
+        return loadCart(sessionId);
+    }
+
+    @Transactional
+    public CartResponse removeItem(UUID sessionId, UUID variantId) {
+        if (!guestCartRepository.delete(sessionId, variantId)) {
+            throw new CartItemNotFoundException(variantId);
+        }
+        guestCartRepository.touch(sessionId, Instant.now().plus(properties.getTtl()));
+        return loadCart(sessionId);
+    }
+
+    @Transactional
+    public CartResponse clearCart(UUID sessionId) {
+        guestCartRepository.deleteBySession(sessionId);
+        return loadCart(sessionId);
+    }
+
+    /**
+     * Deletes up to {@code limit} guest cart lines that have expired by {@code now}.
+     *
+     * @return the number of lines deleted
+     */
+    @Transactional
+    public int evictExpired(Instant now, int limit) {
+        return guestCartRepository.deleteExpired(now, limit);
+    }
+
+    private CartResponse loadCart(UUID sessionId) {
+        List<CartLine> lines = cartReadRepository.findGuestLines(sessionId);
+        BigDecimal subtotal = BigDecimal.ZERO;
+        int totalQuantity = 0;
+        for (CartLine line : lines) {
+            BigDecimal unitPrice = line.unitPrice() != null ? line.unitPrice() : BigDecimal.ZERO;
+            subtotal = subtotal.add(unitPrice.multiply(BigDecimal.valueOf(line.quantity())));
+            totalQuantity += line.quantity();
+        }
+        Instant createdAt = lines.stream()
+            .map(CartLine::createdAt)
+            .min(Comparator.naturalOrder())
+            .orElse(null);
+
+        CartSummary summary = new CartSummary(sessionId, null, createdAt, null, lines.size(), totalQuantity, subtotal);
+        return CartService.toResponse(summary, lines);
+    }
+}
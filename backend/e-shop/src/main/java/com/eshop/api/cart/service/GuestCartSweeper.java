@@ -0,0 +1,45 @@
+package com.eshop.api.cart.service;
+
+import com.eshop.api.cart.config.GuestCartProperties;
+import com.eshop.api.scheduling.service.BatchedDeletes;
+import com.eshop.api.scheduling.service.ClusterJobCoordinator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Evicts abandoned guest carts: lines whose expiry has passed are deleted in batches, one
+ * transaction each, so the sweep never holds many row locks at once. Only the instance leading
+ * the {@value #JOB_NAME} job sweeps.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GuestCartSweeper {
+
+    static final String JOB_NAME = "guest-cart-sweep";
+
+    private final GuestCartService guestCartService;
+    private final GuestCartProperties properties;
+    private final ClusterJobCoordinator jobCoordinator;
+
+    @Scheduled(
+        initialDelayString = "${app.cart.guest.sweep-interval:PT1H}",
+        fixedDelayString = "${app.cart.guest.sweep-interval:PT1H}"
+    )
+    public void evictExpiredCarts() {
+        jobCoordinator.runAsLeader(JOB_NAME, this::evict);
+    }
+
+    private void evict() {
+        Instant now = Instant.now();
+        int total = BatchedDeletes.untilExhausted("Evicting expired guest carts", properties.getSweepBatchSize(),
+            batchSize -> guestCartService.evictExpired(now, batchSize));
+        if (total > 0) {
+            log.info("Evicted {} expired guest cart line(s)", total);
+        }
+    }
+}
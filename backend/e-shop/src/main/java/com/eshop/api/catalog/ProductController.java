@@ -1,5 +1,6 @@
 package com.eshop.api.catalog;
 
+import com.eshop.api.catalog.dto.CursorPageResponse;
 import com.eshop.api.catalog.dto.PageResponse;
 import com.eshop.api.catalog.dto.ProductResponse;
 import com.eshop.api.catalog.dto.ProductSummaryResponse;
@@ -11,6 +12,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -34,6 +36,15 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageResponse<ProductSummaryResponse>> listProductsAfter(
+        @RequestParam("after") String after,
+        @RequestParam(value = "size", defaultValue = "20") int size,
+        @SortDefault(sort = "createdAt", direction = Sort.Direction.DESC) Sort sort) {
+        CursorPageResponse<ProductSummaryResponse> response = productService.getProducts(after, size, sort);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/gender/{gender}")
     public ResponseEntity<PageResponse<ProductSummaryResponse>> listProductsByGender(
         @PathVariable("gender") String genderValue,
@@ -43,6 +54,17 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/gender/{gender}", params = "after")
+    public ResponseEntity<CursorPageResponse<ProductSummaryResponse>> listProductsByGenderAfter(
+        @PathVariable("gender") String genderValue,
+        @RequestParam("after") String after,
+        @RequestParam(value = "size", defaultValue = "20") int size,
+        @SortDefault(sort = "createdAt", direction = Sort.Direction.DESC) Sort sort) {
+        Gender gender = resolveGender(genderValue);
+        CursorPageResponse<ProductSummaryResponse> response = productService.getProductsByGender(gender, after, size, sort);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/filter")
     public ResponseEntity<PageResponse<ProductSummaryResponse>> filterProducts(
         @RequestParam(value = "gender", required = false) String genderValue,
@@ -72,10 +94,43 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/filter", params = "after")
+    public ResponseEntity<CursorPageResponse<ProductSummaryResponse>> filterProductsAfter(
+        @RequestParam(value = "gender", required = false) String genderValue,
+        @RequestParam(value = "category", required = false) String categorySlug,
+        @RequestParam(value = "color", required = false) List<String> colors,
+        @RequestParam(value = "sizes", required = false) List<String> sizes,
+        @RequestParam(value = "inStock", required = false) Boolean inStock,
+        @RequestParam(value = "priceMin", required = false) BigDecimal priceMin,
+        @RequestParam(value = "priceMax", required = false) BigDecimal priceMax,
+        @RequestParam("after") String after,
+        @RequestParam(value = "size", defaultValue = "20") int size,
+        @SortDefault(sort = "createdAt", direction = Sort.Direction.DESC) Sort sort) {
+
+        Gender gender = null;
+        if (genderValue != null) {
+            gender = resolveGender(genderValue);
+        }
+
+        CursorPageResponse<ProductSummaryResponse> response = productService.getProductsByFilters(
+            gender,
+            categorySlug,
+            colors,
+            sizes,
+            inStock,
+            priceMin,
+            priceMax,
+            after,
+            size,
+            sort
+        );
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/search")
     public ResponseEntity<PageResponse<ProductSummaryResponse>> searchProducts(
         @RequestParam("q") String query,
-        @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
+        @PageableDefault(size = 20) Pageable pageable) {
         PageResponse<ProductSummaryResponse> response = productService.searchProducts(query, pageable);
         return ResponseEntity.ok(response);
     }
@@ -88,6 +143,16 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/category/{slug}", params = "after")
+    public ResponseEntity<CursorPageResponse<ProductSummaryResponse>> listProductsByCategoryAfter(
+        @PathVariable("slug") String categorySlug,
+        @RequestParam("after") String after,
+        @RequestParam(value = "size", defaultValue = "20") int size,
+        @SortDefault(sort = "createdAt", direction = Sort.Direction.DESC) Sort sort) {
+        CursorPageResponse<ProductSummaryResponse> response = productService.getProductsByCategorySlug(categorySlug, after, size, sort);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{slug}")
     public ResponseEntity<ProductResponse> getProductBySlug(@PathVariable String slug) {
         ProductResponse response = productService.getProductBySlug(slug);
@@ -13,6 +13,7 @@ import com.eshop.api.catalog.dto.ProductVariantCreateRequest;
 import com.eshop.api.catalog.dto.ProductVariantResponse;
 import com.eshop.api.catalog.dto.ProductVariantStockAdjustmentRequest;
 import com.eshop.api.catalog.dto.ProductVariantStockAdjustmentResponse;
+import com.eshop.api.catalog.dto.ProductVariantStockShardsRequest;
 import com.eshop.api.catalog.dto.ProductVariantStatusRequest;
 import com.eshop.api.catalog.dto.ProductVariantUpdateRequest;
 import com.eshop.api.catalog.enums.Gender;
@@ -208,6 +209,16 @@ public class AdminProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PutMapping("/{productId}/variants/{variantId}/stock-shards")
+    public ResponseEntity<ProductVariantResponse> configureVariantStockShards(
+        @PathVariable("productId") UUID productId,
+        @PathVariable("variantId") UUID variantId,
+        @Valid @RequestBody ProductVariantStockShardsRequest request
+    ) {
+        ProductVariantResponse response = productVariantService.configureStockShards(productId, variantId, request.shards());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{productId}/variants/{variantId}/stock-adjustments")
     public ResponseEntity<List<ProductVariantStockAdjustmentResponse>> listVariantStockAdjustments(
         @PathVariable("productId") UUID productId,
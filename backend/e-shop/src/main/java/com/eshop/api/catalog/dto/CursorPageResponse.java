@@ -0,0 +1,15 @@
+package com.eshop.api.catalog.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class CursorPageResponse<T> {
+    List<T> content;
+    int size;
+    boolean hasNext;
+    String nextCursor;
+}
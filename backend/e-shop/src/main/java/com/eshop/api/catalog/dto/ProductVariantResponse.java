@@ -9,12 +9,13 @@ import java.util.List;
 import java.util.UUID;
 
 @Value
-@Builder
+@Builder(toBuilder = true)
 public class ProductVariantResponse {
     UUID id;
     String variantSku;
     BigDecimal price;
     Integer quantityInStock;
+    Integer stockShards;
     Boolean active;
     String size;
     String fit;
@@ -0,0 +1,13 @@
+package com.eshop.api.catalog.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record ProductVariantStockShardsRequest(
+    @NotNull(message = "Shard count is required")
+    @Min(value = 0, message = "Shard count must be zero or greater")
+    @Max(value = 64, message = "Shard count must be 64 or fewer")
+    Integer shards
+) {
+}
@@ -0,0 +1,100 @@
+package com.eshop.api.catalog.model;
+
+import com.eshop.api.catalog.enums.Gender;
+import com.eshop.api.catalog.enums.ProductStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.dialect.PostgreSQLEnumJdbcType;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read-only, denormalized projection of a product and its variant facets.
+ * Rows are maintained through {@code ProductListingRepository#refresh} and never written through JPA.
+ */
+@Entity
+@Immutable
+@Table(name = "product_listings")
+@Getter
+@NoArgsConstructor
+public class ProductListing {
+
+    @Id
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private UUID productId;
+
+    @Column(name = "name", nullable = false, length = 255)
+    private String name;
+
+    @Column(name = "slug", length = 255)
+    private String slug;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "category_id", nullable = false)
+    private Integer categoryId;
+
+    @Column(name = "category_name", length = 255)
+    private String categoryName;
+
+    @Column(name = "category_slug", length = 255)
+    private String categorySlug;
+
+    @Column(name = "gender", columnDefinition = "gender")
+    @JdbcType(PostgreSQLEnumJdbcType.class)
+    @Enumerated(EnumType.STRING)
+    private Gender gender;
+
+    @Column(name = "status", nullable = false, length = 32)
+    private ProductStatus status;
+
+    @Column(name = "is_featured", nullable = false)
+    private Boolean featured;
+
+    @Column(name = "product_type", length = 128)
+    private String productType;
+
+    @Column(name = "base_price", nullable = false, precision = 12, scale = 2)
+    private BigDecimal basePrice;
+
+    @Column(name = "min_price", nullable = false, precision = 12, scale = 2)
+    private BigDecimal minPrice;
+
+    @Column(name = "max_price", nullable = false, precision = 12, scale = 2)
+    private BigDecimal maxPrice;
+
+    @Column(name = "sizes", columnDefinition = "text[]", nullable = false)
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private List<String> sizes = new ArrayList<>();
+
+    @Column(name = "colors", columnDefinition = "text[]", nullable = false)
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private List<String> colors = new ArrayList<>();
+
+    @Column(name = "in_stock", nullable = false)
+    private Boolean inStock;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private Instant refreshedAt;
+}
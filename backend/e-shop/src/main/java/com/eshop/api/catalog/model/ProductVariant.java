@@ -47,6 +47,15 @@ public class ProductVariant {
     @Builder.Default
     private Integer quantityInStock = 0;
 
+    /**
+     * Number of stock shards, or 0 when {@link #quantityInStock} holds the stock itself. Changed
+     * only through {@code ProductVariantStockWriter}; for sharded variants
+     * {@code quantityInStock} is a periodically synced sum of the shards.
+     */
+    @Column(name = "stock_shards", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer stockShards = 0;
+
     @Column(name = "is_active", nullable = false)
     @Builder.Default
     private Boolean active = true;
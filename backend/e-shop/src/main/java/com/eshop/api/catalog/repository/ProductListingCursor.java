@@ -0,0 +1,107 @@
+package com.eshop.api.catalog.repository;
+
+import com.eshop.api.catalog.model.ProductListing;
+import com.eshop.api.exception.InvalidPageCursorException;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Seek position for keyset pagination over {@code product_listings}: the sort key of the last
+ * row on the previous page plus its product id as tie-breaker. Clients only ever see the
+ * opaque token produced by {@link #encode()}.
+ */
+public record ProductListingCursor(SortKey sortKey, Sort.Direction direction, Object value, UUID productId) {
+
+    private static final String VERSION = "v1";
+
+    public enum SortKey {
+        CREATED_AT("createdAt", "created_at"),
+        UPDATED_AT("updatedAt", "updated_at"),
+        NAME("name", "name"),
+        BASE_PRICE("basePrice", "base_price");
+
+        private final String property;
+        private final String column;
+
+        SortKey(String property, String column) {
+            this.property = property;
+            this.column = column;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public static SortKey fromProperty(String property) {
+            if (property == null) {
+                return null;
+            }
+            for (SortKey key : values()) {
+                if (key.property.equals(property.trim())) {
+                    return key;
+                }
+            }
+            return null;
+        }
+
+        Object valueOf(ProductListing listing) {
+            return switch (this) {
+                case CREATED_AT -> listing.getCreatedAt();
+                case UPDATED_AT -> listing.getUpdatedAt();
+                case NAME -> listing.getName();
+                case BASE_PRICE -> listing.getBasePrice();
+            };
+        }
+
+        Object parse(String raw) {
+            return switch (this) {
+                case CREATED_AT, UPDATED_AT -> Instant.parse(raw);
+                case NAME -> raw;
+                case BASE_PRICE -> new BigDecimal(raw);
+            };
+        }
+    }
+
+    public static ProductListingCursor after(ProductListing listing, SortKey sortKey, Sort.Direction direction) {
+        return new ProductListingCursor(sortKey, direction, sortKey.valueOf(listing), listing.getProductId());
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, sortKey.getProperty(), direction.name(), productId.toString(), String.valueOf(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductListingCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new InvalidPageCursorException(token);
+            }
+
+            SortKey sortKey = SortKey.fromProperty(parts[1]);
+            if (sortKey == null) {
+                throw new InvalidPageCursorException(token);
+            }
+
+            return new ProductListingCursor(
+                sortKey,
+                Sort.Direction.valueOf(parts[2]),
+                sortKey.parse(parts[4]),
+                UUID.fromString(parts[3])
+            );
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidPageCursorException(token);
+        }
+    }
+}
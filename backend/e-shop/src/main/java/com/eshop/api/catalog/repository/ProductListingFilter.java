@@ -0,0 +1,31 @@
+package com.eshop.api.catalog.repository;
+
+import com.eshop.api.catalog.enums.Gender;
+import com.eshop.api.catalog.enums.ProductStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ProductListingFilter(
+    Gender gender,
+    List<Integer> categoryIds,
+    List<String> colors,
+    List<String> sizes,
+    Boolean inStock,
+    BigDecimal priceMin,
+    BigDecimal priceMax,
+    ProductStatus status
+) {
+
+    public static ProductListingFilter ofStatus(ProductStatus status) {
+        return new ProductListingFilter(null, List.of(), List.of(), List.of(), null, null, null, status);
+    }
+
+    public ProductListingFilter withGender(Gender gender) {
+        return new ProductListingFilter(gender, categoryIds, colors, sizes, inStock, priceMin, priceMax, status);
+    }
+
+    public ProductListingFilter withCategoryIds(List<Integer> categoryIds) {
+        return new ProductListingFilter(gender, categoryIds, colors, sizes, inStock, priceMin, priceMax, status);
+    }
+}
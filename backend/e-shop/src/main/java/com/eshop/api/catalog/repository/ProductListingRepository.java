@@ -0,0 +1,79 @@
+package com.eshop.api.catalog.repository;
+
+import com.eshop.api.catalog.model.ProductListing;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.UUID;
+
+public interface ProductListingRepository extends JpaRepository<ProductListing, UUID>, ProductListingRepositoryCustom {
+
+    @Modifying
+    @Query(
+        value = """
+            INSERT INTO product_listings (
+              product_id, name, slug, description, category_id, category_name, category_slug,
+              gender, status, is_featured, product_type, base_price, min_price, max_price,
+              sizes, colors, in_stock, created_at, updated_at, refreshed_at
+            )
+            SELECT
+              p.id,
+              p.name,
+              p.slug,
+              p.description,
+              p.category_id,
+              c.name,
+              c.slug,
+              p.gender,
+              p.status,
+              p.is_featured,
+              p.product_type,
+              p.base_price,
+              COALESCE((SELECT MIN(COALESCE(v.price, p.base_price)) FROM product_variants v WHERE v.product_id = p.id), p.base_price),
+              COALESCE((SELECT MAX(COALESCE(v.price, p.base_price)) FROM product_variants v WHERE v.product_id = p.id), p.base_price),
+              ARRAY(
+                SELECT DISTINCT lower(v.size)
+                FROM product_variants v
+                WHERE v.product_id = p.id AND v.size IS NOT NULL
+              ),
+              ARRAY(
+                SELECT DISTINCT lower(token)
+                FROM product_variants v
+                JOIN colors col ON col.id = v.color_id
+                CROSS JOIN LATERAL unnest(ARRAY[col.code, col.name]) AS token
+                WHERE v.product_id = p.id AND token IS NOT NULL
+              ),
+              EXISTS (SELECT 1 FROM product_variants v WHERE v.product_id = p.id AND v.quantity_in_stock > 0),
+              p.created_at,
+              p.updated_at,
+              NOW()
+            FROM products p
+            JOIN categories c ON c.id = p.category_id
+            WHERE p.id = :productId
+            ON CONFLICT (product_id) DO UPDATE SET
+              name = EXCLUDED.name,
+              slug = EXCLUDED.slug,
+              description = EXCLUDED.description,
+              category_id = EXCLUDED.category_id,
+              category_name = EXCLUDED.category_name,
+              category_slug = EXCLUDED.category_slug,
+              gender = EXCLUDED.gender,
+              status = EXCLUDED.status,
+              is_featured = EXCLUDED.is_featured,
+              product_type = EXCLUDED.product_type,
+              base_price = EXCLUDED.base_price,
+              min_price = EXCLUDED.min_price,
+              max_price = EXCLUDED.max_price,
+              sizes = EXCLUDED.sizes,
+              colors = EXCLUDED.colors,
+              in_stock = EXCLUDED.in_stock,
+              created_at = EXCLUDED.created_at,
+              updated_at = EXCLUDED.updated_at,
+              refreshed_at = EXCLUDED.refreshed_at
+        """,
+        nativeQuery = true
+    )
+    int refresh(@Param("productId") UUID productId);
+}
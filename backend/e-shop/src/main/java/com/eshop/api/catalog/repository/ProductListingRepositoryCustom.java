@@ -0,0 +1,23 @@
+package com.eshop.api.catalog.repository;
+
+import com.eshop.api.catalog.model.ProductListing;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+public interface ProductListingRepositoryCustom {
+
+    Page<ProductListing> findByFilters(ProductListingFilter filter, Pageable pageable);
+
+    /**
+     * Keyset variant of {@link #findByFilters}: seeks past {@code after} instead of using OFFSET and
+     * never issues a COUNT query. Returns at most {@code limit} rows.
+     */
+    List<ProductListing> findByFiltersAfter(ProductListingFilter filter,
+                                            ProductListingCursor.SortKey sortKey,
+                                            Sort.Direction direction,
+                                            ProductListingCursor after,
+                                            int limit);
+}
@@ -0,0 +1,179 @@
+package com.eshop.api.catalog.repository;
+
+import com.eshop.api.catalog.model.ProductListing;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class ProductListingRepositoryImpl implements ProductListingRepositoryCustom {
+
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.of(
+        "createdAt", "created_at",
+        "updatedAt", "updated_at",
+        "name", "name",
+        "slug", "slug",
+        "basePrice", "base_price",
+        "featured", "is_featured"
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Page<ProductListing> findByFilters(ProductListingFilter filter, Pageable pageable) {
+        List<String> predicates = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        applyFilter(filter, predicates, parameters);
+
+        String where = predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+
+        Query query = entityManager.createNativeQuery(
+            "SELECT * FROM product_listings" + where + buildOrderBy(pageable),
+            ProductListing.class
+        );
+        parameters.forEach(query::setParameter);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        List<ProductListing> content = query.getResultList();
+
+        Query countQuery = entityManager.createNativeQuery("SELECT COUNT(*) FROM product_listings" + where);
+        parameters.forEach(countQuery::setParameter);
+        long total = ((Number) countQuery.getSingleResult()).longValue();
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ProductListing> findByFiltersAfter(ProductListingFilter filter,
+                                                   ProductListingCursor.SortKey sortKey,
+                                                   Sort.Direction direction,
+                                                   ProductListingCursor after,
+                                                   int limit) {
+        List<String> predicates = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        applyFilter(filter, predicates, parameters);
+
+        String column = sortKey.getColumn();
+        String sqlDirection = direction.isAscending() ? "ASC" : "DESC";
+
+        if (after != null) {
+            // Row-value comparison lets PostgreSQL seek straight into the (sort key, product_id) index order.
+            predicates.add("(" + column + ", product_id) " + (direction.isAscending() ? ">" : "<") + " (:afterValue, :afterId)");
+            parameters.put("afterValue", after.value());
+            parameters.put("afterId", after.productId());
+        }
+
+        String where = predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+        String orderBy = " ORDER BY " + column + " " + sqlDirection + ", product_id " + sqlDirection;
+
+        Query query = entityManager.createNativeQuery("SELECT * FROM product_listings" + where + orderBy, ProductListing.class);
+        parameters.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    private void applyFilter(ProductListingFilter filter, List<String> predicates, Map<String, Object> parameters) {
+        if (filter == null) {
+            return;
+        }
+
+        if (filter.gender() != null) {
+            predicates.add("gender = CAST(:gender AS gender)");
+            parameters.put("gender", filter.gender().getValue());
+        }
+
+        if (filter.categoryIds() != null && !filter.categoryIds().isEmpty()) {
+            predicates.add("category_id IN (:categoryIds)");
+            parameters.put("categoryIds", filter.categoryIds());
+        }
+
+        if (filter.status() != null) {
+            predicates.add("status = :status");
+            parameters.put("status", filter.status().getValue());
+        }
+
+        // The facet columns narrow the candidates through their indexes; a variant must then match
+        // every requested variant facet on its own, so black M is not matched by a black S and a navy M.
+        List<String> variantPredicates = new ArrayList<>();
+
+        if (filter.colors() != null && !filter.colors().isEmpty()) {
+            predicates.add("colors && CAST(:colors AS text[])");
+            variantPredicates.add("(lower(col.code) IN (:colorList) OR lower(col.name) IN (:colorList))");
+            parameters.put("colors", filter.colors().toArray(new String[0]));
+            parameters.put("colorList", filter.colors());
+        }
+
+        if (filter.sizes() != null && !filter.sizes().isEmpty()) {
+            predicates.add("sizes && CAST(:sizes AS text[])");
+            variantPredicates.add("lower(v.size) IN (:sizeList)");
+            parameters.put("sizes", filter.sizes().toArray(new String[0]));
+            parameters.put("sizeList", filter.sizes());
+        }
+
+        if (Boolean.TRUE.equals(filter.inStock())) {
+            predicates.add("in_stock");
+            variantPredicates.add("v.quantity_in_stock > 0");
+        }
+
+        int variantFacets = variantPredicates.size();
+
+        if (filter.priceMin() != null) {
+            predicates.add("max_price >= :priceMin");
+            variantPredicates.add("COALESCE(v.price, product_listings.base_price) >= :priceMin");
+            parameters.put("priceMin", filter.priceMin());
+        }
+
+        if (filter.priceMax() != null) {
+            predicates.add("min_price <= :priceMax");
+            variantPredicates.add("COALESCE(v.price, product_listings.base_price) <= :priceMax");
+            parameters.put("priceMax", filter.priceMax());
+        }
+
+        // A single size, color or stock facet is answered exactly by its column; a price range is not.
+        if (variantFacets > 1 || variantPredicates.size() > variantFacets) {
+            boolean byColor = filter.colors() != null && !filter.colors().isEmpty();
+            String variantMatch = "EXISTS (SELECT 1 FROM product_variants v"
+                + (byColor ? " LEFT JOIN colors col ON col.id = v.color_id" : "")
+                + " WHERE v.product_id = product_listings.product_id AND " + String.join(" AND ", variantPredicates) + ")";
+            if (variantFacets == 0) {
+                // A product without variants is priced at its base price, which min_price and max_price already hold.
+                variantMatch = "(" + variantMatch
+                    + " OR NOT EXISTS (SELECT 1 FROM product_variants v WHERE v.product_id = product_listings.product_id))";
+            }
+            predicates.add(variantMatch);
+        }
+    }
+
+    private String buildOrderBy(Pageable pageable) {
+        List<String> orders = new ArrayList<>();
+        if (pageable != null) {
+            for (Sort.Order order : pageable.getSort()) {
+                String property = order.getProperty();
+                if (property == null) {
+                    continue;
+                }
+                // Ignore unknown sort properties to keep behaviour consistent with default queries
+                String column = SORTABLE_COLUMNS.get(property.trim());
+                if (column != null) {
+                    orders.add(column + (order.isAscending() ? " ASC" : " DESC"));
+                }
+            }
+        }
+        // Tie-break on the primary key so pages are stable when sort values collide.
+        orders.add("product_id ASC");
+        return " ORDER BY " + String.join(", ", orders);
+    }
+}
@@ -22,30 +22,6 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
 
     boolean existsBySlugAndStatus(String slug, ProductStatus status);
 
-    @EntityGraph(attributePaths = {
-        "category",
-        "tags",
-        "variants",
-        "variants.color",
-        "variants.attributeValues",
-        "variants.attributeValues.attribute",
-        "images",
-        "images.color"
-    })
-    Optional<Product> findWithDetailsBySlug(String slug);
-
-    @EntityGraph(attributePaths = {
-        "category",
-        "tags",
-        "variants",
-        "variants.color",
-        "variants.attributeValues",
-        "variants.attributeValues.attribute",
-        "images",
-        "images.color"
-    })
-    Optional<Product> findWithDetailsById(UUID id);
-
     @EntityGraph(attributePaths = "category")
     Page<Product> findByStatus(ProductStatus status, Pageable pageable);
 
@@ -1,25 +1,30 @@
 package com.eshop.api.catalog.repository;
 
-import com.eshop.api.catalog.enums.Gender;
-import com.eshop.api.catalog.enums.ProductStatus;
 import com.eshop.api.catalog.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
-import java.math.BigDecimal;
-import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 public interface ProductRepositoryCustom {
 
-    Page<Product> findByFilters(
-        Gender gender,
-        List<Integer> categoryIds,
-        List<String> colors,
-        List<String> sizes,
-        Boolean inStock,
-        BigDecimal priceMin,
-        BigDecimal priceMax,
-        ProductStatus status,
-        Pageable pageable
-    );
+    /**
+     * Loads a product with its category, tags, variants (with colors and attribute values) and
+     * images. Each collection is fetched by its own query instead of one join across all of
+     * them, so the result set grows with the sum of the collection sizes, not their product.
+     * Must be called inside a transaction.
+     */
+    Optional<Product> findWithDetailsBySlug(String slug);
+
+    /**
+     * @see #findWithDetailsBySlug(String)
+     */
+    Optional<Product> findWithDetailsById(UUID id);
+
+    /**
+     * Full-text search backed by the {@code search_vector} GIN index. Results are ordered by
+     * relevance unless the pageable carries an explicit sort.
+     */
+    Page<Product> search(ProductSearchCriteria criteria, Pageable pageable);
 }
@@ -1,211 +1,185 @@
 package com.eshop.api.catalog.repository;
 
-import com.eshop.api.catalog.enums.Gender;
-import com.eshop.api.catalog.enums.ProductStatus;
-import com.eshop.api.catalog.model.Color;
 import com.eshop.api.catalog.model.Product;
 import com.eshop.api.catalog.model.ProductVariant;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.TypedQuery;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Expression;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
-import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
+import jakarta.persistence.Query;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Repository
 public class ProductRepositoryImpl implements ProductRepositoryCustom {
 
+    private static final String TS_QUERY = "to_tsquery('simple', immutable_unaccent(:terms))";
+
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.of(
+        "createdAt", "p.created_at",
+        "updatedAt", "p.updated_at",
+        "name", "p.name",
+        "slug", "p.slug",
+        "basePrice", "p.base_price",
+        "featured", "p.is_featured"
+    );
+
     @PersistenceContext
     private EntityManager entityManager;
 
     @Override
-    public Page<Product> findByFilters(
-        Gender gender,
-        List<Integer> categoryIds,
-        List<String> colors,
-        List<String> sizes,
-        Boolean inStock,
-        BigDecimal priceMin,
-        BigDecimal priceMax,
-        ProductStatus status,
-        Pageable pageable
-    ) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-
-        CriteriaQuery<Product> query = cb.createQuery(Product.class);
-        Root<Product> root = query.from(Product.class);
-        root.fetch("category", JoinType.LEFT);
-
-        List<Predicate> predicates = new ArrayList<>();
-        Join<Product, ProductVariant> variantJoin = null;
-        Join<ProductVariant, Color> colorJoin = null;
-
-        if (gender != null) {
-            predicates.add(cb.equal(root.get("gender"), gender));
-        }
-
-        if (categoryIds != null && !categoryIds.isEmpty()) {
-            predicates.add(root.get("category").get("id").in(categoryIds));
-        }
-
-        if (status != null) {
-            predicates.add(cb.equal(root.get("status"), status));
-        }
-
-        if (colors != null && !colors.isEmpty()) {
-            variantJoin = ensureVariantJoin(root, query, variantJoin, false);
-            colorJoin = variantJoin.join("color", JoinType.LEFT);
-
-            Expression<String> codeExpr = cb.lower(colorJoin.get("code"));
-            Expression<String> nameExpr = cb.lower(colorJoin.get("name"));
-            predicates.add(cb.or(codeExpr.in(colors), nameExpr.in(colors)));
-        }
-
-        if (sizes != null && !sizes.isEmpty()) {
-            variantJoin = ensureVariantJoin(root, query, variantJoin, false);
-            Expression<String> sizeExpr = cb.lower(variantJoin.get("size"));
-            predicates.add(sizeExpr.in(sizes));
-        }
-
-        if (Boolean.TRUE.equals(inStock)) {
-            variantJoin = ensureVariantJoin(root, query, variantJoin, false);
-            predicates.add(cb.greaterThan(variantJoin.get("quantityInStock"), 0));
-        }
-
-        if (priceMin != null) {
-            variantJoin = ensureVariantJoin(root, query, variantJoin, false);
-            Expression<BigDecimal> priceExpression = cb.coalesce(variantJoin.get("price"), root.get("basePrice"));
-            predicates.add(cb.greaterThanOrEqualTo(priceExpression, priceMin));
-        }
-
-        if (priceMax != null) {
-            variantJoin = ensureVariantJoin(root, query, variantJoin, false);
-            Expression<BigDecimal> priceExpression = cb.coalesce(variantJoin.get("price"), root.get("basePrice"));
-            predicates.add(cb.lessThanOrEqualTo(priceExpression, priceMax));
-        }
-
-        query.select(root).distinct(true);
-        if (!predicates.isEmpty()) {
-            query.where(cb.and(predicates.toArray(new Predicate[0])));
-        }
+    public Optional<Product> findWithDetailsBySlug(String slug) {
+        return loadDetails(entityManager.createQuery(
+                "SELECT p FROM Product p JOIN FETCH p.category WHERE p.slug = :slug", Product.class)
+            .setParameter("slug", slug)
+            .getResultStream()
+            .findFirst());
+    }
 
-        applySorting(pageable, cb, query, root);
+    @Override
+    public Optional<Product> findWithDetailsById(UUID id) {
+        return loadDetails(entityManager.createQuery(
+                "SELECT p FROM Product p JOIN FETCH p.category WHERE p.id = :id", Product.class)
+            .setParameter("id", id)
+            .getResultStream()
+            .findFirst());
+    }
 
-        TypedQuery<Product> typedQuery = entityManager.createQuery(query);
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-        List<Product> content = typedQuery.getResultList();
+    private Optional<Product> loadDetails(Optional<Product> root) {
+        root.ifPresent(product -> {
+            // Every query below initializes a collection on the already managed product or its
+            // variants, so the persistence context assembles the aggregate without extra lookups.
+            entityManager.createQuery(
+                    "SELECT p FROM Product p LEFT JOIN FETCH p.tags WHERE p = :product", Product.class)
+                .setParameter("product", product)
+                .getResultList();
+
+            entityManager.createQuery(
+                    "SELECT p FROM Product p LEFT JOIN FETCH p.variants v LEFT JOIN FETCH v.color WHERE p = :product",
+                    Product.class)
+                .setParameter("product", product)
+                .getResultList();
+
+            if (!product.getVariants().isEmpty()) {
+                entityManager.createQuery(
+                        "SELECT v FROM ProductVariant v LEFT JOIN FETCH v.attributeValues av LEFT JOIN FETCH av.attribute "
+                            + "WHERE v.product = :product", ProductVariant.class)
+                    .setParameter("product", product)
+                    .getResultList();
+            }
 
-        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
-        Root<Product> countRoot = countQuery.from(Product.class);
+            entityManager.createQuery(
+                    "SELECT p FROM Product p LEFT JOIN FETCH p.images i LEFT JOIN FETCH i.color WHERE p = :product",
+                    Product.class)
+                .setParameter("product", product)
+                .getResultList();
+        });
+        return root;
+    }
 
-        List<Predicate> countPredicates = new ArrayList<>();
-        Join<Product, ProductVariant> countVariantJoin = null;
-        Join<ProductVariant, Color> countColorJoin = null;
+    @Override
+    @SuppressWarnings("unchecked")
+    public Page<Product> search(ProductSearchCriteria criteria, Pageable pageable) {
+        List<String> predicates = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
 
-        if (gender != null) {
-            countPredicates.add(cb.equal(countRoot.get("gender"), gender));
-        }
+        predicates.add("p.search_vector @@ " + TS_QUERY);
+        parameters.put("terms", criteria.terms());
 
-        if (categoryIds != null && !categoryIds.isEmpty()) {
-            countPredicates.add(countRoot.get("category").get("id").in(categoryIds));
+        if (criteria.status() != null) {
+            predicates.add("p.status = :status");
+            parameters.put("status", criteria.status().getValue());
         }
 
-        if (status != null) {
-            countPredicates.add(cb.equal(countRoot.get("status"), status));
+        if (criteria.featured() != null) {
+            predicates.add("p.is_featured = :featured");
+            parameters.put("featured", criteria.featured());
         }
 
-        if (colors != null && !colors.isEmpty()) {
-            countVariantJoin = ensureVariantJoin(countRoot, countQuery, countVariantJoin, true);
-            countColorJoin = countVariantJoin.join("color", JoinType.LEFT);
-            Expression<String> codeExpr = cb.lower(countColorJoin.get("code"));
-            Expression<String> nameExpr = cb.lower(countColorJoin.get("name"));
-            countPredicates.add(cb.or(codeExpr.in(colors), nameExpr.in(colors)));
+        if (criteria.gender() != null) {
+            predicates.add("p.gender = CAST(:gender AS gender)");
+            parameters.put("gender", criteria.gender().getValue());
         }
 
-        if (sizes != null && !sizes.isEmpty()) {
-            countVariantJoin = ensureVariantJoin(countRoot, countQuery, countVariantJoin, true);
-            Expression<String> sizeExpr = cb.lower(countVariantJoin.get("size"));
-            countPredicates.add(sizeExpr.in(sizes));
+        if (criteria.categoryId() != null) {
+            predicates.add("p.category_id = :categoryId");
+            parameters.put("categoryId", criteria.categoryId());
         }
 
-        if (Boolean.TRUE.equals(inStock)) {
-            countVariantJoin = ensureVariantJoin(countRoot, countQuery, countVariantJoin, true);
-            countPredicates.add(cb.greaterThan(countVariantJoin.get("quantityInStock"), 0));
+        if (criteria.updatedAfter() != null) {
+            predicates.add("p.updated_at >= :updatedAfter");
+            parameters.put("updatedAfter", criteria.updatedAfter());
         }
 
-        if (priceMin != null) {
-            countVariantJoin = ensureVariantJoin(countRoot, countQuery, countVariantJoin, true);
-            Expression<BigDecimal> priceExpression = cb.coalesce(countVariantJoin.get("price"), countRoot.get("basePrice"));
-            countPredicates.add(cb.greaterThanOrEqualTo(priceExpression, priceMin));
+        if (criteria.updatedBefore() != null) {
+            predicates.add("p.updated_at <= :updatedBefore");
+            parameters.put("updatedBefore", criteria.updatedBefore());
         }
 
-        if (priceMax != null) {
-            countVariantJoin = ensureVariantJoin(countRoot, countQuery, countVariantJoin, true);
-            Expression<BigDecimal> priceExpression = cb.coalesce(countVariantJoin.get("price"), countRoot.get("basePrice"));
-            countPredicates.add(cb.lessThanOrEqualTo(priceExpression, priceMax));
-        }
+        String where = " WHERE " + String.join(" AND ", predicates);
 
-        if (!countPredicates.isEmpty()) {
-            countQuery.where(cb.and(countPredicates.toArray(new Predicate[0])));
-        }
+        Query query = entityManager.createNativeQuery("SELECT p.id FROM products p" + where + buildOrderBy(pageable), UUID.class);
+        parameters.forEach(query::setParameter);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        List<UUID> ids = query.getResultList();
+        List<Product> content = loadInOrder(ids);
 
-        countQuery.select(cb.countDistinct(countRoot));
-        Long total = entityManager.createQuery(countQuery).getSingleResult();
+        Query countQuery = entityManager.createNativeQuery("SELECT COUNT(*) FROM products p" + where);
+        parameters.forEach(countQuery::setParameter);
+        long total = ((Number) countQuery.getSingleResult()).longValue();
 
         return new PageImpl<>(content, pageable, total);
     }
 
-    private Join<Product, ProductVariant> ensureVariantJoin(
-        Root<Product> root,
-        CriteriaQuery<?> query,
-        Join<Product, ProductVariant> current,
-        boolean countQuery
-    ) {
-        if (current == null) {
-            current = root.join("variants", JoinType.LEFT);
-            if (!countQuery) {
-                query.distinct(true);
-            }
+    private List<Product> loadInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
         }
-        return current;
-    }
 
-    private void applySorting(Pageable pageable, CriteriaBuilder cb, CriteriaQuery<Product> query, Root<Product> root) {
-        if (pageable == null || pageable.getSort().isUnsorted()) {
-            return;
-        }
+        // Fetch the page in one round trip with its category, then restore the ranked order.
+        Map<UUID, Product> byId = entityManager.createQuery(
+                "SELECT p FROM Product p JOIN FETCH p.category WHERE p.id IN :ids", Product.class)
+            .setParameter("ids", ids)
+            .getResultStream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
 
-        List<jakarta.persistence.criteria.Order> orders = new ArrayList<>();
+        return ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    private String buildOrderBy(Pageable pageable) {
+        List<String> orders = new ArrayList<>();
         for (Sort.Order order : pageable.getSort()) {
             String property = order.getProperty();
-            if (property == null || property.isBlank()) {
+            if (property == null) {
                 continue;
             }
-
-            try {
-                jakarta.persistence.criteria.Path<Object> path = root.get(property.trim());
-                orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
-            } catch (IllegalArgumentException ignored) {
-                // Ignore invalid sort properties to keep behaviour consistent with default queries
+            // Ignore unknown sort properties to keep behaviour consistent with default queries
+            String column = SORTABLE_COLUMNS.get(property.trim());
+            if (column != null) {
+                orders.add(column + (order.isAscending() ? " ASC" : " DESC"));
             }
         }
-
-        if (!orders.isEmpty()) {
-            query.orderBy(orders);
+        if (orders.isEmpty()) {
+            // Name hits (weight A) outrank slug and description hits; newer products break ties.
+            orders.add("ts_rank_cd(p.search_vector, " + TS_QUERY + ") DESC");
+            orders.add("p.created_at DESC");
         }
+        orders.add("p.id ASC");
+        return " ORDER BY " + String.join(", ", orders);
     }
 }
@@ -0,0 +1,55 @@
+package com.eshop.api.catalog.repository;
+
+import com.eshop.api.catalog.enums.Gender;
+import com.eshop.api.catalog.enums.ProductStatus;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search request against {@code products.search_vector}. {@code terms} is a
+ * {@code to_tsquery} expression, normally produced by {@link #toPrefixQuery(String)}.
+ */
+public record ProductSearchCriteria(
+    String terms,
+    ProductStatus status,
+    Boolean featured,
+    Gender gender,
+    Integer categoryId,
+    Instant updatedAfter,
+    Instant updatedBefore
+) {
+
+    private static final int MAX_TERMS = 8;
+
+    public static ProductSearchCriteria ofStatus(String terms, ProductStatus status) {
+        return new ProductSearchCriteria(terms, status, null, null, null, null, null);
+    }
+
+    /**
+     * Turns free text into a tsquery where every word must match and the last word is matched
+     * as a prefix, so partially typed input already returns results. Punctuation is dropped,
+     * which also keeps user input from reaching the tsquery parser as operators.
+     *
+     * @return the tsquery expression, or {@code null} when the text holds no searchable words
+     */
+    public static String toPrefixQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        List<String> words = Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+            .filter(word -> !word.isEmpty())
+            .limit(MAX_TERMS)
+            .toList();
+
+        if (words.isEmpty()) {
+            return null;
+        }
+
+        return words.stream().collect(Collectors.joining(" & ", "", ":*"));
+    }
+}
@@ -0,0 +1,362 @@
+package com.eshop.api.catalog.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Changes {@code product_variants.quantity_in_stock} with relative, conditional UPDATEs instead
+ * of writing back a quantity read earlier, so concurrent checkouts can neither oversell nor lose
+ * each other's updates. Every call sends its rows as one JDBC batch in ascending variant id
+ * order; since each statement locks its row, callers always lock variants in the same order and
+ * cannot deadlock against each other.
+ * <p>
+ * Variants with {@code stock_shards > 0} keep their stock in {@code product_variant_stock_shards}
+ * instead. A reservation takes from one random shard that is not locked by another transaction,
+ * so checkouts of a hot variant spread over the shards rather than queueing on one row. When
+ * every shard is busy, it waits on one random shard that holds enough, a bounded number of times;
+ * only when no single shard can cover the request are all shards locked and drained in order.
+ * Sharded variants are handled after the unsharded batch, again in id order.
+ * <p>
+ * These writes bypass the persistence context: managed {@code ProductVariant} instances keep the
+ * quantity they were loaded with.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductVariantStockWriter {
+
+    public static final int MAX_STOCK_SHARDS = 64;
+
+    private static final int BLOCKING_SHARD_ATTEMPTS = 3;
+
+    private static final String DECREMENT_SQL = """
+        UPDATE product_variants
+        SET quantity_in_stock = quantity_in_stock - ?
+        WHERE id = ? AND stock_shards = 0 AND quantity_in_stock >= ?
+        """;
+
+    private static final String INCREMENT_SQL = """
+        UPDATE product_variants
+        SET quantity_in_stock = quantity_in_stock + ?
+        WHERE id = ? AND stock_shards = 0
+        """;
+
+    private static final String TAKE_FROM_ANY_SHARD_SQL = """
+        UPDATE product_variant_stock_shards
+        SET quantity = quantity - ?
+        WHERE variant_id = ?
+          AND quantity >= ?
+          AND shard = (
+            SELECT s.shard
+            FROM product_variant_stock_shards s
+            WHERE s.variant_id = ? AND s.quantity >= ?
+            ORDER BY random()
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+          )
+        """;
+
+    private static final String TAKE_FROM_SHARD_SQL = """
+        UPDATE product_variant_stock_shards
+        SET quantity = quantity - ?
+        WHERE variant_id = ? AND shard = ? AND quantity >= ?
+        """;
+
+    private static final String RETURN_TO_ANY_SHARD_SQL = """
+        UPDATE product_variant_stock_shards
+        SET quantity = quantity + ?
+        WHERE variant_id = ?
+          AND shard = (
+            SELECT floor(random() * v.stock_shards)::int
+            FROM product_variants v
+            WHERE v.id = ? AND v.stock_shards > 0
+          )
+        """;
+
+    private static final String SYNC_SHARDED_TOTALS_SQL = """
+        UPDATE product_variants v
+        SET quantity_in_stock = s.total
+        FROM (
+          SELECT variant_id, SUM(quantity)::int AS total
+          FROM product_variant_stock_shards
+          GROUP BY variant_id
+        ) s
+        WHERE v.id = s.variant_id
+          AND v.stock_shards > 0
+          AND v.quantity_in_stock <> s.total
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record StockLevel(UUID variantId, UUID productId, int quantityInStock, boolean sharded) {
+    }
+
+    /**
+     * Takes the requested quantity from each variant if, and only if, enough stock is left.
+     *
+     * @param quantities quantity per variant id, iterated in ascending id order
+     * @return the ids of variants that were missing or had too little stock; their rows are
+     * unchanged, but the other rows of the batch are already decremented
+     */
+    public List<UUID> decrementAll(SortedMap<UUID, Integer> quantities) {
+        List<Map.Entry<UUID, Integer>> rows = new ArrayList<>(quantities.entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setObject(2, row.getKey());
+            ps.setInt(3, row.getValue());
+        });
+
+        List<UUID> missed = new ArrayList<>();
+        // Rows skipped by the batch are either short or sharded; the shard path tells them apart.
+        for (UUID variantId : rowsNotUpdated(rows, counts)) {
+            if (!takeFromShards(variantId, quantities.get(variantId))) {
+                missed.add(variantId);
+            }
+        }
+        return missed;
+    }
+
+    /**
+     * Returns the given quantity to each variant.
+     *
+     * @param quantities quantity per variant id, iterated in ascending id order
+     * @return the ids of variants that no longer exist
+     */
+    public List<UUID> incrementAll(SortedMap<UUID, Integer> quantities) {
+        List<Map.Entry<UUID, Integer>> rows = new ArrayList<>(quantities.entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(INCREMENT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setObject(2, row.getKey());
+        });
+
+        // Rows skipped by the batch are either sharded or gone.
+        Set<UUID> skipped = new HashSet<>(rowsNotUpdated(rows, counts));
+        if (skipped.isEmpty()) {
+            return List.of();
+        }
+
+        List<Map.Entry<UUID, Integer>> shardedRows = rows.stream()
+            .filter(row -> skipped.contains(row.getKey()))
+            .toList();
+        int[][] shardCounts = jdbcTemplate.batchUpdate(RETURN_TO_ANY_SHARD_SQL, shardedRows, shardedRows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setObject(2, row.getKey());
+            ps.setObject(3, row.getKey());
+        });
+        return rowsNotUpdated(shardedRows, shardCounts);
+    }
+
+    /**
+     * Reads current stock; for sharded variants the sum of their shards.
+     */
+    public Map<UUID, StockLevel> findStockLevels(Collection<UUID> variantIds) {
+        Map<UUID, StockLevel> levels = new HashMap<>();
+        if (variantIds.isEmpty()) {
+            return levels;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(variantIds.size(), "?"));
+        jdbcTemplate.query(
+            """
+            SELECT v.id,
+                   v.product_id,
+                   v.stock_shards > 0 AS sharded,
+                   CASE WHEN v.stock_shards > 0
+                        THEN COALESCE((SELECT SUM(s.quantity) FROM product_variant_stock_shards s WHERE s.variant_id = v.id), 0)
+                        ELSE v.quantity_in_stock
+                   END AS quantity_in_stock
+            FROM product_variants v
+            WHERE v.id IN (%s)
+            """.formatted(placeholders),
+            rs -> {
+                StockLevel level = new StockLevel(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("product_id", UUID.class),
+                    rs.getInt("quantity_in_stock"),
+                    rs.getBoolean("sharded")
+                );
+                levels.put(level.variantId(), level);
+            },
+            variantIds.toArray()
+        );
+        return levels;
+    }
+
+    /**
+     * Switches a variant to {@code shards} stock shards, or back to a single counter with
+     * {@code 0}, spreading its current total evenly over the new shards.
+     *
+     * @return the variant's total stock, or empty when the variant does not belong to the product
+     */
+    public OptionalInt reshard(UUID productId, UUID variantId, int shards) {
+        if (shards < 0 || shards > MAX_STOCK_SHARDS) {
+            throw new IllegalArgumentException("Stock shards must be between 0 and " + MAX_STOCK_SHARDS);
+        }
+
+        OptionalInt total = lockTotal(productId, variantId);
+        if (total.isEmpty()) {
+            return total;
+        }
+
+        jdbcTemplate.update("DELETE FROM product_variant_stock_shards WHERE variant_id = ?", variantId);
+        insertShards(variantId, shards, total.getAsInt());
+        jdbcTemplate.update(
+            "UPDATE product_variants SET stock_shards = ?, quantity_in_stock = ? WHERE id = ?",
+            shards, total.getAsInt(), variantId
+        );
+        return total;
+    }
+
+    /**
+     * Sets the total stock of a sharded variant, spreading it evenly over its shards.
+     *
+     * @return the previous total
+     */
+    public int replaceShardedQuantity(UUID variantId, int quantity) {
+        List<Integer> shards = lockShards(variantId);
+        jdbcTemplate.update("DELETE FROM product_variant_stock_shards WHERE variant_id = ?", variantId);
+        insertShards(variantId, shards.size(), quantity);
+        return sum(shards);
+    }
+
+    /**
+     * Copies the shard sums into {@code product_variants.quantity_in_stock} for catalog reads.
+     *
+     * @return the number of variants whose cached total changed
+     */
+    public int syncShardedTotals() {
+        return jdbcTemplate.update(SYNC_SHARDED_TOTALS_SQL);
+    }
+
+    public int syncShardedTotals(Collection<UUID> variantIds) {
+        if (variantIds.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(variantIds.size(), "?"));
+        return jdbcTemplate.update(SYNC_SHARDED_TOTALS_SQL + " AND v.id IN (" + placeholders + ")", variantIds.toArray());
+    }
+
+    private boolean takeFromShards(UUID variantId, int quantity) {
+        int taken = jdbcTemplate.update(TAKE_FROM_ANY_SHARD_SQL, quantity, variantId, quantity, variantId, quantity);
+        if (taken > 0) {
+            return true;
+        }
+
+        // Every shard that covers the request is busy: wait on one of them rather than on all.
+        // The quantity is checked again once the lock is granted, so a shard drained meanwhile
+        // only costs another attempt.
+        for (int attempt = 0; attempt < BLOCKING_SHARD_ATTEMPTS; attempt++) {
+            List<Integer> candidates = shardsCovering(variantId, quantity);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            int shard = candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+            if (jdbcTemplate.update(TAKE_FROM_SHARD_SQL, quantity, variantId, shard, quantity) > 0) {
+                return true;
+            }
+        }
+
+        // No single shard covers the request: wait for all shards and drain them in order.
+        List<Integer> shardQuantities = lockShards(variantId);
+        if (shardQuantities.isEmpty() || sum(shardQuantities) < quantity) {
+            return false;
+        }
+
+        int remaining = quantity;
+        List<Object[]> updates = new ArrayList<>();
+        for (int shard = 0; shard < shardQuantities.size() && remaining > 0; shard++) {
+            int take = Math.min(shardQuantities.get(shard), remaining);
+            if (take > 0) {
+                updates.add(new Object[]{take, variantId, shard});
+                remaining -= take;
+            }
+        }
+        jdbcTemplate.batchUpdate(
+            "UPDATE product_variant_stock_shards SET quantity = quantity - ? WHERE variant_id = ? AND shard = ?",
+            updates
+        );
+        return true;
+    }
+
+    private List<Integer> shardsCovering(UUID variantId, int quantity) {
+        return jdbcTemplate.queryForList(
+            "SELECT shard FROM product_variant_stock_shards WHERE variant_id = ? AND quantity >= ?",
+            Integer.class,
+            variantId,
+            quantity
+        );
+    }
+
+    /**
+     * Locks every shard of the variant in shard order.
+     *
+     * @return the shard quantities indexed by shard number; empty when the variant is not sharded
+     */
+    private List<Integer> lockShards(UUID variantId) {
+        return jdbcTemplate.query(
+            "SELECT quantity FROM product_variant_stock_shards WHERE variant_id = ? ORDER BY shard FOR UPDATE",
+            (rs, rowNum) -> rs.getInt(1),
+            variantId
+        );
+    }
+
+    private OptionalInt lockTotal(UUID productId, UUID variantId) {
+        List<int[]> variants = jdbcTemplate.query(
+            "SELECT stock_shards, quantity_in_stock FROM product_variants WHERE id = ? AND product_id = ? FOR UPDATE",
+            (rs, rowNum) -> new int[]{rs.getInt("stock_shards"), rs.getInt("quantity_in_stock")},
+            variantId,
+            productId
+        );
+        if (variants.isEmpty()) {
+            return OptionalInt.empty();
+        }
+
+        int[] variant = variants.get(0);
+        return OptionalInt.of(variant[0] > 0 ? sum(lockShards(variantId)) : variant[1]);
+    }
+
+    private void insertShards(UUID variantId, int shards, int total) {
+        if (shards == 0) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            rows.add(new Object[]{variantId, shard, total / shards + (shard < total % shards ? 1 : 0)});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO product_variant_stock_shards (variant_id, shard, quantity) VALUES (?, ?, ?)",
+            rows
+        );
+    }
+
+    private static int sum(List<Integer> quantities) {
+        return quantities.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private static List<UUID> rowsNotUpdated(List<Map.Entry<UUID, Integer>> rows, int[][] counts) {
+        List<UUID> missed = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missed.add(rows.get(index).getKey());
+                }
+                index++;
+            }
+        }
+        return missed;
+    }
+}
@@ -12,6 +12,7 @@ import com.eshop.api.catalog.model.Product;
 import com.eshop.api.catalog.model.ProductTag;
 import com.eshop.api.catalog.repository.CategoryRepository;
 import com.eshop.api.catalog.repository.ProductRepository;
+import com.eshop.api.catalog.repository.ProductSearchCriteria;
 import com.eshop.api.catalog.repository.ProductTagRepository;
 import com.eshop.api.exception.CategoryNotFoundException;
 import com.eshop.api.exception.ProductNotFoundException;
@@ -42,6 +43,8 @@ public class AdminProductService {
     private final CategoryRepository categoryRepository;
     private final ProductTagRepository productTagRepository;
     private final ProductMapper productMapper;
+    private final ProductListingService productListingService;
+    private final ProductDetailCache productDetailCache;
 
     @Transactional(readOnly = true)
     public PageResponse<ProductSummaryResponse> listProducts(
@@ -54,6 +57,23 @@ public class AdminProductService {
         Instant updatedBefore,
         Pageable pageable
     ) {
+        if (search != null && !search.isBlank()) {
+            String terms = ProductSearchCriteria.toPrefixQuery(search);
+            if (terms == null) {
+                return productMapper.toPageResponse(Page.empty(pageable));
+            }
+            ProductSearchCriteria criteria = new ProductSearchCriteria(
+                terms,
+                status,
+                featured,
+                gender,
+                categoryId,
+                updatedAfter,
+                updatedBefore
+            );
+            return productMapper.toPageResponse(productRepository.search(criteria, pageable));
+        }
+
         Specification<Product> specification = Specification.where(null);
 
         if (status != null) {
@@ -72,15 +92,6 @@ public class AdminProductService {
             specification = specification.and((root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId));
         }
 
-        if (search != null && !search.isBlank()) {
-            String queryLike = "%" + search.trim().toLowerCase() + "%";
-            specification = specification.and((root, query, cb) -> cb.or(
-                cb.like(cb.lower(root.get("name")), queryLike),
-                cb.like(cb.lower(root.get("slug")), queryLike),
-                cb.like(cb.lower(root.get("description")), queryLike)
-            ));
-        }
-
         if (updatedAfter != null) {
             specification = specification.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("updatedAt"), updatedAfter));
         }
@@ -130,6 +141,8 @@ public class AdminProductService {
             .build();
 
         Product saved = productRepository.save(product);
+        productListingService.refresh(saved.getId());
+        productDetailCache.evictAfterCommit(saved.getId());
 
         Product hydrated = productRepository.findWithDetailsBySlug(saved.getSlug())
             .orElseThrow(() -> new ProductNotFoundException(saved.getSlug()));
@@ -168,6 +181,8 @@ public class AdminProductService {
         product.getTags().addAll(tags);
 
         Product saved = productRepository.save(product);
+        productListingService.refresh(saved.getId());
+        productDetailCache.evictAfterCommit(saved.getId());
         Product hydrated = productRepository.findWithDetailsBySlug(saved.getSlug())
             .orElseThrow(() -> new ProductNotFoundException(saved.getSlug()));
 
@@ -182,6 +197,8 @@ public class AdminProductService {
 
         product.setStatus(request.status());
         Product saved = productRepository.save(product);
+        productListingService.refresh(saved.getId());
+        productDetailCache.evictAfterCommit(saved.getId());
 
         Product hydrated = productRepository.findWithDetailsBySlug(saved.getSlug())
             .orElseThrow(() -> new ProductNotFoundException(saved.getSlug()));
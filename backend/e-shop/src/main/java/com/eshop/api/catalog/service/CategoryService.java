@@ -7,7 +7,6 @@ import com.eshop.api.catalog.repository.CategoryRepository;
 import com.eshop.api.exception.CategoryAlreadyExistsException;
 import com.eshop.api.exception.CategoryNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,32 +14,33 @@ import java.util.List;
 
 @Service
 @RequiredArgsConstructor
-@Transactional(readOnly = true)
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryTreeCache categoryTreeCache;
 
     public List<CategoryResponse> getAllCategories() {
-        List<Category> categories = categoryRepository.findAll(Sort.by(Sort.Direction.ASC, "displayOrder", "name"));
-        return categories.stream()
-            .map(this::toResponse)
-            .toList();
+        return categoryTreeCache.current().categories();
     }
 
     public List<CategoryResponse> getCommonCategories() {
-        List<Category> categories = categoryRepository
-            .findByParentCategoryIsNotNullAndParentCategory_ParentCategoryIsNull(
-                Sort.by(Sort.Direction.ASC, "parentCategory.displayOrder", "displayOrder", "name"));
-
-        return categories.stream()
-            .map(this::toResponse)
-            .toList();
+        return categoryTreeCache.current().commonCategories();
     }
 
     public CategoryResponse getCategoryBySlug(String slug) {
-        Category category = categoryRepository.findBySlug(slug)
+        return categoryTreeCache.current().findBySlug(slug)
+            .orElseThrow(() -> new CategoryNotFoundException(slug));
+    }
+
+    /**
+     * Returns the ids of the category and all of its descendants from the cached tree.
+     */
+    public List<Integer> getCategoryHierarchyIds(String slug) {
+        if (slug == null || slug.isBlank()) {
+            throw new CategoryNotFoundException(slug);
+        }
+        return categoryTreeCache.current().descendantIds(slug)
             .orElseThrow(() -> new CategoryNotFoundException(slug));
-        return toResponse(category);
     }
 
     @Transactional
@@ -64,19 +64,7 @@ public class CategoryService {
             .build();
 
         Category saved = categoryRepository.save(category);
-        return toResponse(saved);
-    }
-
-    private CategoryResponse toResponse(Category category) {
-        Integer parentId = category.getParentCategory() != null ? category.getParentCategory().getId() : null;
-        return CategoryResponse.builder()
-            .id(category.getId())
-            .name(category.getName())
-            .slug(category.getSlug())
-            .displayOrder(category.getDisplayOrder())
-            .active(category.getActive())
-            .parentCategoryId(parentId)
-            .createdAt(category.getCreatedAt())
-            .build();
+        categoryTreeCache.rebuildAfterCommit();
+        return CategoryTreeCache.toResponse(saved);
     }
 }
@@ -0,0 +1,114 @@
+package com.eshop.api.catalog.service;
+
+import com.eshop.api.catalog.dto.CategoryResponse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the category hierarchy. Every slug maps to the ids of the category
+ * itself and all of its descendants, computed once when the snapshot is built.
+ */
+final class CategoryTree {
+
+    static final CategoryTree EMPTY = new CategoryTree(List.of());
+
+    private final List<CategoryResponse> categories;
+    private final List<CategoryResponse> commonCategories;
+    private final Map<String, CategoryResponse> categoriesBySlug;
+    private final Map<String, int[]> descendantIdsBySlug;
+
+    /**
+     * @param categories every category, already ordered by display order and name
+     */
+    CategoryTree(List<CategoryResponse> categories) {
+        this.categories = List.copyOf(categories);
+
+        Map<Integer, CategoryResponse> byId = new HashMap<>();
+        Map<Integer, List<Integer>> childIds = new HashMap<>();
+        Map<String, CategoryResponse> bySlug = new LinkedHashMap<>();
+        for (CategoryResponse category : this.categories) {
+            byId.put(category.getId(), category);
+            bySlug.put(category.getSlug(), category);
+            if (category.getParentCategoryId() != null) {
+                childIds.computeIfAbsent(category.getParentCategoryId(), key -> new ArrayList<>()).add(category.getId());
+            }
+        }
+
+        Map<String, int[]> descendants = new HashMap<>();
+        for (CategoryResponse category : this.categories) {
+            descendants.put(category.getSlug(), collectDescendantIds(category.getId(), childIds));
+        }
+
+        this.categoriesBySlug = Map.copyOf(bySlug);
+        this.descendantIdsBySlug = Map.copyOf(descendants);
+        this.commonCategories = this.categories.stream()
+            .filter(category -> isSecondLevel(category, byId))
+            .sorted(Comparator.comparing(category -> byId.get(category.getParentCategoryId()).getDisplayOrder()))
+            .toList();
+    }
+
+    List<CategoryResponse> categories() {
+        return categories;
+    }
+
+    /**
+     * Categories whose parent is a root category, ordered by the parent's display order.
+     */
+    List<CategoryResponse> commonCategories() {
+        return commonCategories;
+    }
+
+    Optional<CategoryResponse> findBySlug(String slug) {
+        return Optional.ofNullable(categoriesBySlug.get(slug));
+    }
+
+    /**
+     * @return the category's own id followed by all descendant ids, or empty when the slug is unknown
+     */
+    Optional<List<Integer>> descendantIds(String slug) {
+        int[] ids = descendantIdsBySlug.get(slug);
+        if (ids == null) {
+            return Optional.empty();
+        }
+        return Optional.of(Arrays.stream(ids).boxed().toList());
+    }
+
+    int size() {
+        return categories.size();
+    }
+
+    private static boolean isSecondLevel(CategoryResponse category, Map<Integer, CategoryResponse> byId) {
+        if (category.getParentCategoryId() == null) {
+            return false;
+        }
+        CategoryResponse parent = byId.get(category.getParentCategoryId());
+        return parent != null && parent.getParentCategoryId() == null;
+    }
+
+    private static int[] collectDescendantIds(Integer rootId, Map<Integer, List<Integer>> childIds) {
+        List<Integer> ids = new ArrayList<>();
+        Set<Integer> visited = new HashSet<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(rootId);
+        while (!pending.isEmpty()) {
+            Integer id = pending.pop();
+            if (!visited.add(id)) {
+                continue;
+            }
+            ids.add(id);
+            childIds.getOrDefault(id, List.of()).forEach(pending::push);
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,107 @@
+package com.eshop.api.catalog.service;
+
+import com.eshop.api.catalog.dto.CategoryResponse;
+import com.eshop.api.catalog.model.Category;
+import com.eshop.api.catalog.repository.CategoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Holds the current {@link CategoryTree}. The snapshot is swapped as a whole, so readers never
+ * observe a partially rebuilt tree and category lookups on the request path issue no queries.
+ * <p>
+ * Writers call {@link #rebuildAfterCommit()}; the periodic refresh picks up categories written
+ * by other application instances.
+ */
+@Slf4j
+@Component
+public class CategoryTreeCache {
+
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile CategoryTree snapshot;
+
+    public CategoryTreeCache(CategoryRepository categoryRepository, PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        // afterCommit callbacks still see the finished transaction's resources, so reads need their own.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    CategoryTree current() {
+        CategoryTree tree = snapshot;
+        if (tree == null) {
+            synchronized (this) {
+                tree = snapshot;
+                if (tree == null) {
+                    tree = load();
+                    snapshot = tree;
+                }
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Rebuilds the snapshot once the surrounding transaction commits, or immediately when called
+     * outside a transaction. Rolled back changes leave the current snapshot in place.
+     */
+    public void rebuildAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuild();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuild();
+            }
+        });
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.catalog.category-cache-refresh-ms:300000}",
+        fixedDelayString = "${app.catalog.category-cache-refresh-ms:300000}"
+    )
+    public void rebuild() {
+        CategoryTree tree;
+        // Rebuilds are rare; serializing them keeps a slow, older load from replacing a newer one.
+        synchronized (this) {
+            tree = load();
+            snapshot = tree;
+        }
+        log.debug("Category tree rebuilt with {} categories", tree.size());
+    }
+
+    private CategoryTree load() {
+        CategoryTree tree = transactionTemplate.execute(status -> new CategoryTree(
+            categoryRepository.findAll(Sort.by(Sort.Direction.ASC, "displayOrder", "name")).stream()
+                .map(CategoryTreeCache::toResponse)
+                .toList()
+        ));
+        return tree != null ? tree : CategoryTree.EMPTY;
+    }
+
+    static CategoryResponse toResponse(Category category) {
+        Integer parentId = category.getParentCategory() != null ? category.getParentCategory().getId() : null;
+        return CategoryResponse.builder()
+            .id(category.getId())
+            .name(category.getName())
+            .slug(category.getSlug())
+            .displayOrder(category.getDisplayOrder())
+            .active(category.getActive())
+            .parentCategoryId(parentId)
+            .createdAt(category.getCreatedAt())
+            .build();
+    }
+}
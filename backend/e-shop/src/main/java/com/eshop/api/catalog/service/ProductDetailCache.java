@@ -0,0 +1,174 @@
+package com.eshop.api.catalog.service;
+
+import com.eshop.api.catalog.dto.ProductResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of product detail responses keyed by slug, with a fixed time to live.
+ * {@link ProductResponse} and its nested DTOs are immutable, so entries are shared as-is.
+ * <p>
+ * Admin writes call {@link #evictAfterCommit(UUID)}. A load that overlaps an eviction is
+ * returned to its caller but not stored, so a response built from pre-commit data cannot
+ * outlive the eviction.
+ */
+@Slf4j
+@Component
+public class ProductDetailCache {
+
+    private static final String METRIC_PREFIX = "catalog.product.detail.cache";
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    // Guarded by "this": the access-ordered map mutates on reads.
+    private final LinkedHashMap<String, Entry> entries;
+    private final Map<UUID, String> slugsByProductId = new HashMap<>();
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expirations;
+    private final Counter invalidations;
+
+    public ProductDetailCache(@Value("${app.catalog.product-cache.max-size:1000}") int maxSize,
+                              @Value("${app.catalog.product-cache.ttl:PT5M}") Duration ttl,
+                              MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= ProductDetailCache.this.maxSize) {
+                    return false;
+                }
+                slugsByProductId.remove(eldest.getValue().response().getId(), eldest.getKey());
+                sizeEvictions.increment();
+                return true;
+            }
+        };
+
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.sizeEvictions = evictionCounter(meterRegistry, "size");
+        this.expirations = evictionCounter(meterRegistry, "expired");
+        this.invalidations = evictionCounter(meterRegistry, "invalidated");
+        Gauge.builder(METRIC_PREFIX + ".size", this, ProductDetailCache::size)
+            .description("Product detail responses currently cached")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached response for {@code slug}, or loads, caches and returns it.
+     * Exceptions from the loader propagate and nothing is cached.
+     */
+    public ProductResponse get(String slug, Supplier<ProductResponse> loader) {
+        if (maxSize <= 0 || slug == null) {
+            return loader.get();
+        }
+
+        long observedGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(slug);
+            if (entry != null) {
+                if (entry.expiresAt() - System.nanoTime() > 0) {
+                    hits.increment();
+                    return entry.response();
+                }
+                remove(slug, entry);
+                expirations.increment();
+            }
+            observedGeneration = generation;
+        }
+
+        misses.increment();
+        ProductResponse response = loader.get();
+        if (response == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (generation == observedGeneration) {
+                Entry previous = entries.put(slug, new Entry(response, System.nanoTime() + ttlNanos));
+                if (previous != null && !previous.response().getId().equals(response.getId())) {
+                    slugsByProductId.remove(previous.response().getId(), slug);
+                }
+                String previousSlug = slugsByProductId.put(response.getId(), slug);
+                if (previousSlug != null && !previousSlug.equals(slug)) {
+                    entries.remove(previousSlug);
+                }
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Evicts the product once the current transaction commits, or immediately outside one.
+     */
+    public void evictAfterCommit(UUID productId) {
+        if (productId == null) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(productId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(productId);
+            }
+        });
+    }
+
+    public synchronized void evict(UUID productId) {
+        generation++;
+        String slug = slugsByProductId.remove(productId);
+        if (slug != null && entries.remove(slug) != null) {
+            invalidations.increment();
+            log.debug("Evicted cached product detail {} ({})", slug, productId);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void remove(String slug, Entry entry) {
+        entries.remove(slug);
+        slugsByProductId.remove(entry.response().getId(), slug);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC_PREFIX + ".requests")
+            .description("Product detail cache lookups")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder(METRIC_PREFIX + ".evictions")
+            .description("Product detail cache entries removed")
+            .tag("cause", cause)
+            .register(meterRegistry);
+    }
+
+    private record Entry(ProductResponse response, long expiresAt) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.eshop.api.catalog.service;
+
+import com.eshop.api.catalog.repository.ProductListingRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Keeps the {@code product_listings} read model in sync with product and variant writes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductListingService {
+
+    private final ProductListingRepository productListingRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional
+    public void refresh(UUID productId) {
+        if (productId == null) {
+            return;
+        }
+        // The projection is computed in SQL, so pending entity changes must reach the database first.
+        entityManager.flush();
+        productListingRepository.refresh(productId);
+        log.debug("Refreshed product listing for product {}", productId);
+    }
+
+    @Transactional
+    public void refreshAll(Collection<UUID> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        new LinkedHashSet<>(productIds).stream()
+            .filter(Objects::nonNull)
+            .forEach(productListingRepository::refresh);
+    }
+}
@@ -2,6 +2,7 @@ package com.eshop.api.catalog.service;
 
 import com.eshop.api.catalog.dto.CategorySummary;
 import com.eshop.api.catalog.dto.ColorResponse;
+import com.eshop.api.catalog.dto.CursorPageResponse;
 import com.eshop.api.catalog.dto.PageResponse;
 import com.eshop.api.catalog.dto.ProductImageResponse;
 import com.eshop.api.catalog.dto.ProductResponse;
@@ -15,6 +16,7 @@ import com.eshop.api.catalog.model.Product;
 import com.eshop.api.catalog.model.ProductAttribute;
 import com.eshop.api.catalog.model.ProductAttributeValue;
 import com.eshop.api.catalog.model.ProductImage;
+import com.eshop.api.catalog.model.ProductListing;
 import com.eshop.api.catalog.model.ProductTag;
 import com.eshop.api.catalog.model.ProductVariant;
 import org.springframework.data.domain.Page;
@@ -89,6 +91,62 @@ public class ProductMapper {
             .build();
     }
 
+    public ProductSummaryResponse toProductSummary(ProductListing listing) {
+        if (listing == null) {
+            return null;
+        }
+
+        return ProductSummaryResponse.builder()
+            .id(listing.getProductId())
+            .name(listing.getName())
+            .slug(listing.getSlug())
+            .description(listing.getDescription())
+            .basePrice(listing.getBasePrice())
+            .status(listing.getStatus())
+            .featured(listing.getFeatured())
+            .gender(listing.getGender())
+            .productType(listing.getProductType())
+            .createdAt(listing.getCreatedAt())
+            .updatedAt(listing.getUpdatedAt())
+            .category(CategorySummary.builder()
+                .id(listing.getCategoryId())
+                .name(listing.getCategoryName())
+                .slug(listing.getCategorySlug())
+                .build())
+            .build();
+    }
+
+    public PageResponse<ProductSummaryResponse> toListingPageResponse(Page<ProductListing> page) {
+        List<ProductSummaryResponse> summaries = page.stream()
+            .map(this::toProductSummary)
+            .toList();
+
+        return PageResponse.<ProductSummaryResponse>builder()
+            .content(summaries)
+            .totalElements(page.getTotalElements())
+            .totalPages(page.getTotalPages())
+            .page(page.getNumber())
+            .size(page.getSize())
+            .hasNext(page.hasNext())
+            .hasPrevious(page.hasPrevious())
+            .build();
+    }
+
+    public CursorPageResponse<ProductSummaryResponse> toCursorPageResponse(List<ProductListing> listings,
+                                                                           int size,
+                                                                           String nextCursor) {
+        List<ProductSummaryResponse> summaries = listings.stream()
+            .map(this::toProductSummary)
+            .toList();
+
+        return CursorPageResponse.<ProductSummaryResponse>builder()
+            .content(summaries)
+            .size(size)
+            .hasNext(nextCursor != null)
+            .nextCursor(nextCursor)
+            .build();
+    }
+
     private CategorySummary mapCategorySummary(Category category) {
         if (category == null) {
             return null;
@@ -134,6 +192,7 @@ public class ProductMapper {
             .variantSku(variant.getVariantSku())
             .price(variant.getPrice())
             .quantityInStock(variant.getQuantityInStock())
+            .stockShards(variant.getStockShards())
             .active(variant.getActive())
             .size(variant.getSize())
             .fit(variant.getFit())
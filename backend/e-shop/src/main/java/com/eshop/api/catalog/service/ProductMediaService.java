@@ -52,6 +52,7 @@ public class ProductMediaService {
     private final ColorRepository colorRepository;
     private final MinioStorageService minioStorageService;
     private final ProductMapper productMapper;
+    private final ProductDetailCache productDetailCache;
 
     public ProductImageResponse uploadProductImage(UUID productId,
                                                    MultipartFile file,
@@ -95,6 +96,7 @@ public class ProductMediaService {
 
         ProductImage saved = productImageRepository.save(productImage);
         log.info("Uploaded image {} for product {}", saved.getId(), productId);
+        productDetailCache.evictAfterCommit(productId);
         return productMapper.toImageResponse(saved);
     }
 
@@ -185,6 +187,7 @@ public class ProductMediaService {
 
         ProductImage saved = productImageRepository.save(image);
         log.info("Updated image {} for product {}", imageId, productId);
+        productDetailCache.evictAfterCommit(productId);
         return productMapper.toImageResponse(saved);
     }
 
@@ -198,6 +201,7 @@ public class ProductMediaService {
 
         productImageRepository.delete(image);
         log.info("Deleted image {} for product {}", imageId, productId);
+        productDetailCache.evictAfterCommit(productId);
     }
 
     private String buildObjectKey(UUID productId, String originalFilename) {
@@ -16,8 +16,8 @@ import com.eshop.api.exception.ProductNotFoundException;
 import com.eshop.api.order.enums.PaymentStatus;
 import com.eshop.api.order.model.OrderItem;
 import com.eshop.api.order.repository.OrderItemRepository;
+import com.eshop.api.security.AuthenticatedUserResolver;
 import com.eshop.api.user.User;
-import com.eshop.api.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -39,7 +39,7 @@ public class ProductReviewService {
 
     private final ProductReviewRepository productReviewRepository;
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
     private final OrderItemRepository orderItemRepository;
     private final ProductInteractionEventService interactionEventService;
 
@@ -120,7 +120,7 @@ public class ProductReviewService {
             throw new InvalidJwtException("Authentication is required to review products");
         }
 
-        return userRepository.findByEmailIgnoreCase(email)
+        return authenticatedUserResolver.findUser(email)
             .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
 
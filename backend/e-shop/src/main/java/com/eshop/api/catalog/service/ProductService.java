@@ -1,41 +1,46 @@
 package com.eshop.api.catalog.service;
 
+import com.eshop.api.catalog.dto.CursorPageResponse;
 import com.eshop.api.catalog.dto.PageResponse;
 import com.eshop.api.catalog.dto.ProductResponse;
 import com.eshop.api.catalog.dto.ProductSummaryResponse;
 import com.eshop.api.catalog.enums.Gender;
 import com.eshop.api.catalog.enums.ProductStatus;
-import com.eshop.api.catalog.model.Category;
 import com.eshop.api.catalog.model.Product;
-import com.eshop.api.catalog.repository.CategoryRepository;
+import com.eshop.api.catalog.model.ProductListing;
+import com.eshop.api.catalog.repository.ProductListingCursor;
+import com.eshop.api.catalog.repository.ProductListingFilter;
+import com.eshop.api.catalog.repository.ProductListingRepository;
 import com.eshop.api.catalog.repository.ProductRepository;
+import com.eshop.api.catalog.repository.ProductSearchCriteria;
 import com.eshop.api.exception.CategoryNotFoundException;
+import com.eshop.api.exception.InvalidPageCursorException;
 import com.eshop.api.exception.InvalidPriceRangeException;
 import com.eshop.api.exception.InvalidSearchQueryException;
 import com.eshop.api.exception.ProductNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
-import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ProductService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final ProductRepository productRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryService categoryService;
+    private final ProductListingRepository productListingRepository;
     private final ProductMapper productMapper;
+    private final ProductDetailCache productDetailCache;
 
     public PageResponse<ProductSummaryResponse> getProducts(Pageable pageable) {
         Page<Product> page = productRepository.findByStatus(ProductStatus.ACTIVE, pageable);
@@ -52,7 +57,7 @@ public class ProductService {
             throw new CategoryNotFoundException(categorySlug);
         }
 
-        List<Integer> categoryIds = resolveCategoryHierarchy(categorySlug);
+        List<Integer> categoryIds = categoryService.getCategoryHierarchyIds(categorySlug);
 
         Page<Product> page = productRepository.findByCategory_IdInAndStatus(categoryIds, ProductStatus.ACTIVE, pageable);
         return productMapper.toPageResponse(page);
@@ -67,6 +72,77 @@ public class ProductService {
         BigDecimal priceMin,
         BigDecimal priceMax,
         Pageable pageable
+    ) {
+        ProductListingFilter filter = buildListingFilter(gender, categorySlug, colorFilters, sizeFilters, inStock, priceMin, priceMax);
+        if (filter == null) {
+            return getProducts(pageable);
+        }
+
+        Page<ProductListing> page = productListingRepository.findByFilters(filter, pageable);
+        return productMapper.toListingPageResponse(page);
+    }
+
+    public CursorPageResponse<ProductSummaryResponse> getProducts(String after, int size, Sort sort) {
+        return getListingSlice(ProductListingFilter.ofStatus(ProductStatus.ACTIVE), after, size, sort);
+    }
+
+    public CursorPageResponse<ProductSummaryResponse> getProductsByGender(Gender gender, String after, int size, Sort sort) {
+        return getListingSlice(ProductListingFilter.ofStatus(ProductStatus.ACTIVE).withGender(gender), after, size, sort);
+    }
+
+    public CursorPageResponse<ProductSummaryResponse> getProductsByCategorySlug(String categorySlug, String after, int size, Sort sort) {
+        List<Integer> categoryIds = categoryService.getCategoryHierarchyIds(categorySlug);
+        return getListingSlice(ProductListingFilter.ofStatus(ProductStatus.ACTIVE).withCategoryIds(categoryIds), after, size, sort);
+    }
+
+    public CursorPageResponse<ProductSummaryResponse> getProductsByFilters(
+        Gender gender,
+        String categorySlug,
+        List<String> colorFilters,
+        List<String> sizeFilters,
+        Boolean inStock,
+        BigDecimal priceMin,
+        BigDecimal priceMax,
+        String after,
+        int size,
+        Sort sort
+    ) {
+        ProductListingFilter filter = buildListingFilter(gender, categorySlug, colorFilters, sizeFilters, inStock, priceMin, priceMax);
+        if (filter == null) {
+            filter = ProductListingFilter.ofStatus(ProductStatus.ACTIVE);
+        }
+        return getListingSlice(filter, after, size, sort);
+    }
+
+    public PageResponse<ProductSummaryResponse> searchProducts(String query, Pageable pageable) {
+        String normalizedQuery = normalizeQuery(query);
+
+        String terms = ProductSearchCriteria.toPrefixQuery(normalizedQuery);
+        if (terms == null) {
+            throw new InvalidSearchQueryException(query);
+        }
+
+        Page<Product> page = productRepository.search(ProductSearchCriteria.ofStatus(terms, ProductStatus.ACTIVE), pageable);
+
+        return productMapper.toPageResponse(page);
+    }
+
+    public ProductResponse getProductBySlug(String slug) throws ProductNotFoundException {
+        return productDetailCache.get(slug, () -> {
+            Product product = productRepository.findWithDetailsBySlug(slug)
+                .orElseThrow(() -> new ProductNotFoundException(slug));
+            return productMapper.toProductResponse(product);
+        });
+    }
+
+    private ProductListingFilter buildListingFilter(
+        Gender gender,
+        String categorySlug,
+        List<String> colorFilters,
+        List<String> sizeFilters,
+        Boolean inStock,
+        BigDecimal priceMin,
+        BigDecimal priceMax
     ) {
         List<String> normalizedColors = normalizeListParameter(colorFilters);
         List<String> normalizedSizes = normalizeListParameter(sizeFilters);
@@ -80,7 +156,7 @@ public class ProductService {
         }
 
         boolean hasCategory = categorySlug != null && !categorySlug.isBlank();
-        List<Integer> categoryIds = hasCategory ? resolveCategoryHierarchy(categorySlug) : List.of();
+        List<Integer> categoryIds = hasCategory ? categoryService.getCategoryHierarchyIds(categorySlug) : List.of();
 
         boolean hasAnyFilter = gender != null
             || hasCategory
@@ -91,98 +167,52 @@ public class ProductService {
             || priceMax != null;
 
         if (!hasAnyFilter) {
-            return getProducts(pageable);
-        }
-
-        boolean requiresAdvancedFiltering = !normalizedColors.isEmpty()
-            || !normalizedSizes.isEmpty()
-            || Boolean.TRUE.equals(inStock)
-            || priceMin != null
-            || priceMax != null;
-
-        Page<Product> page;
-
-        if (requiresAdvancedFiltering) {
-            page = productRepository.findByFilters(
-                gender,
-                categoryIds,
-                normalizedColors,
-                normalizedSizes,
-                Boolean.TRUE.equals(inStock) ? Boolean.TRUE : null,
-                priceMin,
-                priceMax,
-                ProductStatus.ACTIVE,
-                pageable
-            );
-        } else if (gender != null && hasCategory) {
-            page = productRepository.findByGenderAndCategory_IdInAndStatus(gender, categoryIds, ProductStatus.ACTIVE, pageable);
-        } else if (gender != null) {
-            page = productRepository.findByGenderAndStatus(gender, ProductStatus.ACTIVE, pageable);
-        } else {
-            page = productRepository.findByCategory_IdInAndStatus(categoryIds, ProductStatus.ACTIVE, pageable);
+            return null;
         }
 
-        return productMapper.toPageResponse(page);
-    }
-
-    public PageResponse<ProductSummaryResponse> searchProducts(String query, Pageable pageable) {
-        String normalizedQuery = normalizeQuery(query);
-
-        final String normalizedTerm = normalizedQuery.toLowerCase(Locale.ROOT);
-        Specification<Product> specification = (root, criteriaQuery, cb) -> {
-            String like = "%" + normalizedTerm + "%";
-            return cb.and(
-                cb.equal(root.get("status"), ProductStatus.ACTIVE),
-                cb.or(
-                    cb.like(cb.lower(root.get("name")), like),
-                    cb.like(cb.lower(root.get("slug")), like),
-                    cb.like(cb.lower(root.get("description")), like)
-                )
-            );
-        };
-
-        Page<Product> page = productRepository.findAll(specification, pageable);
-
-        return productMapper.toPageResponse(page);
+        return new ProductListingFilter(
+            gender,
+            categoryIds,
+            normalizedColors,
+            normalizedSizes,
+            Boolean.TRUE.equals(inStock) ? Boolean.TRUE : null,
+            priceMin,
+            priceMax,
+            ProductStatus.ACTIVE
+        );
     }
 
-    public ProductResponse getProductBySlug(String slug) throws ProductNotFoundException {
-        Product product = productRepository.findWithDetailsBySlug(slug)
-            .orElseThrow(() -> new ProductNotFoundException(slug));
-        return productMapper.toProductResponse(product);
-    }
-
-    private List<Integer> resolveCategoryHierarchy(String categorySlug) {
-        if (categorySlug == null || categorySlug.isBlank()) {
-            throw new CategoryNotFoundException(categorySlug);
+    private CursorPageResponse<ProductSummaryResponse> getListingSlice(ProductListingFilter filter,
+                                                                       String after,
+                                                                       int size,
+                                                                       Sort sort) {
+        Sort.Order order = sort != null ? sort.stream().findFirst().orElse(null) : null;
+        ProductListingCursor.SortKey sortKey = order != null ? ProductListingCursor.SortKey.fromProperty(order.getProperty()) : null;
+        Sort.Direction direction = order != null ? order.getDirection() : Sort.Direction.DESC;
+        if (sortKey == null) {
+            sortKey = ProductListingCursor.SortKey.CREATED_AT;
+            direction = Sort.Direction.DESC;
         }
 
-        Category category = categoryRepository.findBySlug(categorySlug)
-            .orElseThrow(() -> new CategoryNotFoundException(categorySlug));
-
-        return collectCategoryIds(category);
-    }
-
-    private List<Integer> collectCategoryIds(Category root) {
-        List<Integer> ids = new ArrayList<>();
-        collectCategoryIds(root, ids, new HashSet<>());
-        return ids;
-    }
-
-    private void collectCategoryIds(Category category, List<Integer> ids, Set<Integer> visited) {
-        if (category == null || category.getId() == null) {
-            return;
-        }
-        if (!visited.add(category.getId())) {
-            return;
+        ProductListingCursor cursor = null;
+        if (after != null && !after.isBlank()) {
+            cursor = ProductListingCursor.decode(after.trim());
+            if (cursor.sortKey() != sortKey || cursor.direction() != direction) {
+                throw new InvalidPageCursorException(after, "cursor was issued for a different sort order");
+            }
         }
 
-        ids.add(category.getId());
-        if (category.getChildren() == null || category.getChildren().isEmpty()) {
-            return;
-        }
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        // Fetch one extra row to learn whether another page exists without running a COUNT query.
+        List<ProductListing> rows = productListingRepository.findByFiltersAfter(filter, sortKey, direction, cursor, pageSize + 1);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<ProductListing> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext
+            ? ProductListingCursor.after(content.get(content.size() - 1), sortKey, direction).encode()
+            : null;
 
-        category.getChildren().forEach(child -> collectCategoryIds(child, ids, visited));
+        return productMapper.toCursorPageResponse(content, pageSize, nextCursor);
     }
 
     private String normalizeQuery(String query) {
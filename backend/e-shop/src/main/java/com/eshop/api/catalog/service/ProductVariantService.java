@@ -13,6 +13,7 @@ import com.eshop.api.catalog.repository.ColorRepository;
 import com.eshop.api.catalog.repository.ProductRepository;
 import com.eshop.api.catalog.repository.ProductVariantRepository;
 import com.eshop.api.catalog.repository.ProductVariantStockAdjustmentRepository;
+import com.eshop.api.catalog.repository.ProductVariantStockWriter;
 import com.eshop.api.exception.ColorNotFoundException;
 import com.eshop.api.exception.DuplicateProductVariantException;
 import com.eshop.api.exception.ProductNotFoundException;
@@ -31,6 +32,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -48,8 +50,11 @@ public class ProductVariantService {
     private final ColorRepository colorRepository;
     private final OrderItemRepository orderItemRepository;
     private final ProductVariantStockAdjustmentRepository stockAdjustmentRepository;
+    private final ProductVariantStockWriter productVariantStockWriter;
     private final UserRepository userRepository;
     private final ProductMapper productMapper;
+    private final ProductListingService productListingService;
+    private final ProductDetailCache productDetailCache;
 
     public List<ProductVariantResponse> createVariants(UUID productId, ProductVariantCreateRequest request) {
         Product product = productRepository.findById(productId)
@@ -93,6 +98,8 @@ public class ProductVariantService {
             created.add(productMapper.toVariantResponse(saved));
         }
 
+        productListingService.refresh(productId);
+        productDetailCache.evictAfterCommit(productId);
         return created;
     }
 
@@ -101,9 +108,9 @@ public class ProductVariantService {
         Product product = productRepository.findWithDetailsById(productId)
             .orElseThrow(() -> new ProductNotFoundException(productId));
 
-        return product.getVariants().stream()
+        return withShardedTotals(product.getVariants().stream()
             .map(productMapper::toVariantResponse)
-            .toList();
+            .toList());
     }
 
     public ProductVariantResponse updateVariant(UUID productId, UUID variantId, ProductVariantUpdateRequest request) {
@@ -128,6 +135,9 @@ public class ProductVariantService {
         Integer previousQuantityObj = variant.getQuantityInStock();
         int previousQuantity = previousQuantityObj != null ? previousQuantityObj : 0;
         if (request.quantity() != null) {
+            if (isSharded(variant)) {
+                previousQuantity = productVariantStockWriter.replaceShardedQuantity(variantId, request.quantity());
+            }
             variant.setQuantityInStock(request.quantity());
         }
 
@@ -191,6 +201,8 @@ public class ProductVariantService {
             );
         }
 
+        productListingService.refresh(productId);
+        productDetailCache.evictAfterCommit(productId);
         return productMapper.toVariantResponse(saved);
     }
 
@@ -207,6 +219,8 @@ public class ProductVariantService {
         }
 
         productVariantRepository.delete(variant);
+        productListingService.refresh(productId);
+        productDetailCache.evictAfterCommit(productId);
         log.info("Deleted variant {} for product {}", variantId, productId);
     }
 
@@ -221,8 +235,10 @@ public class ProductVariantService {
             throw new ProductVariantNotFoundException(variantId);
         }
 
-        int previousQuantity = Optional.ofNullable(variant.getQuantityInStock()).orElse(0);
         int newQuantity = request.newQuantity();
+        int previousQuantity = isSharded(variant)
+            ? productVariantStockWriter.replaceShardedQuantity(variantId, newQuantity)
+            : Optional.ofNullable(variant.getQuantityInStock()).orElse(0);
 
         variant.setQuantityInStock(newQuantity);
         productVariantRepository.save(variant);
@@ -239,6 +255,8 @@ public class ProductVariantService {
             trim(request.notes()),
             adjustedBy
         );
+        productListingService.refresh(productId);
+        productDetailCache.evictAfterCommit(productId);
         return toAdjustmentResponse(adjustment);
     }
 
@@ -266,7 +284,52 @@ public class ProductVariantService {
 
         variant.setActive(active);
         ProductVariant saved = productVariantRepository.save(variant);
-        return productMapper.toVariantResponse(saved);
+        productDetailCache.evictAfterCommit(productId);
+        return withShardedTotals(List.of(productMapper.toVariantResponse(saved))).get(0);
+    }
+
+    /**
+     * Splits the variant's stock over {@code shards} rows so concurrent checkouts of a hot SKU
+     * lock different rows, or merges it back into a single counter with {@code 0}. The total
+     * quantity is preserved.
+     */
+    public ProductVariantResponse configureStockShards(UUID productId, UUID variantId, int shards) {
+        int total = productVariantStockWriter.reshard(productId, variantId, shards)
+            .orElseThrow(() -> new ProductVariantNotFoundException(variantId));
+
+        ProductVariant variant = productVariantRepository.findById(variantId)
+            .orElseThrow(() -> new ProductVariantNotFoundException(variantId));
+
+        productDetailCache.evictAfterCommit(productId);
+        log.info("Variant {} now keeps {} units in {} stock shard(s)", variantId, total, shards);
+        return productMapper.toVariantResponse(variant);
+    }
+
+    private boolean isSharded(ProductVariant variant) {
+        return variant.getStockShards() != null && variant.getStockShards() > 0;
+    }
+
+    /**
+     * The cached quantity of a sharded variant trails its shards; admin views report the live sum.
+     */
+    private List<ProductVariantResponse> withShardedTotals(List<ProductVariantResponse> responses) {
+        List<UUID> shardedIds = responses.stream()
+            .filter(response -> response.getStockShards() != null && response.getStockShards() > 0)
+            .map(ProductVariantResponse::getId)
+            .toList();
+        if (shardedIds.isEmpty()) {
+            return responses;
+        }
+
+        Map<UUID, ProductVariantStockWriter.StockLevel> levels = productVariantStockWriter.findStockLevels(shardedIds);
+        return responses.stream()
+            .map(response -> {
+                ProductVariantStockWriter.StockLevel level = levels.get(response.getId());
+                return level != null
+                    ? response.toBuilder().quantityInStock(level.quantityInStock()).build()
+                    : response;
+            })
+            .toList();
     }
 
     private String normalize(String value) {
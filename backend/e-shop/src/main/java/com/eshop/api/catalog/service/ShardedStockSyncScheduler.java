@@ -0,0 +1,46 @@
+package com.eshop.api.catalog.service;
+
+import com.eshop.api.catalog.repository.ProductVariantStockWriter;
+import com.eshop.api.scheduling.service.ClusterJobCoordinator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Refreshes the cached {@code quantity_in_stock} of sharded variants, which product pages and
+ * cart checks read. Reservations themselves always go through the shards, so a stale cache only
+ * affects the quantity shown, never what can be sold. The totals are global, so only the instance
+ * leading the {@value #JOB_NAME} job refreshes them.
+ */
+@Slf4j
+@Service
+public class ShardedStockSyncScheduler {
+
+    static final String JOB_NAME = "sharded-stock-sync";
+
+    private final ProductVariantStockWriter productVariantStockWriter;
+    private final ClusterJobCoordinator jobCoordinator;
+    private final TransactionTemplate transactionTemplate;
+
+    public ShardedStockSyncScheduler(ProductVariantStockWriter productVariantStockWriter,
+                                     ClusterJobCoordinator jobCoordinator,
+                                     PlatformTransactionManager transactionManager) {
+        this.productVariantStockWriter = productVariantStockWriter;
+        this.jobCoordinator = jobCoordinator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.sharded-stock-sync-interval-ms:15000}")
+    public void syncShardedTotals() {
+        jobCoordinator.runAsLeader(JOB_NAME, this::sync);
+    }
+
+    private void sync() {
+        Integer changed = transactionTemplate.execute(status -> productVariantStockWriter.syncShardedTotals());
+        if (changed != null && changed > 0) {
+            log.debug("Synced cached stock totals for {} sharded variants", changed);
+        }
+    }
+}
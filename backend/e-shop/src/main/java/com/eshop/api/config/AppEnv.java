@@ -21,6 +21,8 @@ public class AppEnv {
         private String secret;
         private long accessExpirationSeconds;
         private long refreshExpirationSeconds;
+        // Verified access tokens kept in memory; 0 disables the cache.
+        private int tokenCacheSize = 10000;
     }
 
     @Getter
@@ -0,0 +1,10 @@
+package com.eshop.api.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidCartOperationException extends ApiException {
+
+    public InvalidCartOperationException(String message) {
+        super(message, HttpStatus.BAD_REQUEST.value());
+    }
+}
@@ -0,0 +1,14 @@
+package com.eshop.api.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidPageCursorException extends ApiException {
+
+    public InvalidPageCursorException(String cursor) {
+        super("Invalid page cursor: " + cursor, HttpStatus.BAD_REQUEST.value());
+    }
+
+    public InvalidPageCursorException(String cursor, String reason) {
+        super("Invalid page cursor: " + cursor + " (" + reason + ")", HttpStatus.BAD_REQUEST.value());
+    }
+}
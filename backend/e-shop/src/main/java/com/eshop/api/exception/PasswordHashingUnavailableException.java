@@ -0,0 +1,10 @@
+package com.eshop.api.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class PasswordHashingUnavailableException extends ApiException {
+
+    public PasswordHashingUnavailableException(String message) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+}
@@ -0,0 +1,19 @@
+package com.eshop.api.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+public class TooManyRequestsException extends ApiException {
+
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS.value());
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -5,10 +5,13 @@ import com.eshop.api.exception.InvalidActivationTokenException;
 import com.eshop.api.exception.InvalidJwtException;
 import com.eshop.api.exception.InvalidPasswordChangeException;
 import com.eshop.api.exception.InvalidPasswordResetTokenException;
+import com.eshop.api.exception.PasswordHashingUnavailableException;
 import com.eshop.api.exception.RoleNotFoundException;
+import com.eshop.api.exception.TooManyRequestsException;
 import com.eshop.api.exception.UserAlreadyExistsException;
 import com.eshop.api.exception.dto.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -21,6 +24,7 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
@@ -61,6 +65,36 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(
+            TooManyRequestsException ex, WebRequest request) {
+        log.warn("Too many requests: {}", ex.getMessage());
+        return retryLater(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), ex.getRetryAfter(), request);
+    }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingUnavailableException(
+            PasswordHashingUnavailableException ex, WebRequest request) {
+        log.warn("Password hashing unavailable: {}", ex.getMessage());
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), Duration.ofSeconds(1), request);
+    }
+
+    private ResponseEntity<ErrorResponse> retryLater(
+            HttpStatus status, String message, Duration retryAfter, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            status.value(),
+            status.getReasonPhrase(),
+            message,
+            Instant.now(),
+            request.getDescription(false).replace("uri=", "")
+        );
+
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(status)
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+            .body(errorResponse);
+    }
+
     @ExceptionHandler(ApiException.class)
     public ResponseEntity<ErrorResponse> handleApiException(
             ApiException ex, WebRequest request) {
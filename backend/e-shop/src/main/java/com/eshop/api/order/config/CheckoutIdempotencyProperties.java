@@ -0,0 +1,43 @@
+package com.eshop.api.order.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.order.checkout-idempotency")
+@Getter
+@Setter
+public class CheckoutIdempotencyProperties {
+
+    /**
+     * How long an Idempotency-Key is remembered after the checkout it belongs to.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * How long a checkout may run before another request with the same key may take over its
+     * claim, e.g. after the instance handling it died. Must exceed the slowest checkout.
+     */
+    private Duration lease = Duration.ofMinutes(2);
+
+    /**
+     * How long a duplicate request waits for the checkout running on the same instance before
+     * it is answered with 409 Conflict.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Maximum number of completed checkout responses kept in memory for fast replays; older ones
+     * are replayed from the database.
+     */
+    private int cacheSize = 10_000;
+
+    /**
+     * Largest number of expired keys deleted by one purge transaction.
+     */
+    private int purgeBatchSize = 1_000;
+}
@@ -8,9 +8,10 @@ import com.eshop.api.order.dto.OrderStatusResponse;
 import com.eshop.api.order.dto.PurchasedItemLookupResponse;
 import com.eshop.api.order.dto.PurchasedItemResponse;
 import com.eshop.api.order.dto.OrderSummaryResponse;
-import com.eshop.api.order.service.OrderCheckoutService;
+import com.eshop.api.order.service.CheckoutIdempotencyService;
 import com.eshop.api.order.service.OrderHistoryService;
 import com.eshop.api.order.service.OrderLifecycleService;
+import com.eshop.api.security.ClientAddresses;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +23,7 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -33,7 +35,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class OrderController {
 
-    private final OrderCheckoutService orderCheckoutService;
+    private final CheckoutIdempotencyService checkoutIdempotencyService;
     private final OrderHistoryService orderHistoryService;
     private final OrderLifecycleService orderLifecycleService;
 
@@ -41,11 +43,12 @@ public class OrderController {
     public ResponseEntity<CheckoutResponse> checkout(
         Authentication authentication,
         @Valid @RequestBody CheckoutRequest request,
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
         HttpServletRequest httpServletRequest
     ) {
         String email = resolveEmail(authentication);
-        String clientIp = resolveClientIp(httpServletRequest);
-        CheckoutResponse response = orderCheckoutService.checkout(email, request, clientIp);
+        String clientIp = ClientAddresses.resolve(httpServletRequest);
+        CheckoutResponse response = checkoutIdempotencyService.checkout(email, idempotencyKey, request, clientIp);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
@@ -96,15 +99,4 @@ public class OrderController {
         }
         return authentication.getName();
     }
-
-    private String resolveClientIp(HttpServletRequest request) {
-        if (request == null) {
-            return "0.0.0.0";
-        }
-        String header = request.getHeader("X-Forwarded-For");
-        if (header != null && !header.isBlank()) {
-            return header.split(",")[0].trim();
-        }
-        return request.getRemoteAddr();
-    }
 }
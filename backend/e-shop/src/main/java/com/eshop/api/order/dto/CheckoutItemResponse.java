@@ -2,12 +2,14 @@ package com.eshop.api.order.dto;
 
 import lombok.Builder;
 import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
 
 import java.math.BigDecimal;
 import java.util.UUID;
 
 @Getter
 @Builder
+@Jacksonized
 public class CheckoutItemResponse {
 
     private final UUID productId;
@@ -4,6 +4,7 @@ import com.eshop.api.order.enums.OrderStatus;
 import com.eshop.api.order.enums.PaymentStatus;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -12,6 +13,7 @@ import java.util.UUID;
 
 @Getter
 @Builder
+@Jacksonized
 public class CheckoutResponse {
 
     private final UUID orderId;
@@ -0,0 +1,11 @@
+package com.eshop.api.order.exception;
+
+import com.eshop.api.exception.ApiException;
+import org.springframework.http.HttpStatus;
+
+public class CheckoutInProgressException extends ApiException {
+
+    public CheckoutInProgressException() {
+        super("A checkout with this Idempotency-Key is still in progress; retry later", HttpStatus.CONFLICT.value());
+    }
+}
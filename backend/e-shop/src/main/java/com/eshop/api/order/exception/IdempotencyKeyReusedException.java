@@ -0,0 +1,11 @@
+package com.eshop.api.order.exception;
+
+import com.eshop.api.exception.ApiException;
+import org.springframework.http.HttpStatus;
+
+public class IdempotencyKeyReusedException extends ApiException {
+
+    public IdempotencyKeyReusedException() {
+        super("Idempotency-Key was already used for a different checkout request", HttpStatus.UNPROCESSABLE_ENTITY.value());
+    }
+}
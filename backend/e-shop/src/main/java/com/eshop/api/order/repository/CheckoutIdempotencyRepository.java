@@ -0,0 +1,145 @@
+package com.eshop.api.order.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Idempotency-Key records of checkout. Keys past {@code expires_at} count as unused even before
+ * they are purged.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CheckoutIdempotencyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param response the serialized checkout response, or {@code null} while the checkout runs
+     */
+    public record KeyRecord(String requestHash, String response) {
+    }
+
+    /**
+     * Claims an unused (or expired) key for a new checkout.
+     *
+     * @return whether the key was claimed
+     */
+    public boolean claim(String principal, String key, String requestHash, UUID claimToken, Instant expiresAt) {
+        return jdbcTemplate.update(
+            """
+            INSERT INTO checkout_idempotency_keys (principal, idempotency_key, request_hash, claim_token, expires_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (principal, idempotency_key) DO UPDATE
+              SET request_hash = EXCLUDED.request_hash,
+                  claim_token = EXCLUDED.claim_token,
+                  order_id = NULL,
+                  response = NULL,
+                  created_at = NOW(),
+                  updated_at = NOW(),
+                  expires_at = EXCLUDED.expires_at
+              WHERE checkout_idempotency_keys.expires_at <= NOW()
+            """,
+            principal,
+            key,
+            requestHash,
+            claimToken,
+            Timestamp.from(expiresAt)
+        ) > 0;
+    }
+
+    public Optional<KeyRecord> find(String principal, String key) {
+        return jdbcTemplate.query(
+            """
+            SELECT request_hash, response::text AS response
+            FROM checkout_idempotency_keys
+            WHERE principal = ? AND idempotency_key = ? AND expires_at > NOW()
+            """,
+            (rs, rowNum) -> new KeyRecord(
+                rs.getString("request_hash"),
+                rs.getString("response")
+            ),
+            principal,
+            key
+        ).stream().findFirst();
+    }
+
+    /**
+     * Takes over a claim whose checkout has not completed since {@code staleBefore}.
+     *
+     * @return whether the claim now belongs to {@code claimToken}
+     */
+    public boolean takeOver(String principal, String key, UUID claimToken, Instant staleBefore) {
+        return jdbcTemplate.update(
+            """
+            UPDATE checkout_idempotency_keys
+            SET claim_token = ?, updated_at = NOW()
+            WHERE principal = ? AND idempotency_key = ?
+              AND response IS NULL AND updated_at < ? AND expires_at > NOW()
+            """,
+            claimToken,
+            principal,
+            key,
+            Timestamp.from(staleBefore)
+        ) > 0;
+    }
+
+    /**
+     * Stores the checkout response. Meant to run in the checkout's transaction: it matches
+     * nothing once the claim was taken over, which lets the caller roll the order back.
+     *
+     * @return whether the claim was still held
+     */
+    public boolean complete(String principal, String key, UUID claimToken, UUID orderId, String response) {
+        return jdbcTemplate.update(
+            """
+            UPDATE checkout_idempotency_keys
+            SET order_id = ?, response = ?::jsonb, updated_at = NOW()
+            WHERE principal = ? AND idempotency_key = ? AND claim_token = ? AND response IS NULL
+            """,
+            orderId,
+            response,
+            principal,
+            key,
+            claimToken
+        ) > 0;
+    }
+
+    /**
+     * Gives up a claim whose checkout failed, so the key can be retried.
+     */
+    public void release(String principal, String key, UUID claimToken) {
+        jdbcTemplate.update(
+            "DELETE FROM checkout_idempotency_keys WHERE principal = ? AND idempotency_key = ? AND claim_token = ? AND response IS NULL",
+            principal,
+            key,
+            claimToken
+        );
+    }
+
+    /**
+     * @return the number of keys deleted
+     */
+    public int deleteExpired(Instant now, int limit) {
+        return jdbcTemplate.update(
+            """
+            DELETE FROM checkout_idempotency_keys k
+            USING (
+              SELECT principal, idempotency_key
+              FROM checkout_idempotency_keys
+              WHERE expires_at <= ?
+              LIMIT ?
+              FOR UPDATE SKIP LOCKED
+            ) due
+            WHERE k.principal = due.principal AND k.idempotency_key = due.idempotency_key
+            """,
+            Timestamp.from(now),
+            limit
+        );
+    }
+}
@@ -3,17 +3,17 @@ package com.eshop.api.order.repository;
 import com.eshop.api.order.enums.OrderStatus;
 import com.eshop.api.order.enums.PaymentStatus;
 import com.eshop.api.order.model.Order;
-import com.eshop.api.order.repository.projection.OrderRevenueBucketProjection;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,11 +22,15 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
 
     Optional<Order> findByOrderNumber(String orderNumber);
 
-    Optional<Order> findByIdAndUser_Id(UUID orderId, UUID userId);
+    /**
+     * Loads the order with a row lock ({@code SELECT ... FOR UPDATE}) held until the transaction
+     * ends, so a concurrent status change such as the stale order cleanup waits or skips it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderNumber = :orderNumber")
+    Optional<Order> findByOrderNumberForUpdate(@Param("orderNumber") String orderNumber);
 
-    List<Order> findByStatusAndPaymentStatusAndPlacedAtBefore(OrderStatus status,
-                                                             PaymentStatus paymentStatus,
-                                                             Instant placedAtBefore);
+    Optional<Order> findByIdAndUser_Id(UUID orderId, UUID userId);
 
     Page<Order> findByUser_IdOrderByPlacedAtDesc(UUID userId, Pageable pageable);
 
@@ -47,22 +51,4 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
     """)
     Long countOrdersPlacedSinceExcludingStatus(@Param("start") Instant start,
                                                @Param("excludedStatus") OrderStatus excludedStatus);
-
-    @Query(
-        value = """
-            SELECT date_trunc(:interval, o.placed_at) AS bucket_start,
-                   COUNT(*) AS order_count,
-                   COALESCE(SUM(o.total_amount), 0) AS gross_total
-            FROM orders o
-            WHERE o.placed_at >= :start AND o.placed_at < :end
-              AND o.status <> 'CANCELLED'
-              AND o.payment_status = 'CAPTURED'
-            GROUP BY bucket_start
-            ORDER BY bucket_start
-        """,
-        nativeQuery = true
-    )
-    List<OrderRevenueBucketProjection> aggregateCapturedRevenueByInterval(@Param("interval") String interval,
-                                                                          @Param("start") Instant start,
-                                                                          @Param("end") Instant end);
 }
@@ -0,0 +1,120 @@
+package com.eshop.api.order.repository;
+
+import com.eshop.api.order.enums.OrderStatus;
+import com.eshop.api.order.enums.PaymentStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Set-based statements for cancelling orders whose payment never arrived. Orders are claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so instances running the cleanup at the same time, or a payment
+ * callback holding an order (it loads the order with
+ * {@link OrderRepository#findByOrderNumberForUpdate}), never make the cleanup wait and never
+ * cancel an order twice.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StaleOrderRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record CancelledOrder(UUID orderId, UUID userId) {
+    }
+
+    /**
+     * Cancels up to {@code limit} of the oldest orders still awaiting payment that were placed
+     * before {@code placedBefore}, skipping orders locked by another transaction.
+     *
+     * @return the cancelled orders
+     */
+    public List<CancelledOrder> cancelStale(Instant placedBefore, Instant cancelledAt, int limit) {
+        return jdbcTemplate.query(
+            """
+            WITH stale AS (
+              SELECT id
+              FROM orders
+              WHERE status = ?::order_status_enum
+                AND payment_status = ?::payment_status_enum
+                AND placed_at < ?
+              ORDER BY placed_at
+              LIMIT ?
+              FOR UPDATE SKIP LOCKED
+            )
+            UPDATE orders o
+            SET status = ?::order_status_enum,
+                payment_status = ?::payment_status_enum,
+                cancelled_at = ?
+            FROM stale
+            WHERE o.id = stale.id
+            RETURNING o.id, o.user_id
+            """,
+            (rs, rowNum) -> new CancelledOrder(rs.getObject("id", UUID.class), rs.getObject("user_id", UUID.class)),
+            OrderStatus.AWAITING_PAYMENT.name(),
+            PaymentStatus.PENDING.name(),
+            Timestamp.from(placedBefore),
+            limit,
+            OrderStatus.CANCELLED.name(),
+            PaymentStatus.FAILED.name(),
+            Timestamp.from(cancelledAt)
+        );
+    }
+
+    /**
+     * @return the ordered quantity per variant over all items of the given orders; items whose
+     * variant was deleted are left out
+     */
+    public SortedMap<UUID, Integer> sumQuantitiesByVariant(Collection<UUID> orderIds) {
+        SortedMap<UUID, Integer> quantities = new TreeMap<>();
+        if (orderIds.isEmpty()) {
+            return quantities;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(orderIds.size(), "?"));
+        jdbcTemplate.query(
+            """
+            SELECT variant_id, SUM(quantity) AS quantity
+            FROM order_items
+            WHERE order_id IN (%s) AND variant_id IS NOT NULL
+            GROUP BY variant_id
+            """.formatted(placeholders),
+            rs -> {
+                quantities.put(rs.getObject("variant_id", UUID.class), rs.getInt("quantity"));
+            },
+            orderIds.toArray()
+        );
+        return quantities;
+    }
+
+    /**
+     * Records the same status change for every given order, in one batch. Each change is
+     * attributed to the order's user, as the cancellation happens on their behalf.
+     */
+    public void insertHistory(List<CancelledOrder> orders, OrderStatus status, PaymentStatus paymentStatus, String comment) {
+        List<CancelledOrder> rows = new ArrayList<>(orders);
+        jdbcTemplate.batchUpdate(
+            """
+            INSERT INTO order_status_history (order_id, status, payment_status, changed_by, comment)
+            VALUES (?, ?::order_status_enum, ?::payment_status_enum, ?, ?)
+            """,
+            rows,
+            rows.size(),
+            (ps, row) -> {
+                ps.setObject(1, row.orderId());
+                ps.setString(2, status.name());
+                ps.setString(3, paymentStatus.name());
+                ps.setObject(4, row.userId());
+                ps.setString(5, comment);
+            }
+        );
+    }
+}
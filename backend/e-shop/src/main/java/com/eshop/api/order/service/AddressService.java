@@ -6,8 +6,8 @@ import com.eshop.api.order.dto.AddressResponse;
 import com.eshop.api.order.exception.AddressNotFoundException;
 import com.eshop.api.order.model.Address;
 import com.eshop.api.order.repository.AddressRepository;
+import com.eshop.api.security.AuthenticatedUserResolver;
 import com.eshop.api.user.User;
-import com.eshop.api.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -24,7 +24,7 @@ import java.util.UUID;
 public class AddressService {
 
     private final AddressRepository addressRepository;
-    private final UserRepository userRepository;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
 
     @Transactional(readOnly = true)
     public List<AddressResponse> listAddresses(String email) {
@@ -119,7 +119,7 @@ public class AddressService {
         if (email == null || email.isBlank()) {
             throw new InvalidJwtException("Authentication is required for address operations");
         }
-        return userRepository.findByEmailIgnoreCase(email)
+        return authenticatedUserResolver.findUser(email)
             .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
 }
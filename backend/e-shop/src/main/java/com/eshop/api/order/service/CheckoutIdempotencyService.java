@@ -0,0 +1,261 @@
+package com.eshop.api.order.service;
+
+import com.eshop.api.order.config.CheckoutIdempotencyProperties;
+import com.eshop.api.order.dto.CheckoutRequest;
+import com.eshop.api.order.dto.CheckoutResponse;
+import com.eshop.api.order.exception.CheckoutInProgressException;
+import com.eshop.api.order.exception.CheckoutValidationException;
+import com.eshop.api.order.exception.IdempotencyKeyReusedException;
+import com.eshop.api.order.repository.CheckoutIdempotencyRepository;
+import com.eshop.api.order.repository.CheckoutIdempotencyRepository.KeyRecord;
+import com.eshop.api.scheduling.service.BatchedDeletes;
+import com.eshop.api.scheduling.service.ClusterJobCoordinator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Deduplicates checkout requests carrying an {@code Idempotency-Key}, per authenticated user.
+ * <ul>
+ *   <li>A repeat of a completed checkout gets the original response, from memory or else from
+ *   {@code checkout_idempotency_keys}; no order is placed and no stock reserved again.</li>
+ *   <li>A duplicate arriving while the original runs on this instance waits for its result; one
+ *   arriving on another instance is answered with 409 Conflict until the original completes.</li>
+ *   <li>Reusing a key for a different request body is rejected with 422.</li>
+ * </ul>
+ * The key is claimed in the database before the order is placed and completed in the order's own
+ * transaction, so a key maps to at most one order even across instances. A failed checkout
+ * releases its claim and may be retried with the same key. Expired keys are purged by the
+ * instance leading the {@value #PURGE_JOB_NAME} job.
+ */
+@Slf4j
+@Service
+public class CheckoutIdempotencyService {
+
+    static final String PURGE_JOB_NAME = "checkout-idempotency-purge";
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final OrderCheckoutService orderCheckoutService;
+    private final CheckoutIdempotencyRepository repository;
+    private final CheckoutIdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterJobCoordinator jobCoordinator;
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    // Guarded by "this": the access-ordered map mutates on reads.
+    private final LinkedHashMap<String, Completed> completed;
+
+    public CheckoutIdempotencyService(OrderCheckoutService orderCheckoutService,
+                                      CheckoutIdempotencyRepository repository,
+                                      CheckoutIdempotencyProperties properties,
+                                      ObjectMapper objectMapper,
+                                      PlatformTransactionManager transactionManager,
+                                      ClusterJobCoordinator jobCoordinator) {
+        this.orderCheckoutService = orderCheckoutService;
+        this.repository = repository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobCoordinator = jobCoordinator;
+        this.completed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Completed> eldest) {
+                return size() > properties.getCacheSize();
+            }
+        };
+    }
+
+    /**
+     * Places the order, or returns the response of the checkout already placed with
+     * {@code idempotencyKey}. Without a key this is a plain checkout.
+     */
+    public CheckoutResponse checkout(String email, String idempotencyKey, CheckoutRequest request, String clientIp) {
+        if (idempotencyKey == null) {
+            return orderCheckoutService.checkout(email, request, clientIp);
+        }
+        String key = idempotencyKey.trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new CheckoutValidationException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String principal = email.toLowerCase(Locale.ROOT);
+        String cacheKey = principal + '\n' + key;
+        String requestHash = fingerprint(request);
+
+        CheckoutResponse cached = findCompleted(cacheKey, requestHash);
+        if (cached != null) {
+            return cached;
+        }
+
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            if (!running.requestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException();
+            }
+            return await(running.response());
+        }
+
+        try {
+            CheckoutResponse response = claimAndCheckout(principal, key, requestHash, email, request, clientIp);
+            remember(cacheKey, requestHash, response);
+            mine.response().complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            mine.response().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.order.checkout-idempotency.purge-interval:PT1H}",
+        fixedDelayString = "${app.order.checkout-idempotency.purge-interval:PT1H}"
+    )
+    public void purgeExpiredKeys() {
+        jobCoordinator.runAsLeader(PURGE_JOB_NAME, this::purge);
+    }
+
+    private void purge() {
+        Instant now = Instant.now();
+        int total = BatchedDeletes.untilExhausted("Purging expired checkout idempotency keys", properties.getPurgeBatchSize(),
+            batchSize -> repository.deleteExpired(now, batchSize));
+        if (total > 0) {
+            log.info("Purged {} expired checkout idempotency key(s)", total);
+        }
+    }
+
+    private CheckoutResponse claimAndCheckout(String principal,
+                                              String key,
+                                              String requestHash,
+                                              String email,
+                                              CheckoutRequest request,
+                                              String clientIp) {
+        UUID claimToken = UUID.randomUUID();
+        Instant now = Instant.now();
+        if (!repository.claim(principal, key, requestHash, claimToken, now.plus(properties.getTtl()))) {
+            KeyRecord existing = repository.find(principal, key)
+                .orElseThrow(CheckoutInProgressException::new);
+            if (!existing.requestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException();
+            }
+            if (existing.response() != null) {
+                log.debug("Replaying checkout for Idempotency-Key {} of {}", key, principal);
+                return readResponse(existing.response());
+            }
+            if (!repository.takeOver(principal, key, claimToken, now.minus(properties.getLease()))) {
+                throw new CheckoutInProgressException();
+            }
+            log.warn("Took over stale checkout claim for Idempotency-Key {} of {}", key, principal);
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                CheckoutResponse response = orderCheckoutService.checkout(email, request, clientIp);
+                if (!repository.complete(principal, key, claimToken, response.getOrderId(), writeResponse(response))) {
+                    // The claim was taken over meanwhile; roll this order back in favour of the new holder.
+                    throw new CheckoutInProgressException();
+                }
+                return response;
+            });
+        } catch (RuntimeException ex) {
+            try {
+                repository.release(principal, key, claimToken);
+            } catch (DataAccessException releaseFailure) {
+                log.warn("Could not release checkout claim for Idempotency-Key {}; it frees up after {}", key, properties.getLease(), releaseFailure);
+            }
+            throw ex;
+        }
+    }
+
+    private CheckoutResponse await(CompletableFuture<CheckoutResponse> response) {
+        try {
+            return response.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new CheckoutInProgressException();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CheckoutInProgressException();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Checkout failed", ex.getCause());
+        }
+    }
+
+    private synchronized CheckoutResponse findCompleted(String cacheKey, String requestHash) {
+        Completed entry = completed.get(cacheKey);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt().isBefore(Instant.now())) {
+            completed.remove(cacheKey);
+            return null;
+        }
+        if (!entry.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException();
+        }
+        return entry.response();
+    }
+
+    private synchronized void remember(String cacheKey, String requestHash, CheckoutResponse response) {
+        if (properties.getCacheSize() > 0) {
+            completed.put(cacheKey, new Completed(requestHash, response, Instant.now().plus(properties.getTtl())));
+        }
+    }
+
+    private String fingerprint(CheckoutRequest request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Unable to fingerprint checkout request", ex);
+        }
+    }
+
+    private String writeResponse(CheckoutResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize checkout response", ex);
+        }
+    }
+
+    private CheckoutResponse readResponse(String json) {
+        try {
+            return objectMapper.readValue(json, CheckoutResponse.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to read stored checkout response", ex);
+        }
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<CheckoutResponse> response) {
+    }
+
+    private record Completed(String requestHash, CheckoutResponse response, Instant expiresAt) {
+    }
+}
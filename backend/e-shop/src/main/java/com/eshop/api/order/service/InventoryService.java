@@ -1,10 +1,11 @@
 package com.eshop.api.order.service;
 
-import com.eshop.api.catalog.model.ProductVariant;
 import com.eshop.api.cart.model.Cart;
 import com.eshop.api.cart.model.CartItem;
 import com.eshop.api.cart.repository.CartRepository;
-import com.eshop.api.catalog.repository.ProductVariantRepository;
+import com.eshop.api.catalog.repository.ProductVariantStockWriter;
+import com.eshop.api.catalog.service.ProductDetailCache;
+import com.eshop.api.catalog.service.ProductListingService;
 import com.eshop.api.exception.InsufficientInventoryException;
 import com.eshop.api.exception.ProductVariantNotFoundException;
 import com.eshop.api.order.model.OrderItem;
@@ -15,7 +16,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
 
 @Service
@@ -23,26 +30,97 @@ import java.util.UUID;
 @Slf4j
 public class InventoryService {
 
-    private final ProductVariantRepository productVariantRepository;
+    private final ProductVariantStockWriter productVariantStockWriter;
     private final CartRepository cartRepository;
+    private final ProductListingService productListingService;
+    private final ProductDetailCache productDetailCache;
 
     @Transactional
     public void reserveCartItems(Collection<CartItem> cartItems) {
+        reserveCartItems(cartItems, Map.of());
+    }
+
+    /**
+     * Takes the cart quantities out of stock, minus what the cart already holds: stock held for
+     * a line is handed over as is, only the difference is taken from or returned to stock.
+     */
+    @Transactional
+    public void reserveCartItems(Collection<CartItem> cartItems, Map<UUID, Integer> heldQuantities) {
         if (cartItems == null || cartItems.isEmpty()) {
             return;
         }
+        SortedMap<UUID, Integer> quantities = new TreeMap<>();
         for (CartItem cartItem : cartItems) {
-            ProductVariant variant = resolveVariant(cartItem.getVariant() != null ? cartItem.getVariant().getId() : null);
+            UUID variantId = cartItem.getVariant() != null ? cartItem.getVariant().getId() : null;
+            if (variantId == null) {
+                throw new ProductVariantNotFoundException((UUID) null);
+            }
             int requested = Objects.requireNonNullElse(cartItem.getQuantity(), 0);
             if (requested <= 0) {
                 throw new IllegalArgumentException("Cart item quantity must be positive when reserving inventory");
             }
-            int available = Objects.requireNonNullElse(variant.getQuantityInStock(), 0);
-            if (available < requested) {
-                throw new InsufficientInventoryException(variant.getId(), requested, available);
+            quantities.merge(variantId, requested, Integer::sum);
+        }
+
+        SortedMap<UUID, Integer> missing = new TreeMap<>();
+        SortedMap<UUID, Integer> surplus = new TreeMap<>();
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            int difference = entry.getValue() - heldQuantities.getOrDefault(entry.getKey(), 0);
+            if (difference > 0) {
+                missing.put(entry.getKey(), difference);
+            } else if (difference < 0) {
+                surplus.put(entry.getKey(), -difference);
             }
-            variant.setQuantityInStock(available - requested);
         }
+        heldQuantities.forEach((variantId, held) -> {
+            if (!quantities.containsKey(variantId) && held > 0) {
+                surplus.put(variantId, held);
+            }
+        });
+
+        reserve(missing);
+        release(surplus);
+    }
+
+    /**
+     * Takes the quantities out of stock with one conditional UPDATE per variant, sent as a
+     * single batch. Fails with {@link InsufficientInventoryException} if any variant is short;
+     * the caller's transaction then rolls back the rows already decremented.
+     *
+     * @param quantities quantity per variant id
+     */
+    @Transactional
+    public void reserve(SortedMap<UUID, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        List<UUID> shortVariantIds = productVariantStockWriter.decrementAll(quantities);
+        Map<UUID, ProductVariantStockWriter.StockLevel> levels = productVariantStockWriter.findStockLevels(quantities.keySet());
+        if (!shortVariantIds.isEmpty()) {
+            UUID variantId = shortVariantIds.get(0);
+            ProductVariantStockWriter.StockLevel level = levels.get(variantId);
+            if (level == null) {
+                throw new ProductVariantNotFoundException(variantId);
+            }
+            throw new InsufficientInventoryException(variantId, quantities.get(variantId), level.quantityInStock());
+        }
+
+        Set<UUID> soldOutProductIds = new HashSet<>();
+        List<UUID> soldOutShardedVariantIds = new ArrayList<>();
+        for (ProductVariantStockWriter.StockLevel level : levels.values()) {
+            if (level.quantityInStock() == 0) {
+                soldOutProductIds.add(level.productId());
+                if (level.sharded()) {
+                    soldOutShardedVariantIds.add(level.variantId());
+                }
+            }
+        }
+        // The listing reads the cached total of sharded variants, so bring it to zero first.
+        productVariantStockWriter.syncShardedTotals(soldOutShardedVariantIds);
+        // Only a sell-out or restock flips the listing's in-stock flag, so other reservations skip the refresh.
+        productListingService.refreshAll(soldOutProductIds);
+        soldOutProductIds.forEach(productDetailCache::evictAfterCommit);
     }
 
     @Transactional
@@ -50,15 +128,50 @@ public class InventoryService {
         if (orderItems == null || orderItems.isEmpty()) {
             return;
         }
+        SortedMap<UUID, Integer> quantities = new TreeMap<>();
         for (OrderItem orderItem : orderItems) {
-            ProductVariant variant = resolveVariant(orderItem.getVariant() != null ? orderItem.getVariant().getId() : null);
+            UUID variantId = orderItem.getVariant() != null ? orderItem.getVariant().getId() : null;
+            if (variantId == null) {
+                throw new ProductVariantNotFoundException((UUID) null);
+            }
             int quantity = Objects.requireNonNullElse(orderItem.getQuantity(), 0);
-            if (quantity <= 0) {
-                continue;
+            if (quantity > 0) {
+                quantities.merge(variantId, quantity, Integer::sum);
+            }
+        }
+        release(quantities);
+    }
+
+    /**
+     * Returns the quantities to stock.
+     *
+     * @param quantities quantity per variant id
+     */
+    @Transactional
+    public void release(SortedMap<UUID, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        List<UUID> missingVariantIds = productVariantStockWriter.incrementAll(quantities);
+        if (!missingVariantIds.isEmpty()) {
+            throw new ProductVariantNotFoundException(missingVariantIds.get(0));
+        }
+
+        Set<UUID> restockedProductIds = new HashSet<>();
+        List<UUID> restockedShardedVariantIds = new ArrayList<>();
+        for (ProductVariantStockWriter.StockLevel level : productVariantStockWriter.findStockLevels(quantities.keySet()).values()) {
+            // The variant was empty before this release if all of its stock came back just now.
+            if (level.quantityInStock() == quantities.get(level.variantId())) {
+                restockedProductIds.add(level.productId());
+                if (level.sharded()) {
+                    restockedShardedVariantIds.add(level.variantId());
+                }
             }
-            int available = Objects.requireNonNullElse(variant.getQuantityInStock(), 0);
-            variant.setQuantityInStock(available + quantity);
         }
+        productVariantStockWriter.syncShardedTotals(restockedShardedVariantIds);
+        productListingService.refreshAll(restockedProductIds);
+        restockedProductIds.forEach(productDetailCache::evictAfterCommit);
     }
 
     @Transactional
@@ -72,12 +185,4 @@ public class InventoryService {
         }
         cartRepository.save(cart);
     }
-
-    private ProductVariant resolveVariant(UUID variantId) {
-        if (variantId == null) {
-            throw new ProductVariantNotFoundException((UUID) null);
-        }
-        return productVariantRepository.findById(variantId)
-            .orElseThrow(() -> new ProductVariantNotFoundException(variantId));
-    }
 }
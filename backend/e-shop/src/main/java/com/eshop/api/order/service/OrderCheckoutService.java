@@ -3,6 +3,7 @@ package com.eshop.api.order.service;
 import com.eshop.api.cart.model.Cart;
 import com.eshop.api.cart.model.CartItem;
 import com.eshop.api.cart.repository.CartRepository;
+import com.eshop.api.cart.service.CartStockHoldService;
 import com.eshop.api.exception.CartNotFoundException;
 import com.eshop.api.order.dto.CheckoutAddressRequest;
 import com.eshop.api.order.dto.CheckoutItemResponse;
@@ -25,14 +26,12 @@ import com.eshop.api.order.repository.AddressRepository;
 import com.eshop.api.order.service.InventoryService;
 import com.eshop.api.order.repository.OrderAddressRepository;
 import com.eshop.api.order.repository.OrderRepository;
-import com.eshop.api.order.repository.OrderStatusHistoryRepository;
-import com.eshop.api.order.repository.PaymentTransactionRepository;
 import com.eshop.api.payment.dto.VnPayInitResponse;
 import com.eshop.api.payment.service.VnPayPaymentService;
 import com.eshop.api.catalog.model.ProductVariant;
+import com.eshop.api.security.AuthenticatedUserResolver;
 import com.eshop.api.user.User;
 import org.springframework.stereotype.Service;
-import com.eshop.api.user.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.persistence.EntityManager;
@@ -46,7 +45,9 @@ import java.math.RoundingMode;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
 
 @Slf4j
 @Service
@@ -55,15 +56,14 @@ public class OrderCheckoutService {
 
     private static final String DEFAULT_CURRENCY = "USD";
 
-    private final UserRepository userRepository;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
     private final CartRepository cartRepository;
     private final AddressRepository addressRepository;
     private final OrderRepository orderRepository;
     private final OrderAddressRepository orderAddressRepository;
-    private final OrderStatusHistoryRepository orderStatusHistoryRepository;
-    private final PaymentTransactionRepository paymentTransactionRepository;
     private final VnPayPaymentService vnPayPaymentService;
     private final InventoryService inventoryService;
+    private final CartStockHoldService cartStockHoldService;
     private final ObjectMapper objectMapper;
 
     @PersistenceContext
@@ -85,7 +85,9 @@ public class OrderCheckoutService {
 
         MonetaryBreakdown breakdown = calculateMonetaryBreakdown(cart.getItems(), request);
 
-        inventoryService.reserveCartItems(cart.getItems());
+        // Stock the cart already holds moves to the order; only the rest is reserved now.
+        Map<UUID, Integer> heldQuantities = cartStockHoldService.consume(cart.getId());
+        inventoryService.reserveCartItems(cart.getItems(), heldQuantities);
 
         Order order = Order.builder().orderNumber(generateOrderNumber()).user(user).cart(cart).status(OrderStatus.AWAITING_PAYMENT).paymentStatus(
                 PaymentStatus.PENDING).paymentMethod(PaymentMethod.CARD).currency(DEFAULT_CURRENCY).subtotalAmount(
@@ -93,10 +95,7 @@ public class OrderCheckoutService {
                 breakdown.tax()).totalAmount(breakdown.total()).notes(request.getNotes()).shippingMethod(request.getShippingMethod()).placedAt(
                 Instant.now()).build();
 
-        order = orderRepository.save(order);
-
         OrderAddress shippingSnapshot = buildOrderAddress(order, address, addressPayload, OrderAddressType.SHIPPING);
-        shippingSnapshot = orderAddressRepository.save(shippingSnapshot);
         order.setShippingAddress(shippingSnapshot);
 
         List<CheckoutItemResponse> itemResponses = new ArrayList<>();
@@ -106,18 +105,21 @@ public class OrderCheckoutService {
             itemResponses.add(mapToItemResponse(orderItem));
         }
 
-        order = orderRepository.save(order);
-
-        OrderStatusHistory history = OrderStatusHistory.builder().order(order).status(order.getStatus()).paymentStatus(
+        OrderStatusHistory history = OrderStatusHistory.builder().status(order.getStatus()).paymentStatus(
                 order.getPaymentStatus()).changedBy(user).comment("Order created and pending VNPay payment").build();
         order.addStatusHistory(history);
-        orderStatusHistoryRepository.save(history);
 
-        PaymentTransaction transaction = PaymentTransaction.builder().order(order).provider("VNPAY").idempotencyKey(
+        PaymentTransaction transaction = PaymentTransaction.builder().provider("VNPAY").idempotencyKey(
                 order.getOrderNumber()).amount(order.getTotalAmount()).currency(order.getCurrency()).status(
                 PaymentStatus.PENDING).method(PaymentMethod.CARD).build();
         order.addPaymentTransaction(transaction);
-        transaction = paymentTransactionRepository.save(transaction);
+
+        // The aggregate is built in memory and persisted in one go; ids are generated client side, so
+        // nothing is written until the flush, which sends each table's rows as one JDBC batch
+        // (see spring.jpa.properties.hibernate.jdbc.batch_size).
+        orderRepository.save(order);
+        orderAddressRepository.save(shippingSnapshot);
+        entityManager.flush();
 
         VnPayInitResponse vnPayInit = vnPayPaymentService.createPaymentUrl(order, transaction, clientIp);
 
@@ -132,7 +134,7 @@ public class OrderCheckoutService {
         if (email == null || email.isBlank()) {
             throw new CheckoutValidationException("Authenticated user email is required");
         }
-        return userRepository.findByEmailIgnoreCase(email).orElseThrow(() -> new CheckoutValidationException(
+        return authenticatedUserResolver.findUser(email).orElseThrow(() -> new CheckoutValidationException(
                 "User not found for email: " + email));
     }
 
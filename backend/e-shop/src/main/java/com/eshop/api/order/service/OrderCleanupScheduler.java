@@ -2,68 +2,90 @@ package com.eshop.api.order.service;
 
 import com.eshop.api.order.enums.OrderStatus;
 import com.eshop.api.order.enums.PaymentStatus;
-import com.eshop.api.order.model.Order;
-import com.eshop.api.order.model.OrderStatusHistory;
-import com.eshop.api.order.repository.OrderRepository;
-import com.eshop.api.order.repository.OrderStatusHistoryRepository;
-import lombok.RequiredArgsConstructor;
+import com.eshop.api.order.repository.StaleOrderRepository;
+import com.eshop.api.order.repository.StaleOrderRepository.CancelledOrder;
+import com.eshop.api.scheduling.service.ClusterJobCoordinator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.UUID;
 
+/**
+ * Cancels orders whose payment did not arrive in time and returns their stock. Work is done in
+ * chunks of {@code app.order.cleanup-chunk-size} orders, one short transaction each: the chunk is
+ * claimed and cancelled with a single {@code FOR UPDATE SKIP LOCKED} statement, its stock returned
+ * with one aggregated release and its history rows inserted as one batch. A backlog after an
+ * outage is therefore worked off without one huge transaction, and instances running the job at
+ * the same time split the backlog between them instead of blocking on each other. Normally only
+ * the instance leading the {@value #JOB_NAME} job runs it at all.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class OrderCleanupScheduler {
 
-    private final OrderRepository orderRepository;
-    private final OrderStatusHistoryRepository orderStatusHistoryRepository;
+    static final String JOB_NAME = "order-cleanup";
+
+    private static final String CANCELLATION_COMMENT = "Order cancelled due to payment timeout";
+
+    private final StaleOrderRepository staleOrderRepository;
     private final InventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterJobCoordinator jobCoordinator;
 
     @Value("${app.order.awaiting-payment-timeout-minutes:30}")
     private long awaitingPaymentTimeoutMinutes;
 
+    @Value("${app.order.cleanup-chunk-size:200}")
+    private int chunkSize;
+
+    public OrderCleanupScheduler(StaleOrderRepository staleOrderRepository,
+                                 InventoryService inventoryService,
+                                 PlatformTransactionManager transactionManager,
+                                 ClusterJobCoordinator jobCoordinator) {
+        this.staleOrderRepository = staleOrderRepository;
+        this.inventoryService = inventoryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobCoordinator = jobCoordinator;
+    }
+
     @Scheduled(fixedDelayString = "${app.order.cleanup-interval-ms:300000}")
-    @Transactional
     public void cancelStaleAwaitingPaymentOrders() {
+        jobCoordinator.runAsLeader(JOB_NAME, this::cancelStaleOrders);
+    }
+
+    private void cancelStaleOrders() {
         Instant cutoff = Instant.now().minus(awaitingPaymentTimeoutMinutes, ChronoUnit.MINUTES);
-        List<Order> staleOrders = orderRepository.findByStatusAndPaymentStatusAndPlacedAtBefore(
-            OrderStatus.AWAITING_PAYMENT,
-            PaymentStatus.PENDING,
-            cutoff
-        );
+        int total = 0;
+        int cancelled;
+        do {
+            cancelled = cancelChunk(cutoff);
+            total += cancelled;
+        } while (cancelled == chunkSize);
 
-        if (staleOrders.isEmpty()) {
-            return;
+        if (total > 0) {
+            log.info("Cancelled {} stale awaiting-payment orders placed before {}", total, cutoff);
         }
+    }
 
-        log.info("Cancelling {} stale awaiting-payment orders older than {}", staleOrders.size(), cutoff);
-
-        Instant now = Instant.now();
-        for (Order order : staleOrders) {
-            inventoryService.releaseOrderItems(order.getItems());
-            order.setStatus(OrderStatus.CANCELLED);
-            order.setPaymentStatus(PaymentStatus.FAILED);
-            order.setCancelledAt(now);
-
-            orderRepository.save(order);
-
-            OrderStatusHistory history = OrderStatusHistory.builder()
-                .order(order)
-                .status(order.getStatus())
-                .paymentStatus(order.getPaymentStatus())
-                .comment("Order cancelled due to payment timeout")
-                .changedBy(order.getUser())
-                .build();
-
-            order.addStatusHistory(history);
-            orderStatusHistoryRepository.save(history);
-        }
+    private int cancelChunk(Instant cutoff) {
+        Integer cancelled = transactionTemplate.execute(status -> {
+            List<CancelledOrder> orders = staleOrderRepository.cancelStale(cutoff, Instant.now(), chunkSize);
+            if (orders.isEmpty()) {
+                return 0;
+            }
+            List<UUID> orderIds = orders.stream().map(CancelledOrder::orderId).toList();
+            inventoryService.release(staleOrderRepository.sumQuantitiesByVariant(orderIds));
+            staleOrderRepository.insertHistory(orders, OrderStatus.CANCELLED, PaymentStatus.FAILED, CANCELLATION_COMMENT);
+            log.debug("Cancelled a chunk of {} stale orders", orders.size());
+            return orders.size();
+        });
+        return cancelled != null ? cancelled : 0;
     }
 }
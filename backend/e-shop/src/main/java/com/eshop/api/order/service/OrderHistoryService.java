@@ -11,8 +11,8 @@ import com.eshop.api.order.model.Order;
 import com.eshop.api.order.model.OrderItem;
 import com.eshop.api.order.repository.OrderItemRepository;
 import com.eshop.api.order.repository.OrderRepository;
+import com.eshop.api.security.AuthenticatedUserResolver;
 import com.eshop.api.user.User;
-import com.eshop.api.user.UserRepository;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
@@ -31,7 +31,7 @@ public class OrderHistoryService {
 
     private final OrderItemRepository orderItemRepository;
     private final OrderRepository orderRepository;
-    private final UserRepository userRepository;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
 
     @Transactional(readOnly = true)
     public PageResponse<PurchasedItemResponse> getPurchasedItems(String email, Pageable pageable) {
@@ -122,7 +122,7 @@ public class OrderHistoryService {
         if (email == null || email.isBlank()) {
             throw new InvalidJwtException("Authentication is required to access order history");
         }
-        return userRepository.findByEmailIgnoreCase(email)
+        return authenticatedUserResolver.findUser(email)
             .orElseThrow(() -> new UsernameNotFoundException("User not found for email: " + email));
     }
 
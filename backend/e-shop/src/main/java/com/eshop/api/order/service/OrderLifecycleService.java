@@ -10,8 +10,8 @@ import com.eshop.api.order.model.Order;
 import com.eshop.api.order.model.OrderStatusHistory;
 import com.eshop.api.order.repository.OrderRepository;
 import com.eshop.api.order.repository.OrderStatusHistoryRepository;
+import com.eshop.api.security.AuthenticatedUserResolver;
 import com.eshop.api.user.User;
-import com.eshop.api.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -28,7 +28,7 @@ public class OrderLifecycleService {
 
     private final OrderRepository orderRepository;
     private final OrderStatusHistoryRepository orderStatusHistoryRepository;
-    private final UserRepository userRepository;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
 
     @Transactional
     public OrderStatusResponse confirmFulfillment(String email, UUID orderId) {
@@ -85,7 +85,7 @@ public class OrderLifecycleService {
         if (email == null || email.isBlank()) {
             throw new InvalidJwtException("Authentication is required to manage orders");
         }
-        return userRepository.findByEmailIgnoreCase(email)
+        return authenticatedUserResolver.findUser(email)
             .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
     }
 }
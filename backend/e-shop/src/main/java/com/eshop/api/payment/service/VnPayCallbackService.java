@@ -55,7 +55,9 @@ public class VnPayCallbackService {
             throw new PaymentValidationException("Missing order reference in VNPay response");
         }
 
-        Order order = orderRepository.findByOrderNumber(orderNumber)
+        // Locked so the stale order cleanup cannot cancel the order between the checks below and
+        // the status written here.
+        Order order = orderRepository.findByOrderNumberForUpdate(orderNumber)
             .orElseThrow(() -> new PaymentValidationException("Order not found: " + orderNumber));
 
         PaymentTransaction transaction = paymentTransactionRepository
@@ -83,6 +85,11 @@ public class VnPayCallbackService {
         transaction.setErrorCode(null);
         transaction.setErrorMessage(null);
 
+        if (order.getStatus() == OrderStatus.CANCELLED) {
+            return recordForCancelledOrder(order, transaction, success,
+                payload.get("vnp_ResponseCode"), payload.get("vnp_TransactionStatus"));
+        }
+
         if (success) {
             validateAmount(order, payload.get("vnp_Amount"));
             applySuccess(order, transaction);
@@ -118,6 +125,36 @@ public class VnPayCallbackService {
             .build();
     }
 
+    /**
+     * The order was cancelled while its payment was pending, typically by the stale order cleanup,
+     * and its stock was released then. The order is left cancelled; only the provider's answer is
+     * recorded on the transaction.
+     */
+    private VnPayConfirmResponse recordForCancelledOrder(Order order,
+                                                         PaymentTransaction transaction,
+                                                         boolean success,
+                                                         String responseCode,
+                                                         String txnStatus) {
+        if (success) {
+            transaction.setStatus(PaymentStatus.CAPTURED);
+            transaction.setCapturedAmount(order.getTotalAmount());
+            log.error("VNPay captured a payment for cancelled order {}; it must be refunded", order.getOrderNumber());
+        } else {
+            transaction.setStatus(PaymentStatus.FAILED);
+            transaction.setErrorCode(responseCode);
+            transaction.setErrorMessage(txnStatus);
+        }
+        paymentTransactionRepository.save(transaction);
+
+        return VnPayConfirmResponse.builder()
+            .orderNumber(order.getOrderNumber())
+            .orderStatus(order.getStatus())
+            .paymentStatus(order.getPaymentStatus())
+            .transactionStatus(transaction.getStatus())
+            .alreadyProcessed(true)
+            .build();
+    }
+
     private void validateAmount(Order order, String amountRaw) {
         if (amountRaw == null || amountRaw.isBlank()) {
             throw new PaymentValidationException("VNPay amount is missing");
@@ -0,0 +1,44 @@
+package com.eshop.api.scheduling.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.scheduling")
+@Getter
+@Setter
+public class SchedulingProperties {
+
+    /**
+     * Whether cluster-wide jobs run only on the instance holding their lease. When disabled
+     * every instance runs every job, which is only appropriate for a single instance.
+     */
+    private boolean coordinationEnabled = true;
+
+    /**
+     * Name of this instance in the lease table. Defaults to the host name plus a random suffix.
+     */
+    private String nodeId;
+
+    /**
+     * Lease of jobs without an entry in {@link #leases}.
+     */
+    private Duration defaultLease = Duration.ofMinutes(2);
+
+    /**
+     * Lease per job name. A lease should outlast both the job's longest run and the gap between
+     * two of its runs, so the leader keeps the job and other instances keep skipping it; after a
+     * leader stops, the job moves to another instance once the lease has lapsed.
+     */
+    private Map<String, Duration> leases = new HashMap<>();
+
+    public Duration leaseFor(String jobName) {
+        return leases.getOrDefault(jobName, defaultLease);
+    }
+}
@@ -0,0 +1,73 @@
+package com.eshop.api.scheduling.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+
+/**
+ * Leases of {@code scheduled_job_leases}. Expiry is judged by the database clock, so instances
+ * with skewed clocks still agree on who holds a job.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JobLeaseRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes or extends the lease of {@code jobName} for {@code owner}. Succeeds when the job has
+     * no lease yet, the lease has lapsed, or {@code owner} already holds it.
+     *
+     * @return whether {@code owner} now holds the lease
+     */
+    public boolean tryAcquire(String jobName, String owner, Duration lease) {
+        return jdbcTemplate.update(
+            """
+            INSERT INTO scheduled_job_leases (job_name, owner, locked_until, acquired_at, renewed_at)
+            VALUES (?, ?, NOW() + ? * INTERVAL '1 millisecond', NOW(), NOW())
+            ON CONFLICT (job_name) DO UPDATE
+              SET owner = EXCLUDED.owner,
+                  locked_until = EXCLUDED.locked_until,
+                  acquired_at = CASE
+                    WHEN scheduled_job_leases.owner = EXCLUDED.owner THEN scheduled_job_leases.acquired_at
+                    ELSE EXCLUDED.acquired_at
+                  END,
+                  renewed_at = EXCLUDED.renewed_at
+              WHERE scheduled_job_leases.owner = EXCLUDED.owner
+                 OR scheduled_job_leases.locked_until <= NOW()
+            """,
+            jobName,
+            owner,
+            lease.toMillis()
+        ) > 0;
+    }
+
+    /**
+     * Extends a lease {@code owner} still holds, counting from now.
+     */
+    public void renew(String jobName, String owner, Duration lease) {
+        jdbcTemplate.update(
+            """
+            UPDATE scheduled_job_leases
+            SET locked_until = NOW() + ? * INTERVAL '1 millisecond', renewed_at = NOW()
+            WHERE job_name = ? AND owner = ?
+            """,
+            lease.toMillis(),
+            jobName,
+            owner
+        );
+    }
+
+    /**
+     * Lets every lease of {@code owner} lapse immediately, so other instances take its jobs over
+     * on their next run.
+     */
+    public int releaseAll(String owner) {
+        return jdbcTemplate.update(
+            "UPDATE scheduled_job_leases SET locked_until = NOW() WHERE owner = ? AND locked_until > NOW()",
+            owner
+        );
+    }
+}
@@ -0,0 +1,41 @@
+package com.eshop.api.scheduling.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Repeats a bounded delete until a batch comes back short, so a cleanup job run through
+ * {@link ClusterJobCoordinator} clears its whole backlog while each statement, and the locks it
+ * holds, stays small.
+ */
+@Slf4j
+public final class BatchedDeletes {
+
+    private BatchedDeletes() {
+    }
+
+    /**
+     * @param description what the batches do, logged if one fails (e.g. "Purging expired keys")
+     * @param batchSize   the most rows one batch may remove
+     * @param batch       removes at most the given number of rows and returns how many it removed
+     * @return the rows removed by all batches; a database failure is logged and ends the run
+     */
+    public static int untilExhausted(String description, int batchSize, IntUnaryOperator batch) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        int total = 0;
+        try {
+            int removed;
+            do {
+                removed = batch.applyAsInt(batchSize);
+                total += removed;
+            } while (removed == batchSize);
+        } catch (DataAccessException ex) {
+            log.error("{} failed", description, ex);
+        }
+        return total;
+    }
+}
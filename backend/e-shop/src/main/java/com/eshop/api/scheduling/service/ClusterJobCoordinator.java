@@ -0,0 +1,197 @@
+package com.eshop.api.scheduling.service;
+
+import com.eshop.api.scheduling.config.SchedulingProperties;
+import com.eshop.api.scheduling.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs periodic work once per cluster instead of once per instance. Every instance still fires
+ * its {@code @Scheduled} methods, but a job only runs on the instance holding the job's lease in
+ * {@code scheduled_job_leases}; the others skip it. The leader extends its lease on every run, so
+ * a job stays on one instance until that instance stops renewing it, for example because it shut
+ * down or lost its database connection.
+ * <p>
+ * Coordination does not replace the jobs' own safety: a run that outlasts its lease may overlap
+ * with one on the next leader, so jobs keep claiming their rows with {@code SKIP LOCKED} or stay
+ * idempotent.
+ * <p>
+ * Per job, tagged {@code job}: {@code scheduling.job.runs} counts runs by {@code outcome},
+ * {@code scheduling.job.skips} counts skipped runs by {@code reason}, {@code scheduling.job.duration}
+ * times the runs and {@code scheduling.job.leader} is 1 while this instance leads the job.
+ */
+@Slf4j
+@Component
+public class ClusterJobCoordinator {
+
+    private static final String METRIC_PREFIX = "scheduling.job";
+
+    private final JobLeaseRepository leaseRepository;
+    private final SchedulingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+
+    private final Map<String, JobMeters> meters = new ConcurrentHashMap<>();
+
+    public ClusterJobCoordinator(JobLeaseRepository leaseRepository,
+                                 SchedulingProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.leaseRepository = leaseRepository;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nodeId = properties.getNodeId() != null && !properties.getNodeId().isBlank()
+            ? properties.getNodeId()
+            : defaultNodeId();
+        log.info("Scheduled job coordination {} for node {}", properties.isCoordinationEnabled() ? "enabled" : "disabled", nodeId);
+    }
+
+    /**
+     * Runs {@code job} if this instance holds, or can take, the lease of {@code jobName}.
+     * Exceptions from the job propagate after being counted.
+     *
+     * @return whether the job ran here
+     */
+    public boolean runAsLeader(String jobName, Runnable job) {
+        JobMeters jobMeters = meters.computeIfAbsent(jobName, this::register);
+        boolean coordinated = properties.isCoordinationEnabled();
+        Duration lease = properties.leaseFor(jobName);
+
+        if (coordinated && !acquire(jobName, lease, jobMeters)) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        try {
+            job.run();
+            jobMeters.succeeded().increment();
+        } catch (RuntimeException ex) {
+            jobMeters.failed().increment();
+            throw ex;
+        } finally {
+            jobMeters.duration().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (coordinated) {
+                renew(jobName, lease);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hands this instance's jobs over on shutdown instead of leaving them idle until the leases
+     * lapse.
+     */
+    @PreDestroy
+    public void releaseLeases() {
+        if (!properties.isCoordinationEnabled()) {
+            return;
+        }
+        try {
+            int released = leaseRepository.releaseAll(nodeId);
+            if (released > 0) {
+                log.info("Released {} scheduled job lease(s) of node {}", released, nodeId);
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Could not release scheduled job leases of node {}; they lapse on their own", nodeId, ex);
+        }
+    }
+
+    private boolean acquire(String jobName, Duration lease, JobMeters jobMeters) {
+        boolean leader;
+        try {
+            leader = leaseRepository.tryAcquire(jobName, nodeId, lease);
+        } catch (DataAccessException ex) {
+            jobMeters.leader().set(0);
+            jobMeters.leaseUnavailable().increment();
+            log.warn("Could not acquire the lease of job {}; skipping this run", jobName, ex);
+            return false;
+        }
+
+        int previous = jobMeters.leader().getAndSet(leader ? 1 : 0);
+        if (leader && previous == 0) {
+            log.info("Node {} now leads job {}", nodeId, jobName);
+        }
+        if (!leader) {
+            jobMeters.notLeader().increment();
+            log.trace("Skipping job {}; another node holds its lease", jobName);
+        }
+        return leader;
+    }
+
+    private void renew(String jobName, Duration lease) {
+        // Counts the lease from the end of the run, so a long run does not eat into the gap
+        // before the leader's next one.
+        try {
+            leaseRepository.renew(jobName, nodeId, lease);
+        } catch (DataAccessException ex) {
+            log.warn("Could not renew the lease of job {}", jobName, ex);
+        }
+    }
+
+    private JobMeters register(String jobName) {
+        AtomicInteger leader = new AtomicInteger();
+        Gauge.builder(METRIC_PREFIX + ".leader", leader, AtomicInteger::get)
+            .description("Whether this instance holds the job's lease")
+            .tag("job", jobName)
+            .register(meterRegistry);
+        return new JobMeters(
+            runCounter(jobName, "success"),
+            runCounter(jobName, "failure"),
+            skipCounter(jobName, "not_leader"),
+            skipCounter(jobName, "lease_unavailable"),
+            Timer.builder(METRIC_PREFIX + ".duration")
+                .description("Duration of scheduled job runs on this instance")
+                .tag("job", jobName)
+                .register(meterRegistry),
+            leader
+        );
+    }
+
+    private Counter runCounter(String jobName, String outcome) {
+        return Counter.builder(METRIC_PREFIX + ".runs")
+            .description("Scheduled job runs on this instance")
+            .tag("job", jobName)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private Counter skipCounter(String jobName, String reason) {
+        return Counter.builder(METRIC_PREFIX + ".skips")
+            .description("Scheduled job runs skipped on this instance")
+            .tag("job", jobName)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private record JobMeters(Counter succeeded,
+                             Counter failed,
+                             Counter notLeader,
+                             Counter leaseUnavailable,
+                             Timer duration,
+                             AtomicInteger leader) {
+    }
+}
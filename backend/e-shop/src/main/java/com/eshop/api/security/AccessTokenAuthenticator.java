@@ -0,0 +1,58 @@
+package com.eshop.api.security;
+
+import com.eshop.api.exception.InvalidJwtException;
+import com.eshop.api.user.UserReference;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Authenticates an access token for every entry point that accepts one, HTTP requests in
+ * {@link JwtFilter} and STOMP connections in {@link JwtStompChannelInterceptor}: the token must
+ * verify, and must still be current for its user.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccessTokenAuthenticator {
+
+    private final JwtService jwtService;
+    private final UserReferenceCache userReferenceCache;
+    private final TokenRevocationList tokenRevocationList;
+
+    /**
+     * @return whom the token authenticates, or empty when it verifies but is no longer current
+     * @throws InvalidJwtException if the token is malformed, forged, expired or not an access token
+     */
+    public Optional<JwtPrincipal> authenticate(String token) throws InvalidJwtException {
+        JwtPrincipal principal = jwtService.authenticate(token);
+        return isCurrent(principal) ? Optional.of(principal) : Optional.empty();
+    }
+
+    /**
+     * Rejects tokens of a revoked refresh-token family, tokens of deleted or disabled users and
+     * tokens issued before the user's security version last changed. Tokens without a user id
+     * predate these claims and are accepted until they expire.
+     */
+    private boolean isCurrent(JwtPrincipal principal) {
+        if (tokenRevocationList.isRevoked(principal.familyId())) {
+            log.warn("Rejected token of revoked family {}", principal.familyId());
+            return false;
+        }
+        if (principal.userId() == null) {
+            return true;
+        }
+        UserReference user = userReferenceCache.find(principal.userId()).orElse(null);
+        if (user == null || !user.isActive()) {
+            log.warn("Rejected token of missing or disabled user {}", principal.userId());
+            return false;
+        }
+        if (principal.securityVersion() == null || !user.accepts(principal.securityVersion())) {
+            log.warn("Rejected token with outdated security version for user {}", principal.userId());
+            return false;
+        }
+        return true;
+    }
+}
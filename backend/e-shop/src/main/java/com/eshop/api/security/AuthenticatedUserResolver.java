@@ -0,0 +1,60 @@
+package com.eshop.api.security;
+
+import com.eshop.api.user.User;
+import com.eshop.api.user.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resolves the authenticated caller to a {@link User} without looking them up by email. Requests
+ * authenticated by an access token carry a {@link JwtPrincipal} with the user id, whose account
+ * {@link JwtFilter} has already checked; for those the user is an entity reference by id, which
+ * costs no query unless a column other than the id is read. Callers authenticated some other way
+ * (STOMP sessions, the login request itself, tokens issued before user ids were embedded) fall
+ * back to the lookup by email.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthenticatedUserResolver {
+
+    private final UserRepository userRepository;
+
+    /**
+     * @param email the authenticated name of the caller
+     */
+    public Optional<User> findUser(String email) {
+        if (email == null || email.isBlank()) {
+            return Optional.empty();
+        }
+
+        UUID userId = currentUserId(email);
+        if (userId != null) {
+            return Optional.of(userRepository.getReferenceById(userId));
+        }
+        return userRepository.findByEmailIgnoreCase(email);
+    }
+
+    /**
+     * @return the id of the caller when the current request carries it for {@code email}, else
+     * {@code null}; never queries
+     */
+    public UUID currentUserId(String email) {
+        return currentPrincipal()
+            .filter(principal -> principal.userId() != null && principal.username().equalsIgnoreCase(email))
+            .map(JwtPrincipal::userId)
+            .orElse(null);
+    }
+
+    public static Optional<JwtPrincipal> currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            return Optional.of(principal);
+        }
+        return Optional.empty();
+    }
+}
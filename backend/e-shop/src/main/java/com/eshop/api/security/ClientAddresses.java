@@ -0,0 +1,23 @@
+package com.eshop.api.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resolves the address of the client behind a request. {@code X-Forwarded-For} is not read here:
+ * with {@code server.forward-headers-strategy: native}, Tomcat already replaces the peer address
+ * with the forwarded one when, and only when, the request came through a trusted proxy
+ * ({@code server.tomcat.remoteip.internal-proxies}). Anything else the client sends in that
+ * header is ignored, so it cannot pick the key it is rate limited under.
+ */
+public final class ClientAddresses {
+
+    private ClientAddresses() {
+    }
+
+    public static String resolve(HttpServletRequest request) {
+        if (request == null) {
+            return "0.0.0.0";
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -1,7 +1,6 @@
 package com.eshop.api.security;
 
 import com.eshop.api.exception.InvalidJwtException;
-import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,22 +8,19 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
+    private final AccessTokenAuthenticator accessTokenAuthenticator;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -32,18 +28,12 @@ public class JwtFilter extends OncePerRequestFilter {
 
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && validateJwtToken(jwt)) {
-                Claims claims = jwtService.extractClaimsOrThrow(jwt);
-                String username = jwtService.getUsername(claims);
-                List<String> roles = jwtService.getUserRoles(claims);
-
-                List<SimpleGrantedAuthority> authorities = roles.stream()
-                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                        .collect(Collectors.toList());
-
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(username, null, authorities);
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (jwt != null) {
+                accessTokenAuthenticator.authenticate(jwt).ifPresent(principal -> {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(principal, null, principal.authorities());
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                });
             }
         } catch (InvalidJwtException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
@@ -63,19 +53,4 @@ public class JwtFilter extends OncePerRequestFilter {
 
         return null;
     }
-
-    private boolean validateJwtToken(String authToken) {
-        try {
-            Claims claims = jwtService.extractClaimsOrThrow(authToken);
-            if (!jwtService.isAccessToken(claims)) {
-                log.warn("Rejected non-access token for authentication");
-                return false;
-            }
-            return !jwtService.getExpiry(claims).before(new java.util.Date());
-        } catch (Exception e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
-        }
-
-        return false;
-    }
 }
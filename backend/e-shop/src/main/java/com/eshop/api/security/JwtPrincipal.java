@@ -0,0 +1,33 @@
+package com.eshop.api.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * What a verified access token authenticates: the user, their authorities and when the token
+ * stops being valid. Immutable, so one instance is shared by every request carrying the token.
+ * It is the principal of the request's {@code Authentication}, whose name stays the user's email.
+ * <p>
+ * {@code userId}, {@code securityVersion} and {@code familyId} are {@code null} for tokens
+ * issued before they were embedded.
+ */
+public record JwtPrincipal(UUID userId,
+                           String username,
+                           Integer securityVersion,
+                           UUID familyId,
+                           List<GrantedAuthority> authorities,
+                           Instant expiresAt) implements Principal {
+
+    public JwtPrincipal {
+        authorities = List.copyOf(authorities);
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -2,45 +2,102 @@ package com.eshop.api.security;
 
 import com.eshop.api.config.AppEnv;
 import com.eshop.api.exception.InvalidJwtException;
+import com.eshop.api.user.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
+/**
+ * Issues and verifies the application's JWTs. The signing key and parser are built once; both
+ * are immutable and thread-safe. {@link #authenticate(String)} keeps recently verified access
+ * tokens in a bounded cache, so a client sending the same token on every request pays for one
+ * signature check and one claims parse per token rather than per request.
+ * <p>
+ * Tokens carry the user's id and security version next to the email subject, so requests can
+ * resolve the user by id and tokens issued before a security-relevant change can be rejected.
+ * Both also carry their refresh-token family ({@code fid}), so revoking the family rejects them,
+ * and refresh tokens carry their own id ({@code jti}) for rotation.
+ */
 @Slf4j
 @Service
-@AllArgsConstructor
 public class JwtService {
 
     public static final String CLAIM_ROLES = "roles";
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_SECURITY_VERSION = "sv";
+    private static final String CLAIM_FAMILY_ID = "fid";
     private static final String CLAIM_TOKEN_TYPE = "tokenType";
     private static final String TOKEN_TYPE_ACCESS = "ACCESS";
     private static final String TOKEN_TYPE_REFRESH = "REFRESH";
+    private static final String METRIC_PREFIX = "security.jwt.cache";
 
     private final AppEnv appEnv;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final VerifiedTokenCache tokenCache;
 
-    public String generateAccessToken(String subject, List<String> roles) {
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    public JwtService(AppEnv appEnv, MeterRegistry meterRegistry) {
+        this.appEnv = appEnv;
+        this.signingKey = Keys.hmacShaKeyFor(appEnv.getJwt().getSecret().getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.tokenCache = new VerifiedTokenCache(appEnv.getJwt().getTokenCacheSize());
+
+        this.cacheHits = cacheCounter(meterRegistry, "hit");
+        this.cacheMisses = cacheCounter(meterRegistry, "miss");
+        Gauge.builder(METRIC_PREFIX + ".size", tokenCache, VerifiedTokenCache::size)
+                .description("Verified access tokens currently cached")
+                .register(meterRegistry);
+    }
+
+    public String generateAccessToken(User user, List<String> roles, UUID familyId) {
         log.info("Generating Access Token...");
-        return createJwtToken(subject, roles, appEnv.getJwt().getAccessExpirationSeconds(), TOKEN_TYPE_ACCESS);
+        return createJwtToken(user, roles, familyId, null, appEnv.getJwt().getAccessExpirationSeconds(), TOKEN_TYPE_ACCESS);
     }
 
-    public String generateRefreshToken(String subject, List<String> roles) {
+    public String generateRefreshToken(User user, List<String> roles, UUID familyId, UUID tokenId) {
         log.info("Generating Refresh Token...");
-        return createJwtToken(subject, roles, appEnv.getJwt().getRefreshExpirationSeconds(), TOKEN_TYPE_REFRESH);
+        return createJwtToken(user, roles, familyId, tokenId, appEnv.getJwt().getRefreshExpirationSeconds(), TOKEN_TYPE_REFRESH);
     }
 
-    private String createJwtToken(String subject, List<String> roles, long expirationSeconds, String tokenType) {
+    /**
+     * @return how long a refresh-token family must be remembered after its latest token was
+     * issued: until both that refresh token and the access token issued with it have expired
+     */
+    public Duration getTokenFamilyLifetime() {
+        return Duration.ofSeconds(Math.max(
+                appEnv.getJwt().getAccessExpirationSeconds(),
+                appEnv.getJwt().getRefreshExpirationSeconds()
+        ));
+    }
+
+    private String createJwtToken(User user,
+                                  List<String> roles,
+                                  UUID familyId,
+                                  UUID tokenId,
+                                  long expirationSeconds,
+                                  String tokenType) {
         Instant now = Instant.now();
         Date issuedAt = Date.from(now);
         Date expiration = Date.from(now.plusSeconds(expirationSeconds));
@@ -48,25 +105,69 @@ public class JwtService {
         Map<String, Object> claims = new HashMap<>();
         claims.put(CLAIM_ROLES, roles);
         claims.put(CLAIM_TOKEN_TYPE, tokenType);
+        claims.put(CLAIM_USER_ID, user.getId().toString());
+        claims.put(CLAIM_SECURITY_VERSION, user.getSecurityVersion());
+        claims.put(CLAIM_FAMILY_ID, familyId.toString());
 
         return Jwts.builder()
                 .claims(claims)
-                .subject(subject)
+                .id(tokenId != null ? tokenId.toString() : null)
+                .subject(user.getEmail())
                 .issuedAt(issuedAt)
                 .expiration(expiration)
-                .signWith(getSignatureKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    private SecretKey getSignatureKey() {
-        return Keys.hmacShaKeyFor(appEnv.getJwt().getSecret().getBytes(StandardCharsets.UTF_8));
+    /**
+     * Verifies an access token and returns whom it authenticates, from the cache when the same
+     * token was verified before.
+     *
+     * @throws InvalidJwtException if the token is malformed, forged, expired or not an access token
+     */
+    public JwtPrincipal authenticate(String token) throws InvalidJwtException {
+        if (!tokenCache.isEnabled()) {
+            return toPrincipal(token);
+        }
+
+        String digest = VerifiedTokenCache.digest(token);
+        JwtPrincipal cached = tokenCache.get(digest, Instant.now());
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+
+        cacheMisses.increment();
+        JwtPrincipal principal = toPrincipal(token);
+        tokenCache.put(digest, principal);
+        return principal;
+    }
+
+    private JwtPrincipal toPrincipal(String token) {
+        Claims claims = extractClaimsOrThrow(token);
+        if (!isAccessToken(claims)) {
+            throw new InvalidJwtException("Not an access token");
+        }
+        if (claims.getExpiration() == null) {
+            throw new InvalidJwtException("Token has no expiry");
+        }
+
+        List<GrantedAuthority> authorities = getUserRoles(claims).stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+        return new JwtPrincipal(
+                getUserId(claims),
+                getUsername(claims),
+                getSecurityVersion(claims),
+                getFamilyId(claims),
+                authorities,
+                claims.getExpiration().toInstant()
+        );
     }
 
     public Claims extractClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSignatureKey())
-                    .build()
+            return parser
                     .parseSignedClaims(token)
                     .getPayload();
         } catch (JwtException | IllegalArgumentException e) {
@@ -85,6 +186,46 @@ public class JwtService {
         return claims.getSubject();
     }
 
+    /**
+     * @return the user id, or {@code null} for tokens issued before it was embedded
+     */
+    public UUID getUserId(Claims claims) {
+        return uuidClaim(claims.get(CLAIM_USER_ID, String.class), "user id");
+    }
+
+    /**
+     * @return the refresh-token family, or {@code null} for tokens issued before families existed
+     */
+    public UUID getFamilyId(Claims claims) {
+        return uuidClaim(claims.get(CLAIM_FAMILY_ID, String.class), "family id");
+    }
+
+    /**
+     * @return the id of a refresh token, or {@code null} for tokens issued before it was embedded
+     */
+    public UUID getTokenId(Claims claims) {
+        return uuidClaim(claims.getId(), "token id");
+    }
+
+    private static UUID uuidClaim(String value, String name) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidJwtException("Malformed " + name + " claim");
+        }
+    }
+
+    /**
+     * @return the user's security version when the token was issued, or {@code null} for tokens
+     * issued before it was embedded
+     */
+    public Integer getSecurityVersion(Claims claims) {
+        return claims.get(CLAIM_SECURITY_VERSION, Integer.class);
+    }
+
     public List<String> getUserRoles(Claims claims) {
         Object rolesObj = claims.get(CLAIM_ROLES);
         if (rolesObj instanceof List) {
@@ -112,4 +253,11 @@ public class JwtService {
     public boolean isAccessToken(Claims claims) {
         return TOKEN_TYPE_ACCESS.equals(claims.get(CLAIM_TOKEN_TYPE, String.class));
     }
+
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC_PREFIX + ".requests")
+                .description("Verified access token cache lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
 }
@@ -1,6 +1,5 @@
 package com.eshop.api.security;
 
-import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.Message;
@@ -12,7 +11,6 @@ import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -23,8 +21,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class JwtStompChannelInterceptor implements ChannelInterceptor {
 
-    private final JwtService jwtService;
-    private final CustomUserDetailsService userDetailsService;
+    private final AccessTokenAuthenticator accessTokenAuthenticator;
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -48,13 +45,9 @@ public class JwtStompChannelInterceptor implements ChannelInterceptor {
         }
 
         try {
-            Claims claims = jwtService.extractClaimsOrThrow(rawToken);
-            if (!jwtService.isAccessToken(claims)) {
-                throw new MessageDeliveryException("Invalid token type for STOMP connection");
-            }
-            String username = jwtService.getUsername(claims);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            return new UsernamePasswordAuthenticationToken(userDetails.getUsername(), null, userDetails.getAuthorities());
+            JwtPrincipal principal = accessTokenAuthenticator.authenticate(rawToken)
+                .orElseThrow(() -> new MessageDeliveryException("Token is no longer valid for STOMP connection"));
+            return new UsernamePasswordAuthenticationToken(principal, null, principal.authorities());
         } catch (Exception ex) {
             log.warn("Failed to authenticate STOMP connection: {}", ex.getMessage());
             throw new MessageDeliveryException("Unauthorized STOMP connection");
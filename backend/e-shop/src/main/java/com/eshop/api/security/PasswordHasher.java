@@ -0,0 +1,169 @@
+package com.eshop.api.security;
+
+import com.eshop.api.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link PasswordEncoder} hashing on a small dedicated pool instead of the request threads.
+ * BCrypt deliberately burns tens of milliseconds of CPU per call, so a burst of logins hashed on
+ * the request threads would take every core and stall unrelated requests. Here at most
+ * {@code app.auth.password-hashing.threads} hashes run at once; callers wait for the result, and
+ * are refused with a 503 when the queue is full or no thread picks their hash up within
+ * {@code app.auth.password-hashing.queue-deadline}. A hash that has started is always waited for,
+ * since refusing it would not give its thread back.
+ */
+@Slf4j
+@Component
+public class PasswordHasher {
+
+    private static final String METRIC_PREFIX = "security.password.hash";
+    private static final String BUSY_MESSAGE = "Too many sign-in requests are being processed, please retry shortly";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long queueDeadlineNanos;
+
+    private final Timer matchesTimer;
+    private final Timer encodeTimer;
+    private final Timer queueWaitTimer;
+    private final Counter queueFullCounter;
+    private final Counter deadlineCounter;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          PasswordHashingProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.queueDeadlineNanos = properties.getQueueDeadline().toNanos();
+
+        int threads = properties.resolveThreads();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.matchesTimer = durationTimer(meterRegistry, "matches");
+        this.encodeTimer = durationTimer(meterRegistry, "encode");
+        this.queueWaitTimer = Timer.builder(METRIC_PREFIX + ".queue.wait")
+            .description("Time password hashing requests waited for a hashing thread")
+            .register(meterRegistry);
+        this.queueFullCounter = rejectedCounter(meterRegistry, "queue_full");
+        this.deadlineCounter = rejectedCounter(meterRegistry, "deadline");
+        Gauge.builder(METRIC_PREFIX + ".queue.size", executor, pool -> pool.getQueue().size())
+            .description("Password hashing requests waiting for a thread")
+            .register(meterRegistry);
+        log.info("Password hashing runs on {} thread(s)", threads);
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword), encodeTimer);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> hashing, Timer timer) {
+        long submittedAt = System.nanoTime();
+        // Claimed by whichever comes first: the hashing thread starting the task, or the caller
+        // giving up on it at the deadline. FutureTask cannot tell the two apart, since a running
+        // task can still be cancelled.
+        AtomicBoolean claimed = new AtomicBoolean();
+        FutureTask<T> task = new FutureTask<>(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            long startedAt = System.nanoTime();
+            queueWaitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+            try {
+                return hashing.call();
+            } finally {
+                timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        });
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            queueFullCounter.increment();
+            throw new PasswordHashingUnavailableException(BUSY_MESSAGE);
+        }
+
+        try {
+            try {
+                return task.get(queueDeadlineNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                if (claimed.compareAndSet(false, true)) {
+                    task.cancel(false);
+                    executor.remove(task);
+                    deadlineCounter.increment();
+                    throw new PasswordHashingUnavailableException(BUSY_MESSAGE);
+                }
+                // Already running: throwing the result away would not free the thread any sooner.
+                return task.get();
+            }
+        } catch (InterruptedException ex) {
+            if (claimed.compareAndSet(false, true)) {
+                task.cancel(false);
+                executor.remove(task);
+            }
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException(BUSY_MESSAGE);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    private static Timer durationTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder(METRIC_PREFIX + ".duration")
+            .description("Time spent hashing or checking a password")
+            .tag("operation", operation)
+            .register(meterRegistry);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder(METRIC_PREFIX + ".rejected")
+            .description("Password hashing requests refused because the pool was saturated")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.eshop.api.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.auth.password-hashing")
+@Getter
+@Setter
+public class PasswordHashingProperties {
+
+    /**
+     * Threads hashing passwords, and so the most BCrypt rounds running at once. {@code 0} uses
+     * half the available processors, leaving the rest to ordinary requests.
+     */
+    private int threads = 0;
+
+    /**
+     * Hashing requests allowed to wait for a thread. Further requests are refused at once.
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * Longest a request waits for a hashing thread before it is refused. Keeps a burst of logins
+     * from queueing for longer than the client is willing to wait.
+     */
+    private Duration queueDeadline = Duration.ofSeconds(2);
+
+    public int resolveThreads() {
+        return threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+}
@@ -0,0 +1,164 @@
+package com.eshop.api.security;
+
+import com.eshop.api.exception.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Limits how fast each client can call the public routes configured under
+ * {@code app.rate-limits.groups}, so scrapers and misbehaving clients cannot turn catalog reads
+ * and view tracking into unbounded database load. Runs right after {@link JwtFilter}: signed-in
+ * clients are limited per user, everyone else per trusted client address (see
+ * {@link ClientAddresses}), each with separate buckets per route group. Requests over the limit
+ * get a 429 with {@code Retry-After} and never reach a controller.
+ * Buckets are held per instance.
+ */
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String METRIC_PREFIX = "http.rate_limit";
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final List<RouteGroup> groups;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.enabled = properties.isEnabled();
+        this.groups = properties.getGroups().stream()
+            .map(group -> routeGroup(properties, group, meterRegistry))
+            .toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || groups.isEmpty() || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RouteGroup group = match(request);
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        UUID userId = AuthenticatedUserResolver.currentPrincipal()
+            .map(JwtPrincipal::userId)
+            .orElse(null);
+        // Anonymous clients are keyed on the address Tomcat resolved from trusted proxies only;
+        // a forwarded header of the client's choosing never selects the bucket.
+        String client = userId != null ? "user:" + userId : "ip:" + ClientAddresses.resolve(request);
+
+        Duration wait = group.buckets().tryConsume(client);
+        if (wait.isZero()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        (userId != null ? group.userRejections() : group.anonymousRejections()).increment();
+        log.debug("Rate limited {} on route group {} for {}", client, group.name(), wait);
+        reject(request, response, wait);
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.rate-limits.eviction-interval:PT1M}",
+        fixedDelayString = "${app.rate-limits.eviction-interval:PT1M}"
+    )
+    public void evictIdleBuckets() {
+        for (RouteGroup group : groups) {
+            group.buckets().evictIdle();
+        }
+    }
+
+    private RouteGroup match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(
+            request.getRequestURI().substring(request.getContextPath().length()));
+        for (RouteGroup group : groups) {
+            for (PathPattern pattern : group.patterns()) {
+                if (pattern.matches(path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, Duration wait) throws IOException {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(),
+            "Too many requests, please retry later",
+            Instant.now(),
+            request.getRequestURI()
+        );
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, (wait.toMillis() + 999) / 1000)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private static RouteGroup routeGroup(RateLimitProperties properties,
+                                         RateLimitProperties.Group group,
+                                         MeterRegistry meterRegistry) {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(
+            properties.getStripes(),
+            properties.getMaxTrackedClients(),
+            group.getCapacity(),
+            group.getRefillInterval()
+        );
+        Gauge.builder(METRIC_PREFIX + ".clients", buckets, StripedTokenBuckets::size)
+            .description("Clients tracked by rate limiting")
+            .tag("group", group.getName())
+            .register(meterRegistry);
+
+        return new RouteGroup(
+            group.getName(),
+            group.getPatterns().stream().map(PathPatternParser.defaultInstance::parse).toList(),
+            buckets,
+            rejectionCounter(meterRegistry, group.getName(), "anonymous"),
+            rejectionCounter(meterRegistry, group.getName(), "user")
+        );
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String group, String client) {
+        return Counter.builder(METRIC_PREFIX + ".rejected")
+            .description("Requests rejected by rate limiting")
+            .tag("group", group)
+            .tag("client", client)
+            .register(meterRegistry);
+    }
+
+    private record RouteGroup(String name,
+                              List<PathPattern> patterns,
+                              StripedTokenBuckets buckets,
+                              Counter anonymousRejections,
+                              Counter userRejections) {
+    }
+}
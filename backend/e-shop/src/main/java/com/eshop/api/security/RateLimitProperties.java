@@ -0,0 +1,61 @@
+package com.eshop.api.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.rate-limits")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Independently swept partitions of each group's buckets.
+     */
+    private int stripes = 64;
+
+    /**
+     * Clients tracked per group at once. Clients whose bucket has refilled are forgotten on the
+     * next eviction; beyond the limit, new clients share one bucket until room frees up.
+     */
+    private int maxTrackedClients = 100_000;
+
+    /**
+     * Route groups, checked in order; a request counts against the first group it matches only.
+     * Requests matching no group are not limited.
+     */
+    private List<Group> groups = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Group {
+
+        /**
+         * Name used in metrics and logs.
+         */
+        private String name;
+
+        /**
+         * Path patterns of the group, such as {@code /api/catalog/**}.
+         */
+        private List<String> patterns = new ArrayList<>();
+
+        /**
+         * Requests a client can make in a burst.
+         */
+        private int capacity = 100;
+
+        /**
+         * Time for a client to regain one request after the burst is used up.
+         */
+        private Duration refillInterval = Duration.ofMillis(100);
+    }
+}
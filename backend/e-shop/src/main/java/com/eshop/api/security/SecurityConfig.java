@@ -25,6 +25,7 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     @Bean public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -40,14 +41,16 @@ public class SecurityConfig {
                 AbstractHttpConfigurer::disable).authorizeHttpRequests(auth -> auth.requestMatchers("/api/auth/register",
                 "/api/auth/login",
                 "/api/auth/refresh",
+                "/api/auth/logout",
                 "/api/auth/password/reset/**",
                 "api/auth/activate/**",
                 "/api/catalog/**",
+                "/api/guest-cart/**",
                 "/swagger-ui/**",
                 "/v3/api-docs/**",
-                "/ws/**").permitAll().requestMatchers("/actuator/**").permitAll().requestMatchers("/api/admin/**").hasAnyRole(
+                "/ws/**").permitAll().requestMatchers("/actuator/health/**").permitAll().requestMatchers("/actuator/**", "/api/admin/**").hasAnyRole(
                 "ADMIN", "STAFF").anyRequest().authenticated()).addFilterBefore(jwtFilter,
-                UsernamePasswordAuthenticationFilter.class);
+                UsernamePasswordAuthenticationFilter.class).addFilterAfter(rateLimitFilter, JwtFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,139 @@
+package com.eshop.api.security;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by string, such as a client address or an account. Each bucket holds up to
+ * {@code capacity} tokens and regains one every {@code refillInterval}; a request takes one token
+ * or is refused until the next one is due.
+ * <p>
+ * A bucket is a single {@code long}: the time at which it will be full again. Taking a token
+ * pushes that time one interval later with a compare-and-set, so requests never lock, and a
+ * bucket whose time has passed is full and can be dropped without changing any outcome.
+ * {@link #evictIdle()} drops those. Keys are spread over stripes, each tracking at most its
+ * share of {@code maxKeys}. A new key arriving at a full stripe triggers a sweep of that stripe's
+ * idle buckets, at most once per refill interval; if the stripe is still full, the key shares the
+ * stripe's overflow bucket until room frees up. Buckets in use are never dropped early, so a
+ * flood of distinct keys throttles itself instead of resetting the limits of known clients.
+ */
+public final class StripedTokenBuckets {
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final int keysPerStripe;
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+
+    public StripedTokenBuckets(int stripeCount, int maxKeys, int capacity, Duration refillInterval) {
+        this(stripeCount, maxKeys, capacity, refillInterval, System.nanoTime());
+    }
+
+    StripedTokenBuckets(int stripeCount, int maxKeys, int capacity, Duration refillInterval, long originNanos) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        if (refillInterval.isZero() || refillInterval.isNegative()) {
+            throw new IllegalArgumentException("refillInterval must be positive");
+        }
+        int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(originNanos);
+        }
+        this.mask = size - 1;
+        this.keysPerStripe = Math.max(1, maxKeys / size);
+        this.refillIntervalNanos = refillInterval.toNanos();
+        this.burstNanos = (capacity - 1) * refillIntervalNanos;
+    }
+
+    /**
+     * Takes a token from the bucket of {@code key}.
+     *
+     * @return {@link Duration#ZERO} if a token was taken, else how long until one is available
+     */
+    public Duration tryConsume(String key) {
+        return tryConsume(key, System.nanoTime());
+    }
+
+    Duration tryConsume(String key, long nowNanos) {
+        Stripe stripe = stripes[spread(key.hashCode()) & mask];
+        AtomicLong fullAt = stripe.buckets.get(key);
+        if (fullAt == null) {
+            fullAt = track(stripe, key, nowNanos);
+        }
+
+        while (true) {
+            long current = fullAt.get();
+            long start = current - nowNanos > 0 ? current : nowNanos;
+            long ahead = start - nowNanos;
+            if (ahead > burstNanos) {
+                return Duration.ofNanos(ahead - burstNanos);
+            }
+            if (fullAt.compareAndSet(current, start + refillIntervalNanos)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    /**
+     * Drops the buckets that have refilled completely.
+     *
+     * @return number of buckets dropped
+     */
+    public int evictIdle() {
+        return evictIdle(System.nanoTime());
+    }
+
+    int evictIdle(long nowNanos) {
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            evicted += removeIdle(stripe, nowNanos);
+        }
+        return evicted;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    private AtomicLong track(Stripe stripe, String key, long nowNanos) {
+        if (stripe.buckets.size() >= keysPerStripe) {
+            long due = stripe.nextSweepNanos.get();
+            if (nowNanos - due >= 0 && stripe.nextSweepNanos.compareAndSet(due, nowNanos + refillIntervalNanos)) {
+                removeIdle(stripe, nowNanos);
+            }
+            if (stripe.buckets.size() >= keysPerStripe) {
+                return stripe.overflow;
+            }
+        }
+        return stripe.buckets.computeIfAbsent(key, ignored -> new AtomicLong(nowNanos));
+    }
+
+    private static int removeIdle(Stripe stripe, long nowNanos) {
+        int before = stripe.buckets.size();
+        stripe.buckets.values().removeIf(fullAt -> fullAt.get() - nowNanos <= 0);
+        return Math.max(0, before - stripe.buckets.size());
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    private static final class Stripe {
+
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflow;
+        private final AtomicLong nextSweepNanos;
+
+        private Stripe(long originNanos) {
+            this.overflow = new AtomicLong(originNanos);
+            this.nextSweepNanos = new AtomicLong(originNanos);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.eshop.api.security;
+
+import com.eshop.api.auth.RefreshTokenFamilyRepository;
+import com.eshop.api.auth.RefreshTokenFamilyRepository.RevokedFamily;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the revoked token families, so {@link JwtFilter} can reject tokens of a
+ * revoked family on every request without querying PostgreSQL. A Bloom filter answers the
+ * common case, a token that was never revoked, in a few bit probes; only its rare positives are
+ * confirmed against the exact set.
+ * <p>
+ * Revocations made on this instance apply immediately. Every instance also polls
+ * {@code refresh_token_families} for revocations made elsewhere, so they apply cluster-wide
+ * within {@code app.auth.revocation.sync-interval}. Entries are dropped once the family has
+ * expired, as no token of it can still be valid; the filter is then rebuilt without them.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private final RefreshTokenFamilyRepository familyRepository;
+    private final TokenRevocationProperties properties;
+
+    private final Map<UUID, Instant> revoked = new ConcurrentHashMap<>();
+
+    // Written under "this"; read without locking.
+    private volatile RevocationBloomFilter filter;
+    private volatile Instant watermark;
+
+    public TokenRevocationList(RefreshTokenFamilyRepository familyRepository,
+                               TokenRevocationProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.familyRepository = familyRepository;
+        this.properties = properties;
+        this.filter = newFilter(0);
+        Gauge.builder("security.jwt.revoked.families", revoked, Map::size)
+            .description("Revoked token families held in memory")
+            .register(meterRegistry);
+    }
+
+    public boolean isRevoked(UUID familyId) {
+        return familyId != null && filter.mightContain(familyId) && revoked.containsKey(familyId);
+    }
+
+    /**
+     * Records a revocation made on this instance.
+     */
+    public synchronized void revoke(UUID familyId, Instant expiresAt) {
+        revoked.put(familyId, expiresAt);
+        filter.put(familyId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        sync();
+        log.info("Loaded {} revoked token famil(ies)", revoked.size());
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.auth.revocation.sync-interval:PT5S}",
+        fixedDelayString = "${app.auth.revocation.sync-interval:PT5S}"
+    )
+    public void sync() {
+        Instant seen = watermark;
+        Instant since = seen == null ? Instant.EPOCH : seen.minus(properties.getSyncOverlap());
+        List<RevokedFamily> families;
+        try {
+            families = familyRepository.findRevokedSince(since);
+        } catch (DataAccessException ex) {
+            log.warn("Syncing revoked token families failed; keeping the current list", ex);
+            return;
+        }
+        apply(families, Instant.now());
+    }
+
+    private synchronized void apply(List<RevokedFamily> families, Instant now) {
+        Instant latest = watermark;
+        for (RevokedFamily family : families) {
+            if (revoked.put(family.id(), family.expiresAt()) == null) {
+                filter.put(family.id());
+            }
+            if (latest == null || family.revokedAt().isAfter(latest)) {
+                latest = family.revokedAt();
+            }
+        }
+        watermark = latest != null ? latest : Instant.EPOCH;
+
+        if (revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now))) {
+            RevocationBloomFilter rebuilt = newFilter(revoked.size());
+            revoked.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+            log.debug("Rebuilt token revocation filter with {} famil(ies)", revoked.size());
+        }
+    }
+
+    private RevocationBloomFilter newFilter(int size) {
+        return RevocationBloomFilter.create(
+            Math.max(properties.getExpectedRevocations(), size * 2),
+            properties.getFalsePositiveRate()
+        );
+    }
+}
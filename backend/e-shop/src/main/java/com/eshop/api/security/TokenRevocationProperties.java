@@ -0,0 +1,32 @@
+package com.eshop.api.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.auth.revocation")
+@Getter
+@Setter
+public class TokenRevocationProperties {
+
+    /**
+     * How far back each sync re-reads revocations before the newest one already seen, so a
+     * revocation committed late with an earlier timestamp is still picked up.
+     */
+    private Duration syncOverlap = Duration.ofMinutes(1);
+
+    /**
+     * Number of live revocations the Bloom filter is sized for. Beyond it the filter lets more
+     * lookups through to the exact set but stays correct; it is resized on the next rebuild.
+     */
+    private int expectedRevocations = 100_000;
+
+    /**
+     * Share of unrevoked tokens the Bloom filter sends on to the exact set.
+     */
+    private double falsePositiveRate = 0.01;
+}
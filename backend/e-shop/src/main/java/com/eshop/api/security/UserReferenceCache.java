@@ -0,0 +1,109 @@
+package com.eshop.api.security;
+
+import com.eshop.api.user.UserReference;
+import com.eshop.api.user.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded LRU of {@link UserReference}s keyed by user id, with a short time to live, so checking
+ * an access token's security version does not cost a query per request.
+ * <p>
+ * Changes to a user's security version or status call {@link #evictAfterCommit(UUID)}, which
+ * takes effect immediately on this instance; other instances pick the change up once their
+ * entry expires. A load that overlaps an eviction is returned but not stored.
+ */
+@Slf4j
+@Component
+public class UserReferenceCache {
+
+    private final UserRepository userRepository;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    // Guarded by "this": the access-ordered map mutates on reads.
+    private final LinkedHashMap<UUID, Entry> entries;
+    private long generation;
+
+    public UserReferenceCache(UserRepository userRepository,
+                              @Value("${app.auth.user-cache.max-size:10000}") int maxSize,
+                              @Value("${app.auth.user-cache.ttl:PT30S}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > UserReferenceCache.this.maxSize;
+            }
+        };
+    }
+
+    public Optional<UserReference> find(UUID userId) {
+        if (maxSize <= 0) {
+            return userRepository.findReferenceById(userId);
+        }
+
+        long observedGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(userId);
+            if (entry != null) {
+                if (entry.expiresAt() - System.nanoTime() > 0) {
+                    return Optional.of(entry.reference());
+                }
+                entries.remove(userId);
+            }
+            observedGeneration = generation;
+        }
+
+        Optional<UserReference> loaded = userRepository.findReferenceById(userId);
+        loaded.ifPresent(reference -> {
+            synchronized (this) {
+                if (generation == observedGeneration) {
+                    entries.put(userId, new Entry(reference, System.nanoTime() + ttlNanos));
+                }
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Evicts the user once the current transaction commits, or immediately outside one.
+     */
+    public void evictAfterCommit(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+
+    public synchronized void evict(UUID userId) {
+        generation++;
+        if (entries.remove(userId) != null) {
+            log.debug("Evicted cached user reference {}", userId);
+        }
+    }
+
+    private record Entry(UserReference reference, long expiresAt) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.eshop.api.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of access tokens whose signature has already been verified, keyed by the SHA-256
+ * digest of the token so raw tokens are not kept in memory. An entry is only served until the
+ * token's own expiry; a token is only found again if it is byte-for-byte identical, so skipping
+ * the signature check on a hit is safe.
+ */
+class VerifiedTokenCache {
+
+    private final int maxSize;
+
+    // Guarded by "this": the access-ordered map mutates on reads.
+    private final LinkedHashMap<String, JwtPrincipal> entries;
+
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JwtPrincipal> eldest) {
+                return size() > VerifiedTokenCache.this.maxSize;
+            }
+        };
+    }
+
+    boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * @return the principal of a cached, unexpired token, or {@code null}
+     */
+    synchronized JwtPrincipal get(String digest, Instant now) {
+        JwtPrincipal principal = entries.get(digest);
+        if (principal == null) {
+            return null;
+        }
+        if (!principal.expiresAt().isAfter(now)) {
+            entries.remove(digest);
+            return null;
+        }
+        return principal;
+    }
+
+    synchronized void put(String digest, JwtPrincipal principal) {
+        entries.put(digest, principal);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.eshop.api.support.service;
 import com.eshop.api.catalog.dto.PageResponse;
 import com.eshop.api.exception.SupportConversationNotFoundException;
 import com.eshop.api.exception.SupportMessageForbiddenException;
+import com.eshop.api.security.AuthenticatedUserResolver;
 import com.eshop.api.support.SupportMapper;
 import com.eshop.api.support.dto.CreateSupportConversationRequest;
 import com.eshop.api.support.dto.SendSupportMessageRequest;
@@ -16,7 +17,6 @@ import com.eshop.api.support.repository.SupportConversationRepository;
 import com.eshop.api.support.repository.SupportMessageRepository;
 import com.eshop.api.user.Role;
 import com.eshop.api.user.User;
-import com.eshop.api.user.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -46,7 +46,7 @@ public class SupportMessagingService {
 
     private final SupportConversationRepository conversationRepository;
     private final SupportMessageRepository messageRepository;
-    private final UserRepository userRepository;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
     private final SupportMapper supportMapper;
     private final SimpMessagingTemplate messagingTemplate;
 
@@ -265,7 +265,7 @@ public class SupportMessagingService {
         if (email == null || email.isBlank()) {
             throw new UsernameNotFoundException("User email is required");
         }
-        return userRepository.findByEmailIgnoreCase(email)
+        return authenticatedUserResolver.findUser(email)
             .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
 
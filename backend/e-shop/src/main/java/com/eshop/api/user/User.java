@@ -47,6 +47,10 @@ public class User {
     @Builder.Default
     private Boolean enabled = false;
 
+    @Column(name = "security_version", nullable = false)
+    @Builder.Default
+    private Integer securityVersion = 0;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
@@ -0,0 +1,18 @@
+package com.eshop.api.user;
+
+import java.util.UUID;
+
+/**
+ * The few user columns request authentication needs: whether the account may still sign in and
+ * which security version its tokens must carry.
+ */
+public record UserReference(UUID id, String email, Boolean enabled, Integer securityVersion) {
+
+    public boolean isActive() {
+        return Boolean.TRUE.equals(enabled);
+    }
+
+    public boolean accepts(int tokenSecurityVersion) {
+        return securityVersion != null && securityVersion == tokenSecurityVersion;
+    }
+}
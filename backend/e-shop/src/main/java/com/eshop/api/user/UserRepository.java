@@ -16,5 +16,8 @@ public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificat
     
     boolean existsByEmailIgnoreCase(String email);
 
+    @Query("SELECT new com.eshop.api.user.UserReference(u.id, u.email, u.enabled, u.securityVersion) FROM User u WHERE u.id = ?1")
+    Optional<UserReference> findReferenceById(UUID id);
+
     long countByCreatedAtGreaterThanEqual(Instant createdAt);
 }
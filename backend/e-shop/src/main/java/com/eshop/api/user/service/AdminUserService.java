@@ -6,6 +6,7 @@ import com.eshop.api.exception.UserNotFoundException;
 import com.eshop.api.order.dto.AddressResponse;
 import com.eshop.api.order.model.Address;
 import com.eshop.api.order.repository.AddressRepository;
+import com.eshop.api.security.UserReferenceCache;
 import com.eshop.api.user.Role;
 import com.eshop.api.user.RoleRepository;
 import com.eshop.api.user.User;
@@ -38,6 +39,7 @@ public class AdminUserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final AddressRepository addressRepository;
+    private final UserReferenceCache userReferenceCache;
 
     @Transactional(readOnly = true)
     public PageResponse<AdminUserSummaryResponse> listUsers(Boolean enabled,
@@ -78,8 +80,13 @@ public class AdminUserService {
     public AdminUserDetailResponse updateUserStatus(UUID userId, boolean enabled) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new UserNotFoundException(userId));
+        if (Boolean.TRUE.equals(user.getEnabled()) && !enabled) {
+            // Signs the user out everywhere: their tokens stay rejected even if re-enabled later.
+            user.setSecurityVersion(user.getSecurityVersion() + 1);
+        }
         user.setEnabled(enabled);
         user = userRepository.save(user);
+        userReferenceCache.evictAfterCommit(userId);
 
         user.getRoles().size();
         List<AddressResponse> addresses = mapAddresses(addressRepository.findByUser_IdOrderByCreatedAtDesc(userId));
@@ -108,7 +115,10 @@ public class AdminUserService {
 
         user.getRoles().clear();
         user.getRoles().addAll(roles);
+        // Tokens carry the roles, so earlier tokens must not keep the previous ones.
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
         user = userRepository.save(user);
+        userReferenceCache.evictAfterCommit(userId);
 
         user.getRoles().size();
         List<AddressResponse> addresses = mapAddresses(addressRepository.findByUser_IdOrderByCreatedAtDesc(userId));
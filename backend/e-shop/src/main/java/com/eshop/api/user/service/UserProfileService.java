@@ -2,6 +2,8 @@ package com.eshop.api.user.service;
 
 import com.eshop.api.exception.InvalidJwtException;
 import com.eshop.api.exception.InvalidPasswordChangeException;
+import com.eshop.api.security.PasswordHasher;
+import com.eshop.api.security.UserReferenceCache;
 import com.eshop.api.user.User;
 import com.eshop.api.user.UserRepository;
 import com.eshop.api.user.dto.UserPasswordChangeRequest;
@@ -11,7 +13,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,7 +23,8 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserProfileService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final UserReferenceCache userReferenceCache;
 
     @Transactional(readOnly = true)
     public UserProfileResponse getProfile(String email) {
@@ -49,16 +51,18 @@ public class UserProfileService {
     public void changePassword(String email, UserPasswordChangeRequest request) {
         User user = resolveUser(email);
 
-        if (!passwordEncoder.matches(request.currentPassword(), user.getPasswordHash())) {
+        if (!passwordHasher.matches(request.currentPassword(), user.getPasswordHash())) {
             throw new BadCredentialsException("Current password is incorrect");
         }
 
-        if (passwordEncoder.matches(request.newPassword(), user.getPasswordHash())) {
+        if (passwordHasher.matches(request.newPassword(), user.getPasswordHash())) {
             throw new InvalidPasswordChangeException("New password must be different from the current password");
         }
 
-        user.setPasswordHash(passwordEncoder.encode(request.newPassword()));
+        user.setPasswordHash(passwordHasher.encode(request.newPassword()));
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
         userRepository.save(user);
+        userReferenceCache.evictAfterCommit(user.getId());
 
         log.info("Password updated for user {}", user.getEmail());
     }
@@ -7,8 +7,8 @@ import com.eshop.api.catalog.model.Product;
 import com.eshop.api.catalog.repository.ProductRepository;
 import com.eshop.api.exception.InvalidJwtException;
 import com.eshop.api.exception.ProductNotFoundException;
+import com.eshop.api.security.AuthenticatedUserResolver;
 import com.eshop.api.user.User;
-import com.eshop.api.user.UserRepository;
 import com.eshop.api.wishlist.dto.WishlistItemRequest;
 import com.eshop.api.wishlist.dto.WishlistItemResponse;
 import com.eshop.api.wishlist.exception.WishlistItemNotFoundException;
@@ -31,7 +31,7 @@ public class WishlistService {
 
     private final WishlistItemRepository wishlistItemRepository;
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
     private final ProductInteractionEventService interactionEventService;
 
     @Transactional(readOnly = true)
@@ -86,7 +86,7 @@ public class WishlistService {
         if (email == null || email.isBlank()) {
             throw new InvalidJwtException("Authentication is required for wishlist operations");
         }
-        return userRepository.findByEmailIgnoreCase(email)
+        return authenticatedUserResolver.findUser(email)
             .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
 }
@@ -0,0 +1,91 @@
+-- V17__product_listing_read_model.sql
+-- Denormalized, one-row-per-product projection used by the catalog filter endpoint.
+-- Variant facets (sizes, colors, price range, stock) are pre-aggregated so that
+-- filtered listing pages and their counts run against a single table without joins.
+-- Rows are refreshed by the application whenever products or variants change.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS product_listings (
+  product_id    UUID PRIMARY KEY REFERENCES products(id) ON DELETE CASCADE,
+  name          VARCHAR(255) NOT NULL,
+  slug          VARCHAR(255),
+  description   TEXT,
+  category_id   INT NOT NULL,
+  category_name VARCHAR(255),
+  category_slug VARCHAR(255),
+  gender        gender,
+  status        VARCHAR(32) NOT NULL,
+  is_featured   BOOLEAN NOT NULL DEFAULT FALSE,
+  product_type  VARCHAR(128),
+  base_price    NUMERIC(12,2) NOT NULL,
+  min_price     NUMERIC(12,2) NOT NULL,
+  max_price     NUMERIC(12,2) NOT NULL,
+  sizes         TEXT[] NOT NULL DEFAULT '{}',
+  colors        TEXT[] NOT NULL DEFAULT '{}',
+  in_stock      BOOLEAN NOT NULL DEFAULT FALSE,
+  created_at    TIMESTAMPTZ NOT NULL,
+  updated_at    TIMESTAMPTZ NOT NULL,
+  refreshed_at  TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_listings_status_created
+  ON product_listings (status, created_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_product_listings_category
+  ON product_listings (category_id);
+
+CREATE INDEX IF NOT EXISTS idx_product_listings_gender
+  ON product_listings (gender);
+
+CREATE INDEX IF NOT EXISTS idx_product_listings_price
+  ON product_listings (min_price, max_price);
+
+CREATE INDEX IF NOT EXISTS idx_product_listings_sizes
+  ON product_listings USING GIN (sizes);
+
+CREATE INDEX IF NOT EXISTS idx_product_listings_colors
+  ON product_listings USING GIN (colors);
+
+-- Backfill from the current catalog. Keep in sync with ProductListingRepository#refresh.
+INSERT INTO product_listings (
+  product_id, name, slug, description, category_id, category_name, category_slug,
+  gender, status, is_featured, product_type, base_price, min_price, max_price,
+  sizes, colors, in_stock, created_at, updated_at, refreshed_at
+)
+SELECT
+  p.id,
+  p.name,
+  p.slug,
+  p.description,
+  p.category_id,
+  c.name,
+  c.slug,
+  p.gender,
+  p.status,
+  p.is_featured,
+  p.product_type,
+  p.base_price,
+  COALESCE((SELECT MIN(COALESCE(v.price, p.base_price)) FROM product_variants v WHERE v.product_id = p.id), p.base_price),
+  COALESCE((SELECT MAX(COALESCE(v.price, p.base_price)) FROM product_variants v WHERE v.product_id = p.id), p.base_price),
+  ARRAY(
+    SELECT DISTINCT lower(v.size)
+    FROM product_variants v
+    WHERE v.product_id = p.id AND v.size IS NOT NULL
+  ),
+  ARRAY(
+    SELECT DISTINCT lower(token)
+    FROM product_variants v
+    JOIN colors col ON col.id = v.color_id
+    CROSS JOIN LATERAL unnest(ARRAY[col.code, col.name]) AS token
+    WHERE v.product_id = p.id AND token IS NOT NULL
+  ),
+  EXISTS (SELECT 1 FROM product_variants v WHERE v.product_id = p.id AND v.quantity_in_stock > 0),
+  p.created_at,
+  p.updated_at,
+  NOW()
+FROM products p
+JOIN categories c ON c.id = p.category_id
+ON CONFLICT (product_id) DO NOTHING;
+
+COMMIT;
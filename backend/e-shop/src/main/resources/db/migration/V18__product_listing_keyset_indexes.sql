@@ -0,0 +1,17 @@
+-- V18__product_listing_keyset_indexes.sql
+-- Composite (sort key, product_id) indexes backing keyset pagination on product_listings.
+-- Each index serves both ascending and descending seeks.
+
+CREATE INDEX IF NOT EXISTS idx_product_listings_status_created_id
+  ON product_listings (status, created_at, product_id);
+
+CREATE INDEX IF NOT EXISTS idx_product_listings_status_updated_id
+  ON product_listings (status, updated_at, product_id);
+
+CREATE INDEX IF NOT EXISTS idx_product_listings_status_name_id
+  ON product_listings (status, name, product_id);
+
+CREATE INDEX IF NOT EXISTS idx_product_listings_status_price_id
+  ON product_listings (status, base_price, product_id);
+
+DROP INDEX IF EXISTS idx_product_listings_status_created;
@@ -0,0 +1,33 @@
+-- V19__product_full_text_search.sql
+-- Full-text search over products, replacing LIKE '%term%' scans.
+--   - unaccent extension + immutable wrapper so accent folding can back a stored column
+--   - weighted tsvector column on products (name > slug > description), accent-folded so
+--     Vietnamese names match with or without diacritics ("áo khoác" ~ "ao khoac")
+--   - GIN index used by catalog and admin search
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+BEGIN;
+
+-- unaccent() is only STABLE because its dictionary can be swapped at runtime. Pinning the
+-- dictionary makes the result deterministic, which generated columns require.
+CREATE OR REPLACE FUNCTION immutable_unaccent(value TEXT)
+RETURNS TEXT
+LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT AS $$
+  SELECT public.unaccent('public.unaccent'::regdictionary, value)
+$$;
+
+-- The 'simple' configuration lowercases without stemming, which suits mixed
+-- Vietnamese/English catalog text better than a language-specific stemmer.
+ALTER TABLE products
+  ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+  GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', immutable_unaccent(coalesce(name, ''))), 'A') ||
+    setweight(to_tsvector('simple', immutable_unaccent(coalesce(slug, ''))), 'B') ||
+    setweight(to_tsvector('simple', immutable_unaccent(coalesce(description, ''))), 'C')
+  ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector
+  ON products USING GIN (search_vector);
+
+COMMIT;
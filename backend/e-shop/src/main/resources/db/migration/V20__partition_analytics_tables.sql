@@ -0,0 +1,139 @@
+-- V20__partition_analytics_tables.sql
+-- Convert the append-only analytics tables to monthly range partitions:
+--   - product_interaction_events partitioned by occurred_at
+--   - product_views partitioned by viewed_at
+-- Partitions are named <table>_pYYYY_MM and cover one UTC calendar month. This migration
+-- creates partitions for every month holding existing rows through three months ahead;
+-- AnalyticsPartitionManager keeps creating future partitions and detaches expired ones.
+-- Primary keys include the partition column, as PostgreSQL requires for partitioned tables.
+
+BEGIN;
+
+CREATE SCHEMA IF NOT EXISTS analytics_archive;
+
+-- Creates the partition of parent_table covering the UTC month starting at month_start.
+CREATE OR REPLACE FUNCTION analytics_ensure_month_partition(parent_table TEXT, month_start DATE)
+RETURNS TEXT
+LANGUAGE plpgsql AS $$
+DECLARE
+  first_day DATE := date_trunc('month', month_start)::date;
+  partition_name TEXT := parent_table || '_p' || to_char(first_day, 'YYYY_MM');
+BEGIN
+  EXECUTE format(
+    'CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+    partition_name,
+    parent_table,
+    first_day::timestamp AT TIME ZONE 'UTC',
+    (first_day + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC'
+  );
+  RETURN partition_name;
+END $$;
+
+-- =============================================================================
+-- 1) PRODUCT_INTERACTION_EVENTS
+-- =============================================================================
+ALTER TABLE product_interaction_events RENAME TO product_interaction_events_legacy;
+
+CREATE TABLE product_interaction_events (
+  id                UUID NOT NULL DEFAULT gen_random_uuid(),
+  user_id           UUID REFERENCES users(id) ON DELETE SET NULL,
+  session_id        UUID,
+  product_id        UUID NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+  variant_id        UUID REFERENCES product_variants(id) ON DELETE SET NULL,
+  interaction_type  interaction_type_enum NOT NULL,
+  metadata          JSONB NOT NULL DEFAULT '{}'::jsonb,
+  occurred_at       TIMESTAMPTZ NOT NULL DEFAULT NOW()
+) PARTITION BY RANGE (occurred_at);
+
+DO $$
+DECLARE
+  month_cursor DATE := date_trunc('month',
+    COALESCE((SELECT MIN(occurred_at) FROM product_interaction_events_legacy), NOW()) AT TIME ZONE 'UTC')::date;
+  last_month DATE := (date_trunc('month', NOW() AT TIME ZONE 'UTC') + INTERVAL '3 months')::date;
+BEGIN
+  WHILE month_cursor <= last_month LOOP
+    PERFORM analytics_ensure_month_partition('product_interaction_events', month_cursor);
+    month_cursor := (month_cursor + INTERVAL '1 month')::date;
+  END LOOP;
+END $$;
+
+INSERT INTO product_interaction_events
+  (id, user_id, session_id, product_id, variant_id, interaction_type, metadata, occurred_at)
+SELECT id, user_id, session_id, product_id, variant_id, interaction_type, metadata, occurred_at
+FROM product_interaction_events_legacy;
+
+DROP TABLE product_interaction_events_legacy;
+
+ALTER TABLE product_interaction_events
+  ADD CONSTRAINT product_interaction_events_pkey PRIMARY KEY (id, occurred_at);
+
+CREATE INDEX IF NOT EXISTS idx_pie_user_time
+  ON product_interaction_events(user_id, occurred_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_pie_product_time
+  ON product_interaction_events(product_id, occurred_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_pie_type_time
+  ON product_interaction_events(interaction_type, occurred_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_pie_session
+  ON product_interaction_events(session_id);
+
+-- =============================================================================
+-- 2) PRODUCT_VIEWS
+-- =============================================================================
+ALTER TABLE product_views RENAME TO product_views_legacy;
+
+CREATE TABLE product_views (
+  id           UUID NOT NULL DEFAULT gen_random_uuid(),
+  user_id      UUID REFERENCES users(id) ON DELETE SET NULL,
+  session_id   UUID,
+  product_id   UUID NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+  variant_id   UUID REFERENCES product_variants(id) ON DELETE SET NULL,
+  metadata     JSONB NOT NULL DEFAULT '{}'::jsonb,
+  viewed_at    TIMESTAMPTZ NOT NULL DEFAULT NOW()
+) PARTITION BY RANGE (viewed_at);
+
+DO $$
+DECLARE
+  month_cursor DATE := date_trunc('month',
+    COALESCE((SELECT MIN(viewed_at) FROM product_views_legacy), NOW()) AT TIME ZONE 'UTC')::date;
+  last_month DATE := (date_trunc('month', NOW() AT TIME ZONE 'UTC') + INTERVAL '3 months')::date;
+BEGIN
+  WHILE month_cursor <= last_month LOOP
+    PERFORM analytics_ensure_month_partition('product_views', month_cursor);
+    month_cursor := (month_cursor + INTERVAL '1 month')::date;
+  END LOOP;
+END $$;
+
+-- Copied before the mirror trigger exists, so legacy rows are not duplicated into events.
+INSERT INTO product_views (id, user_id, session_id, product_id, variant_id, metadata, viewed_at)
+SELECT id, user_id, session_id, product_id, variant_id, metadata, viewed_at
+FROM product_views_legacy;
+
+DROP TABLE product_views_legacy;
+
+ALTER TABLE product_views
+  ADD CONSTRAINT product_views_pkey PRIMARY KEY (id, viewed_at);
+
+CREATE INDEX IF NOT EXISTS idx_product_views_user_viewed_at
+  ON product_views(user_id, viewed_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_product_views_product_viewed_at
+  ON product_views(product_id, viewed_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_product_views_variant
+  ON product_views(variant_id);
+
+CREATE INDEX IF NOT EXISTS idx_product_views_session
+  ON product_views(session_id);
+
+CREATE INDEX IF NOT EXISTS idx_product_views_viewed_at
+  ON product_views(viewed_at);
+
+CREATE TRIGGER trg_product_views_mirror
+  AFTER INSERT ON product_views
+  FOR EACH ROW
+  EXECUTE FUNCTION trg_product_views_to_events();
+
+COMMIT;
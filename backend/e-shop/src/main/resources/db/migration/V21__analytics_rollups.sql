@@ -0,0 +1,50 @@
+-- V21__analytics_rollups.sql
+-- Pre-aggregated dashboard metrics maintained by AnalyticsRollupJob:
+--   - analytics_hourly_rollups: one row per UTC hour with every summary metric
+--   - analytics_daily_rollups: hourly rows summed per calendar day of a given time zone
+--   - analytics_rollup_watermarks: per-source change timestamp processed so far
+-- Hours and days without activity have no row; readers treat a missing row as zero.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS analytics_hourly_rollups (
+  bucket_start            TIMESTAMPTZ PRIMARY KEY,
+  captured_revenue        NUMERIC(14,2) NOT NULL DEFAULT 0,
+  order_count             BIGINT NOT NULL DEFAULT 0,
+  captured_order_count    BIGINT NOT NULL DEFAULT 0,
+  captured_order_revenue  NUMERIC(14,2) NOT NULL DEFAULT 0,
+  captured_payments       NUMERIC(14,2) NOT NULL DEFAULT 0,
+  new_customers           BIGINT NOT NULL DEFAULT 0,
+  product_views           BIGINT NOT NULL DEFAULT 0,
+  refreshed_at            TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  CONSTRAINT chk_analytics_hourly_rollups_aligned
+    CHECK (bucket_start = date_trunc('hour', bucket_start, 'UTC'))
+);
+
+CREATE TABLE IF NOT EXISTS analytics_daily_rollups (
+  zone_id                 VARCHAR(64) NOT NULL,
+  bucket_start            TIMESTAMPTZ NOT NULL,
+  captured_revenue        NUMERIC(14,2) NOT NULL DEFAULT 0,
+  order_count             BIGINT NOT NULL DEFAULT 0,
+  captured_order_count    BIGINT NOT NULL DEFAULT 0,
+  captured_order_revenue  NUMERIC(14,2) NOT NULL DEFAULT 0,
+  captured_payments       NUMERIC(14,2) NOT NULL DEFAULT 0,
+  new_customers           BIGINT NOT NULL DEFAULT 0,
+  product_views           BIGINT NOT NULL DEFAULT 0,
+  refreshed_at            TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  PRIMARY KEY (zone_id, bucket_start)
+);
+
+CREATE TABLE IF NOT EXISTS analytics_rollup_watermarks (
+  source        VARCHAR(64) PRIMARY KEY,
+  watermark     TIMESTAMPTZ NOT NULL,
+  updated_at    TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- Change-detection scans used by the rollup job.
+CREATE INDEX IF NOT EXISTS idx_orders_updated_at ON orders(updated_at);
+CREATE INDEX IF NOT EXISTS idx_payment_transactions_updated_at ON payment_transactions(updated_at);
+CREATE INDEX IF NOT EXISTS idx_payment_transactions_created_at ON payment_transactions(created_at);
+CREATE INDEX IF NOT EXISTS idx_users_created_at ON users(created_at);
+
+COMMIT;
@@ -0,0 +1,26 @@
+-- V22__sharded_variant_stock.sql
+-- Opt-in sharded stock for hot variants. With stock_shards > 0 the stock of a variant lives in
+-- that many product_variant_stock_shards rows, so concurrent reservations lock different rows;
+-- product_variants.quantity_in_stock then only caches their sum for catalog reads.
+
+BEGIN;
+
+ALTER TABLE product_variants
+  ADD COLUMN IF NOT EXISTS stock_shards INT NOT NULL DEFAULT 0;
+
+ALTER TABLE product_variants
+  DROP CONSTRAINT IF EXISTS chk_product_variants_stock_shards;
+ALTER TABLE product_variants
+  ADD CONSTRAINT chk_product_variants_stock_shards CHECK (stock_shards BETWEEN 0 AND 64);
+
+CREATE TABLE IF NOT EXISTS product_variant_stock_shards (
+  variant_id  UUID NOT NULL REFERENCES product_variants(id) ON DELETE CASCADE,
+  shard       INT NOT NULL CHECK (shard >= 0),
+  quantity    INT NOT NULL DEFAULT 0 CHECK (quantity >= 0),
+  PRIMARY KEY (variant_id, shard)
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_variants_sharded
+  ON product_variants (id) WHERE stock_shards > 0;
+
+COMMIT;
@@ -0,0 +1,22 @@
+-- V23__cart_stock_holds.sql
+-- Time-boxed stock holds for cart lines. A hold has already been taken out of the variant's
+-- stock; it is either consumed by checkout or handed back once expires_at has passed.
+-- cart_id deliberately has no foreign key: a hold outliving its cart still expires and returns
+-- its stock instead of disappearing with the cart.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS cart_stock_holds (
+  cart_id     UUID NOT NULL,
+  variant_id  UUID NOT NULL REFERENCES product_variants(id) ON DELETE CASCADE,
+  quantity    INT NOT NULL CHECK (quantity >= 0),
+  expires_at  TIMESTAMPTZ NOT NULL,
+  created_at  TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  updated_at  TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  PRIMARY KEY (cart_id, variant_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_cart_stock_holds_expires_at
+  ON cart_stock_holds (expires_at);
+
+COMMIT;
@@ -0,0 +1,22 @@
+-- V24__guest_carts.sql
+-- Server-side carts of anonymous shoppers, keyed by the same client session id the analytics
+-- tables use. One narrow row per line and no cart header row: a guest cart exists exactly as
+-- long as it has lines. Every change to a cart pushes expires_at of all its lines forward;
+-- abandoned carts are deleted once it has passed, and a cart is deleted when it is merged into
+-- the shopper's own cart at login. Guest lines do not hold stock.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS guest_cart_items (
+  session_id  UUID NOT NULL,
+  variant_id  UUID NOT NULL REFERENCES product_variants(id) ON DELETE CASCADE,
+  quantity    INT NOT NULL CHECK (quantity > 0),
+  created_at  TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  expires_at  TIMESTAMPTZ NOT NULL,
+  PRIMARY KEY (session_id, variant_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_guest_cart_items_expires_at
+  ON guest_cart_items (expires_at);
+
+COMMIT;
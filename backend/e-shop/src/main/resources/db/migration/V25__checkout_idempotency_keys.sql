@@ -0,0 +1,26 @@
+-- V25__checkout_idempotency_keys.sql
+-- Idempotency-Key records for checkout, scoped to the authenticated principal. A row is claimed
+-- (response IS NULL) before the order is placed and completed with the serialized checkout
+-- response in the same transaction as the order, so a repeated request replays the original
+-- response instead of placing a second order. claim_token identifies the current claim holder;
+-- a stale claim can be taken over, after which the previous holder can no longer complete it.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS checkout_idempotency_keys (
+  principal        VARCHAR(255) NOT NULL,
+  idempotency_key  VARCHAR(128) NOT NULL,
+  request_hash     CHAR(64) NOT NULL,
+  claim_token      UUID NOT NULL,
+  order_id         UUID REFERENCES orders(id) ON DELETE SET NULL,
+  response         JSONB,
+  created_at       TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  updated_at       TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  expires_at       TIMESTAMPTZ NOT NULL,
+  PRIMARY KEY (principal, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_checkout_idempotency_keys_expires_at
+  ON checkout_idempotency_keys (expires_at);
+
+COMMIT;
@@ -0,0 +1,17 @@
+-- V26__scheduled_job_leases.sql
+-- Leases electing one instance per scheduled job. The instance named in owner runs the job while
+-- locked_until lies in the future and renews the lease on every run; any instance may take the
+-- job over once the lease has lapsed. All times come from the database clock, so clock skew
+-- between instances does not matter.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS scheduled_job_leases (
+  job_name      VARCHAR(100) PRIMARY KEY,
+  owner         VARCHAR(255) NOT NULL,
+  locked_until  TIMESTAMPTZ NOT NULL,
+  acquired_at   TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  renewed_at    TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+COMMIT;
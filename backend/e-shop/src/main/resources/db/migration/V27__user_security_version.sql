@@ -0,0 +1,11 @@
+-- V27__user_security_version.sql
+-- Security version of each user, embedded in issued tokens. It is incremented whenever earlier
+-- tokens must stop working (password change or reset, account disabled, roles changed); a token
+-- carrying an older version is rejected.
+
+BEGIN;
+
+ALTER TABLE users
+  ADD COLUMN IF NOT EXISTS security_version INTEGER NOT NULL DEFAULT 0;
+
+COMMIT;
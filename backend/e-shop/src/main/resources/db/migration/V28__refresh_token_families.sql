@@ -0,0 +1,32 @@
+-- V28__refresh_token_families.sql
+-- Refresh-token families. Login starts a family; every refresh rotates it to a new token id,
+-- and only the family's current token may be redeemed. Presenting an older token again means
+-- it leaked, so the whole family is revoked. Access tokens carry their family id, so revoking a
+-- family also rejects the access tokens issued from it. Rows are kept until expires_at so every
+-- instance can learn about revocations by polling revoked_at.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS refresh_token_families (
+  id                 UUID PRIMARY KEY,
+  user_id            UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  current_token_id   UUID NOT NULL,
+  previous_token_id  UUID,
+  created_at         TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  rotated_at         TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  expires_at         TIMESTAMPTZ NOT NULL,
+  revoked_at         TIMESTAMPTZ,
+  revoke_reason      VARCHAR(32)
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_token_families_user_id
+  ON refresh_token_families (user_id);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_token_families_expires_at
+  ON refresh_token_families (expires_at);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_token_families_revoked_at
+  ON refresh_token_families (revoked_at)
+  WHERE revoked_at IS NOT NULL;
+
+COMMIT;
@@ -0,0 +1,108 @@
+-- V29__analytics_default_partitions.sql
+-- DEFAULT partitions for the monthly-partitioned analytics tables, so that rows for a month
+-- whose partition does not exist yet (partition maintenance disabled, failed or stalled) are
+-- kept instead of failing the insert. analytics_ensure_month_partition now moves a month's rows
+-- out of the DEFAULT partition when it creates that month, which PostgreSQL requires anyway:
+-- a new partition cannot be attached while the DEFAULT partition holds rows in its range.
+-- Moved product_views rows were mirrored into product_interaction_events when first inserted,
+-- so the mirror trigger skips them while they are moved.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS product_interaction_events_default
+  PARTITION OF product_interaction_events DEFAULT;
+
+CREATE TABLE IF NOT EXISTS product_views_default
+  PARTITION OF product_views DEFAULT;
+
+CREATE OR REPLACE FUNCTION trg_product_views_to_events()
+RETURNS TRIGGER AS $$
+BEGIN
+  IF current_setting('analytics.moving_partition_rows', true) = 'on' THEN
+    RETURN NEW;
+  END IF;
+
+  INSERT INTO product_interaction_events (
+    user_id,
+    session_id,
+    product_id,
+    variant_id,
+    interaction_type,
+    metadata,
+    occurred_at
+  )
+  VALUES (
+    NEW.user_id,
+    NEW.session_id,
+    NEW.product_id,
+    NEW.variant_id,
+    'VIEW',
+    NEW.metadata,
+    NEW.viewed_at
+  );
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Creates the partition of parent_table covering the UTC month starting at month_start, moving
+-- that month's rows out of <parent_table>_default first.
+CREATE OR REPLACE FUNCTION analytics_ensure_month_partition(parent_table TEXT, month_start DATE)
+RETURNS TEXT
+LANGUAGE plpgsql AS $$
+DECLARE
+  first_day DATE := date_trunc('month', month_start)::date;
+  partition_name TEXT := parent_table || '_p' || to_char(first_day, 'YYYY_MM');
+  default_name TEXT := parent_table || '_default';
+  range_from TIMESTAMPTZ := first_day::timestamp AT TIME ZONE 'UTC';
+  range_to TIMESTAMPTZ := (first_day + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC';
+  partition_column TEXT;
+  has_rows BOOLEAN := FALSE;
+BEGIN
+  IF to_regclass(partition_name) IS NOT NULL THEN
+    RETURN partition_name;
+  END IF;
+
+  IF to_regclass(default_name) IS NOT NULL THEN
+    SELECT a.attname INTO partition_column
+    FROM pg_partitioned_table pt
+    JOIN pg_attribute a ON a.attrelid = pt.partrelid AND a.attnum = pt.partattrs[0]
+    WHERE pt.partrelid = parent_table::regclass;
+
+    -- Attaching the new partition locks the DEFAULT partition exclusively anyway; taking that
+    -- lock first keeps inserts from landing in the range while its rows are moved.
+    EXECUTE format('LOCK TABLE %I IN ACCESS EXCLUSIVE MODE', default_name);
+    EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE %I >= %L AND %I < %L)',
+      default_name, partition_column, range_from, partition_column, range_to)
+      INTO has_rows;
+  END IF;
+
+  IF has_rows THEN
+    DROP TABLE IF EXISTS pg_temp.analytics_partition_rows;
+    EXECUTE format('CREATE TEMP TABLE analytics_partition_rows AS SELECT * FROM %I WHERE %I >= %L AND %I < %L',
+      default_name, partition_column, range_from, partition_column, range_to);
+    EXECUTE format('DELETE FROM %I WHERE %I >= %L AND %I < %L',
+      default_name, partition_column, range_from, partition_column, range_to);
+  END IF;
+
+  EXECUTE format(
+    'CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+    partition_name,
+    parent_table,
+    range_from,
+    range_to
+  );
+
+  IF has_rows THEN
+    -- Row triggers of the parent are cloned onto the new partition, so inserting into it
+    -- directly would still fire them; the setting tells the mirror the rows are only moving.
+    PERFORM set_config('analytics.moving_partition_rows', 'on', true);
+    EXECUTE format('INSERT INTO %I SELECT * FROM pg_temp.analytics_partition_rows', partition_name);
+    PERFORM set_config('analytics.moving_partition_rows', 'off', true);
+    DROP TABLE pg_temp.analytics_partition_rows;
+    RAISE NOTICE 'Moved rows of % out of %', partition_name, default_name;
+  END IF;
+
+  RETURN partition_name;
+END $$;
+
+COMMIT;
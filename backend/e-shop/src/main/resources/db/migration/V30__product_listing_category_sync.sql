@@ -0,0 +1,36 @@
+-- V30__product_listing_category_sync.sql
+-- product_listings copies each product's category name and slug. Products and variants refresh
+-- their rows from the application, but categories have no update path there (they are renamed
+-- or re-slugged directly in the database), so a trigger on categories keeps the copies current.
+-- Rows that already went stale are corrected once below.
+
+BEGIN;
+
+CREATE OR REPLACE FUNCTION trg_categories_to_product_listings()
+RETURNS TRIGGER AS $$
+BEGIN
+  UPDATE product_listings
+  SET category_name = NEW.name,
+      category_slug = NEW.slug,
+      refreshed_at = NOW()
+  WHERE category_id = NEW.id;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_categories_product_listings ON categories;
+CREATE TRIGGER trg_categories_product_listings
+  AFTER UPDATE OF name, slug ON categories
+  FOR EACH ROW
+  WHEN (OLD.name IS DISTINCT FROM NEW.name OR OLD.slug IS DISTINCT FROM NEW.slug)
+  EXECUTE FUNCTION trg_categories_to_product_listings();
+
+UPDATE product_listings pl
+SET category_name = c.name,
+    category_slug = c.slug,
+    refreshed_at = NOW()
+FROM categories c
+WHERE c.id = pl.category_id
+  AND (pl.category_name IS DISTINCT FROM c.name OR pl.category_slug IS DISTINCT FROM c.slug);
+
+COMMIT;
@@ -0,0 +1,79 @@
+package com.eshop.api.analytics.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that product views kept in the DEFAULT partition move into their month's partition
+ * when it is created, without being mirrored into the interaction events a second time.
+ */
+@SpringBootTest
+class AnalyticsDefaultPartitionTest {
+
+    // Far enough ahead that partition maintenance never creates it.
+    private static final String MONTH = "2090-01-01";
+    private static final String PARTITION = "product_views_p2090_01";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Integer categoryId;
+    private UUID productId;
+
+    @BeforeEach
+    void createProduct() {
+        String suffix = UUID.randomUUID().toString();
+        categoryId = jdbcTemplate.queryForObject(
+            "INSERT INTO categories (name, slug) VALUES (?, ?) RETURNING id",
+            Integer.class, "Partition " + suffix, "partition-" + suffix);
+        productId = jdbcTemplate.queryForObject(
+            "INSERT INTO products (name, slug, category_id, status) VALUES (?, ?, ?, 'draft') RETURNING id",
+            UUID.class, "Partition " + suffix, "partition-" + suffix, categoryId);
+    }
+
+    @AfterEach
+    void deleteProduct() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + PARTITION);
+        jdbcTemplate.update("DELETE FROM product_interaction_events WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM product_views WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+        jdbcTemplate.update("DELETE FROM categories WHERE id = ?", categoryId);
+    }
+
+    @Test
+    void ensureMonthPartition_movesDefaultRowsWithoutMirroringThemAgain() {
+        UUID viewId = UUID.randomUUID();
+        jdbcTemplate.update(
+            "INSERT INTO product_views (id, product_id, viewed_at) VALUES (?, ?, ?)",
+            viewId, productId, Timestamp.from(Instant.parse("2090-01-15T10:00:00Z")));
+        assertThat(countIn("product_views_default", viewId)).isEqualTo(1);
+        assertThat(viewEvents()).isEqualTo(1);
+
+        jdbcTemplate.queryForObject(
+            "SELECT analytics_ensure_month_partition('product_views', ?::date)", String.class, MONTH);
+
+        assertThat(countIn("product_views_default", viewId)).isZero();
+        assertThat(countIn(PARTITION, viewId)).isEqualTo(1);
+        assertThat(viewEvents()).isEqualTo(1);
+    }
+
+    private int countIn(String table, UUID viewId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE id = ?", Integer.class, viewId);
+    }
+
+    private int viewEvents() {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM product_interaction_events WHERE product_id = ? AND interaction_type = 'VIEW'",
+            Integer.class, productId);
+    }
+}
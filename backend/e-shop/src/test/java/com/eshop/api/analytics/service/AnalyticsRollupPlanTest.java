@@ -0,0 +1,61 @@
+package com.eshop.api.analytics.service;
+
+import com.eshop.api.analytics.service.AnalyticsRollupPlan.Segment;
+import com.eshop.api.analytics.service.AnalyticsRollupPlan.Source;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalyticsRollupPlanTest {
+
+    @Test
+    void of_usesDailyRowsForWholeDaysAndRawDataOnlyAtTheEdges() {
+        AnalyticsRollupPlan plan = AnalyticsRollupPlan.of(
+            Instant.parse("2025-01-01T10:30:00Z"),
+            Instant.parse("2025-01-05T12:15:00Z"),
+            Instant.parse("2025-01-05T09:00:00Z"),
+            ZoneOffset.UTC
+        );
+
+        assertThat(plan.segments()).containsExactly(
+            segment(Source.RAW, "2025-01-01T10:30:00Z", "2025-01-01T11:00:00Z"),
+            segment(Source.HOURLY, "2025-01-01T11:00:00Z", "2025-01-02T00:00:00Z"),
+            segment(Source.DAILY, "2025-01-02T00:00:00Z", "2025-01-05T00:00:00Z"),
+            segment(Source.HOURLY, "2025-01-05T00:00:00Z", "2025-01-05T09:00:00Z"),
+            segment(Source.RAW, "2025-01-05T09:00:00Z", "2025-01-05T12:15:00Z")
+        );
+    }
+
+    @Test
+    void of_readsEverythingRawWithoutUsableRollups() {
+        Instant from = Instant.parse("2025-01-01T10:30:00Z");
+        Instant to = Instant.parse("2025-01-05T12:15:00Z");
+
+        assertThat(AnalyticsRollupPlan.of(from, to, null, ZoneOffset.UTC).segments())
+            .containsExactly(new Segment(Source.RAW, from, to));
+        assertThat(AnalyticsRollupPlan.of(from, to, Instant.parse("2024-12-31T00:00:00Z"), ZoneOffset.UTC).segments())
+            .containsExactly(new Segment(Source.RAW, from, to));
+    }
+
+    @Test
+    void of_fallsBackToHourlyRowsWhenDaysDoNotStartOnTheHour() {
+        AnalyticsRollupPlan plan = AnalyticsRollupPlan.of(
+            Instant.parse("2025-01-01T00:00:00Z"),
+            Instant.parse("2025-01-10T00:00:00Z"),
+            Instant.parse("2025-01-10T00:00:00Z"),
+            ZoneId.of("Asia/Kolkata")
+        );
+
+        assertThat(plan.segments()).containsExactly(
+            segment(Source.HOURLY, "2025-01-01T00:00:00Z", "2025-01-10T00:00:00Z")
+        );
+    }
+
+    private static Segment segment(Source source, String from, String to) {
+        return new Segment(source, Instant.parse(from), Instant.parse(to));
+    }
+}
@@ -0,0 +1,94 @@
+package com.eshop.api.analytics.service;
+
+import com.eshop.api.analytics.config.ProductViewIngestionProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogIdCacheTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ProductViewIngestionProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ProductViewIngestionProperties();
+        // The snapshot load reads an empty catalog.
+        doNothing().when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void productExists_looksUpAMissingProductOnlyOnceWithinTheTtl() {
+        UUID productId = UUID.randomUUID();
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(productId))).thenReturn(false);
+        CatalogIdCache cache = new CatalogIdCache(jdbcTemplate, properties);
+
+        assertThat(cache.productExists(productId)).isFalse();
+        assertThat(cache.productExists(productId)).isFalse();
+
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Boolean.class), eq(productId));
+    }
+
+    @Test
+    void findProductIdOfVariant_looksUpAMissingVariantOnlyOnceWithinTheTtl() {
+        UUID variantId = UUID.randomUUID();
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(variantId))).thenReturn(List.of());
+        CatalogIdCache cache = new CatalogIdCache(jdbcTemplate, properties);
+
+        assertThat(cache.findProductIdOfVariant(variantId)).isEmpty();
+        assertThat(cache.findProductIdOfVariant(variantId)).isEmpty();
+
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), eq(variantId));
+    }
+
+    @Test
+    void productExists_looksUpAgainOnceTheMissingIdHasExpired() {
+        UUID productId = UUID.randomUUID();
+        properties.setMissingIdTtl(Duration.ZERO);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(productId))).thenReturn(false);
+        CatalogIdCache cache = new CatalogIdCache(jdbcTemplate, properties);
+
+        cache.productExists(productId);
+        cache.productExists(productId);
+
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Boolean.class), eq(productId));
+    }
+
+    @Test
+    void productExists_stopsRememberingMissingIdsBeyondTheLimit() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        properties.setMaxMissingIds(1);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(UUID.class))).thenReturn(false);
+        CatalogIdCache cache = new CatalogIdCache(jdbcTemplate, properties);
+
+        cache.productExists(first);
+        cache.productExists(second);
+        cache.productExists(first);
+        cache.productExists(second);
+
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Boolean.class), eq(first));
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Boolean.class), eq(second));
+    }
+}
@@ -0,0 +1,73 @@
+package com.eshop.api.cart.service;
+
+import com.eshop.api.cart.config.CartStockHoldProperties;
+import com.eshop.api.cart.repository.CartStockHoldRepository.Key;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartHoldExpiryWheelTest {
+
+    private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Test
+    void advance_reportsHoldsOnceTheirTickHasPassed() {
+        CartHoldExpiryWheel wheel = wheel(8, 100);
+        Key key = key();
+        wheel.schedule(key, START.plusMillis(2_500));
+
+        assertThat(wheel.advance(START.plusSeconds(2))).isEmpty();
+        assertThat(wheel.advance(START.plusSeconds(3))).containsExactly(key);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_keepsHoldsDueInALaterTurn() {
+        CartHoldExpiryWheel wheel = wheel(8, 100);
+        Key key = key();
+        wheel.schedule(key, START.plusSeconds(13));
+
+        assertThat(wheel.advance(START.plusSeconds(10))).isEmpty();
+        assertThat(wheel.advance(START.plusSeconds(14))).containsExactly(key);
+    }
+
+    @Test
+    void advance_usesTheLatestDeadlineAndSkipsCancelledHolds() {
+        CartHoldExpiryWheel wheel = wheel(8, 100);
+        Key extended = key();
+        Key cancelled = key();
+        wheel.schedule(extended, START.plusSeconds(1));
+        wheel.schedule(extended, START.plusSeconds(4));
+        wheel.schedule(cancelled, START.plusSeconds(1));
+        wheel.cancel(cancelled);
+
+        assertThat(wheel.advance(START.plusSeconds(3))).isEmpty();
+        assertThat(wheel.advance(START.plusSeconds(5))).containsExactly(extended);
+    }
+
+    @Test
+    void schedule_refusesNewHoldsWhenFull() {
+        CartHoldExpiryWheel wheel = wheel(8, 1);
+        Key first = key();
+
+        assertThat(wheel.schedule(first, START.plusSeconds(1))).isTrue();
+        assertThat(wheel.schedule(key(), START.plusSeconds(1))).isFalse();
+        assertThat(wheel.schedule(first, START.plusSeconds(2))).isTrue();
+    }
+
+    private static CartHoldExpiryWheel wheel(int wheelSize, int capacity) {
+        CartStockHoldProperties properties = new CartStockHoldProperties();
+        properties.setTick(Duration.ofSeconds(1));
+        properties.setWheelSize(wheelSize);
+        properties.setCapacity(capacity);
+        return new CartHoldExpiryWheel(properties);
+    }
+
+    private static Key key() {
+        return new Key(UUID.randomUUID(), UUID.randomUUID());
+    }
+}
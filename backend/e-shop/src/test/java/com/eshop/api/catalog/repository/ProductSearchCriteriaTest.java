@@ -0,0 +1,29 @@
+package com.eshop.api.catalog.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchCriteriaTest {
+
+    @Test
+    void toPrefixQuery_requiresAllWordsAndPrefixMatchesTheLast() {
+        assertThat(ProductSearchCriteria.toPrefixQuery("  Denim Jac ")).isEqualTo("denim & jac:*");
+    }
+
+    @Test
+    void toPrefixQuery_keepsDiacriticsForDatabaseFolding() {
+        assertThat(ProductSearchCriteria.toPrefixQuery("Áo khoác")).isEqualTo("áo & khoác:*");
+    }
+
+    @Test
+    void toPrefixQuery_dropsTsQueryOperators() {
+        assertThat(ProductSearchCriteria.toPrefixQuery("tee & !(polo) | 'x':*")).isEqualTo("tee & polo & x:*");
+    }
+
+    @Test
+    void toPrefixQuery_returnsNullWithoutSearchableWords() {
+        assertThat(ProductSearchCriteria.toPrefixQuery("-- !!")).isNull();
+        assertThat(ProductSearchCriteria.toPrefixQuery(null)).isNull();
+    }
+}
@@ -0,0 +1,46 @@
+package com.eshop.api.catalog.service;
+
+import com.eshop.api.catalog.dto.CategoryResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryTreeTest {
+
+    private final CategoryTree tree = new CategoryTree(List.of(
+        category(1, "men", null, 0),
+        category(2, "women", null, 1),
+        category(3, "men-tops", 1, 0),
+        category(4, "women-tops", 2, 0),
+        category(5, "men-tees", 3, 0),
+        category(6, "men-bottoms", 1, 1)
+    ));
+
+    @Test
+    void descendantIds_includeTheCategoryAndEveryLevelBelowIt() {
+        assertThat(tree.descendantIds("men")).hasValueSatisfying(ids ->
+            assertThat(ids).containsExactlyInAnyOrder(1, 3, 5, 6));
+        assertThat(tree.descendantIds("men-tees")).contains(List.of(5));
+        assertThat(tree.descendantIds("unknown")).isEmpty();
+    }
+
+    @Test
+    void commonCategories_areSecondLevelOrderedByParentDisplayOrder() {
+        assertThat(tree.commonCategories())
+            .extracting(CategoryResponse::getSlug)
+            .containsExactly("men-tops", "men-bottoms", "women-tops");
+    }
+
+    private static CategoryResponse category(int id, String slug, Integer parentId, int displayOrder) {
+        return CategoryResponse.builder()
+            .id(id)
+            .name(slug)
+            .slug(slug)
+            .displayOrder(displayOrder)
+            .active(true)
+            .parentCategoryId(parentId)
+            .build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.eshop.api.order.service;
+
+import com.eshop.api.order.config.CheckoutIdempotencyProperties;
+import com.eshop.api.order.dto.CheckoutRequest;
+import com.eshop.api.order.dto.CheckoutResponse;
+import com.eshop.api.order.exception.CartEmptyException;
+import com.eshop.api.order.exception.CheckoutInProgressException;
+import com.eshop.api.order.exception.IdempotencyKeyReusedException;
+import com.eshop.api.order.repository.CheckoutIdempotencyRepository;
+import com.eshop.api.order.repository.CheckoutIdempotencyRepository.KeyRecord;
+import com.eshop.api.scheduling.service.ClusterJobCoordinator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutIdempotencyServiceTest {
+
+    private static final String EMAIL = "Buyer@Example.com";
+    private static final String PRINCIPAL = "buyer@example.com";
+    private static final String KEY = "key-1";
+    private static final String CLIENT_IP = "127.0.0.1";
+
+    @Mock
+    private OrderCheckoutService orderCheckoutService;
+
+    @Mock
+    private CheckoutIdempotencyRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ClusterJobCoordinator jobCoordinator;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private CheckoutIdempotencyProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CheckoutIdempotencyProperties();
+        // Every call goes to the repository, as it would on another instance.
+        properties.setCacheSize(0);
+    }
+
+    @Test
+    void checkout_replaysTheStoredResponseWithoutPlacingAnotherOrder() {
+        CheckoutRequest request = request("leave at the door");
+        CheckoutResponse placed = response();
+        when(repository.claim(eq(PRINCIPAL), eq(KEY), anyString(), any(UUID.class), any(Instant.class))).thenReturn(true);
+        when(orderCheckoutService.checkout(EMAIL, request, CLIENT_IP)).thenReturn(placed);
+        when(repository.complete(eq(PRINCIPAL), eq(KEY), any(UUID.class), eq(placed.getOrderId()), anyString())).thenReturn(true);
+        service().checkout(EMAIL, KEY, request, CLIENT_IP);
+
+        ArgumentCaptor<String> requestHash = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> storedResponse = ArgumentCaptor.forClass(String.class);
+        verify(repository).claim(eq(PRINCIPAL), eq(KEY), requestHash.capture(), any(UUID.class), any(Instant.class));
+        verify(repository).complete(eq(PRINCIPAL), eq(KEY), any(UUID.class), eq(placed.getOrderId()), storedResponse.capture());
+        when(repository.claim(eq(PRINCIPAL), eq(KEY), anyString(), any(UUID.class), any(Instant.class))).thenReturn(false);
+        when(repository.find(PRINCIPAL, KEY))
+            .thenReturn(Optional.of(new KeyRecord(requestHash.getValue(), storedResponse.getValue())));
+
+        CheckoutResponse replayed = service().checkout(EMAIL, KEY, request("leave at the door"), CLIENT_IP);
+
+        assertThat(replayed.getOrderId()).isEqualTo(placed.getOrderId());
+        assertThat(replayed.getOrderNumber()).isEqualTo(placed.getOrderNumber());
+        assertThat(replayed.getPaymentUrlExpiresAt()).isEqualTo(placed.getPaymentUrlExpiresAt());
+        verify(orderCheckoutService, times(1)).checkout(any(), any(), any());
+    }
+
+    @Test
+    void checkout_rejectsAKeyReusedForADifferentBodyWith422() {
+        when(repository.claim(eq(PRINCIPAL), eq(KEY), anyString(), any(UUID.class), any(Instant.class))).thenReturn(false);
+        when(repository.find(PRINCIPAL, KEY)).thenReturn(Optional.of(new KeyRecord("hash-of-another-body", "{}")));
+
+        assertThatThrownBy(() -> service().checkout(EMAIL, KEY, request("ring twice"), CLIENT_IP))
+            .isInstanceOf(IdempotencyKeyReusedException.class)
+            .satisfies(ex -> assertThat(((IdempotencyKeyReusedException) ex).getStatusCode()).isEqualTo(422));
+
+        verify(orderCheckoutService, never()).checkout(any(), any(), any());
+        verify(repository, never()).takeOver(any(), any(), any(), any());
+    }
+
+    @Test
+    void checkout_answers409WhileAnotherInstanceHoldsALiveClaim() {
+        CheckoutIdempotencyService service = service();
+        ArgumentCaptor<String> requestHash = ArgumentCaptor.forClass(String.class);
+        when(repository.claim(eq(PRINCIPAL), eq(KEY), requestHash.capture(), any(UUID.class), any(Instant.class))).thenReturn(false);
+        when(repository.find(PRINCIPAL, KEY)).thenAnswer(invocation -> Optional.of(new KeyRecord(requestHash.getValue(), null)));
+        when(repository.takeOver(eq(PRINCIPAL), eq(KEY), any(UUID.class), any(Instant.class))).thenReturn(false);
+
+        assertThatThrownBy(() -> service.checkout(EMAIL, KEY, request(null), CLIENT_IP))
+            .isInstanceOf(CheckoutInProgressException.class);
+
+        verify(orderCheckoutService, never()).checkout(any(), any(), any());
+    }
+
+    @Test
+    void checkout_releasesTheClaimWhenTheCheckoutFails() {
+        CheckoutRequest request = request(null);
+        when(repository.claim(eq(PRINCIPAL), eq(KEY), anyString(), any(UUID.class), any(Instant.class))).thenReturn(true);
+        when(orderCheckoutService.checkout(EMAIL, request, CLIENT_IP)).thenThrow(new CartEmptyException());
+
+        assertThatThrownBy(() -> service().checkout(EMAIL, KEY, request, CLIENT_IP))
+            .isInstanceOf(CartEmptyException.class);
+
+        ArgumentCaptor<UUID> claimToken = ArgumentCaptor.forClass(UUID.class);
+        verify(repository).claim(eq(PRINCIPAL), eq(KEY), anyString(), claimToken.capture(), any(Instant.class));
+        verify(repository).release(PRINCIPAL, KEY, claimToken.getValue());
+        verify(repository, never()).complete(any(), any(), any(), any(), any());
+    }
+
+    private CheckoutIdempotencyService service() {
+        return new CheckoutIdempotencyService(
+            orderCheckoutService, repository, properties, objectMapper, transactionManager, jobCoordinator);
+    }
+
+    private static CheckoutRequest request(String notes) {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setAddressId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        request.setNotes(notes);
+        return request;
+    }
+
+    private static CheckoutResponse response() {
+        return CheckoutResponse.builder()
+            .orderId(UUID.randomUUID())
+            .orderNumber("ORD-1")
+            .currency("USD")
+            .paymentUrlExpiresAt(Instant.parse("2026-01-01T00:15:00Z"))
+            .build();
+    }
+}
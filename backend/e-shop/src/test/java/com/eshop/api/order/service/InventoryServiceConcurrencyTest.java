@@ -0,0 +1,165 @@
+package com.eshop.api.order.service;
+
+import com.eshop.api.cart.model.CartItem;
+import com.eshop.api.catalog.model.ProductVariant;
+import com.eshop.api.catalog.repository.ProductVariantStockWriter;
+import com.eshop.api.exception.InsufficientInventoryException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers {@link InventoryService#reserveCartItems} from many threads against a real database
+ * and checks that stock is never oversold, also when it is split into shards, and that opposite
+ * line orders never deadlock.
+ */
+@SpringBootTest
+class InventoryServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 10;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductVariantStockWriter productVariantStockWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Integer categoryId;
+    private UUID productId;
+    private int variantCount;
+
+    @BeforeEach
+    void createProduct() {
+        String suffix = UUID.randomUUID().toString();
+        categoryId = jdbcTemplate.queryForObject(
+            "INSERT INTO categories (name, slug) VALUES (?, ?) RETURNING id",
+            Integer.class, "Stress " + suffix, "stress-" + suffix);
+        productId = jdbcTemplate.queryForObject(
+            "INSERT INTO products (name, slug, category_id, status) VALUES (?, ?, ?, 'draft') RETURNING id",
+            UUID.class, "Stress " + suffix, "stress-" + suffix, categoryId);
+    }
+
+    @AfterEach
+    void deleteProduct() {
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+        jdbcTemplate.update("DELETE FROM categories WHERE id = ?", categoryId);
+    }
+
+    @Test
+    void reserveCartItems_neverOversellsUnderConcurrentCheckouts() throws Exception {
+        int stock = 100;
+        UUID variantId = createVariant(stock);
+
+        Outcome outcome = runConcurrently(attempt -> List.of(cartItem(variantId)));
+
+        assertThat(outcome.failures()).isEmpty();
+        assertThat(outcome.reserved().get()).isEqualTo(stock);
+        assertThat(outcome.rejected().get()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD - stock);
+        assertThat(quantityInStock(variantId)).isZero();
+    }
+
+    @Test
+    void reserveCartItems_doesNotDeadlockWhenCartsListVariantsInOppositeOrder() throws Exception {
+        int stock = 50;
+        UUID first = createVariant(stock);
+        UUID second = createVariant(stock);
+
+        Outcome outcome = runConcurrently(attempt -> attempt % 2 == 0
+            ? List.of(cartItem(first), cartItem(second))
+            : List.of(cartItem(second), cartItem(first)));
+
+        assertThat(outcome.failures()).isEmpty();
+        assertThat(outcome.reserved().get()).isEqualTo(stock);
+        assertThat(quantityInStock(first)).isZero();
+        assertThat(quantityInStock(second)).isZero();
+    }
+
+    @Test
+    void reserveCartItems_neverOversellsAShardedVariant() throws Exception {
+        int stock = 100;
+        UUID variantId = createVariant(stock);
+        productVariantStockWriter.reshard(productId, variantId, 8);
+
+        Outcome outcome = runConcurrently(attempt -> List.of(cartItem(variantId)));
+
+        assertThat(outcome.failures()).isEmpty();
+        assertThat(outcome.reserved().get()).isEqualTo(stock);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT SUM(quantity) FROM product_variant_stock_shards WHERE variant_id = ?", Integer.class, variantId))
+            .isZero();
+        assertThat(quantityInStock(variantId)).isZero();
+    }
+
+    private Outcome runConcurrently(IntFunction<List<CartItem>> cartForAttempt) throws InterruptedException {
+        Outcome outcome = new Outcome(new AtomicInteger(), new AtomicInteger(), new ConcurrentLinkedQueue<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                int offset = thread * ATTEMPTS_PER_THREAD;
+                executor.submit(() -> {
+                    start.await();
+                    for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                        try {
+                            inventoryService.reserveCartItems(cartForAttempt.apply(offset + attempt));
+                            outcome.reserved().incrementAndGet();
+                        } catch (InsufficientInventoryException ex) {
+                            outcome.rejected().incrementAndGet();
+                        } catch (RuntimeException ex) {
+                            outcome.failures().add(ex);
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        return outcome;
+    }
+
+    private UUID createVariant(int quantity) {
+        // (product_id, size, color_id) is unique with NULLS NOT DISTINCT, so each variant of the
+        // product needs its own size.
+        variantCount++;
+        return jdbcTemplate.queryForObject(
+            "INSERT INTO product_variants (product_id, price, quantity_in_stock, size) VALUES (?, 10.00, ?, ?) RETURNING id",
+            UUID.class, productId, quantity, "S" + variantCount);
+    }
+
+    private int quantityInStock(UUID variantId) {
+        return jdbcTemplate.queryForObject(
+            "SELECT quantity_in_stock FROM product_variants WHERE id = ?", Integer.class, variantId);
+    }
+
+    private static CartItem cartItem(UUID variantId) {
+        return CartItem.builder()
+            .variant(ProductVariant.builder().id(variantId).build())
+            .quantity(1)
+            .build();
+    }
+
+    private record Outcome(AtomicInteger reserved, AtomicInteger rejected, ConcurrentLinkedQueue<Throwable> failures) {
+    }
+}
@@ -0,0 +1,241 @@
+package com.eshop.api.order.service;
+
+import com.eshop.api.order.dto.CheckoutAddressRequest;
+import com.eshop.api.order.dto.CheckoutRequest;
+import com.eshop.api.payment.dto.VnPayInitResponse;
+import com.eshop.api.payment.service.VnPayPaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counts the statements {@link OrderCheckoutService#checkout} actually sends to the database to
+ * persist an order, by wrapping the application's {@link DataSource}: each
+ * {@code execute*} call, including {@code executeBatch}, is one round trip. The counts are logged
+ * per cart size, and the round trips writing the order tables must not grow with the number of
+ * items. Each checkout runs in a transaction that is rolled back.
+ */
+@SpringBootTest
+class OrderCheckoutStatementCountTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderCheckoutStatementCountTest.class);
+
+    private static final int MAX_ITEMS = 20;
+
+    private static final Pattern ORDER_WRITE = Pattern.compile(
+        "^\\s*(insert\\s+into|update)\\s+(orders|order_addresses|order_items|order_status_history|payment_transactions)\\b");
+
+    @Autowired
+    private OrderCheckoutService orderCheckoutService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private VnPayPaymentService vnPayPaymentService;
+
+    private String email;
+    private UUID userId;
+    private Integer categoryId;
+    private UUID productId;
+    private final List<UUID> variantIds = new ArrayList<>();
+
+    @BeforeEach
+    void createCustomer() {
+        String suffix = UUID.randomUUID().toString();
+        email = "checkout-" + suffix + "@example.com";
+        userId = jdbcTemplate.queryForObject(
+            "INSERT INTO users (email, password_hash) VALUES (?, 'x') RETURNING id", UUID.class, email);
+        categoryId = jdbcTemplate.queryForObject(
+            "INSERT INTO categories (name, slug) VALUES (?, ?) RETURNING id",
+            Integer.class, "Checkout " + suffix, "checkout-" + suffix);
+        productId = jdbcTemplate.queryForObject(
+            "INSERT INTO products (name, slug, category_id, status) VALUES (?, ?, ?, 'draft') RETURNING id",
+            UUID.class, "Checkout " + suffix, "checkout-" + suffix, categoryId);
+        for (int variant = 0; variant < MAX_ITEMS; variant++) {
+            variantIds.add(jdbcTemplate.queryForObject(
+                "INSERT INTO product_variants (product_id, price, quantity_in_stock, size) VALUES (?, 10.00, 100, ?) RETURNING id",
+                UUID.class, productId, "S" + variant));
+        }
+
+        when(vnPayPaymentService.createPaymentUrl(any(), any(), any())).thenReturn(VnPayInitResponse.builder()
+            .paymentUrl("https://payment.invalid")
+            .expiresAt(Instant.now())
+            .amountVnd(BigDecimal.ZERO)
+            .build());
+    }
+
+    @AfterEach
+    void deleteCustomer() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+        jdbcTemplate.update("DELETE FROM categories WHERE id = ?", categoryId);
+    }
+
+    @Test
+    void checkout_writesTheOrderInAFixedNumberOfRoundTrips() {
+        fillCart(MAX_ITEMS);
+        List<String> many = checkoutStatements();
+
+        jdbcTemplate.update("DELETE FROM carts WHERE user_id = ?", userId);
+        fillCart(1);
+        List<String> one = checkoutStatements();
+
+        log.info("Checkout with 1 item: {} statements, {} writing the order: {}",
+            one.size(), orderWrites(one).size(), orderWrites(one));
+        log.info("Checkout with {} items: {} statements, {} writing the order: {}",
+            MAX_ITEMS, many.size(), orderWrites(many).size(), orderWrites(many));
+
+        assertThat(orderWrites(one)).isNotEmpty();
+        assertThat(orderWrites(many)).hasSameSizeAs(orderWrites(one));
+    }
+
+    private List<String> checkoutStatements() {
+        List<String> statements;
+        StatementRecorder.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                orderCheckoutService.checkout(email, checkoutRequest(), "127.0.0.1");
+                status.setRollbackOnly();
+            });
+        } finally {
+            statements = StatementRecorder.stop();
+        }
+        return statements;
+    }
+
+    private void fillCart(int items) {
+        UUID cartId = jdbcTemplate.queryForObject(
+            "INSERT INTO carts (user_id) VALUES (?) RETURNING id", UUID.class, userId);
+        for (UUID variantId : variantIds.subList(0, items)) {
+            jdbcTemplate.update("INSERT INTO cart_items (cart_id, variant_id, quantity) VALUES (?, ?, 1)", cartId, variantId);
+        }
+    }
+
+    private static CheckoutRequest checkoutRequest() {
+        CheckoutAddressRequest address = new CheckoutAddressRequest();
+        address.setRecipientName("Checkout Recipient");
+        address.setLine1("1 Checkout Street");
+        address.setCity("Hanoi");
+        address.setCountryCode("VN");
+
+        CheckoutRequest request = new CheckoutRequest();
+        request.setAddress(address);
+        return request;
+    }
+
+    private static List<String> orderWrites(List<String> statements) {
+        return statements.stream()
+            .filter(sql -> ORDER_WRITE.matcher(sql.toLowerCase(Locale.ROOT)).find())
+            .toList();
+    }
+
+    @TestConfiguration
+    static class StatementCounting {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? StatementRecorder.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Records the SQL of every statement executed on the test thread while recording is on.
+     */
+    private static final class StatementRecorder {
+
+        private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+        static void start() {
+            RECORDED.set(new ArrayList<>());
+        }
+
+        static List<String> stop() {
+            List<String> recorded = RECORDED.get();
+            RECORDED.remove();
+            return recorded == null ? List.of() : List.copyOf(recorded);
+        }
+
+        static DataSource wrap(DataSource target) {
+            return proxy(DataSource.class, target, (proxy, method, args) -> {
+                Object result = invoke(target, method, args);
+                return result instanceof Connection connection ? wrap(connection) : result;
+            });
+        }
+
+        private static Connection wrap(Connection target) {
+            return proxy(Connection.class, target, (proxy, method, args) -> {
+                Object result = invoke(target, method, args);
+                if (result instanceof PreparedStatement statement && args != null && args[0] instanceof String sql) {
+                    return wrap(PreparedStatement.class, statement, sql);
+                }
+                if (result instanceof Statement statement) {
+                    return wrap(Statement.class, statement, null);
+                }
+                return result;
+            });
+        }
+
+        private static <T extends Statement> T wrap(Class<T> type, T target, String preparedSql) {
+            return proxy(type, target, (proxy, method, args) -> {
+                List<String> recorded = RECORDED.get();
+                if (recorded != null && method.getName().startsWith("execute")) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                    recorded.add(sql == null ? "<batch>" : sql);
+                }
+                return invoke(target, method, args);
+            });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.eshop.api.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientAddressesTest {
+
+    @Test
+    void resolve_ignoresAForwardedForHeaderSentByTheClient() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("X-Forwarded-For", "198.51.100.23");
+
+        assertThat(ClientAddresses.resolve(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void resolve_keysEverySpoofedHeaderToTheSameAddress() {
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        first.setRemoteAddr("203.0.113.7");
+        first.addHeader("X-Forwarded-For", "198.51.100.1");
+        MockHttpServletRequest second = new MockHttpServletRequest();
+        second.setRemoteAddr("203.0.113.7");
+        second.addHeader("X-Forwarded-For", "198.51.100.2, 10.0.0.1");
+
+        assertThat(ClientAddresses.resolve(first)).isEqualTo(ClientAddresses.resolve(second));
+    }
+}
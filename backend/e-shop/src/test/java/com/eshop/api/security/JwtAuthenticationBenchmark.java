@@ -0,0 +1,113 @@
+package com.eshop.api.security;
+
+import com.eshop.api.config.AppEnv;
+import com.eshop.api.user.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token in {@link JwtFilter}:
+ * <ul>
+ *   <li>{@code previousPath}: the former filter, which built a key and parser and verified the
+ *   token twice per request;</li>
+ *   <li>{@code singleParse}: {@link JwtService#authenticate(String)} with the cache disabled;</li>
+ *   <li>{@code cached}: {@link JwtService#authenticate(String)} for a token seen before.</li>
+ * </ul>
+ * Run with {@code mvn test-compile} and then the {@link #main(String[])} method, or
+ * {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main JwtAuthenticationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private JwtService uncachedService;
+    private JwtService cachedService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncachedService = new JwtService(appEnv(0), new SimpleMeterRegistry());
+        cachedService = new JwtService(appEnv(10_000), new SimpleMeterRegistry());
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .email("customer@example.com")
+                .build();
+        token = cachedService.generateAccessToken(user, List.of("CUSTOMER"), UUID.randomUUID());
+        cachedService.authenticate(token);
+    }
+
+    @Benchmark
+    public Object previousPath() {
+        Claims validated = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        if (!uncachedService.isAccessToken(validated) || validated.getExpiration().before(new Date())) {
+            throw new IllegalStateException("Benchmark token rejected");
+        }
+        Claims claims = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        return uncachedService.getUserRoles(claims).stream()
+                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+    }
+
+    @Benchmark
+    public JwtPrincipal singleParse() {
+        return uncachedService.authenticate(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal cached() {
+        return cachedService.authenticate(token);
+    }
+
+    private static AppEnv appEnv(int tokenCacheSize) {
+        AppEnv.Jwt jwt = new AppEnv.Jwt();
+        jwt.setSecret(SECRET);
+        jwt.setAccessExpirationSeconds(3600);
+        jwt.setRefreshExpirationSeconds(86400);
+        jwt.setTokenCacheSize(tokenCacheSize);
+        AppEnv appEnv = new AppEnv();
+        appEnv.setJwt(jwt);
+        return appEnv;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.eshop.api.security;
+
+import com.eshop.api.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    private final SlowPasswordEncoder encoder = new SlowPasswordEncoder();
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void shutdown() {
+        encoder.release.countDown();
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void matches_waitsForAHashThatStartedBeforeTheDeadline() {
+        hasher = hasher(Duration.ofMillis(50));
+        CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS).execute(encoder.release::countDown);
+
+        assertThat(hasher.matches("secret", "secret")).isTrue();
+        assertThat(encoder.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void matches_refusesAHashStillQueuedAtTheDeadlineAndNeverRunsIt() throws Exception {
+        hasher = hasher(Duration.ofMillis(50));
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> hasher.matches("first", "first"));
+        assertThat(encoder.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> hasher.matches("second", "second"))
+            .isInstanceOf(PasswordHashingUnavailableException.class);
+
+        encoder.release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        // The single thread runs hashes in order, so a leftover second hash would run before this one.
+        assertThat(hasher.matches("third", "third")).isTrue();
+        assertThat(encoder.calls.get()).isEqualTo(2);
+    }
+
+    private PasswordHasher hasher(Duration queueDeadline) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(1);
+        properties.setQueueCapacity(4);
+        properties.setQueueDeadline(queueDeadline);
+        return new PasswordHasher(encoder, properties, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Blocks every hash until released, standing in for a BCrypt round slower than the deadline.
+     */
+    private static final class SlowPasswordEncoder implements PasswordEncoder {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return rawPassword.toString().equals(encodedPassword);
+        }
+
+        private void await() {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.eshop.api.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevocationBloomFilterTest {
+
+    @Test
+    void mightContain_reportsEveryPutId() {
+        RevocationBloomFilter filter = RevocationBloomFilter.create(1_000, 0.01);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            filter.put(id);
+        }
+
+        assertThat(ids).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void mightContain_staysNearTheConfiguredFalsePositiveRate() {
+        RevocationBloomFilter filter = RevocationBloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID());
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+    }
+
+    @Test
+    void create_sizesBitsAndHashesForTheRate() {
+        RevocationBloomFilter filter = RevocationBloomFilter.create(100_000, 0.01);
+
+        assertThat(filter.bitCount()).isBetween(958_000L, 960_000L);
+        assertThat(filter.hashCount()).isEqualTo(7);
+    }
+
+    @Test
+    void mightContain_isFalseForAnEmptyFilter() {
+        RevocationBloomFilter filter = RevocationBloomFilter.create(100, 0.01);
+
+        assertThat(filter.mightContain(UUID.randomUUID())).isFalse();
+    }
+}
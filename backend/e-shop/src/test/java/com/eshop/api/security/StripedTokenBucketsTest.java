@@ -0,0 +1,100 @@
+package com.eshop.api.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedTokenBucketsTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void tryConsume_allowsABurstUpToCapacity() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(4, 100, 3, Duration.ofSeconds(10), 0);
+
+        assertThat(buckets.tryConsume("10.0.0.1", 0)).isZero();
+        assertThat(buckets.tryConsume("10.0.0.1", 0)).isZero();
+        assertThat(buckets.tryConsume("10.0.0.1", 0)).isZero();
+        assertThat(buckets.tryConsume("10.0.0.1", 0)).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void tryConsume_refillsOneTokenPerInterval() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(4, 100, 1, Duration.ofSeconds(10), 0);
+
+        assertThat(buckets.tryConsume("user@example.com", 0)).isZero();
+        assertThat(buckets.tryConsume("user@example.com", 4 * SECOND)).isEqualTo(Duration.ofSeconds(6));
+        assertThat(buckets.tryConsume("user@example.com", 10 * SECOND)).isZero();
+        assertThat(buckets.tryConsume("user@example.com", 11 * SECOND)).isEqualTo(Duration.ofSeconds(9));
+    }
+
+    @Test
+    void tryConsume_keepsBucketsOfDifferentKeysApart() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(1, 100, 1, Duration.ofMinutes(1), 0);
+
+        assertThat(buckets.tryConsume("a", 0)).isZero();
+        assertThat(buckets.tryConsume("b", 0)).isZero();
+        assertThat(buckets.tryConsume("a", 0)).isPositive();
+    }
+
+    @Test
+    void tryConsume_dropsIdleBucketsWhenAStripeIsFull() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(1, 2, 1, Duration.ofSeconds(10), 0);
+
+        buckets.tryConsume("a", 0);
+        buckets.tryConsume("b", 5 * SECOND);
+        buckets.tryConsume("c", 12 * SECOND);
+
+        assertThat(buckets.size()).isEqualTo(2);
+        assertThat(buckets.tryConsume("b", 12 * SECOND)).isEqualTo(Duration.ofSeconds(3));
+    }
+
+    @Test
+    void tryConsume_staysBoundedUnderAFloodOfKeys() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(4, 100, 1, Duration.ofMinutes(1), 0);
+
+        for (int i = 0; i < 10_000; i++) {
+            buckets.tryConsume("10.0." + (i / 256) + "." + (i % 256), 0);
+        }
+
+        assertThat(buckets.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void tryConsume_keepsTheLimitOfKnownKeysDuringAFlood() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(1, 10, 1, Duration.ofMinutes(1), 0);
+        buckets.tryConsume("victim", 0);
+
+        for (int i = 0; i < 1_000; i++) {
+            buckets.tryConsume("flood-" + i, SECOND);
+        }
+
+        assertThat(buckets.tryConsume("victim", 2 * SECOND)).isEqualTo(Duration.ofSeconds(58));
+    }
+
+    @Test
+    void tryConsume_makesKeysBeyondAFullStripeShareOneBucket() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(1, 1, 1, Duration.ofMinutes(1), 0);
+        buckets.tryConsume("tracked", 0);
+
+        assertThat(buckets.tryConsume("first", 0)).isZero();
+        assertThat(buckets.tryConsume("second", 0)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(buckets.size()).isEqualTo(1);
+    }
+
+    @Test
+    void evictIdle_dropsOnlyFullyRefilledBuckets() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(4, 100, 2, Duration.ofSeconds(10), 0);
+
+        buckets.tryConsume("a", 0);
+        buckets.tryConsume("b", 0);
+        buckets.tryConsume("b", 0);
+
+        assertThat(buckets.evictIdle(10 * SECOND)).isEqualTo(1);
+        assertThat(buckets.size()).isEqualTo(1);
+        assertThat(buckets.tryConsume("b", 10 * SECOND)).isZero();
+        assertThat(buckets.tryConsume("b", 10 * SECOND)).isEqualTo(Duration.ofSeconds(10));
+    }
+}